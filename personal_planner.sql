@@ -266,4 +266,47 @@ CREATE TABLE IF NOT EXISTS `conflit_archive` (
   PRIMARY KEY (`id_conflit`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- --------------------------------------------------------
+
+--
+-- Agrégats hebdomadaires (une ligne par utilisateur et par semaine ISO,
+-- identifiée par son lundi), tenus à jour par l'application
+--
+
+CREATE TABLE IF NOT EXISTS `statistique_hebdo` (
+  `id_utilisateur` int(11) NOT NULL,
+  `debut_semaine` date NOT NULL,
+  `heures_sport` decimal(6,2) NOT NULL DEFAULT 0,
+  `heures_etude` decimal(6,2) NOT NULL DEFAULT 0,
+  `heures_loisirs` decimal(6,2) NOT NULL DEFAULT 0,
+  `heures_repos` decimal(6,2) NOT NULL DEFAULT 0,
+  `heures_travail` decimal(6,2) NOT NULL DEFAULT 0,
+  `nombre_activites` int(11) NOT NULL DEFAULT 0,
+  `heures_consecutives_max` decimal(6,2) NOT NULL DEFAULT 0,
+  `score_fatigue` decimal(5,2) NOT NULL DEFAULT 0,
+  `date_maj` timestamp NOT NULL DEFAULT current_timestamp() ON UPDATE current_timestamp(),
+  PRIMARY KEY (`id_utilisateur`, `debut_semaine`),
+  FOREIGN KEY (`id_utilisateur`) REFERENCES `utilisateur` (`id_utilisateur`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- --------------------------------------------------------
+
+--
+-- Index de pagination par clé : les listes sont lues dans l'ordre
+-- (horaire décroissant, identifiant décroissant) en reprenant après la
+-- dernière ligne de la page précédente
+--
+
+ALTER TABLE `activite`
+  ADD KEY `idx_activite_utilisateur_horaire` (`id_utilisateur`, `horaire_debut`, `id_activite`),
+  ADD KEY `idx_activite_horaire` (`horaire_debut`, `id_activite`);
+
+ALTER TABLE `conflit`
+  ADD KEY `idx_conflit_detection` (`horaire_detection`, `id_conflit`);
+
+-- Conflits d'un utilisateur : de ses activités vers leurs conflits, sans
+-- parcourir l'historique des autres utilisateurs
+ALTER TABLE `conflit_activite`
+  ADD KEY `idx_conflit_activite_activite` (`id_activite`, `id_conflit`);
+
 COMMIT;
\ No newline at end of file
@@ -2,15 +2,23 @@ import com.sun.net.httpserver.*;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 
+import config.Connect;
+import config.ConnectionPool;
+import config.ExecuteurHttp;
+import config.LimiteTravauxDb;
 import controller.*;
+import util.Histogramme;
+import util.Journal;
+import util.Metriques;
 import javax.servlet.*;
 import javax.servlet.http.*;
 import java.io.*;
 import java.net.*;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.*;
-import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Serveur HTTP Embarqué qui charge vos vrais Controllers
@@ -21,17 +29,35 @@ public class EmbeddedServer {
     private static final int PORT = 8085;
     private static final String WEBAPP_DIR = "src/webapp/view";
     private static final Gson gson = new Gson();
+    private static final Journal journal = Journal.pour(EmbeddedServer.class);
 
-    // Map des controllers
-    private static final Map<String, HttpServlet> controllers = new HashMap<>();
+    // Controllers par préfixe, avec leurs méthodes résolues au démarrage
+    private static final Aiguillage aiguillage = new Aiguillage();
+
+    // Requêtes API travaillant en même temps sur la base (503 au-delà)
+    private static final LimiteTravauxDb limiteDb = LimiteTravauxDb.getInstance();
+
+    // Durée de toutes les requêtes API et réponses par classe de statut (1xx..5xx)
+    private static final Histogramme dureeApi = Metriques.histogramme("planner_api_duree_secondes",
+            "Durée des requêtes API, de la réception à la fin de la réponse");
+    private static final LongAdder[] reponsesApi = new LongAdder[6];
+
+    static {
+        for (int classe = 1; classe < reponsesApi.length; classe++) {
+            reponsesApi[classe] = Metriques.compteur("planner_api_reponses_total", "Réponses API par classe de statut",
+                    "classe", classe + "xx");
+        }
+    }
 
     public static void main(String[] args) throws Exception {
         // Initialiser les controllers
         initControllers();
+        initMetriques();
 
         // Créer le serveur HTTP
         HttpServer server = HttpServer.create(new InetSocketAddress(PORT), 0);
-        server.setExecutor(Executors.newFixedThreadPool(10));
+        // Threads virtuels ou pool borné selon planner.http.executeur
+        server.setExecutor(ExecuteurHttp.creer());
 
         // Route API
         server.createContext("/api/", EmbeddedServer::handleApi);
@@ -44,6 +70,8 @@ public class EmbeddedServer {
         System.out.println("╔═══════════════════════════════════════════════════════════╗");
         System.out.println("║  🚀 Serveur démarré avec succès !                        ║");
         System.out.println("╠═══════════════════════════════════════════════════════════╣");
+        System.out.println("║  ⚙️  Exécuteur: " + System.getProperty("planner.http.executeur", "virtuel")
+                + ", travaux DB simultanés: " + limiteDb.getTailleMax());
         System.out.println("║  📡 API Backend:  http://localhost:" + PORT + "/api/              ║");
         System.out.println("║  🌐 Frontend:     http://localhost:" + PORT + "/                  ║");
         System.out.println("╠═══════════════════════════════════════════════════════════╣");
@@ -54,6 +82,8 @@ public class EmbeddedServer {
         System.out.println("║  • POST   /api/activites                                 ║");
         System.out.println("║  • GET    /api/contraintes/utilisateur/{id}              ║");
         System.out.println("║  • GET    /api/conflits/utilisateur/{id}                 ║");
+        System.out.println("║  • GET    /api/optimisations/{idJob}                     ║");
+        System.out.println("║  • GET    /api/metrics                                   ║");
         System.out.println("╚═══════════════════════════════════════════════════════════╝");
     }
 
@@ -61,27 +91,98 @@ public class EmbeddedServer {
      * Initialise tous les controllers
      */
     private static void initControllers() {
-        controllers.put("utilisateurs", new UtilisateurController());
-        controllers.put("activites", new ActiviteController());
-        controllers.put("contraintes", new ContrainteController());
-        controllers.put("conflits", new ConflitController());
-        controllers.put("statistiques", new StatistiqueController());
-        System.out.println("✅ Controllers chargés: " + controllers.size());
+        aiguillage.enregistrer("utilisateurs", new UtilisateurController())
+                .enregistrer("activites", new ActiviteController())
+                .enregistrer("contraintes", new ContrainteController())
+                .enregistrer("conflits", new ConflitController())
+                .enregistrer("statistiques", new StatistiqueController())
+                .enregistrer("optimisations", new OptimisationController())
+                .enregistrer("metrics", new MetriquesController(), false);
+        journal.info("✅ Controllers chargés: {}", aiguillage.taille());
+    }
+
+    /**
+     * Jauges et compteurs lus à chaque GET /api/metrics (pool de connexions,
+     * limite DB, exécuteur, journal) ; les autres compteurs et les durées sont
+     * créés par leurs classes
+     */
+    private static void initMetriques() {
+        jaugePool("planner_db_connexions_actives", "Connexions empruntées", ConnectionPool.Statistiques::getActives);
+        jaugePool("planner_db_connexions_inactives", "Connexions disponibles dans le pool",
+                ConnectionPool.Statistiques::getInactives);
+        compteurPool("planner_db_emprunts_total", "Connexions obtenues du pool",
+                ConnectionPool.Statistiques::getEmprunts);
+        compteurPool("planner_db_expirations_total", "Attentes de connexion expirées",
+                ConnectionPool.Statistiques::getExpirations);
+        compteurPool("planner_db_fuites_total", "Connexions récupérées sans avoir été fermées",
+                ConnectionPool.Statistiques::getFuites);
+        jaugePool("planner_db_statements_taux_cache", "Part des PreparedStatement servis par le cache",
+                ConnectionPool.Statistiques::getTauxHitStatements);
+
+        Metriques.jauge("planner_http_travaux_db_en_cours", "Requêtes API travaillant sur la base",
+                limiteDb::getEnCours);
+        Metriques.compteurLu("planner_http_travaux_db_admissions_total", "Requêtes API admises par la limite DB",
+                limiteDb::getAdmissions);
+        Metriques.compteurLu("planner_http_travaux_db_refus_total", "Requêtes API refusées par la limite DB (503)",
+                limiteDb::getRefus);
+        Metriques.compteurLu("planner_http_executeur_refus_total", "Requêtes refusées par le pool HTTP plein (503)",
+                ExecuteurHttp::getRefus);
+        Metriques.compteurLu("planner_journal_perdus_total", "Messages du journal perdus (tampon plein)",
+                Journal::getPerdus);
+    }
+
+    /**
+     * NaN tant que le pool n'a pas été créé (aucune requête DB)
+     */
+    private static void jaugePool(String nom, String aide, ToDoubleFunction<ConnectionPool.Statistiques> valeur) {
+        Metriques.jauge(nom, aide, () -> {
+            ConnectionPool.Statistiques statistiques = Connect.getStatistiquesPool();
+            return statistiques == null ? Double.NaN : valeur.applyAsDouble(statistiques);
+        });
+    }
+
+    /**
+     * 0 tant que le pool n'a pas été créé : rien n'a encore été compté
+     */
+    private static void compteurPool(String nom, String aide, ToDoubleFunction<ConnectionPool.Statistiques> valeur) {
+        Metriques.compteurLu(nom, aide, () -> {
+            ConnectionPool.Statistiques statistiques = Connect.getStatistiquesPool();
+            return statistiques == null ? 0 : valeur.applyAsDouble(statistiques);
+        });
     }
 
     /**
      * Gère les requêtes API
      */
     private static void handleApi(HttpExchange exchange) throws IOException {
+        long debut = System.nanoTime();
+        try {
+            traiterApi(exchange);
+        } finally {
+            dureeApi.depuis(debut);
+            int classe = exchange.getResponseCode() / 100;
+            if (classe >= 1 && classe < reponsesApi.length) {
+                reponsesApi[classe].increment();
+            }
+        }
+    }
+
+    private static void traiterApi(HttpExchange exchange) throws IOException {
         String path = exchange.getRequestURI().getPath();
         String method = exchange.getRequestMethod();
 
-        // Log
-        System.out.println("📥 " + method + " " + path);
+        // Log (DEBUG : rien n'est construit quand le niveau est désactivé)
+        journal.debug("📥 {} {}", method, path);
 
         // CORS
         setCorsHeaders(exchange);
 
+        // File du pool pleine : réponse immédiate sur le thread du serveur
+        if (ExecuteurHttp.estRefusee()) {
+            sendUnavailable(exchange, "Serveur saturé, réessayez plus tard");
+            return;
+        }
+
         // OPTIONS preflight
         if ("OPTIONS".equals(method)) {
             sendResponse(exchange, 200, "");
@@ -93,28 +194,54 @@ public class EmbeddedServer {
             String apiPath = path.substring(4); // enlever "/api"
 
             // Trouver le controller approprié
-            HttpServlet controller = findController(apiPath);
+            Aiguillage.Controleur controller = aiguillage.trouver(apiPath);
 
-            if (controller != null) {
-                // Lire le body AVANT de créer les wrappers
+            if (controller == null) {
+                sendJsonError(exchange, 404, "Endpoint non trouvé: " + path);
+            } else if (!controller.accepte(method)) {
+                sendJsonError(exchange, 405, "Méthode non autorisée: " + method + " " + path);
+            } else {
+                // Lire le body AVANT de prendre une place : un client lent à
+                // envoyer sa requête ne bloque pas une place de travail DB
                 String requestBody = readRequestBody(exchange);
+                if (controller.utiliseBase() && !limiteDb.entrer()) {
+                    sendUnavailable(exchange, "Base de données saturée, réessayez plus tard");
+                    return;
+                }
+
+                // Place rendue une seule fois : au premier envoi réseau (réponse
+                // en chunked) ou à la fin du traitement, avant l'envoi du tampon.
+                // Après l'envoi, chaque lecture reprend sa place (LimiteTravauxDb.place)
+                AtomicBoolean sortie = new AtomicBoolean(!controller.utiliseBase());
+                Runnable sortir = () -> {
+                    if (sortie.compareAndSet(false, true)) {
+                        limiteDb.sortir();
+                    }
+                };
 
                 // Créer des wrappers Servlet avec le pathInfo correct
                 HttpExchangeRequest req = new HttpExchangeRequest(exchange, apiPath, requestBody);
-                HttpExchangeResponse resp = new HttpExchangeResponse(exchange);
+                HttpExchangeResponse resp = new HttpExchangeResponse(exchange, sortir);
 
-                // Appeler la méthode via réflexion pour contourner protected
-                invokeServletMethod(controller, method, req, resp);
+                // doGet/doPost/... du controller (MethodHandle résolu au démarrage)
+                try {
+                    controller.invoquer(method, req, resp);
+                } finally {
+                    sortir.run();
+                }
 
                 // IMPORTANT: Envoyer la réponse après traitement
                 resp.flushResponse();
-
-            } else {
-                sendJsonError(exchange, 404, "Endpoint non trouvé: " + path);
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            journal.erreur("Erreur serveur sur " + method + " " + path, e);
+            if (exchange.getResponseCode() != -1) {
+                // En-têtes déjà envoyés (réponse en chunked) : on coupe la connexion
+                // sans le dernier chunk, le client voit une réponse incomplète
+                throw e instanceof IOException io ? io : new IOException(e);
+            }
+            // Rien n'est parti : le début de réponse resté dans le tampon est abandonné
             sendJsonError(exchange, 500, "Erreur serveur: " + e.getMessage());
         }
     }
@@ -136,68 +263,17 @@ public class EmbeddedServer {
         }
     }
 
-    /**
-     * Invoque la méthode du servlet via réflexion
-     */
-    private static void invokeServletMethod(HttpServlet servlet, String httpMethod,
-            HttpExchangeRequest req, HttpExchangeResponse resp) {
-        try {
-            Method method = null;
-
-            switch (httpMethod) {
-                case "GET":
-                    method = HttpServlet.class.getDeclaredMethod("doGet", HttpServletRequest.class,
-                            HttpServletResponse.class);
-                    break;
-                case "POST":
-                    method = HttpServlet.class.getDeclaredMethod("doPost", HttpServletRequest.class,
-                            HttpServletResponse.class);
-                    break;
-                case "PUT":
-                    method = HttpServlet.class.getDeclaredMethod("doPut", HttpServletRequest.class,
-                            HttpServletResponse.class);
-                    break;
-                case "DELETE":
-                    method = HttpServlet.class.getDeclaredMethod("doDelete", HttpServletRequest.class,
-                            HttpServletResponse.class);
-                    break;
-            }
-
-            if (method != null) {
-                method.setAccessible(true);
-                method.invoke(servlet, req, resp);
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Erreur lors de l'invocation du servlet", e);
-        }
-    }
-
-    /**
-     * Trouve le controller correspondant au path
-     * Corrigé pour gérer correctement /api/activites (sans pathInfo)
-     */
-    private static HttpServlet findController(String apiPath) {
-        // Enlever le "/" initial si présent
-        if (apiPath.startsWith("/")) {
-            apiPath = apiPath.substring(1);
-        }
-
-        // Extraire le nom du controller (première partie du path)
-        String controllerName = apiPath.split("/")[0];
-
-        System.out.println("🔍 Recherche controller pour: '" + controllerName + "'");
-
-        return controllers.get(controllerName);
-    }
-
     /**
      * Gère les fichiers statiques (HTML, CSS, JS)
      */
     private static void handleStatic(HttpExchange exchange) throws IOException {
         String path = exchange.getRequestURI().getPath();
 
+        if (ExecuteurHttp.estRefusee()) {
+            sendUnavailable(exchange, "Serveur saturé, réessayez plus tard");
+            return;
+        }
+
         if (path.equals("/")) {
             path = "/index.html";
         }
@@ -215,7 +291,7 @@ public class EmbeddedServer {
                 os.write(bytes);
             }
 
-            System.out.println("📄 Served: " + path);
+            journal.debug("📄 Served: {}", path);
         } else {
             String response = "404 - File not found: " + path;
             exchange.sendResponseHeaders(404, response.length());
@@ -254,7 +330,8 @@ public class EmbeddedServer {
     private static void setCorsHeaders(HttpExchange exchange) {
         exchange.getResponseHeaders().set("Access-Control-Allow-Origin", "*");
         exchange.getResponseHeaders().set("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        exchange.getResponseHeaders().set("Access-Control-Allow-Headers", "Content-Type, Authorization, If-None-Match");
+        exchange.getResponseHeaders().set("Access-Control-Expose-Headers", "ETag, X-Curseur-Suivant");
     }
 
     /**
@@ -278,6 +355,14 @@ public class EmbeddedServer {
         error.addProperty("message", message);
         sendResponse(exchange, code, gson.toJson(error));
     }
+
+    /**
+     * Envoie une erreur 503 : le client peut réessayer après Retry-After secondes
+     */
+    private static void sendUnavailable(HttpExchange exchange, String message) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", "1");
+        sendJsonError(exchange, 503, message);
+    }
 }
 
 /**
@@ -285,32 +370,34 @@ public class EmbeddedServer {
  */
 class HttpExchangeRequest implements HttpServletRequest {
     private final HttpExchange exchange;
-    private final String apiPath;
+    private final String pathInfo;
     private final String requestBody;
     private BufferedReader reader;
 
     public HttpExchangeRequest(HttpExchange exchange, String apiPath, String requestBody) {
         this.exchange = exchange;
-        this.apiPath = apiPath;
+        this.pathInfo = pathInfo(apiPath);
         this.requestBody = requestBody;
     }
 
-    @Override
-    public String getPathInfo() {
-        // Enlever le "/" initial si présent
-        String path = apiPath.startsWith("/") ? apiPath.substring(1) : apiPath;
-
-        // Extraire le pathInfo après le nom du controller
-        // Ex: "activites" -> null
-        // Ex: "activites/123" -> "/123"
-        // Ex: "activites/utilisateur/5" -> "/utilisateur/5"
-        String[] parts = path.split("/", 2);
-
-        if (parts.length < 2 || parts[1].isEmpty()) {
+    /**
+     * pathInfo après le nom du controller, calculé une fois par requête
+     * Ex: "/activites" -> null
+     * Ex: "/activites/123" -> "/123"
+     * Ex: "/activites/utilisateur/5" -> "/utilisateur/5"
+     */
+    private static String pathInfo(String apiPath) {
+        int debut = apiPath.startsWith("/") ? 1 : 0;
+        int separateur = apiPath.indexOf('/', debut);
+        if (separateur < 0 || separateur == apiPath.length() - 1) {
             return null;
         }
+        return apiPath.substring(separateur);
+    }
 
-        return "/" + parts[1];
+    @Override
+    public String getPathInfo() {
+        return pathInfo;
     }
 
     @Override
@@ -667,14 +754,19 @@ class HttpExchangeRequest implements HttpServletRequest {
  * Wrapper HttpServletResponse pour HttpExchange
  */
 class HttpExchangeResponse implements HttpServletResponse {
+    private static final Journal journal = Journal.pour(HttpExchangeResponse.class);
     private final HttpExchange exchange;
-    private final ByteArrayOutputStream outputStream;
+    private final CorpsReponse outputStream;
     private PrintWriter writer;
     private int statusCode = 200;
 
-    public HttpExchangeResponse(HttpExchange exchange) {
+    /**
+     * @param avantEnvoi appelé avant le premier envoi réseau d'une réponse trop
+     *                   grande pour le tampon
+     */
+    public HttpExchangeResponse(HttpExchange exchange, Runnable avantEnvoi) {
         this.exchange = exchange;
-        this.outputStream = new ByteArrayOutputStream();
+        this.outputStream = new CorpsReponse(exchange, () -> statusCode, avantEnvoi);
     }
 
     @Override
@@ -708,15 +800,11 @@ class HttpExchangeResponse implements HttpServletResponse {
         try {
             if (writer != null) {
                 writer.flush();
-                writer.close();
-            }
-            byte[] bytes = outputStream.toByteArray();
-            exchange.sendResponseHeaders(statusCode, bytes.length);
-            try (OutputStream os = exchange.getResponseBody()) {
-                os.write(bytes);
             }
+            outputStream.terminer();
         } catch (IOException e) {
-            e.printStackTrace();
+            // Le plus souvent : client déconnecté avant la fin de la réponse
+            journal.alerte("Envoi de la réponse interrompu: {}", e.getMessage());
         }
     }
 
@@ -856,7 +944,7 @@ class HttpExchangeResponse implements HttpServletResponse {
 
     @Override
     public boolean isCommitted() {
-        return false;
+        return outputStream.isEnvoye();
     }
 
     @Override
@@ -871,4 +959,89 @@ class HttpExchangeResponse implements HttpServletResponse {
     public Locale getLocale() {
         return Locale.getDefault();
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Corps d'une réponse : tamponné jusqu'à planner.http.tamponOctets (envoyé
+ * avec sa longueur), puis envoyé en chunked au fil de l'écriture. Une grande
+ * réponse n'est donc jamais entièrement en mémoire ; le statut et les en-têtes
+ * ne peuvent plus changer une fois l'envoi commencé.
+ */
+class CorpsReponse extends OutputStream {
+    private static final int SEUIL = Integer.getInteger("planner.http.tamponOctets", 64 * 1024);
+
+    private final HttpExchange exchange;
+    private final java.util.function.IntSupplier statut;
+    private final Runnable avantEnvoi;
+    private byte[] tampon = new byte[8192];
+    private int taille;
+    /** Corps de l'échange une fois les en-têtes envoyés (chunked) */
+    private OutputStream flux;
+    private boolean termine;
+
+    CorpsReponse(HttpExchange exchange, java.util.function.IntSupplier statut, Runnable avantEnvoi) {
+        this.exchange = exchange;
+        this.statut = statut;
+        this.avantEnvoi = avantEnvoi;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (flux == null && taille + len > SEUIL) {
+            // Trop grand pour le tampon : en-têtes en chunked, puis le tampon
+            avantEnvoi.run();
+            exchange.sendResponseHeaders(statut.getAsInt(), 0);
+            flux = exchange.getResponseBody();
+            flux.write(tampon, 0, taille);
+            tampon = null;
+        }
+        if (flux != null) {
+            flux.write(b, off, len);
+            return;
+        }
+        if (taille + len > tampon.length) {
+            tampon = Arrays.copyOf(tampon, Math.max(taille + len, Math.min(SEUIL, tampon.length * 2)));
+        }
+        System.arraycopy(b, off, tampon, taille, len);
+        taille += len;
+    }
+
+    /**
+     * Une fois en chunked, pousse les données vers le client (une écriture sur
+     * une connexion fermée échoue ici plutôt qu'à la fin de la réponse).
+     */
+    @Override
+    public void flush() throws IOException {
+        if (flux != null) {
+            flux.flush();
+        }
+    }
+
+    boolean isEnvoye() {
+        return flux != null || termine;
+    }
+
+    /**
+     * Envoie la fin de la réponse (ou toute la réponse si elle a tenu dans le tampon).
+     */
+    void terminer() throws IOException {
+        if (termine) {
+            return;
+        }
+        termine = true;
+        if (flux != null) {
+            flux.close();
+            return;
+        }
+        // -1 : pas de corps (304 Not Modified)
+        exchange.sendResponseHeaders(statut.getAsInt(), taille > 0 ? taille : -1);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(tampon, 0, taille);
+        }
+    }
+}
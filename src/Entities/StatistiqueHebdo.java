@@ -0,0 +1,90 @@
+package entities;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Agrégat d'une semaine ISO (lundi-dimanche) des activités d'un utilisateur,
+ * stocké dans la table statistique_hebdo.
+ */
+public class StatistiqueHebdo {
+	private Long idUtilisateur;
+	private LocalDate debutSemaine;
+	private Map<TypeActivite, Double> heuresParType = new EnumMap<>(TypeActivite.class);
+	private int nombreActivites;
+	private double heuresTravailConsecutivesMax;
+	private double scoreFatigue;
+
+	public StatistiqueHebdo(Long idUtilisateur, LocalDate debutSemaine) {
+		this.idUtilisateur = idUtilisateur;
+		this.debutSemaine = debutSemaine.with(DayOfWeek.MONDAY);
+	}
+
+	public Long getIdUtilisateur() {
+		return idUtilisateur;
+	}
+
+	public void setIdUtilisateur(Long idUtilisateur) {
+		this.idUtilisateur = idUtilisateur;
+	}
+
+	/**
+	 * Lundi de la semaine
+	 */
+	public LocalDate getDebutSemaine() {
+		return debutSemaine;
+	}
+
+	public void setDebutSemaine(LocalDate debutSemaine) {
+		this.debutSemaine = debutSemaine.with(DayOfWeek.MONDAY);
+	}
+
+	public Map<TypeActivite, Double> getHeuresParType() {
+		return heuresParType;
+	}
+
+	/**
+	 * Heures du type (0 si aucune activité de ce type)
+	 */
+	public double getHeures(TypeActivite type) {
+		return heuresParType.getOrDefault(type, 0.0);
+	}
+
+	public void setHeures(TypeActivite type, double heures) {
+		heuresParType.put(type, heures);
+	}
+
+	public int getNombreActivites() {
+		return nombreActivites;
+	}
+
+	public void setNombreActivites(int nombreActivites) {
+		this.nombreActivites = nombreActivites;
+	}
+
+	public double getHeuresTravailConsecutivesMax() {
+		return heuresTravailConsecutivesMax;
+	}
+
+	public void setHeuresTravailConsecutivesMax(double heuresTravailConsecutivesMax) {
+		this.heuresTravailConsecutivesMax = heuresTravailConsecutivesMax;
+	}
+
+	public double getScoreFatigue() {
+		return scoreFatigue;
+	}
+
+	public void setScoreFatigue(double scoreFatigue) {
+		this.scoreFatigue = scoreFatigue;
+	}
+
+	@Override
+	public String toString() {
+		return "StatistiqueHebdo [idUtilisateur=" + idUtilisateur + ", debutSemaine=" + debutSemaine
+				+ ", heuresParType=" + heuresParType + ", nombreActivites=" + nombreActivites
+				+ ", heuresTravailConsecutivesMax=" + heuresTravailConsecutivesMax + ", scoreFatigue=" + scoreFatigue
+				+ "]";
+	}
+}
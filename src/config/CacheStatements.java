@@ -0,0 +1,215 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache LRU des PreparedStatement d'une connexion physique, indexé par le texte SQL.
+ *
+ * Le DAO reçoit un proxy : son close() ne ferme pas la requête préparée mais
+ * la remet à disposition (paramètres effacés, ResultSet fermés). Une requête
+ * déjà utilisée par un autre appelant sur la même connexion est préparée à
+ * part, hors cache.
+ */
+class CacheStatements {
+
+    private final Connection physique;
+    private final int capacite;
+    private final Compteurs compteurs;
+    private final LinkedHashMap<String, Entree> entrees;
+
+    CacheStatements(Connection physique, int capacite, Compteurs compteurs) {
+        this.physique = physique;
+        this.capacite = capacite;
+        this.compteurs = compteurs;
+        this.entrees = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Retourne une requête préparée pour ce SQL, depuis le cache si possible.
+     *
+     * @param connexionLogique poignée renvoyée par Statement.getConnection()
+     * @param autoGeneratedKeys Statement.RETURN_GENERATED_KEYS ou NO_GENERATED_KEYS
+     */
+    synchronized PreparedStatement preparer(Connection connexionLogique, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        String cle = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? sql + "\u0000K" : sql;
+        Entree entree = entrees.get(cle);
+
+        if (entree != null && !entree.enUsage) {
+            compteurs.hits.increment();
+            entree.enUsage = true;
+            return entree.creerProxy(connexionLogique);
+        }
+
+        compteurs.miss.increment();
+        PreparedStatement ps = physique.prepareStatement(sql, autoGeneratedKeys);
+        Entree nouvelle = new Entree(ps);
+        nouvelle.enUsage = true;
+
+        if (entree == null && capacite > 0) {
+            nouvelle.enCache = true;
+            entrees.put(cle, nouvelle);
+            evincerSiNecessaire();
+        }
+        return nouvelle.creerProxy(connexionLogique);
+    }
+
+    private void evincerSiNecessaire() {
+        Iterator<Entree> it = entrees.values().iterator();
+        while (entrees.size() > capacite && it.hasNext()) {
+            Entree plusAncienne = it.next();
+            it.remove();
+            plusAncienne.enCache = false;
+            compteurs.evictions.increment();
+            if (!plusAncienne.enUsage) {
+                fermerSilencieusement(plusAncienne.statement);
+            }
+        }
+    }
+
+    private synchronized void liberer(Entree entree) {
+        entree.enUsage = false;
+        if (!entree.enCache) {
+            fermerSilencieusement(entree.statement);
+        }
+    }
+
+    /**
+     * Ferme toutes les requêtes préparées (avant fermeture de la connexion physique).
+     */
+    synchronized void vider() {
+        for (Entree e : entrees.values()) {
+            fermerSilencieusement(e.statement);
+        }
+        entrees.clear();
+    }
+
+    private static void fermerSilencieusement(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // connexion probablement déjà perdue
+        }
+    }
+
+    /**
+     * Compteurs partagés par les caches de toutes les connexions d'un pool.
+     */
+    static class Compteurs {
+        final LongAdder hits = new LongAdder();
+        final LongAdder miss = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+    }
+
+    /**
+     * Requête préparée physique et son état dans le cache.
+     */
+    private class Entree {
+        private final PreparedStatement statement;
+        private boolean enUsage;
+        private boolean enCache;
+
+        Entree(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        PreparedStatement creerProxy(Connection connexionLogique) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new StatementLogique(this, connexionLogique));
+        }
+    }
+
+    /**
+     * Vue d'un emprunt de requête préparée : close() la rend au cache.
+     */
+    private class StatementLogique implements InvocationHandler {
+        private final Entree entree;
+        private final Connection connexionLogique;
+        private final List<ResultSet> resultats = new ArrayList<>(1);
+        private boolean ferme;
+        private boolean lotUtilise;
+
+        StatementLogique(Entree entree, Connection connexionLogique) {
+            this.entree = entree;
+            this.connexionLogique = connexionLogique;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    fermer();
+                    return null;
+                case "isClosed":
+                    return ferme;
+                case "getConnection":
+                    return connexionLogique;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + entree.statement + "]";
+                case "addBatch":
+                    lotUtilise = true;
+                    break;
+                default:
+                    break;
+            }
+
+            if (ferme) {
+                throw new SQLException("Requête préparée déjà fermée");
+            }
+
+            Object resultat;
+            try {
+                resultat = method.invoke(entree.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (resultat instanceof ResultSet) {
+                resultats.add((ResultSet) resultat);
+            }
+            return resultat;
+        }
+
+        private void fermer() {
+            if (ferme) {
+                return;
+            }
+            ferme = true;
+            try {
+                for (ResultSet rs : resultats) {
+                    rs.close();
+                }
+                entree.statement.clearParameters();
+                if (lotUtilise) {
+                    entree.statement.clearBatch();
+                }
+                entree.statement.clearWarnings();
+            } catch (SQLException e) {
+                // requête inutilisable : on la retire du cache
+                synchronized (CacheStatements.this) {
+                    entrees.values().remove(entree);
+                    entree.enCache = false;
+                }
+            } finally {
+                resultats.clear();
+                liberer(entree);
+            }
+        }
+    }
+}
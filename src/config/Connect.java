@@ -1,20 +1,61 @@
 package config;
-
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class Connect {
-	private static final String URL = "jdbc:mysql://localhost:3306/personal_planner";
-    private static final String USER = "root";
-    private static final String PASSWORD = "";
+	// Réglages : planner.db.url, planner.db.utilisateur et planner.db.motDePasse
+	private static final String URL = System.getProperty("planner.db.url",
+            "jdbc:mysql://localhost:3306/personal_planner"
+            + "?useServerPrepStmts=true&rewriteBatchedStatements=true");
+    private static final String USER = System.getProperty("planner.db.utilisateur", "root");
+    private static final String PASSWORD = System.getProperty("planner.db.motDePasse", "");
+
+    private static volatile ConnectionPool pool;
 
+    /**
+     * Emprunte une connexion au pool. L'appelant doit la fermer (try-with-resources)
+     * pour la rendre au pool.
+     */
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("Driver MySQL introuvable. Ajoutez mysql-connector-j.jar au classpath", e);
+        return getPool().getConnection();
+    }
+
+    /**
+     * Pool partagé, créé au premier appel (le driver n'est chargé qu'une fois).
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool p = pool;
+        if (p == null) {
+            synchronized (Connect.class) {
+                p = pool;
+                if (p == null) {
+                    if (URL.startsWith("jdbc:mysql:")) {
+                        try {
+                            Class.forName("com.mysql.cj.jdbc.Driver");
+                        } catch (ClassNotFoundException e) {
+                            throw new SQLException("Driver MySQL introuvable. Ajoutez mysql-connector-j.jar au classpath", e);
+                        }
+                    }
+                    p = new ConnectionPool(URL, USER, PASSWORD);
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Métriques du pool, ou null s'il n'a pas encore été créé.
+     */
+    public static ConnectionPool.Statistiques getStatistiquesPool() {
+        ConnectionPool p = pool;
+        return p == null ? null : p.getStatistiques();
+    }
+
+    public static synchronized void fermerPool() {
+        if (pool != null) {
+            pool.fermer();
+            pool = null;
         }
-    }	
+    }
 }
@@ -0,0 +1,359 @@
+package config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import util.Histogramme;
+import util.Journal;
+import util.Metriques;
+
+/**
+ * Pool de connexions JDBC borné utilisé derrière {@link Connect#getConnection()}.
+ *
+ * - Taille maximale bornée par un sémaphore (les emprunteurs attendent au plus
+ *   {@code delaiEmpruntMs} avant une {@link SQLTimeoutException})
+ * - Validation de la connexion à l'emprunt ({@link Connection#isValid(int)})
+ * - Éviction des connexions inactives depuis plus de {@code delaiInactiviteMs}
+ * - Détection des fuites : une connexion empruntée depuis plus de
+ *   {@code seuilFuiteMs} est signalée avec la pile d'appel de l'emprunteur
+ * - Métriques : connexions actives / inactives, temps d'attente, histogramme
+ *   des durées d'obtention (planner_db_acquisition_secondes)
+ * - Cache LRU des PreparedStatement par connexion ({@code tailleCacheStatements})
+ *
+ * Les connexions rendues par {@link #getConnection()} sont des poignées : leur
+ * close() remet la connexion physique dans le pool au lieu de la fermer.
+ */
+public class ConnectionPool {
+
+    private static final Journal journal = Journal.pour(ConnectionPool.class);
+    private static final Histogramme ACQUISITION = Metriques.histogramme("planner_db_acquisition_secondes",
+            "Durée d'obtention d'une connexion (attente, validation et création comprises)");
+
+    private final String url;
+    private final String utilisateur;
+    private final String motDePasse;
+
+    private final int tailleMax;
+    private final int tailleMinInactive;
+    private final long delaiEmpruntMs;
+    private final long delaiInactiviteMs;
+    private final long seuilFuiteMs;
+    private final long fenetreSansValidationMs;
+    private final int delaiValidationSec;
+    private final int tailleCacheStatements;
+
+    private final Semaphore permis;
+    private final ConcurrentLinkedDeque<PooledConnection> inactives = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> actives = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean ferme;
+
+    // ========== MÉTRIQUES ==========
+    private final LongAdder emprunts = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder creations = new LongAdder();
+    private final LongAdder destructions = new LongAdder();
+    private final LongAdder fuites = new LongAdder();
+    private final LongAdder attenteTotaleNanos = new LongAdder();
+    private final AtomicLong attenteMaxNanos = new AtomicLong();
+    private final CacheStatements.Compteurs compteursStatements = new CacheStatements.Compteurs();
+
+    public ConnectionPool(String url, String utilisateur, String motDePasse) {
+        this(url, utilisateur, motDePasse,
+                tailleMaxConfiguree(),
+                Integer.getInteger("planner.db.pool.tailleMinInactive", 2),
+                Long.getLong("planner.db.pool.delaiEmpruntMs", 5_000L),
+                Long.getLong("planner.db.pool.delaiInactiviteMs", 300_000L),
+                Long.getLong("planner.db.pool.seuilFuiteMs", 30_000L));
+    }
+
+    /**
+     * Taille maximale du pool partagé (planner.db.pool.tailleMax), connue sans le créer.
+     */
+    public static int tailleMaxConfiguree() {
+        return Integer.getInteger("planner.db.pool.tailleMax", 10);
+    }
+
+    public ConnectionPool(String url, String utilisateur, String motDePasse, int tailleMax, int tailleMinInactive,
+            long delaiEmpruntMs, long delaiInactiviteMs, long seuilFuiteMs) {
+        if (tailleMax <= 0) {
+            throw new IllegalArgumentException("La taille du pool doit être positive");
+        }
+        this.url = url;
+        this.utilisateur = utilisateur;
+        this.motDePasse = motDePasse;
+        this.tailleMax = tailleMax;
+        this.tailleMinInactive = Math.max(0, Math.min(tailleMinInactive, tailleMax));
+        this.delaiEmpruntMs = delaiEmpruntMs;
+        this.delaiInactiviteMs = delaiInactiviteMs;
+        this.seuilFuiteMs = seuilFuiteMs;
+        this.fenetreSansValidationMs = Long.getLong("planner.db.pool.fenetreSansValidationMs", 500L);
+        this.delaiValidationSec = Integer.getInteger("planner.db.pool.delaiValidationSec", 2);
+        this.tailleCacheStatements = Integer.getInteger("planner.db.pool.tailleCacheStatements", 64);
+        this.permis = new Semaphore(tailleMax, true);
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-connexions-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        long periode = Math.max(1_000L, Math.min(30_000L, delaiInactiviteMs / 2));
+        maintenance.scheduleWithFixedDelay(this::maintenir, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== EMPRUNT / RESTITUTION ==========
+
+    /**
+     * Emprunte une connexion au pool. Attend au plus {@code delaiEmpruntMs} si
+     * toutes les connexions sont occupées.
+     */
+    public Connection getConnection() throws SQLException {
+        if (ferme) {
+            throw new SQLException("Le pool de connexions est fermé");
+        }
+
+        long debut = System.nanoTime();
+        boolean acquis;
+        try {
+            acquis = permis.tryAcquire(delaiEmpruntMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Attente d'une connexion interrompue", e);
+        }
+        enregistrerAttente(System.nanoTime() - debut);
+
+        if (!acquis) {
+            expirations.increment();
+            throw new SQLTimeoutException("Aucune connexion disponible après " + delaiEmpruntMs + " ms (actives: "
+                    + actives.size() + "/" + tailleMax + ")");
+        }
+
+        try {
+            PooledConnection pc = obtenirConnexionValide();
+            pc.marquerEmpruntee(seuilFuiteMs > 0 ? new Throwable("Connexion empruntée par") : null);
+            actives.add(pc);
+            emprunts.increment();
+            Connection poignee = pc.creerPoignee(this);
+            ACQUISITION.depuis(debut);
+            return poignee;
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Remet une connexion dans le pool (appelé par la poignée lors de close()).
+     */
+    void restituer(PooledConnection pc) {
+        try {
+            actives.remove(pc);
+            if (ferme || pc.isCassee() || !pc.reinitialiser()) {
+                detruire(pc);
+            } else {
+                inactives.offerFirst(pc);
+            }
+        } finally {
+            permis.release();
+        }
+    }
+
+    private PooledConnection obtenirConnexionValide() throws SQLException {
+        PooledConnection pc;
+        while ((pc = inactives.pollFirst()) != null) {
+            if (pc.estValide(fenetreSansValidationMs, delaiValidationSec)) {
+                return pc;
+            }
+            detruire(pc);
+        }
+        return creerConnexion();
+    }
+
+    private PooledConnection creerConnexion() throws SQLException {
+        Connection physique = DriverManager.getConnection(url, utilisateur, motDePasse);
+        creations.increment();
+        return new PooledConnection(physique, compteursStatements, tailleCacheStatements);
+    }
+
+    private void detruire(PooledConnection pc) {
+        destructions.increment();
+        pc.fermerPhysique();
+    }
+
+    private void enregistrerAttente(long nanos) {
+        attenteTotaleNanos.add(nanos);
+        long max;
+        while (nanos > (max = attenteMaxNanos.get())) {
+            if (attenteMaxNanos.compareAndSet(max, nanos)) {
+                break;
+            }
+        }
+    }
+
+    // ========== MAINTENANCE ==========
+
+    /**
+     * Tâche périodique : éviction des connexions inactives et détection des fuites.
+     */
+    private void maintenir() {
+        long maintenant = System.currentTimeMillis();
+
+        for (PooledConnection pc : inactives) {
+            if (inactives.size() <= tailleMinInactive) {
+                break;
+            }
+            if (maintenant - pc.getDernierUsage() > delaiInactiviteMs && inactives.remove(pc)) {
+                detruire(pc);
+            }
+        }
+
+        if (seuilFuiteMs > 0) {
+            for (PooledConnection pc : actives) {
+                if (!pc.isFuiteSignalee() && maintenant - pc.getEmprunteeA() > seuilFuiteMs) {
+                    pc.setFuiteSignalee(true);
+                    fuites.increment();
+                    // La trace (si présente) donne la pile d'appel de l'emprunteur
+                    journal.alerte("⚠️ Fuite de connexion probable : empruntée depuis "
+                            + (maintenant - pc.getEmprunteeA()) + " ms sans être rendue", pc.getTraceEmprunt());
+                }
+            }
+        }
+    }
+
+    /**
+     * Ferme le pool : les connexions inactives sont fermées immédiatement, les
+     * connexions actives le seront à leur restitution.
+     */
+    public void fermer() {
+        ferme = true;
+        maintenance.shutdownNow();
+        PooledConnection pc;
+        while ((pc = inactives.pollFirst()) != null) {
+            detruire(pc);
+        }
+    }
+
+    // ========== MÉTRIQUES ==========
+
+    public Statistiques getStatistiques() {
+        return new Statistiques(actives.size(), inactives.size(), tailleMax, emprunts.sum(), expirations.sum(),
+                creations.sum(), destructions.sum(), fuites.sum(), attenteTotaleNanos.sum(), attenteMaxNanos.get(),
+                compteursStatements.hits.sum(), compteursStatements.miss.sum(), compteursStatements.evictions.sum());
+    }
+
+    /**
+     * Instantané des métriques du pool.
+     */
+    public static class Statistiques {
+        private final int actives;
+        private final int inactives;
+        private final int tailleMax;
+        private final long emprunts;
+        private final long expirations;
+        private final long creations;
+        private final long destructions;
+        private final long fuites;
+        private final long attenteTotaleNanos;
+        private final long attenteMaxNanos;
+        private final long statementsHits;
+        private final long statementsMiss;
+        private final long statementsEvictions;
+
+        Statistiques(int actives, int inactives, int tailleMax, long emprunts, long expirations, long creations,
+                long destructions, long fuites, long attenteTotaleNanos, long attenteMaxNanos,
+                long statementsHits, long statementsMiss, long statementsEvictions) {
+            this.actives = actives;
+            this.inactives = inactives;
+            this.tailleMax = tailleMax;
+            this.emprunts = emprunts;
+            this.expirations = expirations;
+            this.creations = creations;
+            this.destructions = destructions;
+            this.fuites = fuites;
+            this.attenteTotaleNanos = attenteTotaleNanos;
+            this.attenteMaxNanos = attenteMaxNanos;
+            this.statementsHits = statementsHits;
+            this.statementsMiss = statementsMiss;
+            this.statementsEvictions = statementsEvictions;
+        }
+
+        public int getActives() {
+            return actives;
+        }
+
+        public int getInactives() {
+            return inactives;
+        }
+
+        public int getTailleMax() {
+            return tailleMax;
+        }
+
+        public long getEmprunts() {
+            return emprunts;
+        }
+
+        public long getExpirations() {
+            return expirations;
+        }
+
+        public long getCreations() {
+            return creations;
+        }
+
+        public long getDestructions() {
+            return destructions;
+        }
+
+        public long getFuites() {
+            return fuites;
+        }
+
+        public double getAttenteMoyenneMs() {
+            return emprunts + expirations == 0 ? 0.0 : attenteTotaleNanos / 1_000_000.0 / (emprunts + expirations);
+        }
+
+        public double getAttenteMaxMs() {
+            return attenteMaxNanos / 1_000_000.0;
+        }
+
+        public long getStatementsHits() {
+            return statementsHits;
+        }
+
+        public long getStatementsMiss() {
+            return statementsMiss;
+        }
+
+        public long getStatementsEvictions() {
+            return statementsEvictions;
+        }
+
+        public double getTauxHitStatements() {
+            long total = statementsHits + statementsMiss;
+            return total == 0 ? 0.0 : (double) statementsHits / total;
+        }
+
+        @Override
+        public String toString() {
+            return "Pool [actives=" + actives + ", inactives=" + inactives + ", max=" + tailleMax
+                    + ", emprunts=" + emprunts + ", expirations=" + expirations + ", creations=" + creations
+                    + ", destructions=" + destructions + ", fuites=" + fuites
+                    + ", attenteMoyenneMs=" + String.format("%.3f", getAttenteMoyenneMs())
+                    + ", attenteMaxMs=" + String.format("%.3f", getAttenteMaxMs())
+                    + ", statements[hits=" + statementsHits + ", miss=" + statementsMiss
+                    + ", evictions=" + statementsEvictions + "]]";
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package config;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exécuteur des requêtes du serveur HTTP embarqué.
+ *
+ * - Mode "virtuel" (défaut) : un thread virtuel par requête. Un appel JDBC
+ *   bloquant libère le thread porteur ; le nombre de requêtes en cours n'est
+ *   plus borné par le nombre de threads mais par {@link LimiteTravauxDb}
+ * - Mode "pool" : pool de threads plateforme borné, avec une file bornée.
+ *   Quand la file est pleine, la requête est exécutée sur le thread
+ *   d'acceptation du serveur en mode refus ({@link #estRefusee()}) : le
+ *   handler répond 503 sans rien traiter, au lieu de fermer la connexion
+ *
+ * Réglages : planner.http.executeur (virtuel | pool), planner.http.threads et
+ * planner.http.file.
+ */
+public final class ExecuteurHttp {
+
+    public enum Mode {
+        VIRTUEL, POOL;
+
+        /**
+         * @throws IllegalArgumentException si le mode est inconnu
+         */
+        public static Mode lire(String valeur) {
+            try {
+                return valueOf(valeur.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Mode d'exécution inconnu: " + valeur + " (virtuel ou pool)");
+            }
+        }
+    }
+
+    private static final ThreadLocal<Boolean> REFUS = new ThreadLocal<>();
+    private static final LongAdder refus = new LongAdder();
+
+    private ExecuteurHttp() {
+    }
+
+    /**
+     * Exécuteur configuré par les propriétés système.
+     */
+    public static ExecutorService creer() {
+        return creer(Mode.lire(System.getProperty("planner.http.executeur", "virtuel")),
+                Integer.getInteger("planner.http.threads", 32),
+                Integer.getInteger("planner.http.file", 256));
+    }
+
+    /**
+     * @param threads    nombre de threads (mode pool uniquement)
+     * @param tailleFile requêtes en attente au-delà desquelles les suivantes
+     *                   sont refusées (mode pool uniquement)
+     */
+    public static ExecutorService creer(Mode mode, int threads, int tailleFile) {
+        if (mode == Mode.VIRTUEL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        }
+        AtomicInteger numero = new AtomicInteger();
+        return new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, tailleFile)), r -> {
+                    Thread t = new Thread(r, "http-" + numero.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, REFUSER);
+    }
+
+    /**
+     * File pleine : la requête est lue sur le thread appelant (celui du
+     * serveur) et le handler, qui voit {@link #estRefusee()}, répond 503.
+     */
+    private static final RejectedExecutionHandler REFUSER = (tache, executeur) -> {
+        if (executeur.isShutdown()) {
+            return;
+        }
+        refus.increment();
+        REFUS.set(Boolean.TRUE);
+        try {
+            tache.run();
+        } finally {
+            REFUS.remove();
+        }
+    };
+
+    /**
+     * @return true si la requête courante a été refusée par le pool et doit
+     *         recevoir une réponse 503 immédiate
+     */
+    public static boolean estRefusee() {
+        return REFUS.get() != null;
+    }
+
+    public static long getRefus() {
+        return refus.sum();
+    }
+}
@@ -0,0 +1,131 @@
+package config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limite le nombre de requêtes API qui travaillent en même temps sur la base.
+ *
+ * Dimensionnée par défaut sur le pool de connexions : une requête admise
+ * trouve une connexion sans attendre le délai d'emprunt du pool, et le
+ * surplus attend au plus {@code attenteMs} avant d'être refusé (503) au lieu
+ * de s'accumuler. Indispensable avec les threads virtuels, dont le nombre ne
+ * borne plus la charge envoyée à la base.
+ *
+ * Une réponse envoyée en chunked rend sa place dès le premier envoi réseau
+ * (un client lent ne la bloque pas) ; les lectures qu'elle fait ensuite, page
+ * par page, reprennent chacune une place avec {@link #place()}.
+ *
+ * Réglages : planner.http.travauxDb (défaut planner.db.pool.tailleMax) et
+ * planner.http.attenteDbMs.
+ */
+public final class LimiteTravauxDb {
+
+    private static final LimiteTravauxDb INSTANCE = new LimiteTravauxDb(
+            Integer.getInteger("planner.http.travauxDb", ConnectionPool.tailleMaxConfiguree()),
+            Long.getLong("planner.http.attenteDbMs", 2_000L));
+
+    private final Semaphore permis;
+    private final int tailleMax;
+    private final long attenteMs;
+
+    /** Places détenues par le thread courant (absent : aucune) */
+    private final ThreadLocal<Integer> detenues = new ThreadLocal<>();
+
+    // ========== MÉTRIQUES ==========
+    private final LongAdder admissions = new LongAdder();
+    private final LongAdder refus = new LongAdder();
+
+    public LimiteTravauxDb(int tailleMax, long attenteMs) {
+        if (tailleMax <= 0) {
+            throw new IllegalArgumentException("La limite de travaux doit être positive");
+        }
+        this.tailleMax = tailleMax;
+        this.attenteMs = attenteMs;
+        this.permis = new Semaphore(tailleMax, true);
+    }
+
+    public static LimiteTravauxDb getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Attend une place au plus {@code attenteMs}.
+     *
+     * @return false si la limite est atteinte : l'appelant répond 503 et
+     *         n'appelle pas {@link #sortir()}
+     */
+    public boolean entrer() {
+        boolean acquis;
+        try {
+            acquis = permis.tryAcquire(attenteMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquis = false;
+        }
+        if (acquis) {
+            Integer n = detenues.get();
+            detenues.set(n == null ? 1 : n + 1);
+            admissions.increment();
+        } else {
+            refus.increment();
+        }
+        return acquis;
+    }
+
+    /**
+     * Rend une place ; à appeler depuis le thread qui l'a prise.
+     */
+    public void sortir() {
+        Integer n = detenues.get();
+        if (n != null && n > 1) {
+            detenues.set(n - 1);
+        } else {
+            detenues.remove();
+        }
+        permis.release();
+    }
+
+    /**
+     * Place pour un travail ponctuel sur la base (une page d'un parcours) :
+     * aucune place de plus si le thread courant détient déjà celle de sa
+     * requête, sinon une place prise comme par {@link #entrer()}.
+     *
+     * @return la place à fermer après le travail, null si la limite est atteinte
+     */
+    public Place place() {
+        if (detenues.get() != null) {
+            return DEJA_DETENUE;
+        }
+        return entrer() ? this::sortir : null;
+    }
+
+    /**
+     * Place obtenue par {@link #place()}, rendue à la fermeture.
+     */
+    @FunctionalInterface
+    public interface Place extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final Place DEJA_DETENUE = () -> {
+    };
+
+    public int getTailleMax() {
+        return tailleMax;
+    }
+
+    public int getEnCours() {
+        return tailleMax - permis.availablePermits();
+    }
+
+    public long getAdmissions() {
+        return admissions.sum();
+    }
+
+    public long getRefus() {
+        return refus.sum();
+    }
+}
@@ -0,0 +1,214 @@
+package config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import util.Journal;
+
+/**
+ * Connexion physique gérée par le {@link ConnectionPool}.
+ *
+ * Chaque emprunt reçoit une nouvelle poignée (proxy de {@link Connection}) :
+ * fermer une poignée rend la connexion au pool, et une poignée déjà fermée ne
+ * peut plus être utilisée même si la connexion physique a été réempruntée.
+ * Les prepareStatement(sql) et prepareStatement(sql, autoGeneratedKeys) passent
+ * par le {@link CacheStatements} attaché à la connexion physique.
+ */
+class PooledConnection {
+
+    private static final Journal journal = Journal.pour(PooledConnection.class);
+
+    private final Connection physique;
+    private final CacheStatements cacheStatements;
+    private volatile long dernierUsage;
+    private volatile long emprunteeA;
+    private volatile Throwable traceEmprunt;
+    private volatile boolean fuiteSignalee;
+    private volatile boolean cassee;
+
+    PooledConnection(Connection physique, CacheStatements.Compteurs compteurs, int tailleCache) {
+        this.physique = physique;
+        this.cacheStatements = new CacheStatements(physique, tailleCache, compteurs);
+        this.dernierUsage = System.currentTimeMillis();
+    }
+
+    void marquerEmpruntee(Throwable trace) {
+        this.emprunteeA = System.currentTimeMillis();
+        this.traceEmprunt = trace;
+        this.fuiteSignalee = false;
+    }
+
+    Connection creerPoignee(ConnectionPool pool) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class }, new Poignee(pool));
+    }
+
+    /**
+     * Vérifie la connexion avant de la prêter. Une connexion rendue il y a
+     * moins de {@code fenetreMs} est considérée valide sans aller-retour serveur.
+     */
+    boolean estValide(long fenetreMs, int delaiSec) {
+        if (System.currentTimeMillis() - dernierUsage < fenetreMs) {
+            return true;
+        }
+        try {
+            return physique.isValid(delaiSec);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Remet la connexion dans un état neutre avant de la rendre au pool.
+     *
+     * @return false si la connexion est inutilisable et doit être détruite
+     */
+    boolean reinitialiser() {
+        try {
+            if (physique.isClosed()) {
+                return false;
+            }
+            if (!physique.getAutoCommit()) {
+                physique.rollback();
+                physique.setAutoCommit(true);
+            }
+            if (physique.isReadOnly()) {
+                physique.setReadOnly(false);
+            }
+            physique.clearWarnings();
+            traceEmprunt = null;
+            dernierUsage = System.currentTimeMillis();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    void fermerPhysique() {
+        cacheStatements.vider();
+        try {
+            physique.close();
+        } catch (SQLException e) {
+            journal.alerte("Erreur lors de la fermeture d'une connexion du pool: {}", e.getMessage());
+        }
+    }
+
+    long getDernierUsage() {
+        return dernierUsage;
+    }
+
+    long getEmprunteeA() {
+        return emprunteeA;
+    }
+
+    Throwable getTraceEmprunt() {
+        return traceEmprunt;
+    }
+
+    boolean isFuiteSignalee() {
+        return fuiteSignalee;
+    }
+
+    void setFuiteSignalee(boolean fuiteSignalee) {
+        this.fuiteSignalee = fuiteSignalee;
+    }
+
+    boolean isCassee() {
+        return cassee;
+    }
+
+    /**
+     * Poignée logique remise à l'appelant pour la durée d'un emprunt.
+     */
+    private class Poignee implements InvocationHandler {
+
+        private final ConnectionPool pool;
+        private final List<Statement> statements = new ArrayList<>();
+        private volatile boolean fermee;
+
+        Poignee(ConnectionPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!fermee) {
+                            fermee = true;
+                            fermerStatements();
+                            pool.restituer(PooledConnection.this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return fermee || physique.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + physique + (fermee ? ", rendue" : "") + "]";
+                default:
+                    break;
+            }
+
+            if (fermee) {
+                throw new SQLException("Connexion déjà rendue au pool");
+            }
+
+            if ("prepareStatement".equals(method.getName())) {
+                Class<?>[] types = method.getParameterTypes();
+                if (types.length == 1) {
+                    return suivre(cacheStatements.preparer((Connection) proxy, (String) args[0],
+                            Statement.NO_GENERATED_KEYS));
+                }
+                if (types.length == 2 && types[1] == int.class) {
+                    return suivre(cacheStatements.preparer((Connection) proxy, (String) args[0], (Integer) args[1]));
+                }
+            }
+
+            try {
+                return method.invoke(physique, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String etat = ((SQLException) cause).getSQLState();
+                    // Classe 08 : erreur de connexion, la connexion ne doit pas retourner au pool
+                    if (etat != null && etat.startsWith("08")) {
+                        cassee = true;
+                    }
+                }
+                throw cause;
+            }
+        }
+
+        private Statement suivre(Statement statement) {
+            statements.add(statement);
+            return statement;
+        }
+
+        /**
+         * Comme pour une vraie connexion, fermer la poignée ferme ses requêtes
+         * (et les rend au cache si le DAO les a oubliées).
+         */
+        private void fermerStatements() {
+            for (Statement s : statements) {
+                try {
+                    s.close();
+                } catch (SQLException e) {
+                    // déjà retirée du cache
+                }
+            }
+            statements.clear();
+        }
+    }
+}
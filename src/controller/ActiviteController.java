@@ -2,6 +2,8 @@ package controller;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
 import entities.Activite;
 import entities.Conflit;
 import entities.Contrainte;
@@ -12,7 +14,11 @@ import service.ContrainteService;
 import service.impl.ActiviteServiceImpl;
 import service.impl.ConflitServiceImpl;
 import service.impl.ContrainteServiceImpl;
+import service.planning.OptimiseurParallele;
+import service.planning.TacheOptimisation;
 import util.GsonConfig;
+import util.Journal;
+import util.Page;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -24,33 +30,60 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Controller REST pour la gestion des activités
  * Endpoints:
+ * - GET /api/activites - Toutes les activités
  * - GET /api/activites/utilisateur/{id} - Liste des activités d'un utilisateur
+ * (listes paginées avec ?limite=N&curseur=..., voir {@link Pagination})
  * - GET /api/activites/{id} - Détail d'une activité
  * - GET /api/activites/utilisateur/{id}/score - Score du planning (avec
  * conflits)
  * - GET /api/activites/utilisateur/{id}/valider - Validation du planning
  * - POST /api/activites - Créer une activité
  * - POST /api/activites/utilisateur/{id}/optimiser - Optimiser le planning
+ * (corps : iterations ; threads, seed, budgetMs et mode "multistart" ou
+ * "tempering" pour l'optimisation parallèle)
+ * - POST /api/activites/utilisateur/{id}/optimiser/jobs - Optimisation en
+ * tâche de fond (corps : iterations, delaiMs), suivie sur /api/optimisations/{idJob}
  * - PUT /api/activites/{id} - Modifier une activité
  * - DELETE /api/activites/{id} - Supprimer une activité
  */
 @WebServlet(urlPatterns = { "/api/activites/*" })
 public class ActiviteController extends HttpServlet {
 
+    private static final Journal journal = Journal.pour(ActiviteController.class);
+
     private final ActiviteService activiteService;
     private final ContrainteService contrainteService;
     private final Gson gson;
+    private final CacheReponses cacheReponses = CacheReponses.getInstance();
+    private final Routes routes;
     private static final DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
     public ActiviteController() {
         this.activiteService = new ActiviteServiceImpl();
         this.contrainteService = new ContrainteServiceImpl();
         this.gson = GsonConfig.createGson();
+        this.routes = new Routes("activites")
+                .get("/", this::listerToutes)
+                .get("/utilisateur/{userId}", this::listerParUtilisateur)
+                .get("/utilisateur/{userId}/type/{type}", this::listerParType)
+                .get("/utilisateur/{userId}/score", (req, resp, out, p) -> evaluer(req, resp, out, p, false))
+                .get("/utilisateur/{userId}/valider", (req, resp, out, p) -> evaluer(req, resp, out, p, true))
+                .get("/{id}", this::detail)
+                .post("/", this::creer)
+                .post("/utilisateur/{userId}/optimiser", this::optimiser)
+                .post("/utilisateur/{userId}/optimiser/jobs", this::soumettreOptimisation)
+                .put("/{id}", this::modifier)
+                .delete("/{id}", this::supprimer);
     }
 
     @Override
@@ -63,97 +96,35 @@ public class ActiviteController extends HttpServlet {
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         setCorsHeaders(resp);
         resp.setContentType("application/json;charset=UTF-8");
-
-        String pathInfo = req.getPathInfo();
         PrintWriter out = resp.getWriter();
 
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
-                // GET /api/activites - Toutes les activités
-                List<Activite> activites = activiteService.getAll();
-                out.print(gson.toJson(activites));
-
-            } else if (pathInfo.matches("/utilisateur/\\d+/score")) {
-                // GET /api/activites/utilisateur/{userId}/score - Score du planning AVEC
-                // conflits
-                String[] parts = pathInfo.split("/");
-                Long userId = Long.parseLong(parts[2]);
-
-                List<Activite> activites = activiteService.getByUtilisateur(userId);
-                List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId.intValue());
-
-                // ✅ UTILISER LA MÉTHODE AVEC CONFLITS
-                double score = activiteService.calculerScoreAvecConflits(activites, contraintes);
-
-                // Calculer aussi le planning valide
-                boolean valide = activiteService.planningValide(activites, contraintes);
-
-                JsonObject result = new JsonObject();
-                result.addProperty("succes", true);
-                result.addProperty("score", score);
-                result.addProperty("valide", valide);
-                result.addProperty("nombreActivites", activites.size());
-                result.addProperty("nombreContraintes", contraintes.size());
-
-                out.print(gson.toJson(result));
-
-            } else if (pathInfo.matches("/utilisateur/\\d+/valider")) {
-                // GET /api/activites/utilisateur/{userId}/valider - Valider le planning
-                String[] parts = pathInfo.split("/");
-                Long userId = Long.parseLong(parts[2]);
-
-                List<Activite> activites = activiteService.getByUtilisateur(userId);
-                List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId.intValue());
-
-                boolean valide = activiteService.planningValide(activites, contraintes);
-                double score = activiteService.calculerScoreAvecConflits(activites, contraintes);
-
-                JsonObject result = new JsonObject();
-                result.addProperty("succes", true);
-                result.addProperty("valide", valide);
-                result.addProperty("score", score);
-                result.addProperty("nombreActivites", activites.size());
-                result.addProperty("nombreContraintes", contraintes.size());
-
-                out.print(gson.toJson(result));
-
-            } else if (pathInfo.startsWith("/utilisateur/")) {
-                // GET /api/activites/utilisateur/{userId} ou /utilisateur/{userId}/type/{type}
-                String[] parts = pathInfo.split("/");
-                if (parts.length >= 3) {
-                    Long userId = Long.parseLong(parts[2]);
-
-                    if (parts.length >= 5 && "type".equals(parts[3])) {
-                        String typeStr = parts[4];
-                        TypeActivite type = TypeActivite.valueOf(typeStr);
-                        List<Activite> activites = activiteService.getByType(userId, type);
-                        out.print(gson.toJson(activites));
-                    } else {
-                        List<Activite> activites = activiteService.getByUtilisateur(userId);
-                        System.out.println("👤 Récupération activités pour user ID: " + userId);
-                        System.out.println("✅ Trouvé " + activites.size() + " activités");
-                        out.print(gson.toJson(activites));
-                    }
-                }
+            if (!routes.traiter("GET", req, resp, out)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                JsonObject error = new JsonObject();
+                error.addProperty("message", "Endpoint non trouvé");
+                out.print(gson.toJson(error));
+            }
 
-            } else {
-                // GET /api/activites/{id}
-                Long id = Long.parseLong(pathInfo.substring(1));
-                Activite activite = activiteService.getById(id);
-
-                if (activite != null) {
-                    out.print(gson.toJson(activite));
-                } else {
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                    JsonObject error = new JsonObject();
-                    error.addProperty("message", "Activité non trouvée");
-                    out.print(gson.toJson(error));
-                }
+        } catch (IllegalArgumentException e) {
+            // Identifiant, type, limite ou curseur invalide
+            if (resp.isCommitted()) {
+                return;
             }
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("message", "Paramètre invalide: " + e.getMessage());
+            out.print(gson.toJson(error));
+
+        } catch (IOException e) {
+            // Liste en cours d'envoi interrompue : propagée pour que le serveur coupe la réponse
+            throw e;
 
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans ActiviteController.doGet:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans ActiviteController.doGet", e);
+            if (resp.isCommitted()) {
+                return; // liste déjà en cours d'envoi : le statut ne peut plus changer
+            }
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
@@ -164,295 +135,515 @@ public class ActiviteController extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("POST", "doPost", req, resp);
+    }
+
+    @Override
+    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("PUT", "doPut", req, resp);
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("DELETE", "doDelete", req, resp);
+    }
+
+    private void traiterEcriture(String methode, String nom, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
         setCorsHeaders(resp);
         resp.setContentType("application/json;charset=UTF-8");
-
-        String pathInfo = req.getPathInfo();
         PrintWriter out = resp.getWriter();
-        JsonObject response = new JsonObject();
 
         try {
-            // POST /api/activites/utilisateur/{userId}/optimiser - Optimiser le planning
-            if (pathInfo != null && pathInfo.matches("/utilisateur/\\d+/optimiser")) {
-                String[] parts = pathInfo.split("/");
-                Long userId = Long.parseLong(parts[2]);
-
-                // Lire le nombre d'itérations
-                String body = getRequestBody(req);
-                int iterations = 1000;
-                if (body != null && !body.isEmpty()) {
-                    JsonObject json = gson.fromJson(body, JsonObject.class);
-                    if (json.has("iterations")) {
-                        iterations = json.get("iterations").getAsInt();
-                    }
-                }
-
-                System.out.println("🔄 Début optimisation pour user " + userId + " avec " + iterations + " itérations");
-
-                // ✅ ÉTAPE 1 : Supprimer TOUS les conflits existants avant l'optimisation
-                ConflitService conflitService = new ConflitServiceImpl();
-                List<Conflit> anciensConflits = conflitService.getTousLesConflitsUtilisateur(userId);
-                int conflitsSupprimes = 0;
-                for (Conflit conflit : anciensConflits) {
-                    if (conflitService.supprimerConflit(conflit.getidConflit())) {
-                        conflitsSupprimes++;
-                    }
-                }
-                System.out.println("🗑️ " + conflitsSupprimes + " anciens conflits supprimés");
-
-                // Récupérer les activités et contraintes
-                List<Activite> activites = activiteService.getByUtilisateur(userId);
-                List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId.intValue());
-
-                // Score avant optimisation
-                double scoreAvant = activiteService.calculerScoreAvecConflits(activites, contraintes);
-                boolean valideAvant = activiteService.planningValide(activites, contraintes);
-
-                System.out.println("📊 Score avant: " + scoreAvant + " - Valide: " + valideAvant);
-
-                // ✅ ÉTAPE 2 : Optimiser
-                List<Activite> activitesOptimisees = activiteService.optimiserPlanning(
-                        activites,
-                        contraintes,
-                        iterations);
-
-                // Score après optimisation (AVANT la mise à jour en base)
-                double scoreApres = activiteService.calculerScoreAvecConflits(activitesOptimisees, contraintes);
-                boolean valideApres = activiteService.planningValide(activitesOptimisees, contraintes);
-
-                System.out.println(
-                        "📊 Score après optimisation (théorique): " + scoreApres + " - Valide: " + valideApres);
-
-                // ✅ ÉTAPE 3 : Mettre à jour SANS détecter les conflits automatiquement
-                int activitesMisesAJour = 0;
-                ActiviteServiceImpl serviceImpl = (ActiviteServiceImpl) activiteService;
-
-                for (Activite activite : activitesOptimisees) {
-                    // ✅ Utiliser la méthode SANS détection de conflits
-                    if (serviceImpl.modifierSansDetectionConflits(activite)) {
-                        activitesMisesAJour++;
-                    }
-                }
-
-                System.out.println("✅ " + activitesMisesAJour + " activités mises à jour (sans recréer de conflits)");
-
-                // ✅ ÉTAPE 4 : Détecter manuellement les NOUVEAUX conflits (s'il en reste)
-                // Si le planning optimisé n'est toujours pas valide, créer les conflits
-                // nécessaires
-                if (!valideApres) {
-                    System.out.println("⚠️ Planning toujours invalide après optimisation, détection des conflits...");
-
-                    // Utiliser la méthode normale pour AU MOINS une activité afin de détecter les
-                    // conflits
-                    if (!activitesOptimisees.isEmpty()) {
-                        serviceImpl.mettreAJourActivite(activitesOptimisees.get(0));
-                    }
-                }
-
-                // ✅ ÉTAPE 5 : Recompter les conflits restants
-                List<Conflit> nouveauxConflits = conflitService.getTousLesConflitsUtilisateur(userId);
-                int conflitsRestants = nouveauxConflits.size();
-
-                System.out.println("📊 Conflits restants: " + conflitsRestants);
-
-                // Réponse
-                response.addProperty("succes", true);
-                response.addProperty("message", "Planning optimisé avec succès");
-                response.addProperty("iterations", iterations);
-                response.addProperty("scoreAvant", scoreAvant);
-                response.addProperty("scoreApres", scoreApres);
-                response.addProperty("amelioration", scoreApres - scoreAvant);
-                response.addProperty("valideAvant", valideAvant);
-                response.addProperty("valideApres", valideApres);
-                response.addProperty("activitesMisesAJour", activitesMisesAJour);
-                response.addProperty("conflitsSupprimes", conflitsSupprimes);
-                response.addProperty("conflitsRestants", conflitsRestants);
-                response.add("activites", gson.toJsonTree(activitesOptimisees));
-
-                resp.setStatus(HttpServletResponse.SC_OK);
+            if (!routes.traiter(methode, req, resp, out)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                JsonObject response = new JsonObject();
+                response.addProperty("succes", false);
+                response.addProperty("message", "Endpoint non trouvé");
                 out.print(gson.toJson(response));
-                return;
             }
 
-            // POST /api/activites - Créer une activité
-            String body = getRequestBody(req);
-            JsonObject json = gson.fromJson(body, JsonObject.class);
+        } catch (IllegalArgumentException | JsonParseException e) {
+            // Corps JSON, nombre, type ou mode d'optimisation invalide (NumberFormatException comprise)
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject response = new JsonObject();
+            response.addProperty("succes", false);
+            response.addProperty("message", "Paramètre invalide: " + e.getMessage());
+            out.print(gson.toJson(response));
 
-            Activite activite = new Activite();
-            activite.setTitre(getJsonString(json, "titre"));
-            activite.setDescription(getJsonString(json, "description"));
-            activite.setIdUtilisateur(json.get("idUtilisateur").getAsLong());
+        } catch (Exception e) {
+            journal.erreur("Erreur dans ActiviteController." + nom, e);
 
-            // Type d'activité
-            String typeStr = getJsonString(json, "typeActivite");
-            if (typeStr != null) {
-                activite.setTypeActivite(TypeActivite.valueOf(typeStr));
-            }
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            JsonObject response = new JsonObject();
+            response.addProperty("succes", false);
+            response.addProperty("message", "Erreur serveur: " + e.getMessage());
+            out.print(gson.toJson(response));
+        }
+    }
 
-            // Priorité
-            if (json.has("priorite") && !json.get("priorite").isJsonNull()) {
-                activite.setPriorite(json.get("priorite").getAsInt());
-            }
+    // ========== ROUTES GET ==========
+
+    /**
+     * GET /api/activites - Toutes les activités, écrites au fil de la lecture
+     * (une page avec ?limite=N&curseur=...)
+     */
+    private void listerToutes(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) throws IOException {
+        Pagination pagination = Pagination.lire(req);
+        if (pagination != null) {
+            Page<Activite> page = activiteService.getPage(pagination.getCurseur(), pagination.getTaille());
+            Pagination.entetes(resp, page);
+            gson.toJson(page.getElements(), out);
+            return;
+        }
 
-            // Dates
-            String debutStr = getJsonString(json, "horaireDebut");
-            if (debutStr != null) {
-                activite.setHoraireDebut(parseDateTime(debutStr));
+        JsonWriter json = gson.newJsonWriter(out);
+        json.beginArray();
+        boolean complet = activiteService.parcourirTout(activites -> {
+            for (Activite activite : activites) {
+                gson.toJson(activite, Activite.class, json);
             }
+            // PrintWriter ne lève rien : checkError() envoie la page et signale un client parti
+            return !out.checkError();
+        });
+        // Pas de "]" final sur une liste incomplète : l'exception interrompt la
+        // réponse au lieu d'envoyer un 200 tronqué
+        if (out.checkError()) {
+            throw new IOException("Client déconnecté pendant l'envoi des activités");
+        }
+        if (!complet) {
+            throw new IOException("Liste des activités incomplète (erreur de lecture)");
+        }
+        json.endArray();
+        json.flush();
+    }
 
-            String finStr = getJsonString(json, "horaireFin");
-            if (finStr != null) {
-                activite.setHoraireFin(parseDateTime(finStr));
-            }
+    /**
+     * GET /api/activites/utilisateur/{userId} (une page avec ?limite=N&curseur=...)
+     */
+    private void listerParUtilisateur(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        Long userId = p.getLong("userId");
+        Pagination pagination = Pagination.lire(req);
+        if (pagination != null) {
+            Page<Activite> page = activiteService.getPageByUtilisateur(userId, pagination.getCurseur(),
+                    pagination.getTaille());
+            Pagination.entetes(resp, page);
+            gson.toJson(page.getElements(), out); // écrit au fil de la sérialisation
+            return;
+        }
+
+        List<Activite> activites = activiteService.getByUtilisateur(userId);
+        journal.debug("👤 {} activités pour user {}", activites.size(), userId);
+        gson.toJson(activites, out); // écrit au fil de la sérialisation
+    }
 
-            String deadlineStr = getJsonString(json, "deadline");
-            if (deadlineStr != null && !deadlineStr.isEmpty()) {
-                activite.setDeadline(parseDateTime(deadlineStr));
+    /**
+     * GET /api/activites/utilisateur/{userId}/type/{type}
+     */
+    private void listerParType(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        TypeActivite type = TypeActivite.valueOf(p.get("type"));
+        List<Activite> activites = activiteService.getByType(p.getLong("userId"), type);
+        gson.toJson(activites, out); // écrit au fil de la sérialisation
+    }
+
+    /**
+     * GET /api/activites/utilisateur/{userId}/score et /valider - Score du planning
+     * AVEC conflits (en cache tant que les données de l'utilisateur n'ont pas changé)
+     */
+    private void evaluer(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p,
+            boolean validation) {
+        Long userId = p.getLong("userId");
+        cacheReponses.repondre(req, resp, out, userId, req.getPathInfo(), () -> evaluerPlanning(userId, validation));
+    }
+
+    /**
+     * GET /api/activites/{id}
+     */
+    private void detail(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        Activite activite = activiteService.getById(p.getLong("id"));
+
+        if (activite != null) {
+            out.print(gson.toJson(activite));
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            JsonObject error = new JsonObject();
+            error.addProperty("message", "Activité non trouvée");
+            out.print(gson.toJson(error));
+        }
+    }
+
+    // ========== ROUTES POST, PUT, DELETE ==========
+
+    /**
+     * POST /api/activites/utilisateur/{userId}/optimiser/jobs - Optimisation en tâche de fond
+     */
+    private void soumettreOptimisation(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) throws IOException {
+        Long userId = p.getLong("userId");
+        JsonObject response = new JsonObject();
+
+        String body = getRequestBody(req);
+        int iterations = 1000;
+        long delaiMs = 0;
+        if (body != null && !body.isEmpty()) {
+            JsonObject json = gson.fromJson(body, JsonObject.class);
+            if (json.has("iterations")) {
+                iterations = json.get("iterations").getAsInt();
+            }
+            if (json.has("delaiMs")) {
+                delaiMs = json.get("delaiMs").getAsLong();
             }
+        }
 
-            boolean success = activiteService.ajouter(activite);
+        List<Activite> activites = activiteService.getByUtilisateur(userId);
+        List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId.intValue());
 
-            if (success) {
-                response.addProperty("succes", true);
-                response.addProperty("message", "Activité créée");
-                response.add("activite", gson.toJsonTree(activite));
-                resp.setStatus(HttpServletResponse.SC_CREATED);
-            } else {
+        try {
+            // Le planning obtenu n'est enregistré que si les activités n'ont pas changé entre-temps
+            TacheOptimisation tache = activiteService.soumettreOptimisation(userId, activites, contraintes,
+                    iterations, delaiMs, t -> enregistrerSiInchange(userId, activites, t.getResultat(),
+                            t.isValide()));
+
+            if (tache == null) {
                 response.addProperty("succes", false);
-                response.addProperty("message", "Erreur lors de la création");
+                response.addProperty("message", "Paramètres d'optimisation invalides ou planning vide");
                 resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            } else {
+                response.addProperty("succes", true);
+                response.addProperty("idJob", tache.getId());
+                response.addProperty("statut", tache.getStatut().name());
+                response.addProperty("suivi", "/api/optimisations/" + tache.getId());
+                resp.setStatus(HttpServletResponse.SC_ACCEPTED);
             }
+        } catch (IllegalStateException e) {
+            response.addProperty("succes", false);
+            response.addProperty("message", e.getMessage());
+            resp.setStatus(429);
+        } catch (RejectedExecutionException e) {
+            response.addProperty("succes", false);
+            response.addProperty("message", e.getMessage());
+            resp.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        }
+        out.print(gson.toJson(response));
+    }
 
-            out.print(gson.toJson(response));
-
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ActiviteController.doPost:");
-            e.printStackTrace();
+    /**
+     * Fin d'une optimisation en tâche de fond : relit les activités et
+     * n'applique les nouveaux horaires que si aucune n'a été créée, supprimée
+     * ou modifiée depuis l'instantané optimisé. Sinon rien n'est enregistré
+     * (une modification faite pendant l'optimisation n'est jamais écrasée).
+     *
+     * @return false si le planning est périmé
+     */
+    private boolean enregistrerSiInchange(Long userId, List<Activite> instantane, List<Activite> optimisees,
+            boolean valide) {
+        Map<Long, Activite> courantes = new HashMap<>();
+        for (Activite activite : activiteService.getByUtilisateur(userId)) {
+            courantes.put(activite.getIdActivite(), activite);
+        }
+        if (courantes.size() != instantane.size()) {
+            journal.info("⏭️ Optimisation périmée pour user {} : activités ajoutées ou supprimées", userId);
+            return false;
+        }
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur: " + e.getMessage());
-            out.print(gson.toJson(response));
+        // Seules les activités déplacées sont réécrites, à partir de leur ligne relue
+        List<Activite> deplacees = new ArrayList<>();
+        for (int i = 0; i < instantane.size(); i++) {
+            Activite avant = instantane.get(i);
+            Activite courante = courantes.get(avant.getIdActivite());
+            if (courante == null || !memeContenu(avant, courante)) {
+                journal.info("⏭️ Optimisation périmée pour user {} : activité {} modifiée", userId,
+                        avant.getIdActivite());
+                return false;
+            }
+            Activite optimisee = optimisees.get(i);
+            if (!Objects.equals(optimisee.getHoraireDebut(), courante.getHoraireDebut())
+                    || !Objects.equals(optimisee.getHoraireFin(), courante.getHoraireFin())) {
+                courante.setHoraireDebut(optimisee.getHoraireDebut());
+                courante.setHoraireFin(optimisee.getHoraireFin());
+                deplacees.add(courante);
+            }
         }
+
+        enregistrerPlanningOptimise(userId, deplacees, valide, new ConflitServiceImpl());
+        return true;
     }
 
-    @Override
-    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+    private static boolean memeContenu(Activite a, Activite b) {
+        return Objects.equals(a.getTitre(), b.getTitre())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && a.getTypeActivite() == b.getTypeActivite()
+                && Objects.equals(a.getPriorite(), b.getPriorite())
+                && Objects.equals(a.getDeadline(), b.getDeadline())
+                && Objects.equals(a.getHoraireDebut(), b.getHoraireDebut())
+                && Objects.equals(a.getHoraireFin(), b.getHoraireFin());
+    }
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
+    /**
+     * POST /api/activites/utilisateur/{userId}/optimiser - Optimiser le planning
+     */
+    private void optimiser(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p)
+            throws IOException {
+        Long userId = p.getLong("userId");
         JsonObject response = new JsonObject();
 
-        try {
-            if (pathInfo != null && pathInfo.length() > 1) {
-                Long id = Long.parseLong(pathInfo.substring(1));
-                Activite existingActivite = activiteService.getById(id);
-
-                if (existingActivite != null) {
-                    String body = getRequestBody(req);
-                    JsonObject json = gson.fromJson(body, JsonObject.class);
-
-                    // Mise à jour des champs
-                    if (json.has("titre"))
-                        existingActivite.setTitre(getJsonString(json, "titre"));
-                    if (json.has("description"))
-                        existingActivite.setDescription(getJsonString(json, "description"));
-
-                    if (json.has("typeActivite")) {
-                        existingActivite.setTypeActivite(TypeActivite.valueOf(getJsonString(json, "typeActivite")));
-                    }
-
-                    if (json.has("priorite") && !json.get("priorite").isJsonNull()) {
-                        existingActivite.setPriorite(json.get("priorite").getAsInt());
-                    }
-
-                    if (json.has("horaireDebut")) {
-                        existingActivite.setHoraireDebut(parseDateTime(getJsonString(json, "horaireDebut")));
-                    }
-                    if (json.has("horaireFin")) {
-                        existingActivite.setHoraireFin(parseDateTime(getJsonString(json, "horaireFin")));
-                    }
-                    if (json.has("deadline")) {
-                        String dl = getJsonString(json, "deadline");
-                        existingActivite.setDeadline(dl != null && !dl.isEmpty() ? parseDateTime(dl) : null);
-                    }
-
-                    boolean success = activiteService.modifier(existingActivite);
-
-                    if (success) {
-                        response.addProperty("succes", true);
-                        response.addProperty("message", "Activité modifiée");
-                        response.add("activite", gson.toJsonTree(existingActivite));
-                    } else {
-                        response.addProperty("succes", false);
-                        response.addProperty("message", "Erreur lors de la modification");
-                        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                    }
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Activité non trouvée");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
+        // Lire le nombre d'itérations et, pour le mode parallèle, threads/seed/budgetMs/mode
+        String body = getRequestBody(req);
+        int iterations = 1000;
+        OptimiseurParallele.Parametres parametresParalleles = null;
+        if (body != null && !body.isEmpty()) {
+            JsonObject json = gson.fromJson(body, JsonObject.class);
+            if (json.has("iterations")) {
+                iterations = json.get("iterations").getAsInt();
+            }
+            if (json.has("threads") || json.has("mode")) {
+                int threads = json.has("threads") ? json.get("threads").getAsInt()
+                        : Runtime.getRuntime().availableProcessors();
+                long seed = json.has("seed") ? json.get("seed").getAsLong() : System.nanoTime();
+                long budgetMs = json.has("budgetMs") ? json.get("budgetMs").getAsLong() : 0;
+                OptimiseurParallele.Mode mode = OptimiseurParallele.Mode.depuis(getJsonString(json, "mode"));
+                parametresParalleles = new OptimiseurParallele.Parametres(threads, seed, budgetMs,
+                        iterations, mode);
             }
+        }
 
-            out.print(gson.toJson(response));
+        journal.debug("🔄 Début optimisation pour user {} avec {} itérations", userId, iterations);
+
+        // ✅ ÉTAPE 1 : Supprimer TOUS les conflits existants avant l'optimisation
+        ConflitService conflitService = new ConflitServiceImpl();
+        int conflitsSupprimes = supprimerConflits(userId, conflitService);
+
+        // Récupérer les activités et contraintes
+        List<Activite> activites = activiteService.getByUtilisateur(userId);
+        List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId.intValue());
+
+        // Score avant optimisation
+        double scoreAvant = activiteService.calculerScoreAvecConflits(activites, contraintes);
+        boolean valideAvant = activiteService.planningValide(activites, contraintes);
+
+        journal.debug("📊 Score avant: {} - Valide: {}", scoreAvant, valideAvant);
+
+        // ✅ ÉTAPE 2 : Optimiser (une chaîne, ou plusieurs en parallèle)
+        List<Activite> activitesOptimisees;
+        OptimiseurParallele.Resultat resultatParallele = null;
+        if (parametresParalleles != null) {
+            resultatParallele = activiteService.optimiserPlanningParallele(activites, contraintes,
+                    parametresParalleles);
+            activitesOptimisees = resultatParallele != null ? resultatParallele.getActivites() : activites;
+        } else {
+            activitesOptimisees = activiteService.optimiserPlanning(
+                    activites,
+                    contraintes,
+                    iterations);
+        }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ActiviteController.doPut:");
-            e.printStackTrace();
+        // Score après optimisation (AVANT la mise à jour en base)
+        double scoreApres = activiteService.calculerScoreAvecConflits(activitesOptimisees, contraintes);
+        boolean valideApres = activiteService.planningValide(activitesOptimisees, contraintes);
+
+        journal.debug("📊 Score après optimisation (théorique): {} - Valide: {}", scoreApres, valideApres);
+
+        // ✅ ÉTAPES 3 à 5 : Enregistrer le planning et recompter les conflits
+        int[] bilan = enregistrerPlanningOptimise(userId, activitesOptimisees, valideApres, conflitService);
+        int activitesMisesAJour = bilan[0];
+        int conflitsRestants = bilan[1];
+
+        // Réponse
+        response.addProperty("succes", true);
+        response.addProperty("message", "Planning optimisé avec succès");
+        response.addProperty("iterations", iterations);
+        response.addProperty("scoreAvant", scoreAvant);
+        response.addProperty("scoreApres", scoreApres);
+        response.addProperty("amelioration", scoreApres - scoreAvant);
+        response.addProperty("valideAvant", valideAvant);
+        response.addProperty("valideApres", valideApres);
+        response.addProperty("activitesMisesAJour", activitesMisesAJour);
+        response.addProperty("conflitsSupprimes", conflitsSupprimes);
+        response.addProperty("conflitsRestants", conflitsRestants);
+        if (resultatParallele != null) {
+            response.addProperty("mode", parametresParalleles.getMode().name());
+            response.addProperty("threads", parametresParalleles.getChaines());
+            response.addProperty("seed", parametresParalleles.getGraine());
+            response.addProperty("iterationsEffectuees", resultatParallele.getIterations());
+            response.addProperty("epoques", resultatParallele.getEpoques());
+            response.addProperty("echanges", resultatParallele.getEchanges());
+            response.addProperty("budgetAtteint", resultatParallele.isBudgetAtteint());
+            response.addProperty("dureeMs", resultatParallele.getDureeMs());
+        }
+        response.add("activites", gson.toJsonTree(activitesOptimisees));
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        resp.setStatus(HttpServletResponse.SC_OK);
+        out.print(gson.toJson(response));
+    }
+
+    /**
+     * POST /api/activites - Créer une activité
+     */
+    private void creer(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p)
+            throws IOException {
+        JsonObject response = new JsonObject();
+        String body = getRequestBody(req);
+        JsonObject json = gson.fromJson(body, JsonObject.class);
+
+        Activite activite = new Activite();
+        activite.setTitre(getJsonString(json, "titre"));
+        activite.setDescription(getJsonString(json, "description"));
+        activite.setIdUtilisateur(json.get("idUtilisateur").getAsLong());
+
+        // Type d'activité
+        String typeStr = getJsonString(json, "typeActivite");
+        if (typeStr != null) {
+            activite.setTypeActivite(TypeActivite.valueOf(typeStr));
+        }
+
+        // Priorité
+        if (json.has("priorite") && !json.get("priorite").isJsonNull()) {
+            activite.setPriorite(json.get("priorite").getAsInt());
+        }
+
+        // Dates
+        String debutStr = getJsonString(json, "horaireDebut");
+        if (debutStr != null) {
+            activite.setHoraireDebut(parseDateTime(debutStr));
+        }
+
+        String finStr = getJsonString(json, "horaireFin");
+        if (finStr != null) {
+            activite.setHoraireFin(parseDateTime(finStr));
+        }
+
+        String deadlineStr = getJsonString(json, "deadline");
+        if (deadlineStr != null && !deadlineStr.isEmpty()) {
+            activite.setDeadline(parseDateTime(deadlineStr));
+        }
+
+        boolean success = activiteService.ajouter(activite);
+
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Activité créée");
+            response.add("activite", gson.toJsonTree(activite));
+            resp.setStatus(HttpServletResponse.SC_CREATED);
+        } else {
             response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur: " + e.getMessage());
-            out.print(gson.toJson(response));
+            response.addProperty("message", "Erreur lors de la création");
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         }
-    }
 
-    @Override
-    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+        out.print(gson.toJson(response));
+    }
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
+    /**
+     * PUT /api/activites/{id} - Modifier une activité
+     */
+    private void modifier(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p)
+            throws IOException {
         JsonObject response = new JsonObject();
+        Activite existingActivite = activiteService.getById(p.getLong("id"));
 
-        try {
-            if (pathInfo != null && pathInfo.length() > 1) {
-                Long id = Long.parseLong(pathInfo.substring(1));
-                boolean success = activiteService.supprimer(id);
-
-                if (success) {
-                    response.addProperty("succes", true);
-                    response.addProperty("message", "Activité supprimée");
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Activité non trouvée");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
+        if (existingActivite != null) {
+            String body = getRequestBody(req);
+            JsonObject json = gson.fromJson(body, JsonObject.class);
+
+            // Mise à jour des champs
+            if (json.has("titre"))
+                existingActivite.setTitre(getJsonString(json, "titre"));
+            if (json.has("description"))
+                existingActivite.setDescription(getJsonString(json, "description"));
+
+            if (json.has("typeActivite")) {
+                existingActivite.setTypeActivite(TypeActivite.valueOf(getJsonString(json, "typeActivite")));
             }
 
-            out.print(gson.toJson(response));
+            if (json.has("priorite") && !json.get("priorite").isJsonNull()) {
+                existingActivite.setPriorite(json.get("priorite").getAsInt());
+            }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ActiviteController.doDelete:");
-            e.printStackTrace();
+            if (json.has("horaireDebut")) {
+                existingActivite.setHoraireDebut(parseDateTime(getJsonString(json, "horaireDebut")));
+            }
+            if (json.has("horaireFin")) {
+                existingActivite.setHoraireFin(parseDateTime(getJsonString(json, "horaireFin")));
+            }
+            if (json.has("deadline")) {
+                String dl = getJsonString(json, "deadline");
+                existingActivite.setDeadline(dl != null && !dl.isEmpty() ? parseDateTime(dl) : null);
+            }
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            boolean success = activiteService.modifier(existingActivite);
+
+            if (success) {
+                response.addProperty("succes", true);
+                response.addProperty("message", "Activité modifiée");
+                response.add("activite", gson.toJsonTree(existingActivite));
+            } else {
+                response.addProperty("succes", false);
+                response.addProperty("message", "Erreur lors de la modification");
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            }
+        } else {
             response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur");
-            out.print(gson.toJson(response));
+            response.addProperty("message", "Activité non trouvée");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
+
+        out.print(gson.toJson(response));
+    }
+
+    /**
+     * DELETE /api/activites/{id} - Supprimer une activité
+     */
+    private void supprimer(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        JsonObject response = new JsonObject();
+        boolean success = activiteService.supprimer(p.getLong("id"));
+
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Activité supprimée");
+        } else {
+            response.addProperty("succes", false);
+            response.addProperty("message", "Activité non trouvée");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
         }
+
+        out.print(gson.toJson(response));
     }
 
     // ========== UTILITY METHODS ==========
 
+    /**
+     * Corps JSON de /score et /valider (même calcul, ordre des champs propre à chaque route).
+     */
+    private String evaluerPlanning(Long userId, boolean validation) {
+        List<Activite> activites = activiteService.getByUtilisateur(userId);
+        List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId.intValue());
+
+        // ✅ UTILISER LA MÉTHODE AVEC CONFLITS
+        double score = activiteService.calculerScoreAvecConflits(activites, contraintes);
+        boolean valide = activiteService.planningValide(activites, contraintes);
+
+        JsonObject result = new JsonObject();
+        result.addProperty("succes", true);
+        if (validation) {
+            result.addProperty("valide", valide);
+            result.addProperty("score", score);
+        } else {
+            result.addProperty("score", score);
+            result.addProperty("valide", valide);
+        }
+        result.addProperty("nombreActivites", activites.size());
+        result.addProperty("nombreContraintes", contraintes.size());
+        return gson.toJson(result);
+    }
+
     private void setCorsHeaders(HttpServletResponse resp) {
         resp.setHeader("Access-Control-Allow-Origin", "*");
         resp.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS");
-        resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization, If-None-Match");
+        resp.setHeader("Access-Control-Expose-Headers", "ETag, " + Pagination.ENTETE_CURSEUR_SUIVANT);
     }
 
     private String getRequestBody(HttpServletRequest req) throws IOException {
@@ -466,6 +657,56 @@ public class ActiviteController extends HttpServlet {
         return sb.toString();
     }
 
+    /**
+     * Supprime tous les conflits de l'utilisateur (ils sont recalculés après optimisation).
+     */
+    private int supprimerConflits(Long userId, ConflitService conflitService) {
+        List<Conflit> anciensConflits = conflitService.getTousLesConflitsUtilisateur(userId);
+        int conflitsSupprimes = 0;
+        for (Conflit conflit : anciensConflits) {
+            if (conflitService.supprimerConflit(conflit.getidConflit())) {
+                conflitsSupprimes++;
+            }
+        }
+        journal.debug("🗑️ {} anciens conflits supprimés", conflitsSupprimes);
+        return conflitsSupprimes;
+    }
+
+    /**
+     * Enregistre un planning optimisé et recrée les conflits restants.
+     *
+     * @return { activités mises à jour, conflits restants }
+     */
+    private int[] enregistrerPlanningOptimise(Long userId, List<Activite> activitesOptimisees, boolean valideApres,
+            ConflitService conflitService) {
+        // ✅ ÉTAPE 3 : Mettre à jour SANS détecter les conflits automatiquement
+        int activitesMisesAJour = 0;
+        ActiviteServiceImpl serviceImpl = (ActiviteServiceImpl) activiteService;
+
+        for (Activite activite : activitesOptimisees) {
+            // ✅ Utiliser la méthode SANS détection de conflits
+            if (serviceImpl.modifierSansDetectionConflits(activite)) {
+                activitesMisesAJour++;
+            }
+        }
+
+        journal.debug("✅ {} activités mises à jour (sans recréer de conflits)", activitesMisesAJour);
+
+        // ✅ ÉTAPE 4 : Recréer les conflits restants (chevauchements et contraintes)
+        // à partir de tout le planning enregistré
+        if (!valideApres) {
+            journal.debug("⚠️ Planning toujours invalide après optimisation, détection des conflits...");
+        }
+        serviceImpl.resynchroniserConflits(userId);
+
+        // ✅ ÉTAPE 5 : Recompter les conflits restants
+        List<Conflit> nouveauxConflits = conflitService.getTousLesConflitsUtilisateur(userId);
+        int conflitsRestants = nouveauxConflits.size();
+
+        journal.debug("📊 Conflits restants: {}", conflitsRestants);
+        return new int[] { activitesMisesAJour, conflitsRestants };
+    }
+
     private String getJsonString(JsonObject json, String key) {
         if (json.has(key) && !json.get(key).isJsonNull()) {
             return json.get(key).getAsString();
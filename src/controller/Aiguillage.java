@@ -0,0 +1,155 @@
+package controller;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+import util.Histogramme;
+import util.Metriques;
+
+/**
+ * Aiguillage des requêtes /api/{controller}/... du serveur embarqué, construit
+ * au démarrage.
+ *
+ * Pour chaque controller, les méthodes doGet, doPost, doPut, doPatch et
+ * doDelete qu'il redéfinit sont résolues une fois en MethodHandle liés à
+ * l'instance : une requête ne fait plus ni getDeclaredMethod, ni
+ * setAccessible, ni Method.invoke. Le préfixe est lu dans le chemin sans le
+ * découper.
+ *
+ * Chaque point d'entrée est chronométré dans
+ * planner_controller_duree_secondes{controleur, methode}.
+ */
+public final class Aiguillage {
+
+    private static final MethodType SIGNATURE = MethodType.methodType(void.class, HttpServletRequest.class,
+            HttpServletResponse.class);
+    private static final String[][] METHODES = { { "GET", "doGet" }, { "POST", "doPost" }, { "PUT", "doPut" },
+            { "PATCH", "doPatch" }, { "DELETE", "doDelete" } };
+
+    private final Map<String, Controleur> controleurs = new HashMap<>();
+
+    /**
+     * Un controller et ses points d'entrée par méthode HTTP.
+     */
+    public static final class Controleur {
+        private final HttpServlet servlet;
+        private final boolean utiliseBase;
+        private final Map<String, MethodHandle> parMethode = new HashMap<>(8);
+        private final Map<String, Histogramme> durees = new HashMap<>(8);
+
+        private Controleur(HttpServlet servlet, boolean utiliseBase) {
+            this.servlet = servlet;
+            this.utiliseBase = utiliseBase;
+        }
+
+        public HttpServlet getServlet() {
+            return servlet;
+        }
+
+        /**
+         * @return false pour un controller qui ne fait pas de requête SQL (il
+         *         n'est pas soumis à la limite de travaux DB)
+         */
+        public boolean utiliseBase() {
+            return utiliseBase;
+        }
+
+        public boolean accepte(String methode) {
+            return parMethode.containsKey(methode);
+        }
+
+        /**
+         * @throws IllegalArgumentException si le controller ne traite pas cette méthode
+         */
+        public void invoquer(String methode, HttpServletRequest req, HttpServletResponse resp)
+                throws ServletException, IOException {
+            MethodHandle point = parMethode.get(methode);
+            if (point == null) {
+                throw new IllegalArgumentException("Méthode non prise en charge: " + methode);
+            }
+            long debut = System.nanoTime();
+            try {
+                point.invokeExact(req, resp);
+            } catch (ServletException | IOException | RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ServletException(e);
+            } finally {
+                durees.get(methode).depuis(debut);
+            }
+        }
+    }
+
+    // ========== CONSTRUCTION ==========
+
+    /**
+     * @param prefixe premier segment du chemin après /api, ex. "activites"
+     * @throws IllegalStateException si les méthodes du servlet ne sont pas accessibles
+     */
+    public Aiguillage enregistrer(String prefixe, HttpServlet servlet) {
+        return enregistrer(prefixe, servlet, true);
+    }
+
+    /**
+     * @param utiliseBase false si le controller ne fait aucune requête SQL
+     */
+    public Aiguillage enregistrer(String prefixe, HttpServlet servlet, boolean utiliseBase) {
+        Controleur controleur = new Controleur(servlet, utiliseBase);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(servlet.getClass(), MethodHandles.lookup());
+            for (String[] methode : METHODES) {
+                Class<?> declarante = declarante(servlet.getClass(), methode[1]);
+                if (declarante != null) {
+                    MethodHandle point = lookup.findVirtual(declarante, methode[1], SIGNATURE).bindTo(servlet);
+                    controleur.parMethode.put(methode[0], point);
+                    controleur.durees.put(methode[0], Metriques.histogramme("planner_controller_duree_secondes",
+                            "Durée de traitement par controller", "controleur", prefixe, "methode", methode[0]));
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Controller inaccessible: " + servlet.getClass().getName(), e);
+        }
+        controleurs.put(prefixe, controleur);
+        return this;
+    }
+
+    /**
+     * Classe du controller qui redéfinit la méthode (null si seul HttpServlet
+     * la définit : sa version par défaut ne fait que refuser la requête).
+     */
+    private static Class<?> declarante(Class<?> classe, String nom) {
+        for (Class<?> c = classe; c != null && c != HttpServlet.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(nom, HttpServletRequest.class, HttpServletResponse.class);
+                return c;
+            } catch (NoSuchMethodException e) {
+                // méthode héritée : classe parente
+            }
+        }
+        return null;
+    }
+
+    // ========== RECHERCHE ==========
+
+    /**
+     * @param apiPath chemin après /api, ex. "/activites/utilisateur/5"
+     * @return null si aucun controller ne porte ce préfixe
+     */
+    public Controleur trouver(String apiPath) {
+        int debut = apiPath.startsWith("/") ? 1 : 0;
+        int fin = apiPath.indexOf('/', debut);
+        return controleurs.get(apiPath.substring(debut, fin < 0 ? apiPath.length() : fin));
+    }
+
+    public int taille() {
+        return controleurs.size();
+    }
+}
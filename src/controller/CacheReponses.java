@@ -0,0 +1,173 @@
+package controller;
+
+import util.VersionsDonnees;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Cache des réponses GET coûteuses (statistiques, score et validation du
+ * planning), par utilisateur et par route avec ses paramètres.
+ *
+ * - Une réponse reste valable tant que la version des données de
+ *   l'utilisateur ({@link VersionsDonnees}) n'a pas changé, et au plus
+ *   planner.cache.reponses.ttlMs : les statistiques dépendent aussi de la date
+ * - Chaque réponse porte un ETag (empreinte du corps) ; si le client renvoie
+ *   cet ETag dans If-None-Match, la réponse est 304 sans corps
+ * - Utilisateurs (planner.cache.reponses.max) et routes par utilisateur
+ *   (planner.cache.reponses.parUtilisateur) en nombre borné, le moins
+ *   récemment consulté est évincé
+ *
+ * Les réponses d'erreur ne sont jamais mises en cache.
+ */
+final class CacheReponses {
+
+    private static final CacheReponses INSTANCE = new CacheReponses(
+            Integer.getInteger("planner.cache.reponses.max", 1_000),
+            Integer.getInteger("planner.cache.reponses.parUtilisateur", 32),
+            Long.getLong("planner.cache.reponses.ttlMs", 60_000L));
+
+    private final VersionsDonnees versions = VersionsDonnees.getInstance();
+    private final int maxUtilisateurs;
+    private final int maxParUtilisateur;
+    private final long ttlMs;
+
+    /** Ordre d'accès : le premier utilisateur est le moins récemment consulté */
+    private final LinkedHashMap<Long, LinkedHashMap<String, Entree>> entrees = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long hits;
+    private long miss;
+    private long nonModifiees;
+
+    private static final class Entree {
+        final String version;
+        final String corps;
+        final String etag;
+        final long expiration;
+
+        Entree(String version, String corps, long expiration) {
+            this.version = version;
+            this.corps = corps;
+            this.etag = etag(corps);
+            this.expiration = expiration;
+        }
+    }
+
+    CacheReponses(int maxUtilisateurs, int maxParUtilisateur, long ttlMs) {
+        this.maxUtilisateurs = Math.max(1, maxUtilisateurs);
+        this.maxParUtilisateur = Math.max(1, maxParUtilisateur);
+        this.ttlMs = ttlMs;
+    }
+
+    static CacheReponses getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Envoie la réponse JSON de la route, depuis le cache si elle est à jour,
+     * ou 304 si le client l'a déjà.
+     *
+     * @param cle    route et paramètres (ex. pathInfo + "?" + query)
+     * @param calcul calcul du corps JSON ; une exception n'est pas mise en cache
+     */
+    void repondre(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Long idUtilisateur, String cle,
+            Supplier<String> calcul) {
+        // Version lue avant le calcul : une écriture pendant le calcul rend l'entrée périmée
+        String version = versions.version(idUtilisateur);
+        Entree entree = lire(idUtilisateur, cle, version);
+        if (entree == null) {
+            entree = new Entree(version, calcul.get(), System.currentTimeMillis() + ttlMs);
+            stocker(idUtilisateur, cle, entree);
+        }
+
+        resp.setHeader("ETag", entree.etag);
+        resp.setHeader("Cache-Control", "no-cache");
+        if (correspond(req.getHeader("If-None-Match"), entree.etag)) {
+            synchronized (this) {
+                nonModifiees++;
+            }
+            resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        out.print(entree.corps);
+    }
+
+    private synchronized Entree lire(Long idUtilisateur, String cle, String version) {
+        LinkedHashMap<String, Entree> routes = entrees.get(idUtilisateur);
+        Entree entree = routes != null ? routes.get(cle) : null;
+        if (entree != null && entree.version.equals(version) && entree.expiration > System.currentTimeMillis()) {
+            hits++;
+            return entree;
+        }
+        miss++;
+        return null;
+    }
+
+    private synchronized void stocker(Long idUtilisateur, String cle, Entree entree) {
+        LinkedHashMap<String, Entree> routes = entrees.computeIfAbsent(idUtilisateur,
+                id -> new LinkedHashMap<>(16, 0.75f, true));
+        routes.put(cle, entree);
+        evincer(routes.entrySet().iterator(), routes, maxParUtilisateur);
+        evincer(entrees.entrySet().iterator(), entrees, maxUtilisateurs);
+    }
+
+    private static void evincer(Iterator<? extends Map.Entry<?, ?>> it, Map<?, ?> map, int max) {
+        while (map.size() > max && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // ========== ETAG ==========
+
+    /**
+     * ETag fort : empreinte FNV-1a 64 bits du corps.
+     */
+    static String etag(String corps) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < corps.length(); i++) {
+            h ^= corps.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return "\"" + Long.toHexString(h) + "-" + Integer.toHexString(corps.length()) + "\"";
+    }
+
+    /**
+     * Vrai si l'en-tête If-None-Match désigne l'ETag (liste séparée par des
+     * virgules, préfixe W/ ignoré, * accepté).
+     */
+    static boolean correspond(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidat : ifNoneMatch.split(",")) {
+            String valeur = candidat.trim();
+            if (valeur.startsWith("W/")) {
+                valeur = valeur.substring(2);
+            }
+            if (valeur.equals("*") || valeur.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ========== MÉTRIQUES ==========
+
+    synchronized long getHits() {
+        return hits;
+    }
+
+    synchronized long getMiss() {
+        return miss;
+    }
+
+    synchronized long getNonModifiees() {
+        return nonModifiees;
+    }
+}
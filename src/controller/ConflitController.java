@@ -7,6 +7,8 @@ import entities.TypeConflit;
 import service.ConflitService;
 import service.impl.ConflitServiceImpl;
 import util.GsonConfig;
+import util.Journal;
+import util.Page;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -23,7 +25,7 @@ import java.util.Map;
  * Controller REST pour la gestion des conflits
  * Endpoints:
  * - GET /api/conflits/utilisateur/{userId} - Liste des conflits d'un
- * utilisateur
+ * utilisateur (paginée avec ?limite=N&curseur=..., voir {@link Pagination})
  * - GET /api/conflits/utilisateur/{userId}/non-resolus - Conflits non résolus
  * - GET /api/conflits/utilisateur/{userId}/statistiques - Statistiques des
  * conflits
@@ -35,12 +37,23 @@ import java.util.Map;
 @WebServlet(urlPatterns = { "/api/conflits/*" })
 public class ConflitController extends HttpServlet {
 
+    private static final Journal journal = Journal.pour(ConflitController.class);
+
     private final ConflitService conflitService;
     private final Gson gson;
+    private final Routes routes;
 
     public ConflitController() {
         this.conflitService = new ConflitServiceImpl();
         this.gson = GsonConfig.createGson();
+        this.routes = new Routes("conflits")
+                .get("/utilisateur/{userId}", this::lister)
+                .get("/utilisateur/{userId}/non-resolus", this::listerNonResolus)
+                .get("/utilisateur/{userId}/statistiques", this::statistiques)
+                .post("/utilisateur/{userId}/detecter", this::detecter)
+                .put("/{id}/resoudre", this::resoudre)
+                .patch("/{id}/resoudre", this::resoudre)
+                .delete("/{id}", this::supprimer);
     }
 
     @Override
@@ -53,62 +66,25 @@ public class ConflitController extends HttpServlet {
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         setCorsHeaders(resp);
         resp.setContentType("application/json;charset=UTF-8");
-
-        String pathInfo = req.getPathInfo();
         PrintWriter out = resp.getWriter();
 
         try {
-            if (pathInfo != null && pathInfo.startsWith("/utilisateur/")) {
-                String[] parts = pathInfo.split("/");
-                if (parts.length >= 3) {
-                    Long userId = Long.parseLong(parts[2]);
-
-                    if (parts.length >= 4) {
-                        String action = parts[3];
-
-                        if ("non-resolus".equals(action)) {
-                            // GET /api/conflits/utilisateur/{userId}/non-resolus
-                            List<Conflit> conflits = conflitService.getConflitsNonResolusUtilisateur(userId);
-                            System.out.println("👤 Conflits non résolus pour user " + userId + ": " + conflits.size());
-                            out.print(gson.toJson(conflits));
-
-                        } else if ("statistiques".equals(action)) {
-                            // GET /api/conflits/utilisateur/{userId}/statistiques
-                            JsonObject stats = new JsonObject();
-                            stats.addProperty("total", conflitService.compterConflitsUtilisateur(userId));
-                            stats.addProperty("nonResolus",
-                                    conflitService.compterConflitsNonResolusUtilisateur(userId));
-                            stats.addProperty("tauxResolution", conflitService.getTauxResolutionUtilisateur(userId));
-
-                            Map<TypeConflit, Integer> parType = conflitService
-                                    .getStatistiquesParTypeUtilisateur(userId);
-                            stats.add("parType", gson.toJsonTree(parType));
-
-                            out.print(gson.toJson(stats));
-
-                        } else {
-                            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                            JsonObject error = new JsonObject();
-                            error.addProperty("message", "Endpoint non trouvé");
-                            out.print(gson.toJson(error));
-                        }
-                    } else {
-                        // GET /api/conflits/utilisateur/{userId}
-                        List<Conflit> conflits = conflitService.getTousLesConflitsUtilisateur(userId);
-                        System.out.println("👤 Tous les conflits pour user " + userId + ": " + conflits.size());
-                        out.print(gson.toJson(conflits));
-                    }
-                }
-            } else {
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            if (!routes.traiter("GET", req, resp, out)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
                 JsonObject error = new JsonObject();
-                error.addProperty("message", "ID utilisateur requis");
+                error.addProperty("message", "Endpoint non trouvé");
                 out.print(gson.toJson(error));
             }
 
+        } catch (IllegalArgumentException e) {
+            // Identifiant, limite ou curseur invalide
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("message", "Paramètre invalide: " + e.getMessage());
+            out.print(gson.toJson(error));
+
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans ConflitController.doGet:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans ConflitController.doGet", e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
@@ -119,193 +95,167 @@ public class ConflitController extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
-
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
-        JsonObject response = new JsonObject();
-
-        try {
-            if (pathInfo != null && pathInfo.contains("/detecter")) {
-                // POST /api/conflits/utilisateur/{userId}/detecter
-                String[] parts = pathInfo.split("/");
-                if (parts.length >= 3) {
-                    Long userId = Long.parseLong(parts[2]);
-
-                    System.out.println("🔍 Détection des conflits pour user " + userId);
-                    List<Conflit> conflitsDetectes = conflitService.detecterChevauchementsUtilisateur(userId);
-
-                    response.addProperty("succes", true);
-                    response.addProperty("message", conflitsDetectes.size() + " conflit(s) détecté(s)");
-                    response.add("conflits", gson.toJsonTree(conflitsDetectes));
-
-                    System.out.println("✅ " + conflitsDetectes.size() + " conflit(s) détecté(s)");
-                    out.print(gson.toJson(response));
-                    return;
-                }
-            }
-
-            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            response.addProperty("succes", false);
-            response.addProperty("message", "Endpoint non trouvé");
-            out.print(gson.toJson(response));
+        traiterEcriture("POST", "doPost", req, resp);
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ConflitController.doPost:");
-            e.printStackTrace();
+    @Override
+    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("PUT", "doPut", req, resp);
+    }
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur: " + e.getMessage());
-            out.print(gson.toJson(response));
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if ("PATCH".equalsIgnoreCase(req.getMethod())) {
+            doPatch(req, resp);
+        } else {
+            super.service(req, resp);
         }
     }
 
+    protected void doPatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("PATCH", "doPatch", req, resp);
+    }
+
     @Override
-    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("DELETE", "doDelete", req, resp);
+    }
+
+    private void traiterEcriture(String methode, String nom, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
         setCorsHeaders(resp);
         resp.setContentType("application/json;charset=UTF-8");
-
-        String pathInfo = req.getPathInfo();
         PrintWriter out = resp.getWriter();
-        JsonObject response = new JsonObject();
 
         try {
-            if (pathInfo != null && pathInfo.contains("/resoudre")) {
-                // PUT /api/conflits/{id}/resoudre
-                String idStr = pathInfo.replace("/resoudre", "").substring(1);
-                Long id = Long.parseLong(idStr);
-
-                System.out.println("✅ Tentative de résolution du conflit ID: " + id);
-                boolean success = conflitService.marquerConflitCommeResolu(id);
-
-                if (success) {
-                    response.addProperty("succes", true);
-                    response.addProperty("message", "Conflit marqué comme résolu");
-                    System.out.println("✅ Conflit " + id + " résolu avec succès");
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Conflit non trouvé");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                    System.out.println("❌ Conflit " + id + " non trouvé");
-                }
-
+            if (!routes.traiter(methode, req, resp, out)) {
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                JsonObject response = new JsonObject();
+                response.addProperty("succes", false);
+                response.addProperty("message", "Endpoint non trouvé");
                 out.print(gson.toJson(response));
-                return;
             }
 
-            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            response.addProperty("succes", false);
-            response.addProperty("message", "Endpoint non trouvé");
-            out.print(gson.toJson(response));
-
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans ConflitController.doPut:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans ConflitController." + nom, e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            JsonObject response = new JsonObject();
             response.addProperty("succes", false);
             response.addProperty("message", "Erreur serveur: " + e.getMessage());
             out.print(gson.toJson(response));
         }
     }
 
-    @Override
-    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        if ("PATCH".equalsIgnoreCase(req.getMethod())) {
-            doPatch(req, resp);
-        } else {
-            super.service(req, resp);
+    // ========== ROUTES ==========
+
+    /**
+     * GET /api/conflits/utilisateur/{userId} (une page avec ?limite=N&curseur=...)
+     */
+    private void lister(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        Long userId = p.getLong("userId");
+        Pagination pagination = Pagination.lire(req);
+        if (pagination != null) {
+            Page<Conflit> page = conflitService.getPageConflitsUtilisateur(userId, pagination.getCurseur(),
+                    pagination.getTaille());
+            Pagination.entetes(resp, page);
+            gson.toJson(page.getElements(), out); // écrit au fil de la sérialisation
+            return;
         }
+
+        List<Conflit> conflits = conflitService.getTousLesConflitsUtilisateur(userId);
+        journal.debug("👤 Tous les conflits pour user {}: {}", userId, conflits.size());
+        gson.toJson(conflits, out); // écrit au fil de la sérialisation
     }
 
-    protected void doPatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+    /**
+     * GET /api/conflits/utilisateur/{userId}/non-resolus
+     */
+    private void listerNonResolus(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        Long userId = p.getLong("userId");
+        List<Conflit> conflits = conflitService.getConflitsNonResolusUtilisateur(userId);
+        journal.debug("👤 Conflits non résolus pour user {}: {}", userId, conflits.size());
+        gson.toJson(conflits, out); // écrit au fil de la sérialisation
+    }
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
+    /**
+     * GET /api/conflits/utilisateur/{userId}/statistiques
+     */
+    private void statistiques(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        Long userId = p.getLong("userId");
+        JsonObject stats = new JsonObject();
+        stats.addProperty("total", conflitService.compterConflitsUtilisateur(userId));
+        stats.addProperty("nonResolus", conflitService.compterConflitsNonResolusUtilisateur(userId));
+        stats.addProperty("tauxResolution", conflitService.getTauxResolutionUtilisateur(userId));
+
+        Map<TypeConflit, Integer> parType = conflitService.getStatistiquesParTypeUtilisateur(userId);
+        stats.add("parType", gson.toJsonTree(parType));
+
+        out.print(gson.toJson(stats));
+    }
+
+    /**
+     * POST /api/conflits/utilisateur/{userId}/detecter
+     */
+    private void detecter(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        Long userId = p.getLong("userId");
         JsonObject response = new JsonObject();
 
-        try {
-            if (pathInfo != null && pathInfo.contains("/resoudre")) {
-                // PATCH /api/conflits/{id}/resoudre
-                String idStr = pathInfo.replace("/resoudre", "").substring(1);
-                Long id = Long.parseLong(idStr);
-
-                System.out.println("✅ Tentative de résolution du conflit ID: " + id);
-                boolean success = conflitService.marquerConflitCommeResolu(id);
-
-                if (success) {
-                    response.addProperty("succes", true);
-                    response.addProperty("message", "Conflit marqué comme résolu");
-                    System.out.println("✅ Conflit " + id + " résolu avec succès");
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Conflit non trouvé");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                    System.out.println("❌ Conflit " + id + " non trouvé");
-                }
+        List<Conflit> conflitsDetectes = conflitService.detecterChevauchementsUtilisateur(userId);
 
-                out.print(gson.toJson(response));
-                return;
-            }
+        response.addProperty("succes", true);
+        response.addProperty("message", conflitsDetectes.size() + " conflit(s) détecté(s)");
+        response.add("conflits", gson.toJsonTree(conflitsDetectes));
 
-            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-            response.addProperty("succes", false);
-            response.addProperty("message", "Endpoint non trouvé");
-            out.print(gson.toJson(response));
+        journal.debug("🔍 {} conflit(s) détecté(s) pour user {}", conflitsDetectes.size(), userId);
+        out.print(gson.toJson(response));
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ConflitController.doPatch:");
-            e.printStackTrace();
+    /**
+     * PUT ou PATCH /api/conflits/{id}/resoudre
+     */
+    private void resoudre(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        Long id = p.getLong("id");
+        JsonObject response = new JsonObject();
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        boolean success = conflitService.marquerConflitCommeResolu(id);
+
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Conflit marqué comme résolu");
+            journal.debug("✅ Conflit {} résolu", id);
+        } else {
             response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur: " + e.getMessage());
-            out.print(gson.toJson(response));
+            response.addProperty("message", "Conflit non trouvé");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            journal.debug("Conflit {} non trouvé", id);
         }
-    }
 
-    @Override
-    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+        out.print(gson.toJson(response));
+    }
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
+    /**
+     * DELETE /api/conflits/{id}
+     */
+    private void supprimer(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        Long id = p.getLong("id");
         JsonObject response = new JsonObject();
 
-        try {
-            if (pathInfo != null && pathInfo.matches("/\\d+")) {
-                // DELETE /api/conflits/{id}
-                Long id = Long.parseLong(pathInfo.substring(1));
-
-                boolean success = conflitService.supprimerConflit(id);
-
-                if (success) {
-                    response.addProperty("succes", true);
-                    response.addProperty("message", "Conflit supprimé");
-                    System.out.println("✅ Conflit " + id + " supprimé");
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Conflit non trouvé");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
-            }
-
-            out.print(gson.toJson(response));
+        boolean success = conflitService.supprimerConflit(id);
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ConflitController.doDelete:");
-            e.printStackTrace();
-
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Conflit supprimé");
+            journal.debug("🗑️ Conflit {} supprimé", id);
+        } else {
             response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur");
-            out.print(gson.toJson(response));
+            response.addProperty("message", "Conflit non trouvé");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
         }
+
+        out.print(gson.toJson(response));
     }
 
     // ========== UTILITY METHODS ==========
@@ -314,6 +264,7 @@ public class ConflitController extends HttpServlet {
         resp.setHeader("Access-Control-Allow-Origin", "*");
         resp.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS");
         resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        resp.setHeader("Access-Control-Expose-Headers", Pagination.ENTETE_CURSEUR_SUIVANT);
     }
 
     private String getRequestBody(HttpServletRequest req) throws IOException {
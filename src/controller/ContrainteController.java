@@ -9,6 +9,8 @@ import entities.StatutContrainte;
 import service.ContrainteService;
 import service.impl.ContrainteServiceImpl;
 import util.GsonConfig;
+import util.Journal;
+import util.Page;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -26,11 +28,23 @@ import java.util.List;
 @WebServlet(urlPatterns = { "/api/contraintes/*" })
 public class ContrainteController extends HttpServlet {
 
+    private static final Journal journal = Journal.pour(ContrainteController.class);
+
     private final ContrainteService contrainteService;
     private final Gson gson = GsonConfig.createGson(); // ✅ ICI
+    private final Routes routes;
 
     public ContrainteController() {
         this.contrainteService = new ContrainteServiceImpl();
+        this.routes = new Routes("contraintes")
+                .get("/", this::listerToutes)
+                .get("/utilisateur/{userId}", this::listerParUtilisateur)
+                .get("/utilisateur/{userId}/actives", this::listerActives)
+                .get("/{id}", this::detail)
+                .post("/", this::creer)
+                .put("/{id}", this::modifier)
+                .delete("/{id}", this::supprimer)
+                .patch("/{id}/toggle", this::basculerStatut);
     }
 
     @Override
@@ -43,46 +57,25 @@ public class ContrainteController extends HttpServlet {
     protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
         setCorsHeaders(resp);
         resp.setContentType("application/json;charset=UTF-8");
-
-        String pathInfo = req.getPathInfo();
         PrintWriter out = resp.getWriter();
 
         try {
-            if (pathInfo == null || pathInfo.equals("/")) {
-                List<Contrainte> contraintes = contrainteService.getAll();
-                out.print(gson.toJson(contraintes));
-
-            } else if (pathInfo.startsWith("/utilisateur/")) {
-                String[] parts = pathInfo.split("/");
-                if (parts.length >= 3) {
-                    int userId = Integer.parseInt(parts[2]);
-
-                    if (parts.length >= 4 && "actives".equals(parts[3])) {
-                        List<Contrainte> contraintes = contrainteService.getContraintesActives(userId);
-                        out.print(gson.toJson(contraintes));
-                    } else {
-                        List<Contrainte> contraintes = contrainteService.getByUtilisateur(userId);
-                        out.print(gson.toJson(contraintes));
-                    }
-                }
-
-            } else {
-                int id = Integer.parseInt(pathInfo.substring(1));
-                Contrainte contrainte = contrainteService.getById(id);
-
-                if (contrainte != null) {
-                    out.print(gson.toJson(contrainte));
-                } else {
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                    JsonObject error = new JsonObject();
-                    error.addProperty("message", "Contrainte non trouvée");
-                    out.print(gson.toJson(error));
-                }
+            if (!routes.traiter("GET", req, resp, out)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                JsonObject error = new JsonObject();
+                error.addProperty("message", "Endpoint non trouvé");
+                out.print(gson.toJson(error));
             }
 
+        } catch (IllegalArgumentException e) {
+            // Identifiant, limite ou curseur invalide
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            JsonObject error = new JsonObject();
+            error.addProperty("message", "Paramètre invalide: " + e.getMessage());
+            out.print(gson.toJson(error));
+
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans ContrainteController.doGet:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans ContrainteController.doGet", e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
@@ -93,222 +86,257 @@ public class ContrainteController extends HttpServlet {
 
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
-
-        PrintWriter out = resp.getWriter();
-        JsonObject response = new JsonObject();
-
-        try {
-            String body = getRequestBody(req);
-            JsonObject json = gson.fromJson(body, JsonObject.class);
-
-            Contrainte contrainte = new Contrainte();
-            contrainte.setTitre(getJsonString(json, "titre"));
-            contrainte.setUtilisateurId(json.get("utilisateurId").getAsInt());
-
-            String typeStr = getJsonString(json, "type");
-            if (typeStr != null) {
-                contrainte.setType(TypeContrainte.valueOf(typeStr));
-            }
-
-            String debutStr = getJsonString(json, "dateHeureDeb");
-            if (debutStr != null) {
-                contrainte.setDateHeureDeb(LocalTime.parse(debutStr));
-            }
+        traiterEcriture("POST", "doPost", req, resp);
+    }
 
-            String finStr = getJsonString(json, "dateHeureFin");
-            if (finStr != null) {
-                contrainte.setDateHeureFin(LocalTime.parse(finStr));
-            }
+    @Override
+    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("PUT", "doPut", req, resp);
+    }
 
-            if (json.has("repetitif")) {
-                contrainte.setRepetitif(json.get("repetitif").getAsBoolean());
-            }
+    @Override
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("DELETE", "doDelete", req, resp);
+    }
 
-            if (json.has("joursSemaine") && json.get("joursSemaine").isJsonArray()) {
-                List<DayOfWeek> jours = new ArrayList<>();
-                json.get("joursSemaine").getAsJsonArray().forEach(j -> {
-                    jours.add(DayOfWeek.valueOf(j.getAsString()));
-                });
-                contrainte.setJoursSemaine(jours);
-            }
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if ("PATCH".equalsIgnoreCase(req.getMethod())) {
+            doPatch(req, resp);
+        } else {
+            super.service(req, resp);
+        }
+    }
 
-            contrainte.setStatut(StatutContrainte.ACTIVE);
+    protected void doPatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        traiterEcriture("PATCH", "doPatch", req, resp);
+    }
 
-            boolean success = contrainteService.ajouter(contrainte);
+    private void traiterEcriture(String methode, String nom, HttpServletRequest req, HttpServletResponse resp)
+            throws IOException {
+        setCorsHeaders(resp);
+        resp.setContentType("application/json;charset=UTF-8");
+        PrintWriter out = resp.getWriter();
 
-            if (success) {
-                response.addProperty("succes", true);
-                response.addProperty("message", "Contrainte créée");
-                response.add("contrainte", gson.toJsonTree(contrainte));
-                resp.setStatus(HttpServletResponse.SC_CREATED);
-            } else {
+        try {
+            if (!routes.traiter(methode, req, resp, out)) {
+                resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                JsonObject response = new JsonObject();
                 response.addProperty("succes", false);
-                response.addProperty("message", "Erreur lors de la création");
-                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+                response.addProperty("message", "Endpoint non trouvé");
+                out.print(gson.toJson(response));
             }
 
-            out.print(gson.toJson(response));
-
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans ContrainteController.doPost:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans ContrainteController." + nom, e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            JsonObject response = new JsonObject();
             response.addProperty("succes", false);
             response.addProperty("message", "Erreur serveur: " + e.getMessage());
             out.print(gson.toJson(response));
         }
     }
 
-    @Override
-    protected void doPut(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+    // ========== ROUTES GET ==========
+
+    /**
+     * GET /api/contraintes (une page avec ?limite=N&curseur=..., voir Pagination)
+     */
+    private void listerToutes(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        Pagination pagination = Pagination.lire(req);
+        if (pagination != null) {
+            Page<Contrainte> page = contrainteService.getPage(pagination.getCurseur(), pagination.getTaille());
+            Pagination.entetes(resp, page);
+            gson.toJson(page.getElements(), out); // écrit au fil de la sérialisation
+            return;
+        }
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
-        JsonObject response = new JsonObject();
+        List<Contrainte> contraintes = contrainteService.getAll();
+        gson.toJson(contraintes, out); // écrit au fil de la sérialisation
+    }
 
-        try {
-            if (pathInfo != null && pathInfo.length() > 1) {
-                int id = Integer.parseInt(pathInfo.substring(1));
-                Contrainte existing = contrainteService.getById(id);
-
-                if (existing != null) {
-                    String body = getRequestBody(req);
-                    JsonObject json = gson.fromJson(body, JsonObject.class);
-
-                    if (json.has("titre"))
-                        existing.setTitre(getJsonString(json, "titre"));
-                    if (json.has("type"))
-                        existing.setType(TypeContrainte.valueOf(getJsonString(json, "type")));
-                    if (json.has("dateHeureDeb"))
-                        existing.setDateHeureDeb(LocalTime.parse(getJsonString(json, "dateHeureDeb")));
-                    if (json.has("dateHeureFin"))
-                        existing.setDateHeureFin(LocalTime.parse(getJsonString(json, "dateHeureFin")));
-                    if (json.has("repetitif"))
-                        existing.setRepetitif(json.get("repetitif").getAsBoolean());
-
-                    boolean success = contrainteService.modifier(existing);
-
-                    if (success) {
-                        response.addProperty("succes", true);
-                        response.addProperty("message", "Contrainte modifiée");
-                    } else {
-                        response.addProperty("succes", false);
-                        response.addProperty("message", "Erreur lors de la modification");
-                        resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                    }
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Contrainte non trouvée");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
-            }
+    /**
+     * GET /api/contraintes/utilisateur/{userId}
+     */
+    private void listerParUtilisateur(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        List<Contrainte> contraintes = contrainteService.getByUtilisateur(p.getInt("userId"));
+        gson.toJson(contraintes, out); // écrit au fil de la sérialisation
+    }
 
-            out.print(gson.toJson(response));
+    /**
+     * GET /api/contraintes/utilisateur/{userId}/actives
+     */
+    private void listerActives(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        List<Contrainte> contraintes = contrainteService.getContraintesActives(p.getInt("userId"));
+        gson.toJson(contraintes, out); // écrit au fil de la sérialisation
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ContrainteController.doPut:");
-            e.printStackTrace();
+    /**
+     * GET /api/contraintes/{id}
+     */
+    private void detail(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
+        Contrainte contrainte = contrainteService.getById(p.getInt("id"));
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur");
-            out.print(gson.toJson(response));
+        if (contrainte != null) {
+            out.print(gson.toJson(contrainte));
+        } else {
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            JsonObject error = new JsonObject();
+            error.addProperty("message", "Contrainte non trouvée");
+            out.print(gson.toJson(error));
         }
     }
 
-    @Override
-    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+    // ========== ROUTES POST, PUT, DELETE, PATCH ==========
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
+    /**
+     * POST /api/contraintes
+     */
+    private void creer(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p)
+            throws IOException {
         JsonObject response = new JsonObject();
+        String body = getRequestBody(req);
+        JsonObject json = gson.fromJson(body, JsonObject.class);
 
-        try {
-            if (pathInfo != null && pathInfo.length() > 1) {
-                int id = Integer.parseInt(pathInfo.substring(1));
-                boolean success = contrainteService.supprimer(id);
-
-                if (success) {
-                    response.addProperty("succes", true);
-                    response.addProperty("message", "Contrainte supprimée");
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Contrainte non trouvée");
-                    resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
-                }
-            }
+        Contrainte contrainte = new Contrainte();
+        contrainte.setTitre(getJsonString(json, "titre"));
+        contrainte.setUtilisateurId(json.get("utilisateurId").getAsInt());
 
-            out.print(gson.toJson(response));
+        String typeStr = getJsonString(json, "type");
+        if (typeStr != null) {
+            contrainte.setType(TypeContrainte.valueOf(typeStr));
+        }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ContrainteController.doDelete:");
-            e.printStackTrace();
+        String debutStr = getJsonString(json, "dateHeureDeb");
+        if (debutStr != null) {
+            contrainte.setDateHeureDeb(LocalTime.parse(debutStr));
+        }
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        String finStr = getJsonString(json, "dateHeureFin");
+        if (finStr != null) {
+            contrainte.setDateHeureFin(LocalTime.parse(finStr));
+        }
+
+        if (json.has("repetitif")) {
+            contrainte.setRepetitif(json.get("repetitif").getAsBoolean());
+        }
+
+        if (json.has("joursSemaine") && json.get("joursSemaine").isJsonArray()) {
+            List<DayOfWeek> jours = new ArrayList<>();
+            json.get("joursSemaine").getAsJsonArray().forEach(j -> {
+                jours.add(DayOfWeek.valueOf(j.getAsString()));
+            });
+            contrainte.setJoursSemaine(jours);
+        }
+
+        contrainte.setStatut(StatutContrainte.ACTIVE);
+
+        boolean success = contrainteService.ajouter(contrainte);
+
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Contrainte créée");
+            response.add("contrainte", gson.toJsonTree(contrainte));
+            resp.setStatus(HttpServletResponse.SC_CREATED);
+        } else {
             response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur");
-            out.print(gson.toJson(response));
+            response.addProperty("message", "Erreur lors de la création");
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         }
+
+        out.print(gson.toJson(response));
     }
 
-    @Override
-    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        if ("PATCH".equalsIgnoreCase(req.getMethod())) {
-            doPatch(req, resp);
+    /**
+     * PUT /api/contraintes/{id}
+     */
+    private void modifier(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p)
+            throws IOException {
+        JsonObject response = new JsonObject();
+        Contrainte existing = contrainteService.getById(p.getInt("id"));
+
+        if (existing != null) {
+            String body = getRequestBody(req);
+            JsonObject json = gson.fromJson(body, JsonObject.class);
+
+            if (json.has("titre"))
+                existing.setTitre(getJsonString(json, "titre"));
+            if (json.has("type"))
+                existing.setType(TypeContrainte.valueOf(getJsonString(json, "type")));
+            if (json.has("dateHeureDeb"))
+                existing.setDateHeureDeb(LocalTime.parse(getJsonString(json, "dateHeureDeb")));
+            if (json.has("dateHeureFin"))
+                existing.setDateHeureFin(LocalTime.parse(getJsonString(json, "dateHeureFin")));
+            if (json.has("repetitif"))
+                existing.setRepetitif(json.get("repetitif").getAsBoolean());
+
+            boolean success = contrainteService.modifier(existing);
+
+            if (success) {
+                response.addProperty("succes", true);
+                response.addProperty("message", "Contrainte modifiée");
+            } else {
+                response.addProperty("succes", false);
+                response.addProperty("message", "Erreur lors de la modification");
+                resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            }
         } else {
-            super.service(req, resp);
+            response.addProperty("succes", false);
+            response.addProperty("message", "Contrainte non trouvée");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
         }
-    }
 
-    protected void doPatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        setCorsHeaders(resp);
-        resp.setContentType("application/json;charset=UTF-8");
+        out.print(gson.toJson(response));
+    }
 
-        String pathInfo = req.getPathInfo();
-        PrintWriter out = resp.getWriter();
+    /**
+     * DELETE /api/contraintes/{id}
+     */
+    private void supprimer(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Routes.Parametres p) {
         JsonObject response = new JsonObject();
+        boolean success = contrainteService.supprimer(p.getInt("id"));
 
-        try {
-            if (pathInfo != null && pathInfo.contains("/toggle")) {
-                String idStr = pathInfo.replace("/toggle", "").substring(1);
-                int id = Integer.parseInt(idStr);
-
-                boolean success = contrainteService.toggleStatut(id);
-
-                if (success) {
-                    response.addProperty("succes", true);
-                    response.addProperty("message", "Statut modifié");
-                } else {
-                    response.addProperty("succes", false);
-                    response.addProperty("message", "Erreur");
-                    resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
-                }
-            }
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Contrainte supprimée");
+        } else {
+            response.addProperty("succes", false);
+            response.addProperty("message", "Contrainte non trouvée");
+            resp.setStatus(HttpServletResponse.SC_NOT_FOUND);
+        }
 
-            out.print(gson.toJson(response));
+        out.print(gson.toJson(response));
+    }
 
-        } catch (Exception e) {
-            System.err.println("❌ Erreur dans ContrainteController.doPatch:");
-            e.printStackTrace();
+    /**
+     * PATCH /api/contraintes/{id}/toggle
+     */
+    private void basculerStatut(HttpServletRequest req, HttpServletResponse resp, PrintWriter out,
+            Routes.Parametres p) {
+        JsonObject response = new JsonObject();
+        boolean success = contrainteService.toggleStatut(p.getInt("id"));
 
-            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        if (success) {
+            response.addProperty("succes", true);
+            response.addProperty("message", "Statut modifié");
+        } else {
             response.addProperty("succes", false);
-            response.addProperty("message", "Erreur serveur");
-            out.print(gson.toJson(response));
+            response.addProperty("message", "Erreur");
+            resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
         }
+
+        out.print(gson.toJson(response));
     }
 
     private void setCorsHeaders(HttpServletResponse resp) {
         resp.setHeader("Access-Control-Allow-Origin", "*");
         resp.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, PATCH, OPTIONS");
         resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+        resp.setHeader("Access-Control-Expose-Headers", Pagination.ENTETE_CURSEUR_SUIVANT);
     }
 
     private String getRequestBody(HttpServletRequest req) throws IOException {
@@ -28,7 +28,8 @@ public class CorsFilter implements Filter {
         // Set CORS headers
         httpResponse.setHeader("Access-Control-Allow-Origin", "*");
         httpResponse.setHeader("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, PATCH, OPTIONS");
-        httpResponse.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization, X-Requested-With");
+        httpResponse.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization, X-Requested-With, If-None-Match");
+        httpResponse.setHeader("Access-Control-Expose-Headers", "ETag, X-Curseur-Suivant");
         httpResponse.setHeader("Access-Control-Max-Age", "3600");
 
         // Handle preflight requests
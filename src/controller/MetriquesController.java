@@ -0,0 +1,51 @@
+package controller;
+
+import util.Journal;
+import util.Metriques;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Controller des métriques au format texte de Prometheus
+ * Endpoints:
+ * - GET /api/metrics - Compteurs, jauges et quantiles de latence (API,
+ * controllers, routes, DAO, pool de connexions, optimiseur)
+ *
+ * N'utilise pas la base : enregistré hors de la limite de travaux DB pour
+ * rester lisible quand le serveur est saturé.
+ */
+@WebServlet(urlPatterns = { "/api/metrics/*" })
+public class MetriquesController extends HttpServlet {
+
+    private static final Journal journal = Journal.pour(MetriquesController.class);
+
+    @Override
+    protected void doOptions(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        setCorsHeaders(resp);
+        resp.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        setCorsHeaders(resp);
+        resp.setContentType("text/plain; version=0.0.4; charset=utf-8");
+
+        try {
+            resp.getWriter().print(Metriques.exposer());
+        } catch (Exception e) {
+            journal.erreur("Erreur dans MetriquesController.doGet", e);
+            resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void setCorsHeaders(HttpServletResponse resp) {
+        resp.setHeader("Access-Control-Allow-Origin", "*");
+        resp.setHeader("Access-Control-Allow-Methods", "GET, OPTIONS");
+        resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+    }
+}
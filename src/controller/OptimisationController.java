@@ -0,0 +1,145 @@
+package controller;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import service.planning.GestionnaireOptimisations;
+import service.planning.TacheOptimisation;
+import util.GsonConfig;
+import util.Journal;
+
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Controller REST pour le suivi des optimisations en tâche de fond
+ * (soumises par POST /api/activites/utilisateur/{id}/optimiser/jobs)
+ * Endpoints:
+ * - GET /api/optimisations/{idJob} - Progression (meilleur score, itération,
+ * température, taux d'acceptation) et, une fois terminée, planning obtenu
+ * - DELETE /api/optimisations/{idJob} - Annuler l'optimisation
+ */
+@WebServlet(urlPatterns = { "/api/optimisations/*" })
+public class OptimisationController extends HttpServlet {
+
+    private static final Journal journal = Journal.pour(OptimisationController.class);
+
+    private final GestionnaireOptimisations gestionnaire;
+    private final Gson gson;
+
+    public OptimisationController() {
+        this.gestionnaire = GestionnaireOptimisations.getInstance();
+        this.gson = GsonConfig.createGson();
+    }
+
+    @Override
+    protected void doOptions(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        setCorsHeaders(resp);
+        resp.setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        setCorsHeaders(resp);
+        resp.setContentType("application/json;charset=UTF-8");
+        PrintWriter out = resp.getWriter();
+
+        try {
+            // GET /api/optimisations/{idJob}
+            TacheOptimisation tache = gestionnaire.getTache(extraireId(req.getPathInfo()));
+            if (tache == null) {
+                envoyerErreur(resp, out, HttpServletResponse.SC_NOT_FOUND, "Optimisation non trouvée ou expirée");
+                return;
+            }
+            out.print(gson.toJson(decrire(tache)));
+
+        } catch (Exception e) {
+            journal.erreur("Erreur dans OptimisationController.doGet", e);
+            envoyerErreur(resp, out, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Erreur serveur: " + e.getMessage());
+        }
+    }
+
+    @Override
+    protected void doDelete(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        setCorsHeaders(resp);
+        resp.setContentType("application/json;charset=UTF-8");
+        PrintWriter out = resp.getWriter();
+
+        try {
+            // DELETE /api/optimisations/{idJob}
+            String id = extraireId(req.getPathInfo());
+            TacheOptimisation tache = gestionnaire.getTache(id);
+            if (tache == null) {
+                envoyerErreur(resp, out, HttpServletResponse.SC_NOT_FOUND, "Optimisation non trouvée ou expirée");
+                return;
+            }
+            if (!gestionnaire.annuler(id)) {
+                envoyerErreur(resp, out, HttpServletResponse.SC_CONFLICT,
+                        "Optimisation déjà terminée (" + tache.getStatut() + ")");
+                return;
+            }
+
+            journal.debug("🛑 Annulation demandée pour l'optimisation {}", id);
+            JsonObject response = decrire(tache);
+            response.addProperty("message", "Annulation demandée");
+            out.print(gson.toJson(response));
+
+        } catch (Exception e) {
+            journal.erreur("Erreur dans OptimisationController.doDelete", e);
+            envoyerErreur(resp, out, HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Erreur serveur: " + e.getMessage());
+        }
+    }
+
+    // ========== MÉTHODES UTILITAIRES ==========
+
+    private JsonObject decrire(TacheOptimisation tache) {
+        JsonObject json = new JsonObject();
+        json.addProperty("succes", true);
+        json.addProperty("idJob", tache.getId());
+        json.addProperty("idUtilisateur", tache.getIdUtilisateur());
+        json.addProperty("statut", tache.getStatut().name());
+        json.addProperty("iteration", tache.getIteration());
+        json.addProperty("iterations", tache.getIterations());
+        json.addProperty("scoreInitial", tache.getScoreInitial());
+        json.addProperty("meilleurScore", tache.getMeilleurScore());
+        json.addProperty("scoreCourant", tache.getScoreCourant());
+        json.addProperty("temperature", tache.getTemperature());
+        json.addProperty("tauxAcceptation", tache.getTauxAcceptation());
+        json.addProperty("valide", tache.isValide());
+        json.addProperty("delaiMs", tache.getDelaiMs());
+        json.addProperty("echeanceAtteinte", tache.isEcheanceAtteinte());
+        json.addProperty("dureeMs", tache.getDureeMs());
+        if (tache.getMessage() != null) {
+            json.addProperty("message", tache.getMessage());
+        }
+        if (tache.getStatut() == TacheOptimisation.Statut.TERMINEE && tache.getResultat() != null) {
+            json.add("activites", gson.toJsonTree(tache.getResultat()));
+        }
+        return json;
+    }
+
+    private String extraireId(String pathInfo) {
+        if (pathInfo == null || pathInfo.length() <= 1) {
+            return null;
+        }
+        return pathInfo.substring(1).split("/")[0];
+    }
+
+    private void envoyerErreur(HttpServletResponse resp, PrintWriter out, int statut, String message) {
+        resp.setStatus(statut);
+        JsonObject error = new JsonObject();
+        error.addProperty("succes", false);
+        error.addProperty("message", message);
+        out.print(gson.toJson(error));
+    }
+
+    private void setCorsHeaders(HttpServletResponse resp) {
+        resp.setHeader("Access-Control-Allow-Origin", "*");
+        resp.setHeader("Access-Control-Allow-Methods", "GET, DELETE, OPTIONS");
+        resp.setHeader("Access-Control-Allow-Headers", "Content-Type, Authorization");
+    }
+}
@@ -0,0 +1,68 @@
+package controller;
+
+import util.Curseur;
+import util.Page;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Paramètres de pagination d'une route de liste.
+ *
+ * - ?limite=N : taille de page, bornée par {@link Page#taille(Integer)}
+ * - ?curseur=... : jeton renvoyé par la page précédente
+ *
+ * Le corps reste un tableau JSON ; le jeton de la page suivante est envoyé
+ * dans l'en-tête X-Curseur-Suivant (absent sur la dernière page). Sans aucun
+ * de ces paramètres la route renvoie la liste complète, comme avant.
+ */
+final class Pagination {
+
+    static final String ENTETE_CURSEUR_SUIVANT = "X-Curseur-Suivant";
+
+    private final Curseur curseur;
+    private final int taille;
+
+    private Pagination(Curseur curseur, int taille) {
+        this.curseur = curseur;
+        this.taille = taille;
+    }
+
+    /**
+     * @return null si la requête ne demande pas de pagination
+     * @throws IllegalArgumentException si la limite ou le curseur sont invalides
+     */
+    static Pagination lire(HttpServletRequest req) {
+        String limite = req.getParameter("limite");
+        String jeton = req.getParameter("curseur");
+        if (limite == null && jeton == null) {
+            return null;
+        }
+        Integer demandee = null;
+        if (limite != null && !limite.isEmpty()) {
+            try {
+                demandee = Integer.valueOf(limite);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Limite invalide: " + limite);
+            }
+        }
+        return new Pagination(Curseur.decoder(jeton), Page.taille(demandee));
+    }
+
+    Curseur getCurseur() {
+        return curseur;
+    }
+
+    int getTaille() {
+        return taille;
+    }
+
+    /**
+     * À appeler avant d'écrire le corps : les en-têtes partent avec le premier octet.
+     */
+    static void entetes(HttpServletResponse resp, Page<?> page) {
+        if (page.aSuite()) {
+            resp.setHeader(ENTETE_CURSEUR_SUIVANT, page.getCurseurSuivant());
+        }
+    }
+}
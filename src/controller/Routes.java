@@ -0,0 +1,256 @@
+package controller;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+import util.Histogramme;
+import util.Metriques;
+
+/**
+ * Table des routes d'un controller, construite une fois au démarrage : arbre
+ * des segments du chemin (pathInfo), avec une branche {variable} par niveau.
+ *
+ * - Un segment fixe l'emporte sur une variable ; si la suite du chemin ne
+ *   mène à aucune route, la variable est essayée
+ * - Les segments vides sont ignorés ("/", "" et null désignent la racine,
+ *   "/5/" équivaut à "/5")
+ * - Les variables sont extraites pendant la descente, sans expression
+ *   régulière ni découpage du chemin
+ * - Chaque route est chronométrée dans
+ *   planner_route_duree_secondes{controleur, methode, route}
+ */
+public final class Routes {
+
+    @FunctionalInterface
+    public interface Gestionnaire {
+        void traiter(HttpServletRequest req, HttpServletResponse resp, PrintWriter out, Parametres params)
+                throws Exception;
+    }
+
+    private static final class Route {
+        final Gestionnaire gestionnaire;
+        final Histogramme duree;
+
+        Route(Gestionnaire gestionnaire, Histogramme duree) {
+            this.gestionnaire = gestionnaire;
+            this.duree = duree;
+        }
+    }
+
+    private static final class Noeud {
+        final Map<String, Noeud> fixes = new HashMap<>();
+        Noeud variable;
+        String nomVariable;
+        final Map<String, Route> parMethode = new HashMap<>(4);
+    }
+
+    private final String nom;
+    private final Noeud racine = new Noeud();
+    private int profondeurMax;
+
+    public Routes() {
+        this("");
+    }
+
+    /**
+     * @param nom préfixe du controller, pour les métriques (ex. "activites")
+     */
+    public Routes(String nom) {
+        this.nom = nom;
+    }
+
+    // ========== CONSTRUCTION ==========
+
+    public Routes get(String modele, Gestionnaire gestionnaire) {
+        return ajouter("GET", modele, gestionnaire);
+    }
+
+    public Routes post(String modele, Gestionnaire gestionnaire) {
+        return ajouter("POST", modele, gestionnaire);
+    }
+
+    public Routes put(String modele, Gestionnaire gestionnaire) {
+        return ajouter("PUT", modele, gestionnaire);
+    }
+
+    public Routes patch(String modele, Gestionnaire gestionnaire) {
+        return ajouter("PATCH", modele, gestionnaire);
+    }
+
+    public Routes delete(String modele, Gestionnaire gestionnaire) {
+        return ajouter("DELETE", modele, gestionnaire);
+    }
+
+    /**
+     * @param modele chemin relatif au controller, ex. "/utilisateur/{id}/score"
+     * @throws IllegalArgumentException si deux variables de noms différents se
+     *         trouvent au même niveau ou si la route existe déjà
+     */
+    public Routes ajouter(String methode, String modele, Gestionnaire gestionnaire) {
+        Noeud noeud = racine;
+        int profondeur = 0;
+        for (String segment : modele.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            profondeur++;
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                String nom = segment.substring(1, segment.length() - 1);
+                if (noeud.variable == null) {
+                    noeud.variable = new Noeud();
+                    noeud.nomVariable = nom;
+                } else if (!noeud.nomVariable.equals(nom)) {
+                    throw new IllegalArgumentException("Variables {" + noeud.nomVariable + "} et {" + nom
+                            + "} au même niveau: " + modele);
+                }
+                noeud = noeud.variable;
+            } else {
+                noeud = noeud.fixes.computeIfAbsent(segment, s -> new Noeud());
+            }
+        }
+        Histogramme duree = Metriques.histogramme("planner_route_duree_secondes", "Durée de traitement par route",
+                "controleur", nom, "methode", methode, "route", modele);
+        if (noeud.parMethode.putIfAbsent(methode, new Route(gestionnaire, duree)) != null) {
+            throw new IllegalArgumentException("Route déjà définie: " + methode + " " + modele);
+        }
+        profondeurMax = Math.max(profondeurMax, profondeur);
+        return this;
+    }
+
+    // ========== RECHERCHE ==========
+
+    /**
+     * Exécute la route correspondant à la méthode et au pathInfo de la requête.
+     *
+     * @return false si aucune route ne correspond (rien n'est écrit)
+     */
+    public boolean traiter(String methode, HttpServletRequest req, HttpServletResponse resp, PrintWriter out)
+            throws Exception {
+        Correspondance correspondance = trouver(methode, req.getPathInfo());
+        if (correspondance == null) {
+            return false;
+        }
+        Route route = correspondance.route;
+        long debut = System.nanoTime();
+        try {
+            route.gestionnaire.traiter(req, resp, out, correspondance.parametres);
+        } finally {
+            route.duree.depuis(debut);
+        }
+        return true;
+    }
+
+    /**
+     * @return null si aucune route ne correspond
+     */
+    public Correspondance trouver(String methode, String chemin) {
+        Parametres parametres = new Parametres(profondeurMax);
+        Route route = descendre(racine, methode, chemin != null ? chemin : "", 0, parametres);
+        return route != null ? new Correspondance(route, parametres) : null;
+    }
+
+    private static Route descendre(Noeud noeud, String methode, String chemin, int position,
+            Parametres parametres) {
+        int longueur = chemin.length();
+        while (position < longueur && chemin.charAt(position) == '/') {
+            position++;
+        }
+        if (position == longueur) {
+            return noeud.parMethode.get(methode);
+        }
+        int fin = chemin.indexOf('/', position);
+        if (fin < 0) {
+            fin = longueur;
+        }
+
+        if (!noeud.fixes.isEmpty()) {
+            Noeud fixe = noeud.fixes.get(chemin.substring(position, fin));
+            if (fixe != null) {
+                Route route = descendre(fixe, methode, chemin, fin, parametres);
+                if (route != null) {
+                    return route;
+                }
+            }
+        }
+        if (noeud.variable != null) {
+            int taille = parametres.taille;
+            parametres.ajouter(noeud.nomVariable, chemin, position, fin);
+            Route route = descendre(noeud.variable, methode, chemin, fin, parametres);
+            if (route != null) {
+                return route;
+            }
+            parametres.taille = taille; // retour en arrière
+        }
+        return null;
+    }
+
+    // ========== RÉSULTAT ==========
+
+    public static final class Correspondance {
+        private final Route route;
+        private final Parametres parametres;
+
+        private Correspondance(Route route, Parametres parametres) {
+            this.route = route;
+            this.parametres = parametres;
+        }
+
+        public Gestionnaire getGestionnaire() {
+            return route.gestionnaire;
+        }
+
+        public Parametres getParametres() {
+            return parametres;
+        }
+    }
+
+    /**
+     * Variables extraites du chemin, dans l'ordre du modèle.
+     */
+    public static final class Parametres {
+        private final String[] noms;
+        private final String[] valeurs;
+        private int taille;
+
+        private Parametres(int capacite) {
+            this.noms = new String[capacite];
+            this.valeurs = new String[capacite];
+        }
+
+        private void ajouter(String nom, String chemin, int debut, int fin) {
+            noms[taille] = nom;
+            valeurs[taille] = chemin.substring(debut, fin);
+            taille++;
+        }
+
+        /**
+         * @return null si le modèle n'a pas cette variable
+         */
+        public String get(String nom) {
+            for (int i = 0; i < taille; i++) {
+                if (noms[i].equals(nom)) {
+                    return valeurs[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @throws NumberFormatException si la variable n'est pas un entier
+         */
+        public long getLong(String nom) {
+            return Long.parseLong(get(nom));
+        }
+
+        public int getInt(String nom) {
+            return Integer.parseInt(get(nom));
+        }
+
+        public int taille() {
+            return taille;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import entities.Utilisateur;
 import service.UtilisateurService;
 import service.impl.UtilisateurServiceImpl;
 import util.GsonConfig;
+import util.Journal;
 
 import javax.servlet.ServletException;
 import javax.servlet.annotation.WebServlet;
@@ -19,6 +20,8 @@ import java.io.PrintWriter;
 @WebServlet(urlPatterns = { "/api/utilisateurs/*" })
 public class UtilisateurController extends HttpServlet {
 
+    private static final Journal journal = Journal.pour(UtilisateurController.class);
+
     private final UtilisateurService utilisateurService;
     private final Gson gson = GsonConfig.createGson();
 
@@ -46,14 +49,8 @@ public class UtilisateurController extends HttpServlet {
             JsonObject response = new JsonObject();
 
             if ("/register".equals(pathInfo)) {
-                // 🔍 DEBUG : Afficher le JSON reçu
-                System.out.println("📥 JSON reçu pour inscription: " + body);
-                System.out.println("📋 Champs disponibles: " + json.keySet());
-                
-                // Vérifier chaque champ
-                for (String key : json.keySet()) {
-                    System.out.println("  - " + key + " = " + json.get(key) + " (type: " + json.get(key).getClass().getSimpleName() + ")");
-                }
+                // Noms des champs seulement : le corps contient le mot de passe
+                journal.debug("📥 Inscription, champs reçus: {}", json.keySet());
 
                 // Inscription
                 Utilisateur user = new Utilisateur();
@@ -71,8 +68,7 @@ public class UtilisateurController extends HttpServlet {
                     user.setGenre(getJsonString(json, "genre"));
                     user.setPoste(getJsonString(json, "poste"));
                 } catch (Exception e) {
-                    System.err.println("❌ Erreur lors de l'extraction des champs: " + e.getMessage());
-                    e.printStackTrace();
+                    journal.alerte("Erreur lors de l'extraction des champs: {}", e.getMessage());
                     
                     response.addProperty("succes", false);
                     response.addProperty("message", "Format de données invalide: " + e.getMessage());
@@ -84,13 +80,13 @@ public class UtilisateurController extends HttpServlet {
                 boolean success = utilisateurService.creerUtilisateur(user);
 
                 if (success) {
-                    System.out.println("✅ Utilisateur créé: " + user.getEmail());
+                    journal.debug("✅ Utilisateur créé: {}", user.getEmail());
                     response.addProperty("succes", true);
                     response.addProperty("message", "Inscription réussie");
                     response.add("utilisateur", userToJson(user));
                     resp.setStatus(HttpServletResponse.SC_CREATED);
                 } else {
-                    System.out.println("❌ Échec de création pour: " + user.getEmail());
+                    journal.debug("Échec de création pour: {}", user.getEmail());
                     response.addProperty("succes", false);
                     response.addProperty("message", "Erreur lors de l'inscription");
                     resp.setStatus(HttpServletResponse.SC_BAD_REQUEST);
@@ -101,17 +97,17 @@ public class UtilisateurController extends HttpServlet {
                 String email = getJsonString(json, "email");
                 String motdepasse = getJsonString(json, "motdepasse");
 
-                System.out.println("🔐 Tentative de connexion: " + email);
+                journal.debug("🔐 Tentative de connexion: {}", email);
 
                 Utilisateur user = utilisateurService.authentifier(email, motdepasse);
 
                 if (user != null) {
-                    System.out.println("✅ Authentification réussie pour: " + email);
+                    journal.debug("✅ Authentification réussie pour: {}", email);
                     response.addProperty("succes", true);
                     response.addProperty("message", "Connexion réussie");
                     response.add("utilisateur", userToJson(user));
                 } else {
-                    System.out.println("❌ Échec authentification pour: " + email);
+                    journal.debug("Échec authentification pour: {}", email);
                     response.addProperty("succes", false);
                     response.addProperty("message", "Email ou mot de passe incorrect");
                     resp.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
@@ -126,8 +122,7 @@ public class UtilisateurController extends HttpServlet {
             out.print(gson.toJson(response));
 
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans UtilisateurController.doPost:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans UtilisateurController.doPost", e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             JsonObject error = new JsonObject();
@@ -174,8 +169,7 @@ public class UtilisateurController extends HttpServlet {
             response.addProperty("message", "ID invalide");
             out.print(gson.toJson(response));
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans UtilisateurController.doGet:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans UtilisateurController.doGet", e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.addProperty("succes", false);
@@ -236,8 +230,7 @@ public class UtilisateurController extends HttpServlet {
             out.print(gson.toJson(response));
 
         } catch (Exception e) {
-            System.err.println("❌ Erreur dans UtilisateurController.doPut:");
-            e.printStackTrace();
+            journal.erreur("Erreur dans UtilisateurController.doPut", e);
 
             resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.addProperty("succes", false);
@@ -273,8 +266,6 @@ public class UtilisateurController extends HttpServlet {
         if (json.has(key) && !json.get(key).isJsonNull()) {
             // Vérifier si c'est un objet ou un tableau
             if (json.get(key).isJsonObject() || json.get(key).isJsonArray()) {
-                System.err.println("⚠️ Le champ '" + key + "' est un objet/tableau, pas une string !");
-                System.err.println("   Valeur reçue: " + json.get(key));
                 throw new IllegalArgumentException("Le champ '" + key + "' doit être une chaîne de caractères, pas un objet/tableau");
             }
             return json.get(key).getAsString();
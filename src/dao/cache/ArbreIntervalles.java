@@ -0,0 +1,282 @@
+package dao.cache;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Arbre d'intervalles augmenté (treap ordonné par début puis par ID).
+ *
+ * Chaque nœud mémorise la plus grande fin de son sous-arbre, ce qui permet
+ * d'ignorer les sous-arbres qui se terminent avant la fenêtre recherchée :
+ * chevauchement, point (stabbing) et plage de débuts en O(log n + k).
+ *
+ * Les bornes sont des secondes (epoch). Non synchronisé : l'appelant protège
+ * l'accès.
+ *
+ * @param <V> valeur associée à chaque intervalle
+ */
+public class ArbreIntervalles<V> {
+
+    private static final class Noeud<V> {
+        final long debut;
+        final long fin;
+        final long id;
+        final int priorite;
+        V valeur;
+        long maxFin;
+        Noeud<V> gauche;
+        Noeud<V> droite;
+
+        Noeud(long debut, long fin, long id, V valeur) {
+            this.debut = debut;
+            this.fin = fin;
+            this.id = id;
+            this.valeur = valeur;
+            this.maxFin = fin;
+            this.priorite = ThreadLocalRandom.current().nextInt();
+        }
+    }
+
+    private Noeud<V> racine;
+    private int taille;
+
+    public int taille() {
+        return taille;
+    }
+
+    // ========== MISE À JOUR ==========
+
+    public void inserer(long debut, long fin, long id, V valeur) {
+        racine = inserer(racine, new Noeud<>(debut, fin, id, valeur));
+        taille++;
+    }
+
+    /**
+     * Retire l'intervalle (debut, id) s'il est présent.
+     *
+     * @return true si un nœud a été retiré
+     */
+    public boolean retirer(long debut, long id) {
+        int avant = taille;
+        racine = retirer(racine, debut, id);
+        return taille < avant;
+    }
+
+    private Noeud<V> inserer(Noeud<V> n, Noeud<V> nouveau) {
+        if (n == null) {
+            return nouveau;
+        }
+        if (comparer(nouveau.debut, nouveau.id, n) < 0) {
+            n.gauche = inserer(n.gauche, nouveau);
+            if (n.gauche.priorite > n.priorite) {
+                n = rotationDroite(n);
+            }
+        } else {
+            n.droite = inserer(n.droite, nouveau);
+            if (n.droite.priorite > n.priorite) {
+                n = rotationGauche(n);
+            }
+        }
+        majMaxFin(n);
+        return n;
+    }
+
+    private Noeud<V> retirer(Noeud<V> n, long debut, long id) {
+        if (n == null) {
+            return null;
+        }
+        int cmp = comparer(debut, id, n);
+        if (cmp < 0) {
+            n.gauche = retirer(n.gauche, debut, id);
+        } else if (cmp > 0) {
+            n.droite = retirer(n.droite, debut, id);
+        } else {
+            taille--;
+            return fusionner(n.gauche, n.droite);
+        }
+        majMaxFin(n);
+        return n;
+    }
+
+    private Noeud<V> fusionner(Noeud<V> a, Noeud<V> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priorite > b.priorite) {
+            a.droite = fusionner(a.droite, b);
+            majMaxFin(a);
+            return a;
+        }
+        b.gauche = fusionner(a, b.gauche);
+        majMaxFin(b);
+        return b;
+    }
+
+    private Noeud<V> rotationDroite(Noeud<V> n) {
+        Noeud<V> g = n.gauche;
+        n.gauche = g.droite;
+        g.droite = n;
+        majMaxFin(n);
+        majMaxFin(g);
+        return g;
+    }
+
+    private Noeud<V> rotationGauche(Noeud<V> n) {
+        Noeud<V> d = n.droite;
+        n.droite = d.gauche;
+        d.gauche = n;
+        majMaxFin(n);
+        majMaxFin(d);
+        return d;
+    }
+
+    private static <V> void majMaxFin(Noeud<V> n) {
+        long max = n.fin;
+        if (n.gauche != null && n.gauche.maxFin > max) {
+            max = n.gauche.maxFin;
+        }
+        if (n.droite != null && n.droite.maxFin > max) {
+            max = n.droite.maxFin;
+        }
+        n.maxFin = max;
+    }
+
+    private static <V> int comparer(long debut, long id, Noeud<V> n) {
+        int cmp = Long.compare(debut, n.debut);
+        return cmp != 0 ? cmp : Long.compare(id, n.id);
+    }
+
+    // ========== REQUÊTES ==========
+
+    /**
+     * Intervalles tels que debut < finFenetre et fin > debutFenetre, par début croissant.
+     */
+    public void chevauchant(long debutFenetre, long finFenetre, List<V> resultat) {
+        chevauchant(racine, debutFenetre, finFenetre, resultat);
+    }
+
+    private void chevauchant(Noeud<V> n, long a, long b, List<V> resultat) {
+        if (n == null || n.maxFin <= a) {
+            return;
+        }
+        chevauchant(n.gauche, a, b, resultat);
+        if (n.debut < b) {
+            if (n.fin > a) {
+                resultat.add(n.valeur);
+            }
+            chevauchant(n.droite, a, b, resultat);
+        }
+    }
+
+    /**
+     * Vrai si un intervalle autre que {@code idExclu} chevauche la fenêtre.
+     */
+    public boolean existeChevauchement(long a, long b, long idExclu) {
+        return existeChevauchement(racine, a, b, idExclu);
+    }
+
+    private boolean existeChevauchement(Noeud<V> n, long a, long b, long idExclu) {
+        if (n == null || n.maxFin <= a) {
+            return false;
+        }
+        if (existeChevauchement(n.gauche, a, b, idExclu)) {
+            return true;
+        }
+        if (n.debut >= b) {
+            return false;
+        }
+        if (n.fin > a && n.id != idExclu) {
+            return true;
+        }
+        return existeChevauchement(n.droite, a, b, idExclu);
+    }
+
+    /**
+     * Nombre d'intervalles autres que {@code idExclu} qui chevauchent la fenêtre.
+     */
+    public int compterChevauchements(long a, long b, long idExclu) {
+        return compterChevauchements(racine, a, b, idExclu);
+    }
+
+    private int compterChevauchements(Noeud<V> n, long a, long b, long idExclu) {
+        if (n == null || n.maxFin <= a) {
+            return 0;
+        }
+        int total = compterChevauchements(n.gauche, a, b, idExclu);
+        if (n.debut < b) {
+            if (n.fin > a && n.id != idExclu) {
+                total++;
+            }
+            total += compterChevauchements(n.droite, a, b, idExclu);
+        }
+        return total;
+    }
+
+    /**
+     * Valeur de l'intervalle qui précède immédiatement (debut, id) dans l'ordre
+     * de l'arbre, ou null.
+     */
+    public V precedent(long debut, long id) {
+        V trouve = null;
+        Noeud<V> n = racine;
+        while (n != null) {
+            if (comparer(debut, id, n) > 0) {
+                trouve = n.valeur;
+                n = n.droite;
+            } else {
+                n = n.gauche;
+            }
+        }
+        return trouve;
+    }
+
+    /**
+     * Valeur de l'intervalle qui suit immédiatement (debut, id) dans l'ordre
+     * de l'arbre, ou null.
+     */
+    public V suivant(long debut, long id) {
+        V trouve = null;
+        Noeud<V> n = racine;
+        while (n != null) {
+            if (comparer(debut, id, n) < 0) {
+                trouve = n.valeur;
+                n = n.gauche;
+            } else {
+                n = n.droite;
+            }
+        }
+        return trouve;
+    }
+
+    /**
+     * Intervalles qui contiennent l'instant t (debut <= t < fin).
+     */
+    public void contenant(long t, List<V> resultat) {
+        chevauchant(racine, t, t + 1, resultat);
+    }
+
+    /**
+     * Intervalles dont le début est dans [min, max] (bornes incluses), par début croissant.
+     */
+    public void debutEntre(long min, long max, List<V> resultat) {
+        debutEntre(racine, min, max, resultat);
+    }
+
+    private void debutEntre(Noeud<V> n, long min, long max, List<V> resultat) {
+        if (n == null) {
+            return;
+        }
+        if (n.debut >= min) {
+            debutEntre(n.gauche, min, max, resultat);
+        }
+        if (n.debut >= min && n.debut <= max) {
+            resultat.add(n.valeur);
+        }
+        if (n.debut <= max) {
+            debutEntre(n.droite, min, max, resultat);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package dao.cache;
+
+import entities.Contrainte;
+import entities.StatutContrainte;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Cache en lecture des contraintes de chaque utilisateur.
+ *
+ * - Une seule lecture (toutes ses contraintes) par utilisateur ; les
+ *   contraintes actives en sont filtrées, dans le même ordre
+ * - Invalidé par les écritures du ContrainteDAO (ajout, modification, suppression)
+ * - Durée de vie bornée (filet de sécurité pour les écritures faites hors de l'application)
+ * - Nombre d'utilisateurs borné : au-delà, le moins récemment consulté est évincé
+ *
+ * Réglages : planner.cache.contraintes.max et planner.cache.contraintes.ttlMs.
+ * Les contraintes retournées sont des copies.
+ */
+public final class CacheContraintes {
+
+    private static final CacheContraintes INSTANCE = new CacheContraintes(
+            Integer.getInteger("planner.cache.contraintes.max", 1_000),
+            Long.getLong("planner.cache.contraintes.ttlMs", 300_000L));
+
+    private final int maxUtilisateurs;
+    private final long ttlMs;
+
+    /** Ordre d'accès : le premier utilisateur est le moins récemment consulté */
+    private final LinkedHashMap<Integer, Entree> entrees = new LinkedHashMap<>(16, 0.75f, true);
+    /** Incrémenté à chaque invalidation, pour détecter un chargement concurrent */
+    private long generation;
+
+    private long hits;
+    private long miss;
+    private long evictions;
+    private long expirations;
+
+    private static final class Entree {
+        final List<Contrainte> contraintes;
+        final long expiration;
+
+        Entree(List<Contrainte> contraintes, long expiration) {
+            this.contraintes = contraintes;
+            this.expiration = expiration;
+        }
+
+        boolean contient(int idContrainte) {
+            for (Contrainte c : contraintes) {
+                if (c.getId() == idContrainte) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    CacheContraintes(int maxUtilisateurs, long ttlMs) {
+        this.maxUtilisateurs = Math.max(1, maxUtilisateurs);
+        this.ttlMs = ttlMs;
+    }
+
+    public static CacheContraintes getInstance() {
+        return INSTANCE;
+    }
+
+    // ========== CONSULTATION ==========
+
+    /**
+     * Toutes les contraintes de l'utilisateur (ordre du chargeur).
+     *
+     * @param chargeur lecture de toutes les contraintes de l'utilisateur (null
+     *                 en cas d'erreur : rien n'est mis en cache)
+     * @return null si la lecture a échoué
+     */
+    public List<Contrainte> toutes(int utilisateurId, IntFunction<List<Contrainte>> chargeur) {
+        List<Contrainte> contraintes = charger(utilisateurId, chargeur);
+        if (contraintes == null) {
+            return null;
+        }
+        List<Contrainte> copies = new ArrayList<>(contraintes.size());
+        for (Contrainte c : contraintes) {
+            copies.add(copier(c));
+        }
+        return copies;
+    }
+
+    /**
+     * Contraintes ACTIVE de l'utilisateur.
+     *
+     * @return null si la lecture a échoué (à ne pas confondre avec « aucune contrainte »)
+     */
+    public List<Contrainte> actives(int utilisateurId, IntFunction<List<Contrainte>> chargeur) {
+        List<Contrainte> contraintes = charger(utilisateurId, chargeur);
+        if (contraintes == null) {
+            return null;
+        }
+        List<Contrainte> copies = new ArrayList<>(contraintes.size());
+        for (Contrainte c : contraintes) {
+            if (c.getStatut() == StatutContrainte.ACTIVE) {
+                copies.add(copier(c));
+            }
+        }
+        return copies;
+    }
+
+    private List<Contrainte> charger(int utilisateurId, IntFunction<List<Contrainte>> chargeur) {
+        long generationAvant;
+        synchronized (this) {
+            Entree entree = entrees.get(utilisateurId); // get() met à jour l'ordre d'accès
+            if (entree != null && entree.expiration > System.currentTimeMillis()) {
+                hits++;
+                return entree.contraintes;
+            }
+            if (entree != null) {
+                entrees.remove(utilisateurId);
+                expirations++;
+            }
+            miss++;
+            generationAvant = generation;
+        }
+
+        // Lecture hors verrou ; jetée si une écriture est survenue entre-temps
+        List<Contrainte> lues = chargeur.apply(utilisateurId);
+        if (lues == null) {
+            return null;
+        }
+        List<Contrainte> contraintes = new ArrayList<>(lues.size());
+        for (Contrainte c : lues) {
+            contraintes.add(copier(c));
+        }
+        synchronized (this) {
+            if (generation == generationAvant) {
+                entrees.put(utilisateurId, new Entree(contraintes, System.currentTimeMillis() + ttlMs));
+                evincerSiNecessaire();
+            }
+        }
+        return contraintes;
+    }
+
+    private void evincerSiNecessaire() {
+        Iterator<Map.Entry<Integer, Entree>> it = entrees.entrySet().iterator();
+        while (entrees.size() > maxUtilisateurs && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    // ========== INVALIDATION PAR LES ÉCRITURES ==========
+
+    public synchronized void invalider(int utilisateurId) {
+        generation++;
+        entrees.remove(utilisateurId);
+    }
+
+    /**
+     * Contrainte modifiée ou supprimée : oublie les utilisateurs qui la
+     * contiennent (son propriétaire a pu changer).
+     */
+    public synchronized void contrainteModifiee(int idContrainte) {
+        generation++;
+        entrees.values().removeIf(entree -> entree.contient(idContrainte));
+    }
+
+    public synchronized void invaliderTout() {
+        generation++;
+        entrees.clear();
+    }
+
+    // ========== MÉTRIQUES ==========
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMiss() {
+        return miss;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    public synchronized int getUtilisateursEnCache() {
+        return entrees.size();
+    }
+
+    // ========== UTILITAIRES ==========
+
+    private static Contrainte copier(Contrainte c) {
+        Contrainte copie = new Contrainte(c.getTitre(), c.getType(), c.getDateHeureDeb(), c.getDateHeureFin(),
+                c.isRepetitif(), c.getDatesSpecifiques() != null ? new ArrayList<>(c.getDatesSpecifiques()) : null,
+                c.getJoursSemaine() != null ? new ArrayList<>(c.getJoursSemaine()) : null, c.getUtilisateurId());
+        copie.setId(c.getId());
+        copie.setStatut(c.getStatut());
+        return copie;
+    }
+}
@@ -0,0 +1,353 @@
+package dao.cache;
+
+import entities.Activite;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Index en mémoire des horaires d'activités : un {@link ArbreIntervalles} par utilisateur.
+ *
+ * - Construit à la première requête sur l'utilisateur (une lecture de ses activités)
+ * - Tenu à jour par les écritures de l'ActiviteDAO
+ * - Budget global en nombre d'activités indexées : au-delà, les utilisateurs
+ *   les moins récemment consultés sont évincés (ils seront rechargés au besoin)
+ *
+ * Les activités sans horaire de fin (colonne nullable) ne sont pas dans
+ * l'arbre : elles ne chevauchent rien, mais sont gardées triées par début pour
+ * {@link #debutEntre}, comme le BETWEEN SQL. Celles sans horaire de début ne
+ * sont retournées par aucune requête. Les activités retournées sont des copies.
+ */
+public final class IndexActivites {
+
+    private static final IndexActivites INSTANCE = new IndexActivites(
+            Integer.getInteger("planner.cache.activites.max", 200_000));
+
+    private final int budget;
+    /** Ordre d'accès : le premier utilisateur est le moins récemment consulté */
+    private final LinkedHashMap<Long, ArbreUtilisateur> arbres = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> utilisateurParActivite = new HashMap<>();
+    private int activitesIndexees;
+    private long generation;
+
+    private long hits;
+    private long miss;
+    private long evictions;
+
+    /** Début puis ID : ordre de l'arbre, utilisé pour fusionner avec les activités sans fin */
+    private static final Comparator<Activite> PAR_DEBUT = Comparator
+            .comparingLong((Activite a) -> secondes(a.getHoraireDebut()))
+            .thenComparing(Activite::getIdActivite);
+
+    /**
+     * Arbre d'un utilisateur et copie de chaque activité indexée (pour retrouver sa clé).
+     */
+    private static final class ArbreUtilisateur {
+        final ArbreIntervalles<Activite> arbre = new ArbreIntervalles<>();
+        final Map<Long, Activite> parId = new HashMap<>();
+        /** Activités avec un début mais sans fin, par début (secondes) puis ID */
+        final TreeMap<Long, Map<Long, Activite>> sansFin = new TreeMap<>();
+    }
+
+    IndexActivites(int budget) {
+        this.budget = budget;
+    }
+
+    public static IndexActivites getInstance() {
+        return INSTANCE;
+    }
+
+    // ========== REQUÊTES ==========
+
+    /**
+     * Activités de l'utilisateur qui chevauchent [debut, fin[, par début décroissant
+     * (même ordre que la requête SQL). Null si l'index n'a pas pu être construit.
+     *
+     * @param chargeur lecture de toutes les activités de l'utilisateur (null en cas d'erreur)
+     */
+    public List<Activite> chevauchantes(Long idUtilisateur, LocalDateTime debut, LocalDateTime fin,
+            Function<Long, List<Activite>> chargeur) {
+        if (!assurerCharge(idUtilisateur, chargeur)) {
+            return null;
+        }
+        List<Activite> resultat = new ArrayList<>();
+        synchronized (this) {
+            ArbreUtilisateur a = arbres.get(idUtilisateur);
+            if (a == null) {
+                return null; // évincé entre-temps
+            }
+            a.arbre.chevauchant(secondes(debut), secondes(fin), resultat);
+        }
+        return copiesDecroissantes(resultat);
+    }
+
+    /**
+     * Activités de l'utilisateur qui contiennent l'instant donné.
+     */
+    public List<Activite> contenant(Long idUtilisateur, LocalDateTime instant,
+            Function<Long, List<Activite>> chargeur) {
+        if (!assurerCharge(idUtilisateur, chargeur)) {
+            return null;
+        }
+        List<Activite> resultat = new ArrayList<>();
+        synchronized (this) {
+            ArbreUtilisateur a = arbres.get(idUtilisateur);
+            if (a == null) {
+                return null; // évincé entre-temps
+            }
+            a.arbre.contenant(secondes(instant), resultat);
+        }
+        return copiesDecroissantes(resultat);
+    }
+
+    /**
+     * Activités de l'utilisateur dont le début est dans [debut, fin] (BETWEEN SQL),
+     * y compris celles sans horaire de fin.
+     */
+    public List<Activite> debutEntre(Long idUtilisateur, LocalDateTime debut, LocalDateTime fin,
+            Function<Long, List<Activite>> chargeur) {
+        if (!assurerCharge(idUtilisateur, chargeur)) {
+            return null;
+        }
+        List<Activite> resultat = new ArrayList<>();
+        synchronized (this) {
+            ArbreUtilisateur a = arbres.get(idUtilisateur);
+            if (a == null) {
+                return null; // évincé entre-temps
+            }
+            a.arbre.debutEntre(secondes(debut), secondes(fin), resultat);
+            if (!a.sansFin.isEmpty()) {
+                int avecFin = resultat.size();
+                for (Map<Long, Activite> memeDebut : a.sansFin.subMap(secondes(debut), true, secondes(fin), true)
+                        .values()) {
+                    resultat.addAll(memeDebut.values());
+                }
+                if (resultat.size() > avecFin) {
+                    resultat.sort(PAR_DEBUT);
+                }
+            }
+        }
+        return copiesDecroissantes(resultat);
+    }
+
+    /**
+     * Chevauchement avec une autre activité du même utilisateur. Null si
+     * l'activité n'est pas indexée (l'appelant interroge alors la base).
+     */
+    public synchronized Boolean existeChevauchement(Long idActivite, LocalDateTime debut, LocalDateTime fin) {
+        Long idUtilisateur = utilisateurParActivite.get(idActivite);
+        if (idUtilisateur == null) {
+            return null;
+        }
+        ArbreUtilisateur a = arbres.get(idUtilisateur);
+        return a.arbre.existeChevauchement(secondes(debut), secondes(fin), idActivite);
+    }
+
+    /**
+     * Construit l'arbre de l'utilisateur si besoin. La lecture en base se fait
+     * hors verrou ; si une écriture concurrente survient pendant la lecture, le
+     * résultat est jeté et la lecture recommencée.
+     *
+     * @return false si l'index n'est pas disponible (l'appelant interroge la base)
+     */
+    private boolean assurerCharge(Long idUtilisateur, Function<Long, List<Activite>> chargeur) {
+        synchronized (this) {
+            if (arbres.get(idUtilisateur) != null) { // get() met à jour l'ordre d'accès
+                hits++;
+                return true;
+            }
+            miss++;
+        }
+
+        for (int tentative = 0; tentative < 3; tentative++) {
+            long generationAvant;
+            synchronized (this) {
+                generationAvant = generation;
+            }
+            List<Activite> activites = chargeur.apply(idUtilisateur);
+            if (activites == null) {
+                return false;
+            }
+            synchronized (this) {
+                if (arbres.containsKey(idUtilisateur)) {
+                    return true;
+                }
+                if (generation == generationAvant) {
+                    installer(idUtilisateur, activites);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private ArbreUtilisateur installer(Long idUtilisateur, List<Activite> activites) {
+        ArbreUtilisateur a = new ArbreUtilisateur();
+        for (Activite activite : activites) {
+            indexer(a, idUtilisateur, copier(activite));
+        }
+        arbres.put(idUtilisateur, a);
+        evincerSiNecessaire(idUtilisateur);
+        return a;
+    }
+
+    private void evincerSiNecessaire(Long utilisateurCourant) {
+        Iterator<Map.Entry<Long, ArbreUtilisateur>> it = arbres.entrySet().iterator();
+        while (activitesIndexees > budget && it.hasNext()) {
+            Map.Entry<Long, ArbreUtilisateur> plusAncien = it.next();
+            if (plusAncien.getKey().equals(utilisateurCourant)) {
+                continue;
+            }
+            it.remove();
+            for (Long idActivite : plusAncien.getValue().parId.keySet()) {
+                utilisateurParActivite.remove(idActivite);
+            }
+            activitesIndexees -= plusAncien.getValue().parId.size();
+            evictions++;
+        }
+    }
+
+    // ========== MISE À JOUR PAR LES ÉCRITURES ==========
+
+    /**
+     * Activité insérée (ID déjà attribué).
+     */
+    public synchronized void activiteAjoutee(Activite activite) {
+        generation++;
+        ArbreUtilisateur a = arbres.get(activite.getIdUtilisateur());
+        if (a != null) {
+            indexer(a, activite.getIdUtilisateur(), copier(activite));
+            evincerSiNecessaire(activite.getIdUtilisateur());
+        }
+    }
+
+    /**
+     * Activité modifiée : l'UPDATE ne change pas le propriétaire ni la date de création.
+     */
+    public synchronized void activiteModifiee(Activite activite) {
+        generation++;
+        Long idUtilisateur = utilisateurParActivite.get(activite.getIdActivite());
+        if (idUtilisateur == null) {
+            return;
+        }
+        ArbreUtilisateur a = arbres.get(idUtilisateur);
+        Activite ancienne = desindexer(a, activite.getIdActivite());
+        Activite copie = copier(activite);
+        copie.setIdUtilisateur(idUtilisateur);
+        copie.setDateCreation(ancienne != null ? ancienne.getDateCreation() : copie.getDateCreation());
+        indexer(a, idUtilisateur, copie);
+    }
+
+    public synchronized void activiteSupprimee(Long idActivite) {
+        generation++;
+        Long idUtilisateur = utilisateurParActivite.get(idActivite);
+        if (idUtilisateur != null) {
+            desindexer(arbres.get(idUtilisateur), idActivite);
+        }
+    }
+
+    public synchronized void invaliderTout() {
+        generation++;
+        arbres.clear();
+        utilisateurParActivite.clear();
+        activitesIndexees = 0;
+    }
+
+    private void indexer(ArbreUtilisateur a, Long idUtilisateur, Activite activite) {
+        if (activite.getIdActivite() == null) {
+            return;
+        }
+        // Déjà présente (lue par le chargement avant l'appel à activiteAjoutee) :
+        // retirer l'ancien nœud pour ne pas la retourner deux fois
+        if (a.parId.containsKey(activite.getIdActivite())) {
+            desindexer(a, activite.getIdActivite());
+        }
+        // Les activités sans horaires ne sont pas dans l'arbre mais restent rattachées à l'utilisateur
+        utilisateurParActivite.put(activite.getIdActivite(), idUtilisateur);
+        a.parId.put(activite.getIdActivite(), activite);
+        activitesIndexees++;
+        if (activite.getHoraireDebut() != null && activite.getHoraireFin() != null) {
+            a.arbre.inserer(secondes(activite.getHoraireDebut()), secondes(activite.getHoraireFin()),
+                    activite.getIdActivite(), activite);
+        } else if (activite.getHoraireDebut() != null) {
+            a.sansFin.computeIfAbsent(secondes(activite.getHoraireDebut()), s -> new HashMap<>())
+                    .put(activite.getIdActivite(), activite);
+        }
+    }
+
+    private Activite desindexer(ArbreUtilisateur a, Long idActivite) {
+        utilisateurParActivite.remove(idActivite);
+        Activite ancienne = a.parId.remove(idActivite);
+        if (ancienne == null) {
+            return null;
+        }
+        activitesIndexees--;
+        if (ancienne.getHoraireDebut() != null && ancienne.getHoraireFin() != null) {
+            a.arbre.retirer(secondes(ancienne.getHoraireDebut()), idActivite);
+        } else if (ancienne.getHoraireDebut() != null) {
+            long debut = secondes(ancienne.getHoraireDebut());
+            Map<Long, Activite> memeDebut = a.sansFin.get(debut);
+            if (memeDebut != null && memeDebut.remove(idActivite) != null && memeDebut.isEmpty()) {
+                a.sansFin.remove(debut);
+            }
+        }
+        return ancienne;
+    }
+
+    // ========== MÉTRIQUES ==========
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMiss() {
+        return miss;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int getActivitesIndexees() {
+        return activitesIndexees;
+    }
+
+    public synchronized int getUtilisateursIndexes() {
+        return arbres.size();
+    }
+
+    // ========== UTILITAIRES ==========
+
+    /**
+     * Secondes epoch, arrondies comme le fait MySQL pour une colonne DATETIME.
+     */
+    private static long secondes(LocalDateTime dateTime) {
+        long s = dateTime.toEpochSecond(ZoneOffset.UTC);
+        return dateTime.getNano() >= 500_000_000 ? s + 1 : s;
+    }
+
+    private static List<Activite> copiesDecroissantes(List<Activite> croissantes) {
+        List<Activite> copies = new ArrayList<>(croissantes.size());
+        for (Activite a : croissantes) {
+            copies.add(copier(a));
+        }
+        Collections.reverse(copies);
+        return copies;
+    }
+
+    private static Activite copier(Activite a) {
+        return new Activite(a.getIdActivite(), a.getTitre(), a.getTypeActivite(), a.getDescription(),
+                a.getPriorite(), a.getDeadline(), a.getHoraireDebut(), a.getHoraireFin(), a.getIdUtilisateur(),
+                a.getDateCreation());
+    }
+}
@@ -0,0 +1,278 @@
+package dao.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Index en mémoire des conflits non résolus et des activités qu'ils relient.
+ *
+ * Répond en O(1) à « ces deux activités sont-elles déjà en conflit ? » sans
+ * relire tous les conflits. Les données d'un utilisateur sont chargées une
+ * seule fois (une requête avec jointure) puis maintenues par les écritures du
+ * ConflitDAO : ajout, liaison, résolution et suppression.
+ *
+ * Partagé par toutes les instances de DAO (les services créent chacun le leur).
+ */
+public final class IndexConflits {
+
+    private static final IndexConflits INSTANCE = new IndexConflits();
+
+    private static final int TENTATIVES_CHARGEMENT = 3;
+
+    /** Conflits non résolus connus → activités liées */
+    private final Map<Long, Set<Long>> activitesParConflit = new HashMap<>();
+    /** Activité → conflits non résolus qui la concernent */
+    private final Map<Long, Set<Long>> conflitsParActivite = new HashMap<>();
+    /** Paire normalisée d'activités → un conflit non résolu qui les relie */
+    private final Map<Long, Long> conflitParPaire = new HashMap<>();
+    private final Set<Long> utilisateursCharges = new HashSet<>();
+    /** Incrémenté à chaque retrait, pour détecter un chargement concurrent */
+    private long generation;
+
+    private IndexConflits() {
+    }
+
+    public static IndexConflits getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Clé d'une paire d'activités, indépendante de l'ordre (les ID tiennent sur 32 bits).
+     */
+    public static long clePaire(long idActivite1, long idActivite2) {
+        long min = Math.min(idActivite1, idActivite2);
+        long max = Math.max(idActivite1, idActivite2);
+        return (min << 32) | (max & 0xFFFFFFFFL);
+    }
+
+    // ========== CONSULTATION ==========
+
+    /**
+     * Vérifie si un conflit non résolu relie déjà les deux activités.
+     *
+     * @param chargeur requête qui retourne, pour un utilisateur, les liens
+     *                 conflit → activités de ses conflits non résolus (null en
+     *                 cas d'erreur : l'utilisateur sera rechargé au prochain appel)
+     * @param requete  réponse lue en base quand l'utilisateur n'a pas pu être chargé
+     */
+    public boolean existePaire(Long idUtilisateur, Long idActivite1, Long idActivite2,
+            Function<Long, Map<Long, List<Long>>> chargeur, BooleanSupplier requete) {
+        if (!chargerSiNecessaire(idUtilisateur, chargeur)) {
+            return requete.getAsBoolean();
+        }
+        synchronized (this) {
+            return conflitParPaire.containsKey(clePaire(idActivite1, idActivite2));
+        }
+    }
+
+    /**
+     * Conflits non résolus qui concernent une activité.
+     *
+     * @param requete lecture en base quand l'utilisateur n'a pas pu être chargé
+     */
+    public Set<Long> getConflitsDeActivite(Long idUtilisateur, Long idActivite,
+            Function<Long, Map<Long, List<Long>>> chargeur, Supplier<Set<Long>> requete) {
+        if (!chargerSiNecessaire(idUtilisateur, chargeur)) {
+            return requete.get();
+        }
+        synchronized (this) {
+            Set<Long> conflits = conflitsParActivite.get(idActivite);
+            return conflits == null ? Collections.emptySet() : new HashSet<>(conflits);
+        }
+    }
+
+    /**
+     * Activités liées à un conflit non résolu (vide si le conflit n'est pas indexé).
+     */
+    public synchronized Set<Long> getActivitesDuConflit(Long idConflit) {
+        Set<Long> activites = activitesParConflit.get(idConflit);
+        return activites == null ? Collections.emptySet() : new HashSet<>(activites);
+    }
+
+    /** Vrai si les conflits de l'utilisateur sont dans l'index */
+    public synchronized boolean estCharge(Long idUtilisateur) {
+        return utilisateursCharges.contains(idUtilisateur);
+    }
+
+    /**
+     * La requête de chargement s'exécute toujours hors du verrou : elle ne
+     * bloque ni les autres utilisateurs ni le thread porteur d'un thread virtuel.
+     *
+     * @return false si l'utilisateur n'est pas chargé (erreur, ou retrait
+     *         concurrent à chaque tentative) : l'appelant interroge la base
+     */
+    private boolean chargerSiNecessaire(Long idUtilisateur, Function<Long, Map<Long, List<Long>>> chargeur) {
+        synchronized (this) {
+            if (utilisateursCharges.contains(idUtilisateur)) {
+                return true;
+            }
+        }
+
+        for (int tentative = 0; tentative < TENTATIVES_CHARGEMENT; tentative++) {
+            long generationAvant;
+            synchronized (this) {
+                generationAvant = generation;
+            }
+            Map<Long, List<Long>> liens = chargeur.apply(idUtilisateur);
+            if (liens == null) {
+                return false;
+            }
+            synchronized (this) {
+                if (utilisateursCharges.contains(idUtilisateur)) {
+                    return true; // chargé entre-temps par un autre thread
+                }
+                // Un conflit retiré pendant la requête pourrait être réinséré à tort
+                if (generation == generationAvant) {
+                    fusionner(liens);
+                    utilisateursCharges.add(idUtilisateur);
+                    return true;
+                }
+            }
+        }
+        // Retraits concurrents à chaque tentative : pas chargé, le prochain appel réessaiera
+        return false;
+    }
+
+    private void fusionner(Map<Long, List<Long>> liens) {
+        for (Map.Entry<Long, List<Long>> e : liens.entrySet()) {
+            activitesParConflit.computeIfAbsent(e.getKey(), k -> new HashSet<>());
+            for (Long idActivite : e.getValue()) {
+                ajouterLien(e.getKey(), idActivite);
+            }
+        }
+    }
+
+    // ========== MISE À JOUR PAR LES ÉCRITURES ==========
+
+    /**
+     * Un conflit non résolu vient d'être créé (ses liens suivront).
+     */
+    public synchronized void conflitAjoute(Long idConflit) {
+        activitesParConflit.computeIfAbsent(idConflit, k -> new HashSet<>());
+    }
+
+    /**
+     * Une activité vient d'être liée à un conflit. Ignoré si le conflit n'est
+     * pas connu comme non résolu.
+     */
+    public synchronized void activiteLiee(Long idConflit, Long idActivite) {
+        if (activitesParConflit.containsKey(idConflit)) {
+            ajouterLien(idConflit, idActivite);
+        }
+    }
+
+    /**
+     * Le conflit est résolu ou supprimé : il sort de l'index.
+     */
+    public synchronized void conflitRetire(Long idConflit) {
+        generation++;
+        Set<Long> activites = activitesParConflit.remove(idConflit);
+        if (activites != null) {
+            retirerLiens(idConflit, activites);
+        }
+    }
+
+    /**
+     * Les liens du conflit ont été supprimés (le conflit lui-même existe encore).
+     */
+    public synchronized void liensRetires(Long idConflit) {
+        generation++;
+        Set<Long> activites = activitesParConflit.get(idConflit);
+        if (activites != null) {
+            Set<Long> copie = new HashSet<>(activites);
+            activites.clear();
+            retirerLiens(idConflit, copie);
+        }
+    }
+
+    /**
+     * L'activité a été supprimée (les liens sont supprimés en cascade).
+     */
+    public synchronized void activiteSupprimee(Long idActivite) {
+        generation++;
+        Set<Long> conflits = conflitsParActivite.remove(idActivite);
+        if (conflits == null) {
+            return;
+        }
+        for (Long idConflit : conflits) {
+            Set<Long> activites = activitesParConflit.get(idConflit);
+            if (activites != null) {
+                activites.remove(idActivite);
+                for (Long autre : activites) {
+                    retirerPaireSiOrpheline(idActivite, autre, idConflit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Vide l'index (écriture en masse dont le détail n'est pas connu).
+     */
+    public synchronized void invaliderTout() {
+        generation++;
+        activitesParConflit.clear();
+        conflitsParActivite.clear();
+        conflitParPaire.clear();
+        utilisateursCharges.clear();
+    }
+
+    private void ajouterLien(Long idConflit, Long idActivite) {
+        Set<Long> activites = activitesParConflit.get(idConflit);
+        for (Long autre : activites) {
+            if (!autre.equals(idActivite)) {
+                conflitParPaire.putIfAbsent(clePaire(autre, idActivite), idConflit);
+            }
+        }
+        activites.add(idActivite);
+        conflitsParActivite.computeIfAbsent(idActivite, k -> new HashSet<>()).add(idConflit);
+    }
+
+    private void retirerLiens(Long idConflit, Set<Long> activites) {
+        for (Long idActivite : activites) {
+            Set<Long> conflits = conflitsParActivite.get(idActivite);
+            if (conflits != null) {
+                conflits.remove(idConflit);
+                if (conflits.isEmpty()) {
+                    conflitsParActivite.remove(idActivite);
+                }
+            }
+        }
+        for (Long a : activites) {
+            for (Long b : activites) {
+                if (a < b) {
+                    retirerPaireSiOrpheline(a, b, idConflit);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retire la paire si elle pointait sur ce conflit, ou la réattribue à un
+     * autre conflit non résolu qui relie encore les deux activités.
+     */
+    private void retirerPaireSiOrpheline(Long a, Long b, Long idConflit) {
+        long cle = clePaire(a, b);
+        if (!idConflit.equals(conflitParPaire.get(cle))) {
+            return;
+        }
+        conflitParPaire.remove(cle);
+        Set<Long> conflitsDeA = conflitsParActivite.get(a);
+        if (conflitsDeA == null) {
+            return;
+        }
+        for (Long autreConflit : conflitsDeA) {
+            Set<Long> activites = activitesParConflit.get(autreConflit);
+            if (activites != null && activites.contains(b)) {
+                conflitParPaire.put(cle, autreConflit);
+                return;
+            }
+        }
+    }
+}
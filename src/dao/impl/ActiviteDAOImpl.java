@@ -1,13 +1,21 @@
 package dao.impl;
 
 import config.Connect;
+import config.LimiteTravauxDb;
+import dao.cache.IndexActivites;
+import dao.cache.IndexConflits;
 import dao.interfaces.ActiviteDAO;
 import entities.Activite;
 import entities.TypeActivite;
+import util.Curseur;
+import util.Journal;
+import util.Page;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Implémentation DAO pour la gestion des activités
@@ -15,13 +23,20 @@ import java.util.*;
  */
 public class ActiviteDAOImpl implements ActiviteDAO {
 
+    private static final Journal journal = Journal.pour(ActiviteDAOImpl.class);
+
+    private final IndexActivites index = IndexActivites.getInstance();
+
     // ========== OPÉRATIONS CRUD DE BASE ==========
 
     @Override
     public Long ajouter(Activite activite) {
         String sql = "INSERT INTO activite (titre, type_activite, description, priorite, deadline, " +
-                "horaire_debut, horaire_fin, id_utilisateur) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+                "horaire_debut, horaire_fin, id_utilisateur, date_creation) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        // Date de création fixée ici (au lieu du DEFAULT de la colonne) pour que la
+        // copie indexée ait la même valeur que la ligne
+        LocalDateTime dateCreation = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
 
         try (Connection conn = Connect.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -39,19 +54,25 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                     activite.getHoraireDebut() != null ? Timestamp.valueOf(activite.getHoraireDebut()) : null);
             stmt.setTimestamp(7, activite.getHoraireFin() != null ? Timestamp.valueOf(activite.getHoraireFin()) : null);
             stmt.setLong(8, activite.getIdUtilisateur());
+            stmt.setTimestamp(9, Timestamp.valueOf(dateCreation));
 
             int affectedRows = stmt.executeUpdate();
 
             if (affectedRows > 0) {
                 try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        return generatedKeys.getLong(1);
+                        long idActivite = generatedKeys.getLong(1);
+                        Activite indexee = new Activite(idActivite, activite.getTitre(), activite.getTypeActivite(),
+                                activite.getDescription(), activite.getPriorite(), activite.getDeadline(),
+                                activite.getHoraireDebut(), activite.getHoraireFin(), activite.getIdUtilisateur(),
+                                dateCreation);
+                        index.activiteAjoutee(indexee);
+                        return idActivite;
                     }
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de l'ajout de l'activité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de l'ajout de l'activité", e);
         }
         return -1L;
     }
@@ -79,10 +100,13 @@ public class ActiviteDAOImpl implements ActiviteDAO {
             stmt.setTimestamp(7, activite.getHoraireFin() != null ? Timestamp.valueOf(activite.getHoraireFin()) : null);
             stmt.setLong(8, activite.getIdActivite());
 
-            return stmt.executeUpdate() > 0;
+            boolean modifiee = stmt.executeUpdate() > 0;
+            if (modifiee) {
+                index.activiteModifiee(activite);
+            }
+            return modifiee;
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la modification de l'activité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la modification de l'activité", e);
             return false;
         }
     }
@@ -95,10 +119,15 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idActivite);
-            return stmt.executeUpdate() > 0;
+            boolean supprimee = stmt.executeUpdate() > 0;
+            if (supprimee) {
+                index.activiteSupprimee(idActivite);
+                // Les liens conflit_activite sont supprimés en cascade
+                IndexConflits.getInstance().activiteSupprimee(idActivite);
+            }
+            return supprimee;
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression de l'activité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la suppression de l'activité", e);
             return false;
         }
     }
@@ -117,8 +146,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 return Optional.of(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de l'activité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération de l'activité", e);
         }
         return Optional.empty();
     }
@@ -136,12 +164,43 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de toutes les activités: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération de toutes les activités", e);
         }
         return activites;
     }
 
+    @Override
+    public boolean parcourirTout(Predicate<List<Activite>> consommateur) {
+        // Pages par clé (horaire, id) : chaque lecture emprunte puis rend sa connexion,
+        // un client lent ne bloque donc jamais une connexion du pool. La réponse rend
+        // sa place de travail DB dès son premier envoi : chaque page en reprend une.
+        LimiteTravauxDb limite = LimiteTravauxDb.getInstance();
+        Curseur curseur = null;
+        while (true) {
+            List<Activite> lot;
+            try (LimiteTravauxDb.Place place = limite.place()) {
+                if (place == null) {
+                    journal.alerte("Parcours de toutes les activités interrompu : base de données saturée");
+                    return false;
+                }
+                lot = lireLot(null, curseur, Page.TAILLE_MAX);
+            } catch (SQLException e) {
+                journal.erreur("Erreur lors du parcours de toutes les activités", e);
+                return false;
+            }
+            if (lot.isEmpty() || !consommateur.test(lot) || lot.size() < Page.TAILLE_MAX) {
+                return true;
+            }
+            Activite derniere = lot.get(lot.size() - 1);
+            curseur = new Curseur(derniere.getHoraireDebut(), derniere.getIdActivite());
+        }
+    }
+
+    @Override
+    public Page<Activite> getPage(Curseur curseur, int taille) {
+        return lirePage(null, curseur, taille);
+    }
+
     // ========== RECHERCHE ET FILTRAGE ==========
 
     @Override
@@ -159,12 +218,16 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités de l'utilisateur: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités de l'utilisateur", e);
         }
         return activites;
     }
 
+    @Override
+    public Page<Activite> getPageByUtilisateur(Long idUtilisateur, Curseur curseur, int taille) {
+        return lirePage(idUtilisateur, curseur, taille);
+    }
+
     @Override
     public List<Activite> getByType(TypeActivite type) {
         String sql = "SELECT * FROM activite WHERE type_activite = ? ORDER BY horaire_debut DESC";
@@ -180,8 +243,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités par type: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités par type", e);
         }
         return activites;
     }
@@ -203,8 +265,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités", e);
         }
         return activites;
     }
@@ -225,8 +286,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités par période: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités par période", e);
         }
         return activites;
     }
@@ -234,6 +294,11 @@ public class ActiviteDAOImpl implements ActiviteDAO {
     @Override
     public List<Activite> getByUtilisateurAndPeriode(Long idUtilisateur, LocalDateTime dateDebut,
             LocalDateTime dateFin) {
+        List<Activite> indexees = index.debutEntre(idUtilisateur, dateDebut, dateFin, this::chargerPourIndex);
+        if (indexees != null) {
+            return indexees;
+        }
+
         String sql = "SELECT * FROM activite WHERE id_utilisateur = ? AND horaire_debut BETWEEN ? AND ? " +
                 "ORDER BY horaire_debut DESC";
         List<Activite> activites = new ArrayList<>();
@@ -250,8 +315,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités", e);
         }
         return activites;
     }
@@ -272,8 +336,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités avec deadline proche: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités avec deadline proche", e);
         }
         return activites;
     }
@@ -293,8 +356,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités par priorité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités par priorité", e);
         }
         return activites;
     }
@@ -316,8 +378,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la recherche par mot-clé: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la recherche par mot-clé", e);
         }
         return activites;
     }
@@ -341,8 +402,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la recherche par mot-clé: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la recherche par mot-clé", e);
         }
         return activites;
     }
@@ -351,6 +411,12 @@ public class ActiviteDAOImpl implements ActiviteDAO {
 
     @Override
     public boolean hasChevauchement(Long idActivite, LocalDateTime horaireDebut, LocalDateTime horaireFin) {
+        // Activité indexée : recherche parmi les activités de son utilisateur
+        Boolean indexe = index.existeChevauchement(idActivite, horaireDebut, horaireFin);
+        if (indexe != null) {
+            return indexe;
+        }
+
         String sql = "SELECT COUNT(*) FROM activite WHERE id_activite != ? AND " +
                 "horaire_debut < ? AND horaire_fin > ?";
 
@@ -366,8 +432,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 return rs.getInt(1) > 0;
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la vérification du chevauchement: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la vérification du chevauchement", e);
         }
         return false;
     }
@@ -389,8 +454,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités chevauchantes: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités chevauchantes", e);
         }
         return activites;
     }
@@ -398,6 +462,12 @@ public class ActiviteDAOImpl implements ActiviteDAO {
     @Override
     public List<Activite> getActivitesChevauchantesUtilisateur(Long idUtilisateur, LocalDateTime horaireDebut,
             LocalDateTime horaireFin) {
+        List<Activite> indexees = index.chevauchantes(idUtilisateur, horaireDebut, horaireFin,
+                this::chargerPourIndex);
+        if (indexees != null) {
+            return indexees;
+        }
+
         String sql = "SELECT * FROM activite WHERE id_utilisateur = ? AND horaire_debut < ? AND horaire_fin > ? " +
                 "ORDER BY horaire_debut DESC";
         List<Activite> activites = new ArrayList<>();
@@ -414,8 +484,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités chevauchantes: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités chevauchantes", e);
         }
         return activites;
     }
@@ -434,8 +503,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des activités: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des activités", e);
         }
         return 0;
     }
@@ -454,8 +522,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des activités: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des activités", e);
         }
         return 0;
     }
@@ -474,12 +541,50 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des activités par type: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des activités par type", e);
         }
         return 0;
     }
 
+    @Override
+    public Map<TypeActivite, Long> sommeMinutesParType(Long idUtilisateur, LocalDateTime dateDebut,
+            LocalDateTime dateFin) {
+        StringBuilder sql = new StringBuilder(
+                "SELECT type_activite, SUM(TIMESTAMPDIFF(MINUTE, horaire_debut, horaire_fin)) AS minutes " +
+                        "FROM activite WHERE id_utilisateur = ? " +
+                        "AND horaire_debut IS NOT NULL AND horaire_fin IS NOT NULL");
+        if (dateDebut != null) {
+            sql.append(" AND horaire_debut >= ?");
+        }
+        if (dateFin != null) {
+            sql.append(" AND horaire_debut <= ?");
+        }
+        sql.append(" GROUP BY type_activite");
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int i = 1;
+            stmt.setLong(i++, idUtilisateur);
+            if (dateDebut != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(dateDebut));
+            }
+            if (dateFin != null) {
+                stmt.setTimestamp(i++, Timestamp.valueOf(dateFin));
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            Map<TypeActivite, Long> minutesParType = new EnumMap<>(TypeActivite.class);
+            while (rs.next()) {
+                minutesParType.merge(convertirTypeActiviteBD(rs.getString(1)), rs.getLong(2), Long::sum);
+            }
+            return minutesParType;
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors du calcul du temps par type", e);
+        }
+        return null;
+    }
+
     @Override
     public List<Activite> getActivitesRecentes(int limite) {
         String sql = "SELECT * FROM activite ORDER BY horaire_debut DESC LIMIT ?";
@@ -495,8 +600,7 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités récentes: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités récentes", e);
         }
         return activites;
     }
@@ -514,14 +618,97 @@ public class ActiviteDAOImpl implements ActiviteDAO {
                 activites.add(mapResultSetToActivite(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités haute priorité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des activités haute priorité", e);
         }
         return activites;
     }
 
     // ========== MÉTHODES UTILITAIRES ==========
 
+    /**
+     * Lecture complète des activités d'un utilisateur pour construire son index
+     * d'intervalles (null en cas d'erreur : l'appelant interroge alors la base).
+     */
+    private List<Activite> chargerPourIndex(Long idUtilisateur) {
+        String sql = "SELECT * FROM activite WHERE id_utilisateur = ?";
+        List<Activite> activites = new ArrayList<>();
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idUtilisateur);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    activites.add(mapResultSetToActivite(rs));
+                }
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors du chargement de l'index des activités: " + e.getMessage());
+            return null;
+        }
+        return activites;
+    }
+
+    /**
+     * Lecture par clé (horaire_debut, id_activite) décroissante : la page
+     * reprend après la dernière ligne lue au lieu de sauter les précédentes.
+     * MySQL range les horaires NULL en dernier dans l'ordre décroissant ; un
+     * curseur sans horaire ne lit donc plus que les lignes sans horaire.
+     * Une ligne de plus que la taille est lue pour savoir s'il reste une page.
+     */
+    private Page<Activite> lirePage(Long idUtilisateur, Curseur curseur, int taille) {
+        try {
+            return Page.depuisLecture(lireLot(idUtilisateur, curseur, taille + 1), taille,
+                    a -> new Curseur(a.getHoraireDebut(), a.getIdActivite()));
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la récupération d'une page d'activités", e);
+            return Page.vide();
+        }
+    }
+
+    /**
+     * Au plus {@code limite} activités après le curseur, triées par horaire de
+     * début puis identifiant décroissants (activités sans horaire en dernier)
+     */
+    private List<Activite> lireLot(Long idUtilisateur, Curseur curseur, int limite) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT * FROM activite WHERE 1 = 1");
+        if (idUtilisateur != null) {
+            sql.append(" AND id_utilisateur = ?");
+        }
+        if (curseur != null && curseur.getHoraire() != null) {
+            sql.append(" AND (horaire_debut < ? OR (horaire_debut = ? AND id_activite < ?) OR horaire_debut IS NULL)");
+        } else if (curseur != null) {
+            sql.append(" AND horaire_debut IS NULL AND id_activite < ?");
+        }
+        sql.append(" ORDER BY horaire_debut DESC, id_activite DESC LIMIT ?");
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int i = 1;
+            if (idUtilisateur != null) {
+                stmt.setLong(i++, idUtilisateur);
+            }
+            if (curseur != null && curseur.getHoraire() != null) {
+                Timestamp horaire = Timestamp.valueOf(curseur.getHoraire());
+                stmt.setTimestamp(i++, horaire);
+                stmt.setTimestamp(i++, horaire);
+            }
+            if (curseur != null) {
+                stmt.setLong(i++, curseur.getId());
+            }
+            stmt.setInt(i, limite);
+
+            List<Activite> activites = new ArrayList<>(limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    activites.add(mapResultSetToActivite(rs));
+                }
+            }
+            return activites;
+        }
+    }
+
     /**
      * Mapper un ResultSet vers un objet Activite
      */
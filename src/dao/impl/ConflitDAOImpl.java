@@ -1,9 +1,13 @@
 package dao.impl;
 
 import config.Connect;
+import dao.cache.IndexConflits;
 import dao.interfaces.ConflitDAO;
 import entities.Conflit;
 import entities.TypeConflit;
+import util.Curseur;
+import util.Journal;
+import util.Page;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -15,6 +19,10 @@ import java.util.*;
  */
 public class ConflitDAOImpl implements ConflitDAO {
 
+    private static final Journal journal = Journal.pour(ConflitDAOImpl.class);
+
+    private final IndexConflits index = IndexConflits.getInstance();
+
     // ========== OPÉRATIONS CRUD DE BASE ==========
 
     @Override
@@ -33,13 +41,16 @@ public class ConflitDAOImpl implements ConflitDAO {
             if (affectedRows > 0) {
                 try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
                     if (generatedKeys.next()) {
-                        return generatedKeys.getLong(1);
+                        long idConflit = generatedKeys.getLong(1);
+                        if (!conflit.isResolu()) {
+                            index.conflitAjoute(idConflit);
+                        }
+                        return idConflit;
                     }
                 }
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de l'ajout du conflit: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de l'ajout du conflit", e);
         }
         return -1L;
     }
@@ -56,10 +67,20 @@ public class ConflitDAOImpl implements ConflitDAO {
             stmt.setInt(3, conflit.isResolu() ? 1 : 0); // boolean vers tinyint(1)
             stmt.setLong(4, conflit.getidConflit());
 
-            return stmt.executeUpdate() > 0;
+            boolean modifie = stmt.executeUpdate() > 0;
+            if (modifie) {
+                index.conflitRetire(conflit.getidConflit());
+                if (!conflit.isResolu()) {
+                    // Conflit (ré)ouvert : réindexer ses liens actuels
+                    index.conflitAjoute(conflit.getidConflit());
+                    for (Long idActivite : getActivitesLieesAuConflit(conflit.getidConflit())) {
+                        index.activiteLiee(conflit.getidConflit(), idActivite);
+                    }
+                }
+            }
+            return modifie;
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la modification du conflit: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la modification du conflit", e);
             return false;
         }
     }
@@ -80,11 +101,12 @@ public class ConflitDAOImpl implements ConflitDAO {
             // 2. Supprimer le conflit
             try (PreparedStatement stmt = conn.prepareStatement(sqlConflit)) {
                 stmt.setLong(1, idConflit);
-                return stmt.executeUpdate() > 0;
+                boolean supprime = stmt.executeUpdate() > 0;
+                index.conflitRetire(idConflit);
+                return supprime;
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression du conflit: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la suppression du conflit", e);
             return false;
         }
     }
@@ -103,8 +125,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 return Optional.of(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération du conflit: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération du conflit", e);
         }
         return Optional.empty();
     }
@@ -122,12 +143,16 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de tous les conflits: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération de tous les conflits", e);
         }
         return conflits;
     }
 
+    @Override
+    public Page<Conflit> getPage(Curseur curseur, int taille) {
+        return lirePage(null, curseur, taille);
+    }
+
     // ========== RECHERCHE ET FILTRAGE ==========
 
     @Override
@@ -145,8 +170,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits par type: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits par type", e);
         }
         return conflits;
     }
@@ -164,8 +188,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits non résolus: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits non résolus", e);
         }
         return conflits;
     }
@@ -183,8 +206,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits résolus: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits résolus", e);
         }
         return conflits;
     }
@@ -205,8 +227,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits par période: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits par période", e);
         }
         return conflits;
     }
@@ -230,8 +251,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits par activité: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits par activité", e);
         }
         return conflits;
     }
@@ -255,12 +275,16 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits par utilisateur: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits par utilisateur", e);
         }
         return conflits;
     }
 
+    @Override
+    public Page<Conflit> getPageByUtilisateur(Long idUtilisateur, Curseur curseur, int taille) {
+        return lirePage(idUtilisateur, curseur, taille);
+    }
+
     // ========== OPÉRATIONS MÉTIER ==========
 
     @Override
@@ -271,10 +295,13 @@ public class ConflitDAOImpl implements ConflitDAO {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idConflit);
-            return stmt.executeUpdate() > 0;
+            boolean marque = stmt.executeUpdate() > 0;
+            if (marque) {
+                index.conflitRetire(idConflit);
+            }
+            return marque;
         } catch (SQLException e) {
-            System.err.println("Erreur lors du marquage du conflit comme résolu: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du marquage du conflit comme résolu", e);
             return false;
         }
     }
@@ -295,10 +322,13 @@ public class ConflitDAOImpl implements ConflitDAO {
                 stmt.setLong(i + 1, idsConflits.get(i));
             }
 
-            return stmt.executeUpdate();
+            int marques = stmt.executeUpdate();
+            for (Long idConflit : idsConflits) {
+                index.conflitRetire(idConflit);
+            }
+            return marques;
         } catch (SQLException e) {
-            System.err.println("Erreur lors du marquage de plusieurs conflits comme résolus: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du marquage de plusieurs conflits comme résolus", e);
             return 0;
         }
     }
@@ -325,8 +355,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la détection des chevauchements: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la détection des chevauchements", e);
         }
         return conflits;
     }
@@ -345,8 +374,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des conflits: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des conflits", e);
         }
         return 0;
     }
@@ -363,8 +391,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des conflits non résolus: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des conflits non résolus", e);
         }
         return 0;
     }
@@ -383,8 +410,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des conflits par type: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des conflits par type", e);
         }
         return 0;
     }
@@ -406,8 +432,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 return rs.getInt(1);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du comptage des conflits par utilisateur: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des conflits par utilisateur", e);
         }
         return 0;
     }
@@ -426,8 +451,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 return rs.getDouble("taux");
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors du calcul du taux de résolution: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors du calcul du taux de résolution", e);
         }
         return 0.0;
     }
@@ -448,8 +472,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 stats.put(type, nombre);
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des statistiques par type: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des statistiques par type", e);
         }
         return stats;
     }
@@ -466,8 +489,7 @@ public class ConflitDAOImpl implements ConflitDAO {
             stmt.setTimestamp(1, Timestamp.valueOf(dateAvant));
             return stmt.executeUpdate();
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression des conflits résolus: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la suppression des conflits résolus", e);
             return 0;
         }
     }
@@ -491,14 +513,15 @@ public class ConflitDAOImpl implements ConflitDAO {
                 int archived = stmtDelete.executeUpdate();
 
                 conn.commit();
+                // Des conflits non résolus peuvent avoir été archivés
+                index.invaliderTout();
                 return archived;
             } catch (SQLException e) {
                 conn.rollback();
                 throw e;
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de l'archivage des conflits: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de l'archivage des conflits", e);
             return 0;
         }
     }
@@ -526,8 +549,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la recherche par mot-clé: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la recherche par mot-clé", e);
         }
         return conflits;
     }
@@ -547,8 +569,7 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits récents: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits récents", e);
         }
         return conflits;
     }
@@ -575,14 +596,70 @@ public class ConflitDAOImpl implements ConflitDAO {
                 conflits.add(mapResultSetToConflit(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des conflits critiques: " + e.getMessage());
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des conflits critiques", e);
         }
         return conflits;
     }
 
     // ========== MÉTHODE UTILITAIRE ==========
 
+    /**
+     * Lecture par clé (horaire_detection, id_conflit) décroissante, une ligne
+     * de plus que la taille pour savoir s'il reste une page.
+     * Pour un utilisateur, ses conflits sont d'abord lus depuis ses activités
+     * (idx_conflit_activite_activite, DISTINCT : une fois chacun) puis par clé
+     * primaire : seul son historique est parcouru et trié, jamais tout
+     * idx_conflit_detection.
+     */
+    private Page<Conflit> lirePage(Long idUtilisateur, Curseur curseur, int taille) {
+        StringBuilder sql = new StringBuilder("SELECT c.* FROM ");
+        if (idUtilisateur != null) {
+            sql.append("(SELECT DISTINCT ca.id_conflit FROM activite a ")
+                    .append("INNER JOIN conflit_activite ca ON ca.id_activite = a.id_activite ")
+                    .append("WHERE a.id_utilisateur = ?) u ")
+                    .append("INNER JOIN conflit c ON c.id_conflit = u.id_conflit");
+        } else {
+            sql.append("conflit c");
+        }
+        sql.append(" WHERE 1 = 1");
+        if (curseur != null) {
+            sql.append(" AND (c.horaire_detection < ? OR (c.horaire_detection = ? AND c.id_conflit < ?))");
+        }
+        sql.append(" ORDER BY c.horaire_detection DESC, c.id_conflit DESC LIMIT ?");
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int i = 1;
+            if (idUtilisateur != null) {
+                stmt.setLong(i++, idUtilisateur);
+            }
+            if (curseur != null) {
+                if (curseur.getHoraire() == null) {
+                    // horaire_detection est NOT NULL : ce jeton ne vient pas d'une page de conflits
+                    throw new IllegalArgumentException("Curseur invalide");
+                }
+                Timestamp horaire = Timestamp.valueOf(curseur.getHoraire());
+                stmt.setTimestamp(i++, horaire);
+                stmt.setTimestamp(i++, horaire);
+                stmt.setLong(i++, curseur.getId());
+            }
+            stmt.setInt(i, taille + 1);
+
+            List<Conflit> conflits = new ArrayList<>(taille + 1);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    conflits.add(mapResultSetToConflit(rs));
+                }
+            }
+            return Page.depuisLecture(conflits, taille,
+                    c -> new Curseur(c.getHoraireDetection(), c.getidConflit()));
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la récupération d'une page de conflits", e);
+            return Page.vide();
+        }
+    }
+
     /**
      * Mapper un ResultSet vers un objet Conflit
      * Convertit les valeurs d'enum de la BD (français avec espaces) vers les
@@ -657,13 +734,18 @@ public class ConflitDAOImpl implements ConflitDAO {
             stmt.setLong(1, idConflit);
             stmt.setLong(2, idActivite);
 
-            return stmt.executeUpdate() > 0;
+            boolean lie = stmt.executeUpdate() > 0;
+            if (lie) {
+                index.activiteLiee(idConflit, idActivite);
+            }
+            return lie;
         } catch (SQLException e) {
             // Si duplicate key (lien existe déjà), on ignore silencieusement
             if (e.getErrorCode() == 1062) { // MySQL duplicate entry
+                index.activiteLiee(idConflit, idActivite);
                 return true;
             }
-            System.err.println("Erreur lors de la liaison conflit-activité: " + e.getMessage());
+            journal.erreur("Erreur lors de la liaison conflit-activité: " + e.getMessage());
             return false;
         }
     }
@@ -683,11 +765,32 @@ public class ConflitDAOImpl implements ConflitDAO {
                 idsActivites.add(rs.getLong("id_activite"));
             }
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération des activités liées: " + e.getMessage());
+            journal.erreur("Erreur lors de la récupération des activités liées: " + e.getMessage());
         }
         return idsActivites;
     }
 
+    @Override
+    public Optional<Long> getUtilisateurDuConflit(Long idConflit) {
+        String sql = "SELECT a.id_utilisateur FROM conflit_activite ca " +
+                "INNER JOIN activite a ON ca.id_activite = a.id_activite " +
+                "WHERE ca.id_conflit = ? LIMIT 1";
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idConflit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(rs.getLong("id_utilisateur"));
+                }
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la recherche du propriétaire du conflit", e);
+        }
+        return Optional.empty();
+    }
+
     @Override
     public int supprimerLiensConflit(Long idConflit) { // quand on veut supprimer un conflit
         String sql = "DELETE FROM conflit_activite WHERE id_conflit = ?";
@@ -696,10 +799,209 @@ public class ConflitDAOImpl implements ConflitDAO {
                 PreparedStatement stmt = conn.prepareStatement(sql)) {
 
             stmt.setLong(1, idConflit);
-            return stmt.executeUpdate();
+            int supprimes = stmt.executeUpdate();
+            index.liensRetires(idConflit);
+            return supprimes;
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression des liens: " + e.getMessage());
+            journal.erreur("Erreur lors de la suppression des liens: " + e.getMessage());
             return 0;
         }
     }
+
+    @Override
+    public Map<Long, List<Long>> getLiensConflitsNonResolusParUtilisateur(Long idUtilisateur) {
+        try {
+            return chargerLiensNonResolus(idUtilisateur);
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors du chargement des liens de conflits", e);
+            return new HashMap<>();
+        }
+    }
+
+    private Map<Long, List<Long>> chargerLiensNonResolus(Long idUtilisateur) throws SQLException {
+        // Les deux activités d'un chevauchement appartiennent au même utilisateur :
+        // filtrer les liens par propriétaire de l'activité suffit
+        String sql = "SELECT ca.id_conflit, ca.id_activite FROM conflit c " +
+                "INNER JOIN conflit_activite ca ON c.id_conflit = ca.id_conflit " +
+                "INNER JOIN activite a ON ca.id_activite = a.id_activite " +
+                "WHERE c.resolu = 0 AND a.id_utilisateur = ?";
+        Map<Long, List<Long>> liens = new HashMap<>();
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idUtilisateur);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    liens.computeIfAbsent(rs.getLong("id_conflit"), k -> new ArrayList<>())
+                            .add(rs.getLong("id_activite"));
+                }
+            }
+        }
+        return liens;
+    }
+
+    /**
+     * Chargeur de l'index : null en cas d'erreur pour que l'utilisateur ne soit
+     * pas marqué comme chargé.
+     */
+    private Map<Long, List<Long>> chargerLiensPourIndex(Long idUtilisateur) {
+        try {
+            return chargerLiensNonResolus(idUtilisateur);
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors du chargement de l'index des conflits: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public boolean existeConflitNonResoluEntre(Long idUtilisateur, Long idActivite1, Long idActivite2) {
+        if (idUtilisateur == null || idActivite1 == null || idActivite2 == null) {
+            return false;
+        }
+        return index.existePaire(idUtilisateur, idActivite1, idActivite2,
+                this::chargerLiensPourIndex, () -> existeConflitNonResoluEnBase(idActivite1, idActivite2));
+    }
+
+    /**
+     * Même question posée à la base, quand l'index n'a pas pu charger l'utilisateur
+     */
+    private boolean existeConflitNonResoluEnBase(Long idActivite1, Long idActivite2) {
+        String sql = "SELECT 1 FROM conflit c " +
+                "INNER JOIN conflit_activite ca1 ON ca1.id_conflit = c.id_conflit AND ca1.id_activite = ? " +
+                "INNER JOIN conflit_activite ca2 ON ca2.id_conflit = c.id_conflit AND ca2.id_activite = ? " +
+                "WHERE c.resolu = 0 LIMIT 1";
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idActivite1);
+            stmt.setLong(2, idActivite2);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la recherche d'un conflit entre deux activités", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<ConflitOuvert> getConflitsNonResolusAvecLiens(Long idActivite) {
+        String sql = "SELECT c.id_conflit, c.type_conflit, autre.id_activite FROM conflit_activite ca " +
+                "INNER JOIN conflit c ON c.id_conflit = ca.id_conflit AND c.resolu = 0 " +
+                "INNER JOIN conflit_activite autre ON autre.id_conflit = c.id_conflit " +
+                "WHERE ca.id_activite = ? ORDER BY c.id_conflit";
+        Map<Long, ConflitOuvert> conflits = new LinkedHashMap<>();
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idActivite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long idConflit = rs.getLong("id_conflit");
+                    TypeConflit type = convertirTypeConflitBD(rs.getString("type_conflit"));
+                    conflits.computeIfAbsent(idConflit, id -> new ConflitOuvert(id, type, new ArrayList<>()))
+                            .getIdsActivites().add(rs.getLong("id_activite"));
+                }
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la récupération des conflits ouverts de l'activité", e);
+        }
+        return new ArrayList<>(conflits.values());
+    }
+
+    @Override
+    public List<ConflitOuvert> getConflitsNonResolusAvecLiensParUtilisateur(Long idUtilisateur) {
+        // Même filtre par propriétaire de l'activité que chargerLiensNonResolus
+        String sql = "SELECT c.id_conflit, c.type_conflit, ca.id_activite FROM conflit c " +
+                "INNER JOIN conflit_activite ca ON c.id_conflit = ca.id_conflit " +
+                "INNER JOIN activite a ON ca.id_activite = a.id_activite " +
+                "WHERE c.resolu = 0 AND a.id_utilisateur = ? ORDER BY c.id_conflit";
+        Map<Long, ConflitOuvert> conflits = new LinkedHashMap<>();
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idUtilisateur);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long idConflit = rs.getLong("id_conflit");
+                    TypeConflit type = convertirTypeConflitBD(rs.getString("type_conflit"));
+                    conflits.computeIfAbsent(idConflit, id -> new ConflitOuvert(id, type, new ArrayList<>()))
+                            .getIdsActivites().add(rs.getLong("id_activite"));
+                }
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la récupération des conflits ouverts de l'utilisateur", e);
+        }
+        return new ArrayList<>(conflits.values());
+    }
+
+    // ========== PERSISTANCE EN LOT ==========
+
+    @Override
+    public List<Long> ajouterConflitsEnLot(List<NouveauConflit> nouveauxConflits) {
+        if (nouveauxConflits == null || nouveauxConflits.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String sqlConflit = "INSERT INTO conflit (horaire_detection, type_conflit, resolu) VALUES (?, ?, 0)";
+        // INSERT IGNORE : un lien déjà présent n'est pas une erreur (comme lierActiviteAuConflit)
+        String sqlLien = "INSERT IGNORE INTO conflit_activite (id_conflit, id_activite) VALUES (?, ?)";
+        List<Long> ids = new ArrayList<>(nouveauxConflits.size());
+
+        try (Connection conn = Connect.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmtConflit = conn.prepareStatement(sqlConflit, Statement.RETURN_GENERATED_KEYS);
+                    PreparedStatement stmtLien = conn.prepareStatement(sqlLien)) {
+
+                // 1. Conflits : un seul aller-retour, clés générées dans l'ordre du lot
+                Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+                for (NouveauConflit nouveau : nouveauxConflits) {
+                    stmtConflit.setTimestamp(1, maintenant);
+                    stmtConflit.setString(2, convertirTypeConflitJava(nouveau.getType()));
+                    stmtConflit.addBatch();
+                }
+                stmtConflit.executeBatch();
+
+                try (ResultSet generatedKeys = stmtConflit.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        ids.add(generatedKeys.getLong(1));
+                    }
+                }
+                if (ids.size() != nouveauxConflits.size()) {
+                    throw new SQLException("Clés générées incomplètes: " + ids.size() + "/" + nouveauxConflits.size());
+                }
+
+                // 2. Liens conflit_activite
+                for (int i = 0; i < nouveauxConflits.size(); i++) {
+                    for (Long idActivite : nouveauxConflits.get(i).getIdsActivites()) {
+                        stmtLien.setLong(1, ids.get(i));
+                        stmtLien.setLong(2, idActivite);
+                        stmtLien.addBatch();
+                    }
+                }
+                stmtLien.executeBatch();
+
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de l'ajout des conflits en lot", e);
+            return new ArrayList<>();
+        }
+
+        for (int i = 0; i < ids.size(); i++) {
+            index.conflitAjoute(ids.get(i));
+            for (Long idActivite : nouveauxConflits.get(i).getIdsActivites()) {
+                index.activiteLiee(ids.get(i), idActivite);
+            }
+        }
+        return ids;
+    }
 }
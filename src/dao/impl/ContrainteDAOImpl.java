@@ -1,10 +1,15 @@
 package dao.impl;
 
 import config.Connect;
+import dao.cache.CacheContraintes;
 import dao.interfaces.ContrainteDAO;
 import entities.Contrainte;
 import entities.StatutContrainte;
 import entities.TypeContrainte;
+import util.CodecContrainte;
+import util.Curseur;
+import util.Journal;
+import util.Page;
 
 import java.sql.*;
 import java.time.LocalDate;
@@ -12,11 +17,13 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 public class ContrainteDAOImpl implements ContrainteDAO {
+
+    private static final Journal journal = Journal.pour(ContrainteDAOImpl.class);
+
+    private final CacheContraintes cache = CacheContraintes.getInstance();
+
     @Override
     public Optional<Contrainte> getByIdAndUtilisateur(int idContrainte, int utilisateurId) {
         String sql = "SELECT id_contrainte, titre, type_contrainte, heure_debut, heure_fin, repetitif, dates_specifiques, jours, statut, id_utilisateur FROM contrainte WHERE id_contrainte = ? AND id_utilisateur = ?";
@@ -30,36 +37,31 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération de la contrainte de l'utilisateur", e);
         }
         return Optional.empty();
     }
 
     @Override
     public List<Contrainte> getAllByUtilisateur(int utilisateurId) {
-        String sql = "SELECT id_contrainte, titre, type_contrainte, heure_debut, heure_fin, repetitif, dates_specifiques, jours, statut, id_utilisateur FROM contrainte WHERE id_utilisateur = ? ORDER BY id_contrainte DESC";
-        List<Contrainte> list = new ArrayList<>();
-        try (Connection conn = Connect.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setInt(1, utilisateurId);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Contrainte c = mapRow(rs);
-                    list.add(c);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return list;
+        List<Contrainte> contraintes = cache.toutes(utilisateurId, this::lireParUtilisateur);
+        return contraintes != null ? contraintes : new ArrayList<>();
     }
 
     @Override
     public List<Contrainte> getContraintesActivesByUtilisateur(int utilisateurId) {
-        String sql = "SELECT id_contrainte, titre, type_contrainte, heure_debut, heure_fin, repetitif, dates_specifiques, jours, statut, id_utilisateur FROM contrainte WHERE statut = ? AND id_utilisateur = ? ORDER BY id_contrainte DESC";
+        return cache.actives(utilisateurId, this::lireParUtilisateur);
+    }
+
+    /**
+     * Lecture en base de toutes les contraintes d'un utilisateur pour le cache
+     * (null en cas d'erreur).
+     */
+    private List<Contrainte> lireParUtilisateur(int utilisateurId) {
+        String sql = "SELECT id_contrainte, titre, type_contrainte, heure_debut, heure_fin, repetitif, dates_specifiques, jours, statut, id_utilisateur FROM contrainte WHERE id_utilisateur = ? ORDER BY id_contrainte DESC";
         List<Contrainte> list = new ArrayList<>();
         try (Connection conn = Connect.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setString(1, StatutContrainte.ACTIVE.name());
-            ps.setInt(2, utilisateurId);
+            ps.setInt(1, utilisateurId);
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
                     Contrainte c = mapRow(rs);
@@ -67,7 +69,8 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des contraintes de l'utilisateur", e);
+            return null;
         }
         return list;
     }
@@ -91,8 +94,8 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 ps.setNull(4, Types.TIME);
             ps.setInt(5, contrainte.isRepetitif() ? 1 : 0);
 
-            ps.setString(6, datesToJson(contrainte.getDatesSpecifiques()));
-            ps.setString(7, joursToJson(contrainte.getJoursSemaine()));
+            ps.setString(6, CodecContrainte.datesVersJson(contrainte.getDatesSpecifiques()));
+            ps.setString(7, CodecContrainte.joursVersJson(contrainte.getJoursSemaine()));
             ps.setString(8, contrainte.getStatut() != null ? contrainte.getStatut().name() : "ACTIVE");
             ps.setInt(9, contrainte.getUtilisateurId());
 
@@ -101,12 +104,13 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 try (ResultSet gk = ps.getGeneratedKeys()) {
                     if (gk.next()) {
                         int id = gk.getInt(1);
+                        cache.invalider(contrainte.getUtilisateurId());
                         return id;
                     }
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de l'ajout de la contrainte", e);
         }
         return -1;
     }
@@ -129,15 +133,20 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 ps.setNull(4, Types.TIME);
             ps.setInt(5, contrainte.isRepetitif() ? 1 : 0);
 
-            ps.setString(6, datesToJson(contrainte.getDatesSpecifiques()));
-            ps.setString(7, joursToJson(contrainte.getJoursSemaine()));
+            ps.setString(6, CodecContrainte.datesVersJson(contrainte.getDatesSpecifiques()));
+            ps.setString(7, CodecContrainte.joursVersJson(contrainte.getJoursSemaine()));
             ps.setString(8, contrainte.getStatut() != null ? contrainte.getStatut().name() : "ACTIVE");
             ps.setInt(9, contrainte.getUtilisateurId());
 
             ps.setInt(10, contrainte.getId());
-            return ps.executeUpdate() > 0;
+            boolean modifiee = ps.executeUpdate() > 0;
+            if (modifiee) {
+                cache.contrainteModifiee(contrainte.getId());
+                cache.invalider(contrainte.getUtilisateurId());
+            }
+            return modifiee;
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la modification de la contrainte", e);
         }
         return false;
     }
@@ -147,9 +156,13 @@ public class ContrainteDAOImpl implements ContrainteDAO {
         String sql = "DELETE FROM contrainte WHERE id_contrainte = ?";
         try (Connection conn = Connect.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
             ps.setInt(1, idContrainte);
-            return ps.executeUpdate() > 0;
+            boolean supprimee = ps.executeUpdate() > 0;
+            if (supprimee) {
+                cache.contrainteModifiee(idContrainte);
+            }
+            return supprimee;
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la suppression de la contrainte", e);
         }
         return false;
     }
@@ -166,7 +179,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération de la contrainte", e);
         }
         return Optional.empty();
     }
@@ -183,11 +196,34 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 list.add(c);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération de toutes les contraintes", e);
         }
         return list;
     }
 
+    @Override
+    public Page<Contrainte> getPage(Curseur curseur, int taille) {
+        String sql = "SELECT id_contrainte, titre, type_contrainte, heure_debut, heure_fin, repetitif, dates_specifiques, jours, statut, id_utilisateur FROM contrainte"
+                + (curseur != null ? " WHERE id_contrainte < ?" : "") + " ORDER BY id_contrainte DESC LIMIT ?";
+        List<Contrainte> list = new ArrayList<>(taille + 1);
+        try (Connection conn = Connect.getConnection(); PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (curseur != null) {
+                ps.setLong(i++, curseur.getId());
+            }
+            ps.setInt(i, taille + 1);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    list.add(mapRow(rs));
+                }
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la récupération d'une page de contraintes", e);
+            return Page.vide();
+        }
+        return Page.depuisLecture(list, taille, c -> new Curseur(null, c.getId()));
+    }
+
     @Override
     public List<Contrainte> getByPeriode(LocalTime heureDebut, LocalTime heureFin) {
         String sql = "SELECT id_contrainte, titre, type_contrainte, heure_debut, heure_fin, repetitif, dates_specifiques, jours, statut, id_utilisateur FROM contrainte WHERE heure_debut >= ? AND heure_fin <= ?";
@@ -202,7 +238,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des contraintes par période", e);
         }
         return list;
     }
@@ -219,7 +255,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 list.add(c);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des contraintes répétitives", e);
         }
         return list;
     }
@@ -236,7 +272,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 list.add(c);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des contraintes non répétitives", e);
         }
         return list;
     }
@@ -250,7 +286,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
             if (rs.next())
                 return rs.getInt(1);
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des contraintes", e);
         }
         return 0;
     }
@@ -268,7 +304,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors de la récupération des contraintes par statut", e);
         }
         return list;
     }
@@ -293,7 +329,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
                     return rs.getInt(1);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            journal.erreur("Erreur lors du comptage des contraintes par statut", e);
         }
         return 0;
     }
@@ -308,7 +344,7 @@ public class ContrainteDAOImpl implements ContrainteDAO {
             try {
                 c.setType(TypeContrainte.valueOf(type));
             } catch (IllegalArgumentException e) {
-                System.err.println("Invalid TypeContrainte value: " + type);
+                journal.alerte("Type de contrainte invalide: {}", type);
             }
         }
         Time tDeb = rs.getTime("heure_debut");
@@ -320,16 +356,16 @@ public class ContrainteDAOImpl implements ContrainteDAO {
         c.setRepetitif(rs.getBoolean("repetitif"));
 
         String datesJson = rs.getString("dates_specifiques");
-        c.setDatesSpecifiques(parseDatesFromJson(datesJson));
+        c.setDatesSpecifiques(CodecContrainte.lireDates(datesJson));
         String joursJson = rs.getString("jours");
-        c.setJoursSemaine(parseJoursFromJson(joursJson));
+        c.setJoursSemaine(CodecContrainte.lireJours(joursJson));
 
         String statut = rs.getString("statut");
         if (statut != null && !statut.trim().isEmpty()) {
             try {
                 c.setStatut(StatutContrainte.valueOf(statut));
             } catch (IllegalArgumentException e) {
-                System.err.println("Invalid StatutContrainte value: " + statut);
+                journal.alerte("Statut de contrainte invalide: {}", statut);
                 c.setStatut(StatutContrainte.ACTIVE); // default
             }
         }
@@ -338,49 +374,4 @@ public class ContrainteDAOImpl implements ContrainteDAO {
 
         return c;
     }
-
-    // ---------- JSON helpers (dates_specifiques / jours) ----------
-    private String datesToJson(List<LocalDate> dates) {
-        if (dates == null || dates.isEmpty())
-            return null;
-        return "[" + dates.stream().map(d -> "\"" + d.toString() + "\"").collect(Collectors.joining(",")) + "]";
-    }
-
-    private List<LocalDate> parseDatesFromJson(String json) {
-        List<LocalDate> res = new ArrayList<>();
-        if (json == null || json.trim().isEmpty())
-            return res;
-        Pattern p = Pattern.compile("\"([^\"]*)\"");
-        Matcher m = p.matcher(json);
-        while (m.find()) {
-            String val = m.group(1);
-            try {
-                res.add(LocalDate.parse(val));
-            } catch (Exception e) {
-                /* ignore invalid */ }
-        }
-        return res;
-    }
-
-    private String joursToJson(List<java.time.DayOfWeek> jours) {
-        if (jours == null || jours.isEmpty())
-            return null;
-        return "[" + jours.stream().map(j -> "\"" + j.name() + "\"").collect(Collectors.joining(",")) + "]";
-    }
-
-    private List<java.time.DayOfWeek> parseJoursFromJson(String json) {
-        List<java.time.DayOfWeek> res = new ArrayList<>();
-        if (json == null || json.trim().isEmpty())
-            return res;
-        Pattern p = Pattern.compile("\"([^\"]*)\"");
-        Matcher m = p.matcher(json);
-        while (m.find()) {
-            String val = m.group(1);
-            try {
-                res.add(java.time.DayOfWeek.valueOf(val));
-            } catch (Exception e) {
-                /* ignore invalid */ }
-        }
-        return res;
-    }
-}
\ No newline at end of file
+}
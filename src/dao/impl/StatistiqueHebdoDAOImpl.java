@@ -0,0 +1,130 @@
+package dao.impl;
+
+import config.Connect;
+import dao.interfaces.StatistiqueHebdoDAO;
+import entities.StatistiqueHebdo;
+import entities.TypeActivite;
+import util.Journal;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implémentation DAO des agrégats hebdomadaires
+ * Écriture par INSERT ... ON DUPLICATE KEY UPDATE sur (id_utilisateur, debut_semaine)
+ */
+public class StatistiqueHebdoDAOImpl implements StatistiqueHebdoDAO {
+
+    private static final Journal journal = Journal.pour(StatistiqueHebdoDAOImpl.class);
+
+    private static final String SQL_ENREGISTRER = "INSERT INTO statistique_hebdo (id_utilisateur, debut_semaine, " +
+            "heures_sport, heures_etude, heures_loisirs, heures_repos, heures_travail, " +
+            "nombre_activites, heures_consecutives_max, score_fatigue) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE heures_sport = VALUES(heures_sport), heures_etude = VALUES(heures_etude), " +
+            "heures_loisirs = VALUES(heures_loisirs), heures_repos = VALUES(heures_repos), " +
+            "heures_travail = VALUES(heures_travail), nombre_activites = VALUES(nombre_activites), " +
+            "heures_consecutives_max = VALUES(heures_consecutives_max), score_fatigue = VALUES(score_fatigue)";
+
+    @Override
+    public boolean enregistrer(StatistiqueHebdo statistique) {
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(SQL_ENREGISTRER)) {
+
+            remplirParametres(stmt, statistique);
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de l'enregistrement de la statistique hebdomadaire", e);
+            return false;
+        }
+    }
+
+    @Override
+    public boolean remplacerParUtilisateur(Long idUtilisateur, List<StatistiqueHebdo> statistiques) {
+        String sqlDelete = "DELETE FROM statistique_hebdo WHERE id_utilisateur = ?";
+
+        try (Connection conn = Connect.getConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement stmtDelete = conn.prepareStatement(sqlDelete);
+                    PreparedStatement stmtInsert = conn.prepareStatement(SQL_ENREGISTRER)) {
+
+                stmtDelete.setLong(1, idUtilisateur);
+                stmtDelete.executeUpdate();
+
+                for (StatistiqueHebdo statistique : statistiques) {
+                    remplirParametres(stmtInsert, statistique);
+                    stmtInsert.addBatch();
+                }
+                if (!statistiques.isEmpty()) {
+                    stmtInsert.executeBatch();
+                }
+
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la reconstruction des statistiques hebdomadaires", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<StatistiqueHebdo> getByUtilisateurEtPeriode(Long idUtilisateur, LocalDate debut, LocalDate fin) {
+        String sql = "SELECT * FROM statistique_hebdo WHERE id_utilisateur = ? " +
+                "AND debut_semaine BETWEEN ? AND ? ORDER BY debut_semaine";
+        List<StatistiqueHebdo> statistiques = new ArrayList<>();
+
+        try (Connection conn = Connect.getConnection();
+                PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setLong(1, idUtilisateur);
+            stmt.setDate(2, Date.valueOf(debut));
+            stmt.setDate(3, Date.valueOf(fin));
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                statistiques.add(mapResultSetToStatistique(rs));
+            }
+            return statistiques;
+        } catch (SQLException e) {
+            journal.erreur("Erreur lors de la récupération des statistiques hebdomadaires", e);
+            return null;
+        }
+    }
+
+    // ========== MÉTHODES UTILITAIRES ==========
+
+    private void remplirParametres(PreparedStatement stmt, StatistiqueHebdo statistique) throws SQLException {
+        stmt.setLong(1, statistique.getIdUtilisateur());
+        stmt.setDate(2, Date.valueOf(statistique.getDebutSemaine()));
+        stmt.setDouble(3, statistique.getHeures(TypeActivite.Sport));
+        stmt.setDouble(4, statistique.getHeures(TypeActivite.Etude));
+        stmt.setDouble(5, statistique.getHeures(TypeActivite.Loisirs));
+        stmt.setDouble(6, statistique.getHeures(TypeActivite.Repos));
+        stmt.setDouble(7, statistique.getHeures(TypeActivite.Travail));
+        stmt.setInt(8, statistique.getNombreActivites());
+        stmt.setDouble(9, statistique.getHeuresTravailConsecutivesMax());
+        stmt.setDouble(10, statistique.getScoreFatigue());
+    }
+
+    private StatistiqueHebdo mapResultSetToStatistique(ResultSet rs) throws SQLException {
+        StatistiqueHebdo statistique = new StatistiqueHebdo(rs.getLong("id_utilisateur"),
+                rs.getDate("debut_semaine").toLocalDate());
+        statistique.setHeures(TypeActivite.Sport, rs.getDouble("heures_sport"));
+        statistique.setHeures(TypeActivite.Etude, rs.getDouble("heures_etude"));
+        statistique.setHeures(TypeActivite.Loisirs, rs.getDouble("heures_loisirs"));
+        statistique.setHeures(TypeActivite.Repos, rs.getDouble("heures_repos"));
+        statistique.setHeures(TypeActivite.Travail, rs.getDouble("heures_travail"));
+        statistique.setNombreActivites(rs.getInt("nombre_activites"));
+        statistique.setHeuresTravailConsecutivesMax(rs.getDouble("heures_consecutives_max"));
+        statistique.setScoreFatigue(rs.getDouble("score_fatigue"));
+        return statistique;
+    }
+}
@@ -2,12 +2,15 @@ package dao.impl;
 
 import dao.interfaces.UtilisateurDAOinterface;
 import entities.Utilisateur;
+import util.Journal;
 import config.Connect;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
+
+    private static final Journal journal = Journal.pour(UtilisateurDAOImpl.class);
     
     @Override
     public boolean inserer(Utilisateur utilisateur) {
@@ -35,13 +38,13 @@ public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
             
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("Utilisateur inséré avec succès");
+                journal.info("Utilisateur inséré avec succès");
                 return true;
             }
             return false;
             
         } catch (SQLException e) {
-            System.err.println("Erreur lors de l'insertion: " + e.getMessage());
+            journal.erreur("Erreur lors de l'insertion: " + e.getMessage());
             return false;
         }
     }
@@ -64,15 +67,15 @@ public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
             
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("Utilisateur modifié avec succès");
+                journal.info("Utilisateur modifié avec succès");
                 return true;
             } else {
-                System.out.println("Aucun utilisateur trouvé avec l'ID: " + utilisateur.getId());
+                journal.info("Aucun utilisateur trouvé avec l'ID: {}", utilisateur.getId());
                 return false;
             }
             
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la modification: " + e.getMessage());
+            journal.erreur("Erreur lors de la modification: " + e.getMessage());
             return false;
         }
     }
@@ -88,15 +91,15 @@ public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
             
             int rowsAffected = stmt.executeUpdate();
             if (rowsAffected > 0) {
-                System.out.println("Utilisateur supprimé avec succès (ID: " + id + ")");
+                journal.info("Utilisateur supprimé avec succès (ID: {})", id);
                 return true;
             } else {
-                System.out.println("Aucun utilisateur trouvé avec l'ID: " + id);
+                journal.debug("Aucun utilisateur trouvé avec l'ID: {}", id);
                 return false;
             }
             
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la suppression: " + e.getMessage());
+            journal.erreur("Erreur lors de la suppression: " + e.getMessage());
             return false;
         }
     }
@@ -114,12 +117,12 @@ public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
             if (rs.next()) {
                 return mapResultSetToUtilisateur(rs);
             } else {
-                System.out.println("Aucun utilisateur trouvé avec l'ID: " + id);
+                journal.debug("Aucun utilisateur trouvé avec l'ID: {}", id);
                 return null;
             }
             
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération: " + e.getMessage());
+            journal.erreur("Erreur lors de la récupération: " + e.getMessage());
             return null;
         }
     }
@@ -137,10 +140,10 @@ public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
                 utilisateurs.add(mapResultSetToUtilisateur(rs));
             }
             
-            System.out.println(utilisateurs.size() + " utilisateur(s) récupéré(s)");
+            journal.debug("{} utilisateur(s) récupéré(s)", utilisateurs.size());
             
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération de tous les utilisateurs: " + e.getMessage());
+            journal.erreur("Erreur lors de la récupération de tous les utilisateurs: " + e.getMessage());
         }
         
         return utilisateurs;
@@ -159,12 +162,12 @@ public class UtilisateurDAOImpl implements UtilisateurDAOinterface {
             if (rs.next()) {
                 return mapResultSetToUtilisateur(rs);
             } else {
-                System.out.println("Aucun utilisateur trouvé avec l'email: " + email);
+                journal.debug("Aucun utilisateur trouvé avec l'email: {}", email);
                 return null;
             }
             
         } catch (SQLException e) {
-            System.err.println("Erreur lors de la récupération par email: " + e.getMessage());
+            journal.erreur("Erreur lors de la récupération par email: " + e.getMessage());
             return null;
         }
     }
@@ -2,10 +2,14 @@ package dao.interfaces;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import entities.Activite;
 import entities.TypeActivite;
+import util.Curseur;
+import util.Page;
 
 public interface ActiviteDAO {
 
@@ -20,9 +24,35 @@ public interface ActiviteDAO {
 
     List<Activite> getAll();
 
+    /**
+     * Parcourt toutes les activités (même ordre que getPage) par pages lues
+     * l'une après l'autre : la connexion est rendue au pool avant que chaque
+     * page soit transmise, elle n'est jamais gardée pendant l'écriture. Chaque
+     * lecture se fait sous une place de {@link config.LimiteTravauxDb}.
+     *
+     * @param consommateur reçoit chaque page, retourne false pour arrêter le parcours
+     * @return false en cas d'erreur de lecture ou de base saturée (le parcours
+     *         est alors incomplet)
+     */
+    boolean parcourirTout(Predicate<List<Activite>> consommateur);
+
+    /**
+     * Page de toutes les activités, triées par horaire de début puis
+     * identifiant décroissants (activités sans horaire en dernier).
+     *
+     * @param curseur clé de la dernière activité de la page précédente (null : première page)
+     * @param taille  nombre maximal d'activités, déjà borné par {@link Page#taille(Integer)}
+     */
+    Page<Activite> getPage(Curseur curseur, int taille);
+
     // ========== MÉTHODES AVEC userId ==========
     List<Activite> getByUtilisateur(Long idUtilisateur);
 
+    /**
+     * Page des activités de l'utilisateur, même ordre que {@link #getPage(Curseur, int)}.
+     */
+    Page<Activite> getPageByUtilisateur(Long idUtilisateur, Curseur curseur, int taille);
+
     List<Activite> getByTypeAndUtilisateur(Long idUtilisateur, TypeActivite type);
 
     List<Activite> getByUtilisateurAndPeriode(Long idUtilisateur, LocalDateTime dateDebut, LocalDateTime dateFin);
@@ -34,6 +64,13 @@ public interface ActiviteDAO {
 
     int compterActivitesUtilisateur(Long idUtilisateur);
 
+    /**
+     * Minutes planifiées par type (activités avec horaires), calculées par la
+     * base. Période facultative sur l'horaire de début, bornes incluses (null :
+     * pas de borne). Retourne null en cas d'erreur.
+     */
+    Map<TypeActivite, Long> sommeMinutesParType(Long idUtilisateur, LocalDateTime dateDebut, LocalDateTime dateFin);
+
     // ========== MÉTHODES GÉNÉRALES ==========
     List<Activite> getByType(TypeActivite type);
 
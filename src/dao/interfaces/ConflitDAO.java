@@ -2,6 +2,8 @@ package dao.interfaces;
 
 import entities.Conflit;
 import entities.TypeConflit;
+import util.Curseur;
+import util.Page;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -58,6 +60,15 @@ public interface ConflitDAO {
      * @return Liste de tous les conflits
      */
     List<Conflit> getAll();
+
+    /**
+     * Récupérer une page de conflits, triés par horaire de détection puis
+     * identifiant décroissants
+     * @param curseur Clé du dernier conflit de la page précédente (null : première page)
+     * @param taille Nombre maximal de conflits, déjà borné par Page.taille
+     * @return La page de conflits et le jeton de la suivante
+     */
+    Page<Conflit> getPage(Curseur curseur, int taille);
     
     // ========== RECHERCHE ET FILTRAGE ==========
     
@@ -101,6 +112,15 @@ public interface ConflitDAO {
      * @return Liste des conflits de l'utilisateur
      */
     List<Conflit> getByUtilisateur(Long idUtilisateur);
+
+    /**
+     * Récupérer une page des conflits liés à un utilisateur (même ordre que getPage)
+     * @param idUtilisateur L'ID de l'utilisateur
+     * @param curseur Clé du dernier conflit de la page précédente (null : première page)
+     * @param taille Nombre maximal de conflits
+     * @return La page de conflits et le jeton de la suivante
+     */
+    Page<Conflit> getPageByUtilisateur(Long idUtilisateur, Curseur curseur, int taille);
     
     // ========== OPÉRATIONS MÉTIER ==========
     
@@ -220,10 +240,105 @@ public interface ConflitDAO {
      */
     List<Long> getActivitesLieesAuConflit(Long idConflit);
     
+    /**
+     * Récupérer l'utilisateur propriétaire d'un conflit (celui de ses activités liées)
+     * @param idConflit ID du conflit
+     * @return ID de l'utilisateur, vide si le conflit n'a aucune activité liée ou en cas d'erreur
+     */
+    Optional<Long> getUtilisateurDuConflit(Long idConflit);
+    
     /**
      * Supprimer tous les liens d'un conflit dans conflit_activite
      * @param idConflit ID du conflit
      * @return Nombre de liens supprimés
      */
     int supprimerLiensConflit(Long idConflit);
+    
+    /**
+     * Récupérer en une requête les liens des conflits non résolus d'un utilisateur
+     * @param idUtilisateur ID de l'utilisateur
+     * @return Map ID conflit → IDs des activités liées
+     */
+    java.util.Map<Long, List<Long>> getLiensConflitsNonResolusParUtilisateur(Long idUtilisateur);
+    
+    /**
+     * Vérifier si un conflit non résolu relie déjà deux activités (index en mémoire)
+     * @param idUtilisateur ID de l'utilisateur propriétaire des activités
+     * @param idActivite1 ID de la première activité
+     * @param idActivite2 ID de la seconde activité
+     * @return true si un conflit non résolu existe entre les deux activités
+     */
+    boolean existeConflitNonResoluEntre(Long idUtilisateur, Long idActivite1, Long idActivite2);
+    
+    /**
+     * Récupérer les conflits non résolus d'une activité avec toutes leurs activités liées (une requête)
+     * @param idActivite ID de l'activité
+     * @return Liste des conflits ouverts de l'activité
+     */
+    List<ConflitOuvert> getConflitsNonResolusAvecLiens(Long idActivite);
+    
+    /**
+     * Récupérer les conflits non résolus d'un utilisateur avec leurs activités liées (une requête)
+     * @param idUtilisateur ID de l'utilisateur
+     * @return Liste des conflits ouverts de l'utilisateur
+     */
+    List<ConflitOuvert> getConflitsNonResolusAvecLiensParUtilisateur(Long idUtilisateur);
+    
+    // ========== PERSISTANCE EN LOT ==========
+    
+    /**
+     * Créer plusieurs conflits non résolus et leurs liens conflit_activite en une
+     * seule transaction (insertions groupées par lot JDBC)
+     * @param nouveauxConflits Les conflits à créer avec leurs activités
+     * @return Les IDs générés, dans l'ordre de la liste (liste vide en cas d'échec : rien n'est écrit)
+     */
+    List<Long> ajouterConflitsEnLot(List<NouveauConflit> nouveauxConflits);
+    
+    /**
+     * Conflit à créer : son type et les activités qu'il relie.
+     */
+    class NouveauConflit {
+        private final TypeConflit type;
+        private final List<Long> idsActivites;
+        
+        public NouveauConflit(TypeConflit type, List<Long> idsActivites) {
+            this.type = type;
+            this.idsActivites = idsActivites;
+        }
+        
+        public TypeConflit getType() {
+            return type;
+        }
+        
+        public List<Long> getIdsActivites() {
+            return idsActivites;
+        }
+    }
+    
+    /**
+     * Conflit non résolu existant : son ID, son type et les activités liées.
+     */
+    class ConflitOuvert {
+        private final Long idConflit;
+        private final TypeConflit type;
+        private final List<Long> idsActivites;
+        
+        public ConflitOuvert(Long idConflit, TypeConflit type, List<Long> idsActivites) {
+            this.idConflit = idConflit;
+            this.type = type;
+            this.idsActivites = idsActivites;
+        }
+        
+        public Long getIdConflit() {
+            return idConflit;
+        }
+        
+        public TypeConflit getType() {
+            return type;
+        }
+        
+        public List<Long> getIdsActivites() {
+            return idsActivites;
+        }
+    }
 }
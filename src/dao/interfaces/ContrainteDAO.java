@@ -7,6 +7,8 @@ import java.util.Optional;
 import entities.Contrainte;
 import entities.StatutContrainte;
 import entities.TypeContrainte;
+import util.Curseur;
+import util.Page;
 
 public interface ContrainteDAO {
     // Méthodes filtrées par utilisateur
@@ -14,6 +16,9 @@ public interface ContrainteDAO {
 
     List<Contrainte> getAllByUtilisateur(int utilisateurId);
 
+    /**
+     * @return null si la lecture a échoué (distinct d'une liste vide : aucune contrainte)
+     */
     List<Contrainte> getContraintesActivesByUtilisateur(int utilisateurId);
 
     List<Contrainte> getContraintesByStatut(StatutContrainte statut);
@@ -32,6 +37,12 @@ public interface ContrainteDAO {
 
     List<Contrainte> getAll();
 
+    /**
+     * Page de toutes les contraintes par identifiant décroissant (même ordre
+     * que getAll) ; le curseur ne porte que l'identifiant.
+     */
+    Page<Contrainte> getPage(Curseur curseur, int taille);
+
     List<Contrainte> getByPeriode(LocalTime heureDebut, LocalTime heureFin);
 
     List<Contrainte> getRepetitives();
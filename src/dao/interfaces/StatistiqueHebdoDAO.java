@@ -0,0 +1,37 @@
+package dao.interfaces;
+
+import entities.StatistiqueHebdo;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface DAO des agrégats hebdomadaires (table statistique_hebdo)
+ * Une ligne par utilisateur et par semaine ISO, identifiée par son lundi
+ */
+public interface StatistiqueHebdoDAO {
+
+    /**
+     * Enregistrer l'agrégat d'une semaine (insertion ou remplacement)
+     * @param statistique L'agrégat à enregistrer
+     * @return true si l'enregistrement a réussi
+     */
+    boolean enregistrer(StatistiqueHebdo statistique);
+
+    /**
+     * Remplacer tous les agrégats d'un utilisateur, en une transaction
+     * @param idUtilisateur L'ID de l'utilisateur
+     * @param statistiques Les agrégats de ses semaines (les autres sont supprimés)
+     * @return true si le remplacement a réussi
+     */
+    boolean remplacerParUtilisateur(Long idUtilisateur, List<StatistiqueHebdo> statistiques);
+
+    /**
+     * Obtenir les agrégats d'un utilisateur entre deux semaines
+     * @param idUtilisateur L'ID de l'utilisateur
+     * @param debut Lundi de la première semaine (inclus)
+     * @param fin Lundi de la dernière semaine (inclus)
+     * @return Les agrégats triés par semaine (semaines sans ligne absentes), null en cas d'erreur
+     */
+    List<StatistiqueHebdo> getByUtilisateurEtPeriode(Long idUtilisateur, LocalDate debut, LocalDate fin);
+}
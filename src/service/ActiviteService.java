@@ -2,10 +2,15 @@ package service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
 
 import entities.Activite;
 import entities.Contrainte;
 import entities.TypeActivite;
+import service.planning.OptimiseurParallele;
+import service.planning.TacheOptimisation;
+import util.Curseur;
+import util.Page;
 
 public interface ActiviteService {
 
@@ -14,8 +19,24 @@ public interface ActiviteService {
 
         List<Activite> getAll();
 
+        /**
+         * Toutes les activités, transmises page par page sans liste complète.
+         *
+         * @param consommateur retourne false pour arrêter le parcours
+         * @return false en cas d'erreur de lecture
+         */
+        boolean parcourirTout(Predicate<List<Activite>> consommateur);
+
         List<Activite> getByUtilisateur(Long utilisateurId);
 
+        /**
+         * Page de toutes les activités (horaire de début puis identifiant
+         * décroissants), reprise après le curseur de la page précédente.
+         */
+        Page<Activite> getPage(Curseur curseur, int taille);
+
+        Page<Activite> getPageByUtilisateur(Long utilisateurId, Curseur curseur, int taille);
+
         List<Activite> getByType(Long utilisateurId, TypeActivite type);
 
         boolean ajouter(Activite activite);
@@ -108,4 +129,38 @@ public interface ActiviteService {
          * @return Planning optimisé
          */
         List<Activite> optimiserPlanning(List<Activite> activites, List<Contrainte> contraintes, int iterations);
+
+        /**
+         * Optimiser un planning avec plusieurs chaînes de recuit exécutées en
+         * parallèle (multi-départs ou parallel tempering).
+         * Le résultat est reproductible pour une graine et un nombre de chaînes
+         * donnés, tant que le budget de temps n'est pas atteint.
+         * 
+         * @param activites   Liste des activités à optimiser
+         * @param contraintes Liste des contraintes à respecter
+         * @param parametres  Chaînes, graine, budget, itérations par chaîne et mode
+         * @return Meilleur planning trouvé et statistiques, null si les paramètres sont invalides
+         */
+        OptimiseurParallele.Resultat optimiserPlanningParallele(List<Activite> activites,
+                        List<Contrainte> contraintes, OptimiseurParallele.Parametres parametres);
+
+        /**
+         * Soumettre une optimisation exécutée en tâche de fond.
+         * La progression se consulte sur la tâche retournée ; elle peut être
+         * annulée et s'arrête avec son meilleur planning à l'échéance.
+         * 
+         * @param idUtilisateur Propriétaire du planning
+         * @param activites     Liste des activités à optimiser
+         * @param contraintes   Liste des contraintes à respecter
+         * @param iterations    Nombre d'itérations maximal
+         * @param delaiMs       Durée maximale en millisecondes (0 = pas de limite)
+         * @param aLaFin        Appelé avec la tâche quand elle se termine normalement ;
+         *                      false si le planning n'a pas été enregistré (tâche PERIMEE)
+         * @return La tâche soumise, null si les paramètres sont invalides
+         * @throws IllegalStateException si l'utilisateur a trop de tâches en cours
+         * @throws java.util.concurrent.RejectedExecutionException si la file d'attente est pleine
+         */
+        TacheOptimisation soumettreOptimisation(Long idUtilisateur, List<Activite> activites,
+                        List<Contrainte> contraintes, int iterations, long delaiMs,
+                        Predicate<TacheOptimisation> aLaFin);
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package service;
 
 import entities.Conflit;
+import util.Curseur;
+import util.Page;
 
 import java.util.List;
 
@@ -32,6 +34,15 @@ public interface ConflitService {
 	 */
 	List<Conflit> getTousLesConflitsUtilisateur(Long idUtilisateur);
 
+	/**
+	 * Récupérer une page des conflits d'un utilisateur (plus récents d'abord).
+	 * @param idUtilisateur ID de l'utilisateur
+	 * @param curseur Jeton décodé de la page précédente (null : première page)
+	 * @param taille Nombre maximal de conflits (borné par Page.taille)
+	 * @return La page et le jeton de la suivante
+	 */
+	Page<Conflit> getPageConflitsUtilisateur(Long idUtilisateur, Curseur curseur, int taille);
+
 	/**
 	 * Récupérer uniquement les conflits non résolus d'un utilisateur.
 	 * @param idUtilisateur ID de l'utilisateur
@@ -6,6 +6,8 @@ import java.util.List;
 import entities.Contrainte;
 import entities.StatutContrainte;
 import entities.TypeContrainte;
+import util.Curseur;
+import util.Page;
 
 public interface ContrainteService {
 
@@ -14,6 +16,8 @@ public interface ContrainteService {
 
 	List<Contrainte> getAll();
 
+	Page<Contrainte> getPage(Curseur curseur, int taille);
+
 	List<Contrainte> getByUtilisateur(int utilisateurId);
 
 	List<Contrainte> getContraintesActives(int utilisateurId);
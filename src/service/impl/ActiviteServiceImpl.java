@@ -4,39 +4,55 @@ import dao.interfaces.ActiviteDAO;
 import dao.interfaces.ConflitDAO;
 import dao.interfaces.ContrainteDAO;
 import entities.Activite;
-import entities.Conflit;
 import entities.Contrainte;
 import entities.TypeActivite;
-import entities.TypeConflit;
 import dao.impl.ActiviteDAOImpl;
 import dao.impl.ConflitDAOImpl;
 import dao.impl.ContrainteDAOImpl;
 import service.ActiviteService;
+import service.planning.BalayageChevauchements;
+import service.planning.CalendrierContraintes;
+import service.planning.ChaineRecuit;
+import service.planning.DetecteurConflitsIncremental;
+import service.planning.EvaluateurContraintes;
+import service.planning.GestionnaireOptimisations;
+import service.planning.ModeleScoreIncremental;
+import service.planning.OptimiseurParallele;
+import service.planning.PlanningCompact;
+import service.planning.TacheOptimisation;
+import service.statistiques.AgregatsHebdomadaires;
+import util.Curseur;
+import util.Journal;
+import util.Metriques;
+import util.Page;
+import util.VersionsDonnees;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class ActiviteServiceImpl implements ActiviteService {
 
+    private static final Journal journal = Journal.pour(ActiviteServiceImpl.class);
+
     private final ActiviteDAO activiteDAO;
-    private final ConflitDAO conflitDAO;
-    private final ContrainteDAO contrainteDAO;
+    private final DetecteurConflitsIncremental detecteurConflits;
+    private final AgregatsHebdomadaires agregatsHebdomadaires = AgregatsHebdomadaires.getInstance();
+    private final VersionsDonnees versions = VersionsDonnees.getInstance();
 
     public ActiviteServiceImpl() {
-        this.activiteDAO = new ActiviteDAOImpl();
-        this.conflitDAO = new ConflitDAOImpl();
-        this.contrainteDAO = new ContrainteDAOImpl();
+        this(Metriques.instrumenter(ActiviteDAO.class, new ActiviteDAOImpl()));
     }
 
     public ActiviteServiceImpl(ActiviteDAO activiteDAO) {
         this.activiteDAO = activiteDAO;
-        this.conflitDAO = new ConflitDAOImpl();
-        this.contrainteDAO = new ContrainteDAOImpl();
+        ConflitDAO conflitDAO = Metriques.instrumenter(ConflitDAO.class, new ConflitDAOImpl());
+        ContrainteDAO contrainteDAO = Metriques.instrumenter(ContrainteDAO.class, new ContrainteDAOImpl());
+        this.detecteurConflits = new DetecteurConflitsIncremental(activiteDAO, conflitDAO, contrainteDAO);
     }
 
     // ========== MÉTHODES DU CONTROLLER ==========
@@ -54,6 +70,11 @@ public class ActiviteServiceImpl implements ActiviteService {
         return activiteDAO.getAll();
     }
 
+    @Override
+    public boolean parcourirTout(Predicate<List<Activite>> consommateur) {
+        return activiteDAO.parcourirTout(consommateur);
+    }
+
     @Override
     public List<Activite> getByUtilisateur(Long utilisateurId) {
         if (utilisateurId == null || utilisateurId <= 0) {
@@ -62,6 +83,19 @@ public class ActiviteServiceImpl implements ActiviteService {
         return activiteDAO.getByUtilisateur(utilisateurId);
     }
 
+    @Override
+    public Page<Activite> getPage(Curseur curseur, int taille) {
+        return activiteDAO.getPage(curseur, Page.taille(taille));
+    }
+
+    @Override
+    public Page<Activite> getPageByUtilisateur(Long utilisateurId, Curseur curseur, int taille) {
+        if (utilisateurId == null || utilisateurId <= 0) {
+            return Page.vide();
+        }
+        return activiteDAO.getPageByUtilisateur(utilisateurId, curseur, Page.taille(taille));
+    }
+
     @Override
     public List<Activite> getByType(Long utilisateurId, TypeActivite type) {
         if (utilisateurId == null || utilisateurId <= 0 || type == null) {
@@ -73,17 +107,17 @@ public class ActiviteServiceImpl implements ActiviteService {
     @Override
     public boolean ajouter(Activite activite) {
         if (activite == null) {
-            System.err.println("Erreur: activité null");
+            journal.alerte("Erreur: activité null");
             return false;
         }
 
         if (activite.getTitre() == null || activite.getTitre().trim().isEmpty()) {
-            System.err.println("Erreur: titre requis");
+            journal.alerte("Erreur: titre requis");
             return false;
         }
 
         if (activite.getTypeActivite() == null) {
-            System.err.println("Erreur: type requis");
+            journal.alerte("Erreur: type requis");
             return false;
         }
 
@@ -96,12 +130,12 @@ public class ActiviteServiceImpl implements ActiviteService {
         }
 
         if (activite.getDeadline() == null) {
-            System.err.println("Erreur: deadline requis");
+            journal.alerte("Erreur: deadline requis");
             return false;
         }
 
         if (activite.getIdUtilisateur() == null || activite.getIdUtilisateur() <= 0) {
-            System.err.println("Erreur: ID utilisateur invalide");
+            journal.alerte("Erreur: ID utilisateur invalide");
             return false;
         }
 
@@ -119,7 +153,7 @@ public class ActiviteServiceImpl implements ActiviteService {
         if (id == null || id <= 0) {
             return false;
         }
-        return activiteDAO.supprimer(id);
+        return supprimerEtResoudreConflits(id, activiteDAO.getById(id).orElse(null));
     }
 
     // ========== MÉTHODES AVANCÉES AVEC userId ==========
@@ -136,13 +170,9 @@ public class ActiviteServiceImpl implements ActiviteService {
         if (idActivite != null && idActivite > 0) {
             activite.setIdActivite(idActivite);
 
-            // Détecter et créer automatiquement les conflits
-            List<Activite> activitesChevauchantes = activiteDAO.getActivitesChevauchantesUtilisateur(
-                    activite.getIdUtilisateur(),
-                    activite.getHoraireDebut(),
-                    activite.getHoraireFin());
-
-            creerConflitsSiNecessaire(activite, activitesChevauchantes);
+            // Détecter et créer automatiquement les conflits de cette activité
+            afficherDelta(detecteurConflits.activiteCreee(activite));
+            activiteEcrite(null, activite);
 
             return idActivite;
         }
@@ -156,17 +186,18 @@ public class ActiviteServiceImpl implements ActiviteService {
             return false;
         }
 
+        // État précédent : permet de ne rien recalculer si l'intervalle n'a pas bougé
+        Activite ancienne = activite.getIdActivite() != null
+                ? activiteDAO.getById(activite.getIdActivite()).orElse(null)
+                : null;
+
         // Modifier l'activité dans la base de données
         boolean succes = activiteDAO.modifier(activite);
 
         if (succes) {
-            // Détecter et créer automatiquement les conflits
-            List<Activite> activitesChevauchantes = activiteDAO.getActivitesChevauchantesUtilisateur(
-                    activite.getIdUtilisateur(),
-                    activite.getHoraireDebut(),
-                    activite.getHoraireFin());
-
-            creerConflitsSiNecessaire(activite, activitesChevauchantes);
+            // Mettre à jour les conflits : résoudre ceux qui ne s'appliquent plus, créer les nouveaux
+            afficherDelta(detecteurConflits.activiteModifiee(ancienne, activite));
+            activiteEcrite(ancienne, activite);
         }
 
         return succes;
@@ -186,8 +217,32 @@ public class ActiviteServiceImpl implements ActiviteService {
             return false;
         }
 
+        Activite ancienne = activite.getIdActivite() != null
+                ? activiteDAO.getById(activite.getIdActivite()).orElse(null)
+                : null;
+
         // Modifier directement sans détecter les conflits
-        return activiteDAO.modifier(activite);
+        boolean succes = activiteDAO.modifier(activite);
+        if (succes) {
+            activiteEcrite(ancienne, activite);
+        }
+        return succes;
+    }
+
+    /**
+     * Recalcule tous les conflits de l'utilisateur (chevauchements et
+     * contraintes) après des modifications faites par
+     * {@link #modifierSansDetectionConflits(Activite)}.
+     *
+     * @return le delta appliqué
+     */
+    public DetecteurConflitsIncremental.Delta resynchroniserConflits(Long utilisateurId) {
+        DetecteurConflitsIncremental.Delta delta = detecteurConflits.resynchroniserUtilisateur(utilisateurId);
+        afficherDelta(delta);
+        if (!delta.estVide()) {
+            versions.modifie(utilisateurId);
+        }
+        return delta;
     }
 
     @Override
@@ -201,7 +256,7 @@ public class ActiviteServiceImpl implements ActiviteService {
             return false;
         }
 
-        return activiteDAO.supprimer(idActivite);
+        return supprimerEtResoudreConflits(idActivite, activiteOpt.get());
     }
 
     @Override
@@ -257,17 +312,17 @@ public class ActiviteServiceImpl implements ActiviteService {
     @Override
     public boolean validerHoraires(LocalDateTime horaireDebut, LocalDateTime horaireFin) {
         if (horaireDebut == null || horaireFin == null) {
-            System.err.println("Erreur : Les horaires ne peuvent pas être null");
+            journal.alerte("Erreur : Les horaires ne peuvent pas être null");
             return false;
         }
 
         if (horaireDebut.isAfter(horaireFin)) {
-            System.err.println("Erreur : L'horaire de début doit être avant l'horaire de fin");
+            journal.alerte("Erreur : L'horaire de début doit être avant l'horaire de fin");
             return false;
         }
 
         if (horaireDebut.isEqual(horaireFin)) {
-            System.err.println("Erreur : Les horaires de début et fin ne peuvent pas être identiques");
+            journal.alerte("Erreur : Les horaires de début et fin ne peuvent pas être identiques");
             return false;
         }
 
@@ -277,7 +332,7 @@ public class ActiviteServiceImpl implements ActiviteService {
     @Override
     public boolean validerPriorite(int priorite) {
         if (priorite < 1 || priorite > 10) {
-            System.err.println("Erreur : La priorité doit être entre 1 et 10");
+            journal.alerte("Erreur : La priorité doit être entre 1 et 10");
             return false;
         }
         return true;
@@ -327,25 +382,16 @@ public class ActiviteServiceImpl implements ActiviteService {
             return true; // Planning vide est considéré valide
         }
 
-        // Vérifier les chevauchements entre activités
-        for (int i = 0; i < activites.size(); i++) {
-            for (int j = i + 1; j < activites.size(); j++) {
-                if (activitesChevauchent(activites.get(i), activites.get(j))) {
-                    return false;
-                }
-            }
+        // Vérifier les chevauchements entre activités (arrêt au premier trouvé)
+        if (BalayageChevauchements.existeChevauchement(activites)) {
+            return false;
         }
 
         // Vérifier les violations de contraintes
+        EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
         for (Activite activite : activites) {
-            for (Contrainte contrainte : contraintes) {
-                if (estEnConflitAvecContrainte(
-                        contrainte,
-                        activite.getHoraireDebut().toLocalTime(),
-                        activite.getHoraireFin().toLocalTime(),
-                        activite.getHoraireDebut())) {
-                    return false;
-                }
+            if (evaluateur.estEnConflit(activite)) {
+                return false;
             }
         }
 
@@ -504,26 +550,10 @@ public class ActiviteServiceImpl implements ActiviteService {
 
         // ✅ CALCUL BASÉ SUR LES VRAIS CHEVAUCHEMENTS (pas les conflits en base)
         // Pénalité pour les chevauchements entre activités (-100 par chevauchement)
-        for (int i = 0; i < activites.size(); i++) {
-            for (int j = i + 1; j < activites.size(); j++) {
-                if (activitesChevauchent(activites.get(i), activites.get(j))) {
-                    score -= 100;
-                }
-            }
-        }
+        score -= 100 * compterChevauchements(activites);
 
         // Pénalité pour les violations de contraintes (-80 par violation)
-        for (Activite activite : activites) {
-            for (Contrainte contrainte : contraintes) {
-                if (estEnConflitAvecContrainte(
-                        contrainte,
-                        activite.getHoraireDebut().toLocalTime(),
-                        activite.getHoraireFin().toLocalTime(),
-                        activite.getHoraireDebut())) {
-                    score -= 80;
-                }
-            }
-        }
+        score -= 80 * compterViolationsContraintes(activites, contraintes);
 
         return score;
     }
@@ -549,7 +579,7 @@ public class ActiviteServiceImpl implements ActiviteService {
             copie.add(clone);
         }
 
-        java.util.Random random = new java.util.Random();
+        java.util.concurrent.ThreadLocalRandom random = java.util.concurrent.ThreadLocalRandom.current();
         Activite activiteAMuter = copie.get(random.nextInt(copie.size()));
 
         int[] decalagesPossibles = { -240, -120, -60, -30, 30, 60, 120, 240 };
@@ -575,207 +605,162 @@ public class ActiviteServiceImpl implements ActiviteService {
     @Override
     public List<Activite> optimiserPlanning(List<Activite> activites, List<Contrainte> contraintes, int iterations) {
         if (activites == null || activites.isEmpty() || contraintes == null || iterations <= 0) {
-            System.out.println("⚠️ Paramètres invalides pour l'optimisation");
+            journal.alerte("⚠️ Paramètres invalides pour l'optimisation");
             return activites;
         }
 
-        System.out.println("🚀 Début optimisation : " + activites.size() + " activités, " +
-                contraintes.size() + " contraintes, " + iterations + " itérations");
-
-        List<Activite> meilleur = copierPlanning(activites);
-        double meilleurScore = calculerScoreAvecConflits(meilleur, contraintes);
-
-        List<Activite> courant = copierPlanning(activites);
-        double scoreCourant = meilleurScore;
-
-        System.out.println("📊 Score initial: " + meilleurScore);
-        System.out.println("✅ Planning initial valide: " + planningValide(meilleur, contraintes));
+        journal.info("🚀 Début optimisation : {} activités, {} contraintes, {} itérations", activites.size(),
+                contraintes.size(), iterations);
 
-        double temperature = 1000.0;
-        double tauxRefroidissement = 0.995;
+        // Planning encodé une fois ; un déplacement ne réévalue que l'activité déplacée
+        PlanningCompact planning = PlanningCompact.depuis(activites);
+        ModeleScoreIncremental modele = new ModeleScoreIncremental(planning, controleContraintes(contraintes));
+        ChaineRecuit chaine = new ChaineRecuit(modele, new java.util.SplittableRandom(), 1000.0, 0.995);
 
-        int ameliorations = 0;
-        int acceptations = 0;
-        java.util.Random random = new java.util.Random();
+        journal.info("📊 Score initial: {} - valide: {}", chaine.getMeilleurScore(), modele.estValide());
 
-        for (int i = 0; i < iterations; i++) {
-            List<Activite> voisin = muterPlanning(courant);
-            double scoreVoisin = calculerScoreAvecConflits(voisin, contraintes);
-
-            double delta = scoreVoisin - scoreCourant;
-
-            boolean accepter = false;
-
-            if (delta > 0) {
-                accepter = true;
-            } else {
-                double probabilite = Math.exp(delta / temperature);
-                if (random.nextDouble() < probabilite) {
-                    accepter = true;
-                }
+        // Suivi par tranche de 100 itérations, seulement en DEBUG
+        boolean suivi = journal.estDebug();
+        int ameliorationsAffichees = 0;
+        for (int i = 0; i < iterations; i += 100) {
+            chaine.executer(Math.min(100, iterations - i));
+            if (!suivi) {
+                continue;
             }
-
-            if (accepter) {
-                courant = voisin;
-                scoreCourant = scoreVoisin;
-                acceptations++;
-
-                if (scoreVoisin > meilleurScore) {
-                    meilleur = voisin;
-                    meilleurScore = scoreVoisin;
-                    ameliorations++;
-
-                    if (ameliorations % 10 == 0) {
-                        System.out.println("✨ Amélioration #" + ameliorations +
-                                " - Score: " + String.format("%.2f", meilleurScore) +
-                                " - Valide: " + planningValide(meilleur, contraintes));
-                    }
-                }
+            if (chaine.getAmeliorations() / 10 > ameliorationsAffichees / 10) {
+                ameliorationsAffichees = chaine.getAmeliorations();
+                journal.debug("✨ Amélioration #" + ameliorationsAffichees +
+                        " - Score: " + String.format("%.2f", chaine.getMeilleurScore()));
             }
-
-            temperature *= tauxRefroidissement;
-
-            if ((i + 1) % 100 == 0) {
-                System.out.println("🔄 Itération " + (i + 1) + "/" + iterations +
-                        " - T: " + String.format("%.2f", temperature) +
-                        " - Score: " + String.format("%.2f", scoreCourant) +
-                        " - Acceptations: " + acceptations);
+            if (i + 100 <= iterations) {
+                journal.debug("🔄 Itération " + (i + 100) + "/" + iterations +
+                        " - T: " + String.format("%.2f", chaine.getTemperature()) +
+                        " - Score: " + String.format("%.2f", chaine.getScoreCourant()) +
+                        " - Acceptations: " + chaine.getAcceptations());
             }
         }
 
-        System.out.println("✅ Optimisation terminée!");
-        System.out.println("📊 Score final: " + meilleurScore + " (initial: " +
-                calculerScoreAvecConflits(activites, contraintes) + ")");
-        System.out.println("🎯 Améliorations: " + ameliorations);
-        System.out.println("✓ Planning final valide: " + planningValide(meilleur, contraintes));
+        double meilleurScore = chaine.getMeilleurScore();
+        int ameliorations = chaine.getAmeliorations();
+        List<Activite> meilleur = planning.versActivites(modele.getMeilleursDebuts());
 
-        int conflitsChevauchement = compterChevauchements(meilleur);
-        int conflitsContraintes = compterViolationsContraintes(meilleur, contraintes);
-        System.out.println("⚠️ Chevauchements restants: " + conflitsChevauchement);
-        System.out.println("⚠️ Violations de contraintes restantes: " + conflitsContraintes);
+        // Bilan recalculé sur les listes : seulement si le journal l'affiche
+        if (journal.estActif(Journal.Niveau.INFO)) {
+            journal.info("✅ Optimisation terminée! Score final: {} (initial: {}) - Améliorations: {}", meilleurScore,
+                    calculerScoreAvecConflits(activites, contraintes), ameliorations);
+            journal.info("✓ Planning final valide: {} - Chevauchements restants: {} - Violations de contraintes restantes: {}",
+                    planningValide(meilleur, contraintes), compterChevauchements(meilleur),
+                    compterViolationsContraintes(meilleur, contraintes));
+        }
 
         return meilleur;
     }
 
-    // ========== MÉTHODES PRIVÉES ==========
-
-    private void creerConflitsSiNecessaire(Activite activite, List<Activite> activitesChevauchantes) {
-        if (activite == null) {
-            return;
+    @Override
+    public OptimiseurParallele.Resultat optimiserPlanningParallele(List<Activite> activites,
+            List<Contrainte> contraintes, OptimiseurParallele.Parametres parametres) {
+        if (activites == null || activites.isEmpty() || contraintes == null || parametres == null) {
+            journal.alerte("⚠️ Paramètres invalides pour l'optimisation");
+            return null;
         }
 
-        // 1. Vérifier les violations de contraintes
-        List<Contrainte> contraintesUtilisateur = contrainteDAO.getContraintesActivesByUtilisateur(
-                activite.getIdUtilisateur().intValue());
-
-        LocalTime heureDebut = activite.getHoraireDebut().toLocalTime();
-        LocalTime heureFin = activite.getHoraireFin().toLocalTime();
-
-        for (Contrainte contrainte : contraintesUtilisateur) {
-            if (estEnConflitAvecContrainte(contrainte, heureDebut, heureFin, activite.getHoraireDebut())) {
-                Conflit conflit = new Conflit(
-                        null,
-                        LocalDateTime.now(),
-                        TypeConflit.VIOLATION_DE_CONTRAINTE,
-                        false);
-                Long idConflit = conflitDAO.ajouter(conflit);
-                if (idConflit != null && idConflit > 0) {
-                    conflitDAO.lierActiviteAuConflit(idConflit, activite.getIdActivite());
-                    System.out.println("⚠️ Conflit créé: Violation de contrainte '" + contrainte.getTitre() + "'");
-                }
-            }
-        }
+        journal.info(() -> "🚀 Début optimisation parallèle (" + parametres.getMode() + ") : " +
+                activites.size() + " activités, " + parametres.getChaines() + " chaînes, " +
+                parametres.getIterations() + " itérations par chaîne, graine " + parametres.getGraine());
 
-        // 2. Créer des conflits pour les chevauchements d'activités
-        if (activitesChevauchantes != null && !activitesChevauchantes.isEmpty()) {
-            for (Activite autre : activitesChevauchantes) {
-                if (!autre.getIdActivite().equals(activite.getIdActivite())) {
-                    if (!conflitDejaExistePourActivites(activite.getIdActivite(), autre.getIdActivite())) {
-                        Conflit conflit = new Conflit(
-                                null,
-                                LocalDateTime.now(),
-                                TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES,
-                                false);
-                        Long idConflit = conflitDAO.ajouter(conflit);
-                        if (idConflit != null && idConflit > 0) {
-                            conflitDAO.lierActiviteAuConflit(idConflit, activite.getIdActivite());
-                            conflitDAO.lierActiviteAuConflit(idConflit, autre.getIdActivite());
-                            System.out.println("⚠️ Conflit créé: Chevauchement entre '" + activite.getTitre() +
-                                    "' et '" + autre.getTitre() + "'");
-                        }
-                    }
-                }
-            }
-        }
-    }
+        OptimiseurParallele.Resultat resultat = new OptimiseurParallele(controleContraintes(contraintes))
+                .optimiser(activites, parametres);
 
-    private boolean activitesChevauchent(Activite a1, Activite a2) {
-        if (a1 == null || a2 == null) {
-            return false;
-        }
+        journal.info(() -> "✅ Optimisation parallèle terminée en " + resultat.getDureeMs() + " ms" +
+                (resultat.isBudgetAtteint() ? " (budget atteint)" : "") +
+                " - Score final: " + resultat.getScore() + " - Valide: " + resultat.isValide() +
+                " - Itérations: " + resultat.getIterations() + " - Échanges: " + resultat.getEchanges());
+        return resultat;
+    }
 
-        if (a1.getHoraireDebut() == null || a1.getHoraireFin() == null ||
-                a2.getHoraireDebut() == null || a2.getHoraireFin() == null) {
-            return false;
+    @Override
+    public TacheOptimisation soumettreOptimisation(Long idUtilisateur, List<Activite> activites,
+            List<Contrainte> contraintes, int iterations, long delaiMs, Predicate<TacheOptimisation> aLaFin) {
+        if (idUtilisateur == null || activites == null || activites.isEmpty() || contraintes == null
+                || iterations <= 0 || delaiMs < 0) {
+            journal.alerte("⚠️ Paramètres invalides pour l'optimisation");
+            return null;
         }
 
-        return a1.getHoraireDebut().isBefore(a2.getHoraireFin()) &&
-                a1.getHoraireFin().isAfter(a2.getHoraireDebut());
+        TacheOptimisation tache = GestionnaireOptimisations.getInstance().soumettre(idUtilisateur, activites,
+                controleContraintes(contraintes), iterations, delaiMs, aLaFin);
+        journal.info(() -> "🕒 Optimisation " + tache.getId() + " soumise pour user " + idUtilisateur + " : " +
+                activites.size() + " activités, " + iterations + " itérations" +
+                (delaiMs > 0 ? ", échéance " + delaiMs + " ms" : ""));
+        return tache;
     }
 
-    private boolean estEnConflitAvecContrainte(Contrainte contrainte, LocalTime heureDebut,
-            LocalTime heureFin, LocalDateTime dateActivite) {
-        if (contrainte == null || heureDebut == null || heureFin == null || dateActivite == null) {
-            return false;
-        }
-
-        LocalTime debContrainte = contrainte.getDateHeureDeb();
-        LocalTime finContrainte = contrainte.getDateHeureFin();
+    // ========== MÉTHODES PRIVÉES ==========
 
-        if (debContrainte == null || finContrainte == null) {
+    /**
+     * @param ancienne état de l'activité avant suppression (null si inconnu)
+     */
+    private boolean supprimerEtResoudreConflits(Long idActivite, Activite ancienne) {
+        DetecteurConflitsIncremental.Delta delta = detecteurConflits.activiteSupprimee(idActivite,
+                () -> activiteDAO.supprimer(idActivite));
+        if (delta == null) {
             return false;
         }
+        afficherDelta(delta);
+        activiteEcrite(ancienne, null);
+        return true;
+    }
 
-        LocalDate dateAct = dateActivite.toLocalDate();
-        java.time.DayOfWeek jour = dateActivite.getDayOfWeek();
-
-        if (contrainte.isRepetitif()) {
-            if (contrainte.getJoursSemaine() == null || !contrainte.getJoursSemaine().contains(jour)) {
-                return false;
-            }
-        } else {
-            if (contrainte.getDatesSpecifiques() == null || !contrainte.getDatesSpecifiques().contains(dateAct)) {
-                return false;
-            }
+    /**
+     * Après une écriture réussie : semaines à recalculer et versions des
+     * données des utilisateurs concernés.
+     */
+    private void activiteEcrite(Activite avant, Activite apres) {
+        agregatsHebdomadaires.activiteEcrite(avant, apres);
+        if (avant == null && apres == null) {
+            versions.toutModifie(); // suppression d'une activité qui n'a pas pu être relue
+            return;
+        }
+        if (avant != null) {
+            versions.modifie(avant.getIdUtilisateur());
+        }
+        if (apres != null && (avant == null || !Objects.equals(avant.getIdUtilisateur(), apres.getIdUtilisateur()))) {
+            versions.modifie(apres.getIdUtilisateur());
         }
-
-        return heureDebut.isBefore(finContrainte) && heureFin.isAfter(debContrainte);
     }
 
-    private boolean conflitDejaExistePourActivites(Long idActivite1, Long idActivite2) {
-        List<Conflit> conflits1 = conflitDAO.getByActivite(idActivite1);
-        for (Conflit conflit : conflits1) {
-            List<Long> activitesLiees = conflitDAO.getActivitesLieesAuConflit(conflit.getidConflit());
-            if (activitesLiees.contains(idActivite2) && !conflit.isResolu()) {
-                return true;
-            }
+    private void afficherDelta(DetecteurConflitsIncremental.Delta delta) {
+        for (String description : delta.getDescriptions()) {
+            journal.info("⚠️ Conflit créé: {}", description);
         }
-        return false;
+        if (!delta.getConflitsResolus().isEmpty()) {
+            journal.info("✅ Conflits résolus automatiquement: {}", delta.getConflitsResolus().size());
+        }
+    }
+
+    /**
+     * Contrôle des contraintes de l'optimiseur : le calendrier écarte en une
+     * recherche les créneaux libres, l'évaluateur compte les violations des autres.
+     */
+    private ModeleScoreIncremental.ControleContraintes controleContraintes(List<Contrainte> contraintes) {
+        EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
+        CalendrierContraintes calendrier = CalendrierContraintes.construire(contraintes);
+        return (debut, fin) -> calendrier.estBloque(debut, fin) ? evaluateur.violations(debut, fin) : 0;
     }
 
     private boolean validerActivite(Activite activite) {
         if (activite == null) {
-            System.err.println("Erreur : L'activité ne peut pas être null");
+            journal.alerte("Erreur : L'activité ne peut pas être null");
             return false;
         }
 
         if (activite.getTitre() == null || activite.getTitre().trim().isEmpty()) {
-            System.err.println("Erreur : Le titre de l'activité ne peut pas être vide");
+            journal.alerte("Erreur : Le titre de l'activité ne peut pas être vide");
             return false;
         }
 
         if (activite.getTypeActivite() == null) {
-            System.err.println("Erreur : Le type d'activité doit être spécifié");
+            journal.alerte("Erreur : Le type d'activité doit être spécifié");
             return false;
         }
 
@@ -788,12 +773,12 @@ public class ActiviteServiceImpl implements ActiviteService {
         }
 
         if (activite.getDeadline() == null) {
-            System.err.println("Erreur : La deadline ne peut pas être null");
+            journal.alerte("Erreur : La deadline ne peut pas être null");
             return false;
         }
 
         if (activite.getIdUtilisateur() == null || activite.getIdUtilisateur() <= 0) {
-            System.err.println("Erreur : L'ID utilisateur doit être valide");
+            journal.alerte("Erreur : L'ID utilisateur doit être valide");
             return false;
         }
 
@@ -801,54 +786,18 @@ public class ActiviteServiceImpl implements ActiviteService {
     }
 
     private int compterChevauchements(List<Activite> activites) {
-        int count = 0;
-        for (int i = 0; i < activites.size(); i++) {
-            for (int j = i + 1; j < activites.size(); j++) {
-                if (activitesChevauchent(activites.get(i), activites.get(j))) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return BalayageChevauchements.compter(activites);
     }
 
     private int compterViolationsContraintes(List<Activite> activites, List<Contrainte> contraintes) {
         if (contraintes == null)
             return 0;
 
+        EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
         int count = 0;
         for (Activite activite : activites) {
-            if (activite.getHoraireDebut() == null || activite.getHoraireFin() == null) {
-                continue;
-            }
-            for (Contrainte contrainte : contraintes) {
-                if (estEnConflitAvecContrainte(
-                        contrainte,
-                        activite.getHoraireDebut().toLocalTime(),
-                        activite.getHoraireFin().toLocalTime(),
-                        activite.getHoraireDebut())) {
-                    count++;
-                }
-            }
+            count += evaluateur.compterViolations(activite);
         }
         return count;
     }
-
-    private List<Activite> copierPlanning(List<Activite> activites) {
-        List<Activite> copie = new ArrayList<>();
-        for (Activite a : activites) {
-            Activite clone = new Activite();
-            clone.setIdActivite(a.getIdActivite());
-            clone.setTitre(a.getTitre());
-            clone.setTypeActivite(a.getTypeActivite());
-            clone.setPriorite(a.getPriorite());
-            clone.setHoraireDebut(a.getHoraireDebut());
-            clone.setHoraireFin(a.getHoraireFin());
-            clone.setDeadline(a.getDeadline());
-            clone.setDescription(a.getDescription());
-            clone.setIdUtilisateur(a.getIdUtilisateur());
-            copie.add(clone);
-        }
-        return copie;
-    }
 }
\ No newline at end of file
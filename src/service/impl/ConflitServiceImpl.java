@@ -8,12 +8,18 @@ import entities.Activite;
 import entities.Conflit;
 import entities.TypeConflit;
 import service.ConflitService;
+import service.planning.BalayageChevauchements;
+import util.Curseur;
+import util.Metriques;
+import util.Page;
+import util.VersionsDonnees;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -28,10 +34,11 @@ public class ConflitServiceImpl implements ConflitService {
 
 	private final ActiviteDAO activiteDAO;
 	private final ConflitDAO conflitDAO;
+	private final VersionsDonnees versions = VersionsDonnees.getInstance();
 
 	public ConflitServiceImpl() {
-		this.activiteDAO = new ActiviteDAOImpl();
-		this.conflitDAO = new ConflitDAOImpl();
+		this.activiteDAO = Metriques.instrumenter(ActiviteDAO.class, new ActiviteDAOImpl());
+		this.conflitDAO = Metriques.instrumenter(ConflitDAO.class, new ConflitDAOImpl());
 	}
 
 	// ========== DÉTECTION ET RÉSOLUTION ==========
@@ -50,43 +57,26 @@ public class ConflitServiceImpl implements ConflitService {
 			return new ArrayList<>(); // Pas de chevauchement possible
 		}
 		
-		activites.sort(Comparator.comparing(Activite::getHoraireDebut));
+		// Balayage par horaire de début : seules les paires qui se chevauchent sont visitées
+		// (les activités sans horaires valides sont ignorées)
+		List<ConflitDAO.NouveauConflit> nouveaux = new ArrayList<>();
+		BalayageChevauchements.parcourir(activites, (a, b) -> {
+			// Logique métier: vérifier si ce conflit n'existe pas déjà
+			if (!conflitDejaExiste(idUtilisateur, a.getIdActivite(), b.getIdActivite())) {
+				nouveaux.add(new ConflitDAO.NouveauConflit(
+						TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES,
+						List.of(a.getIdActivite(), b.getIdActivite())));
+			}
+		});
 
+		// Persistance groupée : conflits et liens en une seule transaction
 		List<Conflit> conflits = new ArrayList<>();
-		for (int i = 0; i < activites.size(); i++) {
-			for (int j = i + 1; j < activites.size(); j++) {
-				Activite a = activites.get(i);
-				Activite b = activites.get(j);
-				
-				// Logique métier: vérifier que les activités ont des horaires valides
-				if (a.getHoraireDebut() == null || a.getHoraireFin() == null ||
-					b.getHoraireDebut() == null || b.getHoraireFin() == null) {
-					continue;
-				}
-				
-				boolean chevauche = a.getHoraireDebut().isBefore(b.getHoraireFin())
-						&& a.getHoraireFin().isAfter(b.getHoraireDebut());
-				
-				if (chevauche) {
-					// Logique métier: vérifier si ce conflit n'existe pas déjà
-					if (!conflitDejaExiste(a.getIdActivite(), b.getIdActivite())) {
-						Conflit conflit = new Conflit(
-								null,
-								LocalDateTime.now(),
-								TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES,
-								false
-						);
-						Long id = conflitDAO.ajouter(conflit);
-						if (id != null && id > 0) {
-							conflit.setidConflit(id);
-							// Lier les deux activités au conflit
-							conflitDAO.lierActiviteAuConflit(id, a.getIdActivite());
-							conflitDAO.lierActiviteAuConflit(id, b.getIdActivite());
-							conflits.add(conflit);
-						}
-					}
-				}
-			}
+		LocalDateTime maintenant = LocalDateTime.now();
+		for (Long id : conflitDAO.ajouterConflitsEnLot(nouveaux)) {
+			conflits.add(new Conflit(id, maintenant, TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, false));
+		}
+		if (!conflits.isEmpty()) {
+			versions.modifie(idUtilisateur);
 		}
 		return conflits;
 	}
@@ -102,7 +92,13 @@ public class ConflitServiceImpl implements ConflitService {
 			return false;
 		}
 		
-		return conflitDAO.marquerCommeResolu(idConflit);
+		// Propriétaire lu avant l'écriture : seules ses versions changent
+		Optional<Long> proprietaire = conflitDAO.getUtilisateurDuConflit(idConflit);
+		boolean marque = conflitDAO.marquerCommeResolu(idConflit);
+		if (marque) {
+			conflitModifie(proprietaire);
+		}
+		return marque;
 	}
 
 	// ========== CONSULTATION ==========
@@ -122,6 +118,16 @@ public class ConflitServiceImpl implements ConflitService {
 		return conflits;
 	}
 
+	@Override
+	public Page<Conflit> getPageConflitsUtilisateur(Long idUtilisateur, Curseur curseur, int taille) {
+		// Validation des paramètres
+		if (idUtilisateur == null || idUtilisateur <= 0) {
+			throw new IllegalArgumentException("ID utilisateur invalide");
+		}
+		// Déjà triés par la base (plus récents d'abord, puis identifiant)
+		return conflitDAO.getPageByUtilisateur(idUtilisateur, curseur, Page.taille(taille));
+	}
+
 	@Override
 	public List<Conflit> getConflitsNonResolusUtilisateur(Long idUtilisateur) {
 		// Validation des paramètres
@@ -402,11 +408,30 @@ public class ConflitServiceImpl implements ConflitService {
 			return false;
 		}
 		
+		// Propriétaire lu tant que les liens existent
+		Optional<Long> proprietaire = conflitDAO.getUtilisateurDuConflit(idConflit);
+
 		// Logique métier: supprimer d'abord les liens (intégrité référentielle)
 		conflitDAO.supprimerLiensConflit(idConflit);
 		
 		// Puis supprimer le conflit lui-même
-		return conflitDAO.supprimer(idConflit);
+		boolean supprime = conflitDAO.supprimer(idConflit);
+		if (supprime) {
+			conflitModifie(proprietaire);
+		}
+		return supprime;
+	}
+
+	/**
+	 * Invalide les réponses en cache du propriétaire du conflit ; s'il est
+	 * inconnu (conflit sans activité, erreur de lecture), toutes par prudence.
+	 */
+	private void conflitModifie(Optional<Long> proprietaire) {
+		if (proprietaire.isPresent()) {
+			versions.modifie(proprietaire.get());
+		} else {
+			versions.toutModifie();
+		}
 	}
 
 	@Override
@@ -497,23 +522,11 @@ public class ConflitServiceImpl implements ConflitService {
 	// ========== MÉTHODES UTILITAIRES PRIVÉES ==========
 
 	/**
-	 * Vérifie si un conflit existe déjà entre deux activités.
+	 * Vérifie si un conflit non résolu existe déjà entre deux activités
+	 * (index en mémoire du DAO, chargé une fois par utilisateur).
 	 */
-	private boolean conflitDejaExiste(Long idActivite1, Long idActivite2) {
-		// Récupérer tous les conflits non résolus
-		List<Conflit> conflitsNonResolus = conflitDAO.getConflitsNonResolus();
-		
-		for (Conflit conflit : conflitsNonResolus) {
-			List<Long> activitesLiees = conflitDAO.getActivitesLieesAuConflit(conflit.getidConflit());
-			
-			// Vérifier si les deux activités sont déjà liées à ce conflit
-			if (activitesLiees.size() == 2 &&
-				activitesLiees.contains(idActivite1) &&
-				activitesLiees.contains(idActivite2)) {
-				return true;
-			}
-		}
-		return false;
+	private boolean conflitDejaExiste(Long idUtilisateur, Long idActivite1, Long idActivite2) {
+		return conflitDAO.existeConflitNonResoluEntre(idUtilisateur, idActivite1, idActivite2);
 	}
 
 	/**
@@ -6,6 +6,13 @@ import entities.Contrainte;
 import entities.StatutContrainte;
 import entities.TypeContrainte;
 import service.ContrainteService;
+import service.planning.CalendriersContraintes;
+import service.planning.EvaluateurContraintes;
+import util.Curseur;
+import util.Journal;
+import util.Metriques;
+import util.Page;
+import util.VersionsDonnees;
 
 import java.time.LocalTime;
 import java.util.List;
@@ -14,10 +21,14 @@ import java.util.stream.Collectors;
 
 public class ContrainteServiceImpl implements ContrainteService {
 
+    private static final Journal journal = Journal.pour(ContrainteServiceImpl.class);
+
     private ContrainteDAO contrainteDAO;
+    private final CalendriersContraintes calendriers = CalendriersContraintes.getInstance();
+    private final VersionsDonnees versions = VersionsDonnees.getInstance();
 
     public ContrainteServiceImpl() {
-        this.contrainteDAO = new ContrainteDAOImpl();
+        this.contrainteDAO = Metriques.instrumenter(ContrainteDAO.class, new ContrainteDAOImpl());
     }
 
     public ContrainteServiceImpl(ContrainteDAO contrainteDAO) {
@@ -37,6 +48,11 @@ public class ContrainteServiceImpl implements ContrainteService {
         return contrainteDAO.getAll();
     }
 
+    @Override
+    public Page<Contrainte> getPage(Curseur curseur, int taille) {
+        return contrainteDAO.getPage(curseur, Page.taille(taille));
+    }
+
     @Override
     public List<Contrainte> getByUtilisateur(int utilisateurId) {
         if (utilisateurId <= 0) {
@@ -50,50 +66,51 @@ public class ContrainteServiceImpl implements ContrainteService {
         if (utilisateurId <= 0) {
             return List.of();
         }
-        return contrainteDAO.getContraintesActivesByUtilisateur(utilisateurId);
+        List<Contrainte> actives = contrainteDAO.getContraintesActivesByUtilisateur(utilisateurId);
+        return actives != null ? actives : List.of();
     }
 
     @Override
     public boolean ajouter(Contrainte contrainte) {
         if (contrainte == null) {
-            System.err.println("Erreur: contrainte null");
+            journal.alerte("Erreur: contrainte null");
             return false;
         }
 
         if (contrainte.getTitre() == null || contrainte.getTitre().trim().isEmpty()) {
-            System.err.println("Erreur: titre requis");
+            journal.alerte("Erreur: titre requis");
             return false;
         }
 
         if (contrainte.getType() == null) {
-            System.err.println("Erreur: type requis");
+            journal.alerte("Erreur: type requis");
             return false;
         }
 
         if (contrainte.getDateHeureDeb() == null || contrainte.getDateHeureFin() == null) {
-            System.err.println("Erreur: horaires requis");
+            journal.alerte("Erreur: horaires requis");
             return false;
         }
 
         if (contrainte.getDateHeureDeb().isAfter(contrainte.getDateHeureFin())) {
-            System.err.println("Erreur: heure début > heure fin");
+            journal.alerte("Erreur: heure début > heure fin");
             return false;
         }
 
         if (!contrainte.isRepetitif() && contrainte.getJoursSemaine() != null
                 && !contrainte.getJoursSemaine().isEmpty()) {
-            System.err.println("Erreur: jours semaine non vide pour non répétitif");
+            journal.alerte("Erreur: jours semaine non vide pour non répétitif");
             return false;
         }
 
         if (contrainte.isRepetitif()
                 && (contrainte.getJoursSemaine() == null || contrainte.getJoursSemaine().isEmpty())) {
-            System.err.println("Erreur: jours semaine requis pour répétitif");
+            journal.alerte("Erreur: jours semaine requis pour répétitif");
             return false;
         }
 
         if (contrainte.getUtilisateurId() <= 0) {
-            System.err.println("Erreur: ID utilisateur invalide");
+            journal.alerte("Erreur: ID utilisateur invalide");
             return false;
         }
 
@@ -105,6 +122,8 @@ public class ContrainteServiceImpl implements ContrainteService {
         int idGenere = contrainteDAO.ajouter(contrainte);
         if (idGenere > 0) {
             contrainte.setId(idGenere);  // ⚠️ METTRE À JOUR L'ID DANS L'OBJET
+            calendriers.invalider(contrainte.getUtilisateurId());
+            versions.modifie(contrainte.getUtilisateurId());
             return true;
         }
         return false;
@@ -113,46 +132,60 @@ public class ContrainteServiceImpl implements ContrainteService {
     @Override
     public boolean modifier(Contrainte contrainte) {
         if (contrainte == null || contrainte.getId() <= 0) {
-            System.err.println("Erreur: contrainte sans ID");
+            journal.alerte("Erreur: contrainte sans ID");
             return false;
         }
 
         if (contrainte.getDateHeureDeb() != null && contrainte.getDateHeureFin() != null) {
             if (contrainte.getDateHeureDeb().isAfter(contrainte.getDateHeureFin())) {
-                System.err.println("Erreur: heure début > heure fin");
+                journal.alerte("Erreur: heure début > heure fin");
                 return false;
             }
         }
 
         if (!contrainte.isRepetitif() && contrainte.getJoursSemaine() != null
                 && !contrainte.getJoursSemaine().isEmpty()) {
-            System.err.println("Erreur: jours semaine non vide pour non répétitif");
+            journal.alerte("Erreur: jours semaine non vide pour non répétitif");
             return false;
         }
 
         if (contrainte.isRepetitif()
                 && (contrainte.getJoursSemaine() == null || contrainte.getJoursSemaine().isEmpty())) {
-            System.err.println("Erreur: jours semaine requis pour répétitif");
+            journal.alerte("Erreur: jours semaine requis pour répétitif");
             return false;
         }
 
-        return contrainteDAO.modifier(contrainte);
+        boolean modifiee = contrainteDAO.modifier(contrainte);
+        if (modifiee) {
+            invaliderCalendriers(contrainte);
+        }
+        return modifiee;
     }
 
     @Override
     public boolean supprimer(int id) {
         if (id <= 0) {
-            System.err.println("Erreur: ID invalide");
+            journal.alerte("Erreur: ID invalide");
             return false;
         }
-        return contrainteDAO.supprimer(id);
+        Optional<Contrainte> ancienne = contrainteDAO.getById(id);
+        boolean supprimee = contrainteDAO.supprimer(id);
+        if (supprimee) {
+            calendriers.invaliderContrainte(id);
+            if (ancienne.isPresent()) {
+                versions.modifie(ancienne.get().getUtilisateurId());
+            } else {
+                versions.toutModifie();
+            }
+        }
+        return supprimee;
     }
 
     @Override
     public boolean toggleStatut(int id) {
         Contrainte contrainte = getById(id);
         if (contrainte == null) {
-            System.err.println("Contrainte avec ID " + id + " non trouvée");
+            journal.alerte("Contrainte avec ID {} non trouvée", id);
             return false;
         }
         
@@ -250,7 +283,11 @@ public class ContrainteServiceImpl implements ContrainteService {
 
         Contrainte contrainte = contrainteOpt.get();
         contrainte.setStatut(newStatut);
-        return contrainteDAO.modifier(contrainte);
+        boolean modifiee = contrainteDAO.modifier(contrainte);
+        if (modifiee) {
+            invaliderCalendriers(contrainte);
+        }
+        return modifiee;
     }
 
     @Override
@@ -288,6 +325,19 @@ public class ContrainteServiceImpl implements ContrainteService {
             return false;
         }
 
-        return !(finContrainte.compareTo(heureDebut) <= 0 || debContrainte.compareTo(heureFin) >= 0);
+        return EvaluateurContraintes.chevauche(
+                EvaluateurContraintes.minuteDuJour(heureDebut), EvaluateurContraintes.minuteDuJour(heureFin),
+                EvaluateurContraintes.minuteDuJour(debContrainte), EvaluateurContraintes.minuteDuJour(finContrainte));
+    }
+
+    /**
+     * Oublie les calendriers de l'ancien et du nouveau propriétaire d'une
+     * contrainte modifiée (toggleStatut passe par modifier) et change la
+     * version des données du propriétaire.
+     */
+    private void invaliderCalendriers(Contrainte contrainte) {
+        calendriers.invaliderContrainte(contrainte.getId());
+        calendriers.invalider(contrainte.getUtilisateurId());
+        versions.modifie(contrainte.getUtilisateurId());
     }
 }
\ No newline at end of file
@@ -6,11 +6,16 @@ import dao.interfaces.ActiviteDAO;
 import dao.interfaces.ConflitDAO;
 import entities.Activite;
 import entities.Conflit;
+import entities.StatistiqueHebdo;
 import entities.TypeActivite;
 import service.ConflitService;
 import service.StatistiqueService;
+import service.statistiques.AgregatsHebdomadaires;
+import service.statistiques.SyntheseActivites;
+import util.Metriques;
 
 import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -24,10 +29,11 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     private final ActiviteDAO activiteDAO;
     private final ConflitDAO conflitDAO;
     private final ConflitService conflitService;
+    private final AgregatsHebdomadaires agregatsHebdomadaires = AgregatsHebdomadaires.getInstance();
 
     public StatistiqueServiceImpl() {
-        this.activiteDAO = new ActiviteDAOImpl();
-        this.conflitDAO = new ConflitDAOImpl();
+        this.activiteDAO = Metriques.instrumenter(ActiviteDAO.class, new ActiviteDAOImpl());
+        this.conflitDAO = Metriques.instrumenter(ConflitDAO.class, new ConflitDAOImpl());
         this.conflitService = new ConflitServiceImpl();
     }
 
@@ -36,23 +42,24 @@ public class StatistiqueServiceImpl implements StatistiqueService {
     @Override
     public Map<String, Double> getTempsParTypeActivite(Long idUtilisateur) {
         // Par défaut : statistiques de la semaine en cours
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
         LocalDateTime maintenant = LocalDateTime.now();
-
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
-
-        // Filtrer par semaine en cours
-        List<Activite> activitesSemaine = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .collect(Collectors.toList());
-
-        return calculerTempsParType(activitesSemaine);
+        LocalDateTime debutSemaine = maintenant.with(java.time.DayOfWeek.MONDAY).truncatedTo(ChronoUnit.DAYS);
+        Map<TypeActivite, Long> minutes = activiteDAO.sommeMinutesParType(idUtilisateur, debutSemaine, maintenant);
+        if (minutes == null) {
+            return synthese(idUtilisateur).getTempsParType();
+        }
+        return SyntheseActivites.heuresParType(minutes);
     }
 
     @Override
     public Map<String, Double> getTempsParTypeActivitePeriode(Long idUtilisateur, LocalDateTime dateDebut,
             LocalDateTime dateFin) {
+        // Somme calculée par la base (GROUP BY type_activite)
+        Map<TypeActivite, Long> minutes = activiteDAO.sommeMinutesParType(idUtilisateur, dateDebut, dateFin);
+        if (minutes != null) {
+            return SyntheseActivites.heuresParType(minutes);
+        }
+
         List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
 
         // Filtrer par période
@@ -66,35 +73,14 @@ public class StatistiqueServiceImpl implements StatistiqueService {
 
     @Override
     public Map<String, Double> getPourcentageParTypeActivite(Long idUtilisateur) {
-        Map<String, Double> tempsParType = getTempsParTypeActivite(idUtilisateur); // Utilise déjà la semaine en cours
-        double total = tempsParType.values().stream().mapToDouble(Double::doubleValue).sum();
-
-        if (total == 0) {
-            return new HashMap<>();
-        }
-
-        Map<String, Double> pourcentages = new HashMap<>();
-        for (Map.Entry<String, Double> entry : tempsParType.entrySet()) {
-            double pourcentage = Math.round((entry.getValue() / total) * 10000.0) / 100.0;
-            pourcentages.put(entry.getKey(), pourcentage);
-        }
-
-        return pourcentages;
+        return SyntheseActivites.pourcentages(getTempsParTypeActivite(idUtilisateur)); // Semaine en cours
     }
 
     // ========== ÉQUILIBRE TRAVAIL/REPOS ==========
 
     @Override
     public double getRatioTravailRepos(Long idUtilisateur) {
-        double heuresTravail = getHeuresTravail(idUtilisateur); // Utilise déjà la semaine en cours
-        double heuresRepos = getHeuresRepos(idUtilisateur); // Utilise déjà la semaine en cours
-
-        if (heuresRepos == 0) {
-            // Si pas de repos : retourner 999 au lieu de Double.MAX_VALUE
-            return heuresTravail > 0 ? 999.0 : 0.0;
-        }
-
-        return Math.round((heuresTravail / heuresRepos) * 100.0) / 100.0;
+        return synthese(idUtilisateur).getRatioTravailRepos(); // Semaine en cours
     }
 
     @Override
@@ -119,228 +105,207 @@ public class StatistiqueServiceImpl implements StatistiqueService {
 
     @Override
     public String getNiveauEquilibre(Long idUtilisateur) {
-        double ratio = getRatioTravailRepos(idUtilisateur);
-
-        // Cas spécial : pas de repos du tout
-        if (ratio >= 999.0)
-            return "Critique";
-
-        // Ratio idéal : 2-3 (2-3h de travail pour 1h de repos)
-        if (ratio >= 2.0 && ratio <= 3.0)
-            return "Excellent";
-        if (ratio >= 1.5 && ratio < 2.0)
-            return "Bon";
-        if (ratio >= 3.0 && ratio <= 4.0)
-            return "Bon";
-        if (ratio >= 1.0 && ratio < 1.5)
-            return "Moyen";
-        if (ratio > 4.0 && ratio <= 6.0)
-            return "Moyen";
-        if (ratio < 1.0)
-            return "Faible";
-        return "Critique";
+        return niveauEquilibre(getRatioTravailRepos(idUtilisateur));
     }
 
     @Override
     public double getHeuresTravail(Long idUtilisateur) {
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
-        LocalDateTime maintenant = LocalDateTime.now();
-
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
-
-        // Filtrer par semaine en cours
-        List<Activite> activitesSemaine = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .collect(Collectors.toList());
-
-        return calculerHeuresTravail(activitesSemaine);
+        return synthese(idUtilisateur).getHeuresTravail(); // Semaine en cours
     }
 
     @Override
     public double getHeuresRepos(Long idUtilisateur) {
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
-        LocalDateTime maintenant = LocalDateTime.now();
-
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
-
-        // Filtrer par semaine en cours
-        List<Activite> activitesSemaine = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .collect(Collectors.toList());
-
-        return calculerHeuresRepos(activitesSemaine);
+        return synthese(idUtilisateur).getHeuresRepos(); // Semaine en cours
     }
 
     // ========== SCORE DE FATIGUE ==========
 
     @Override
     public double getScoreFatigue(Long idUtilisateur) {
-        double ratio = getRatioTravailRepos(idUtilisateur); // Semaine en cours
-        double heuresConsecutives = getHeuresTravailConsecutivesMax(idUtilisateur); // Semaine en cours
-        double heuresTravail = getHeuresTravail(idUtilisateur); // Semaine en cours
-
-        double scoreFatigue = 0.0;
-
-        // Facteur 1 : Ratio travail/repos (40% du score)
-        if (ratio > 6.0)
-            scoreFatigue += 40.0;
-        else if (ratio > 4.0)
-            scoreFatigue += 30.0;
-        else if (ratio > 3.0)
-            scoreFatigue += 15.0;
-        else if (ratio < 1.5)
-            scoreFatigue += 20.0;
-
-        // Facteur 2 : Heures de travail consécutives (35% du score)
-        if (heuresConsecutives > 8.0)
-            scoreFatigue += 35.0;
-        else if (heuresConsecutives > 6.0)
-            scoreFatigue += 25.0;
-        else if (heuresConsecutives > 4.0)
-            scoreFatigue += 15.0;
-
-        // Facteur 3 : Volume total de travail (25% du score)
-        if (heuresTravail > 60.0)
-            scoreFatigue += 25.0;
-        else if (heuresTravail > 45.0)
-            scoreFatigue += 18.0;
-        else if (heuresTravail > 35.0)
-            scoreFatigue += 10.0;
-
-        return Math.min(100.0, Math.round(scoreFatigue * 100.0) / 100.0);
+        return synthese(idUtilisateur).getScoreFatigue(); // Semaine en cours
     }
 
     @Override
     public String getNiveauFatigue(Long idUtilisateur) {
-        double score = getScoreFatigue(idUtilisateur);
-
-        if (score < 25.0)
-            return "Faible";
-        if (score < 50.0)
-            return "Modéré";
-        if (score < 75.0)
-            return "Élevé";
-        return "Critique";
+        return niveauFatigue(getScoreFatigue(idUtilisateur));
     }
 
     @Override
     public double getHeuresTravailConsecutivesMax(Long idUtilisateur) {
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
-        LocalDateTime maintenant = LocalDateTime.now();
+        return synthese(idUtilisateur).getHeuresTravailConsecutivesMax(); // Semaine en cours
+    }
 
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
+    // ========== STATISTIQUES GÉNÉRALES ==========
 
-        // Filtrer et trier les activités de travail de la semaine en cours
-        List<Activite> activitesTravail = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null && a.getHoraireFin() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .filter(a -> a.getTypeActivite() == TypeActivite.Travail ||
-                        a.getTypeActivite() == TypeActivite.Etude)
-                .sorted(Comparator.comparing(Activite::getHoraireDebut))
-                .collect(Collectors.toList());
+    @Override
+    public int getNombreActivites(Long idUtilisateur) {
+        // Compter uniquement les activités de la semaine en cours
+        return synthese(idUtilisateur).getNombreActivites();
+    }
 
-        if (activitesTravail.isEmpty())
-            return 0.0;
+    @Override
+    public double getMoyenneActivitesParJour(Long idUtilisateur) {
+        return synthese(idUtilisateur).getMoyenneActivitesParJour(); // Semaine en cours
+    }
 
-        double maxConsecutif = 0.0;
-        double consecutifActuel = 0.0;
-        LocalDateTime finPrecedent = null;
+    @Override
+    public double getHeuresPlannifieesTotal(Long idUtilisateur) {
+        return synthese(idUtilisateur).getHeuresPlanifieesTotal(); // Semaine en cours
+    }
 
-        for (Activite activite : activitesTravail) {
-            double duree = Duration.between(activite.getHoraireDebut(), activite.getHoraireFin()).toMinutes() / 60.0;
+    @Override
+    public int getNombreActivitesUrgentes(Long idUtilisateur, int joursAvant) {
+        return SyntheseActivites.calculer(activiteDAO.getByUtilisateur(idUtilisateur), LocalDateTime.now(), joursAvant)
+                .getNombreActivitesUrgentes();
+    }
 
-            if (finPrecedent == null || Duration.between(finPrecedent, activite.getHoraireDebut()).toMinutes() <= 30) {
-                // Activités consécutives (moins de 30 min d'écart)
-                consecutifActuel += duree;
-            } else {
-                // Rupture dans la séquence
-                maxConsecutif = Math.max(maxConsecutif, consecutifActuel);
-                consecutifActuel = duree;
-            }
+    // ========== PRODUCTIVITÉ ==========
 
-            finPrecedent = activite.getHoraireFin();
-        }
+    @Override
+    public double getScoreProductivite(Long idUtilisateur) {
+        return scoreProductivite(synthese(idUtilisateur), conflitService.getTauxResolutionUtilisateur(idUtilisateur));
+    }
 
-        maxConsecutif = Math.max(maxConsecutif, consecutifActuel);
-        return Math.round(maxConsecutif * 100.0) / 100.0;
+    @Override
+    public double getTauxRespectDeadlines(Long idUtilisateur) {
+        return synthese(idUtilisateur).getTauxRespectDeadlines();
     }
 
-    // ========== STATISTIQUES GÉNÉRALES ==========
+    // ========== TENDANCES ==========
 
     @Override
-    public int getNombreActivites(Long idUtilisateur) {
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
-        LocalDateTime maintenant = LocalDateTime.now();
+    public Map<Integer, Integer> getTendanceActivitesParSemaine(Long idUtilisateur, int nombreSemaines) {
+        LocalDate lundiActuel = AgregatsHebdomadaires.lundi(LocalDate.now());
+        Map<LocalDate, StatistiqueHebdo> semaines = agregatsHebdomadaires.semaines(idUtilisateur,
+                lundiActuel.minusWeeks(nombreSemaines - 1), lundiActuel);
+        if (semaines == null) {
+            return tendanceActivitesParSemaine(activiteDAO.getByUtilisateur(idUtilisateur), nombreSemaines);
+        }
 
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
+        Map<Integer, Integer> tendance = new LinkedHashMap<>();
+        for (int i = nombreSemaines - 1; i >= 0; i--) {
+            StatistiqueHebdo semaine = semaines.get(lundiActuel.minusWeeks(i));
+            tendance.put(nombreSemaines - i, semaine != null ? semaine.getNombreActivites() : 0);
+        }
+        return tendance;
+    }
 
-        // Compter uniquement les activités de la semaine en cours
-        return (int) activites.stream()
-                .filter(a -> a.getHoraireDebut() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .count();
+    @Override
+    public Map<Integer, Double> getTendanceFatigueParSemaine(Long idUtilisateur, int nombreSemaines) {
+        // Score de fatigue de chaque semaine entière, lu dans les agrégats hebdomadaires
+        LocalDate lundiActuel = AgregatsHebdomadaires.lundi(LocalDate.now());
+        Map<LocalDate, StatistiqueHebdo> semaines = agregatsHebdomadaires.semaines(idUtilisateur,
+                lundiActuel.minusWeeks(nombreSemaines - 1), lundiActuel);
+        Map<Integer, Double> tendance = new LinkedHashMap<>();
+
+        if (semaines == null) {
+            // Pas d'historique disponible : score actuel pour toutes les semaines
+            double scoreFatigue = getScoreFatigue(idUtilisateur);
+            for (int i = 1; i <= nombreSemaines; i++) {
+                tendance.put(i, scoreFatigue);
+            }
+            return tendance;
+        }
+
+        double scoreSemaineVide = AgregatsHebdomadaires.semaineVide(idUtilisateur, lundiActuel).getScoreFatigue();
+        for (int i = nombreSemaines - 1; i >= 0; i--) {
+            StatistiqueHebdo semaine = semaines.get(lundiActuel.minusWeeks(i));
+            tendance.put(nombreSemaines - i, semaine != null ? semaine.getScoreFatigue() : scoreSemaineVide);
+        }
+        return tendance;
     }
 
+    // ========== RAPPORT COMPLET ==========
+
     @Override
-    public double getMoyenneActivitesParJour(Long idUtilisateur) {
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
-        LocalDateTime maintenant = LocalDateTime.now();
+    public RapportStatistique getRapportComplet(Long idUtilisateur) {
+        RapportStatistique rapport = new RapportStatistique();
 
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
+        // Une lecture des activités et une des conflits pour tout le rapport
+        SyntheseActivites synthese = synthese(idUtilisateur);
+        List<Conflit> conflits = conflitDAO.getByUtilisateur(idUtilisateur);
+        int nonResolus = (int) conflits.stream().filter(c -> !c.isResolu()).count();
+        double tauxResolution = conflits.isEmpty() ? 100.0
+                : Math.round((conflits.size() - nonResolus) * 100.0 / conflits.size() * 100.0) / 100.0;
 
-        // Filtrer par semaine en cours
-        List<Activite> activitesSemaine = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .collect(Collectors.toList());
+        // Temps par type
+        rapport.setTempsParType(synthese.getTempsParType());
+        rapport.setPourcentageParType(synthese.getPourcentageParType());
 
-        if (activitesSemaine.isEmpty())
-            return 0.0;
+        // Équilibre
+        rapport.setRatioTravailRepos(synthese.getRatioTravailRepos());
+        rapport.setNiveauEquilibre(niveauEquilibre(synthese.getRatioTravailRepos()));
+        rapport.setHeuresTravail(synthese.getHeuresTravail());
+        rapport.setHeuresRepos(synthese.getHeuresRepos());
 
-        // Compter le nombre de jours écoulés depuis le début de la semaine
-        long joursEcoules = ChronoUnit.DAYS.between(debutSemaine.toLocalDate(), maintenant.toLocalDate()) + 1;
+        // Fatigue
+        double scoreFatigue = synthese.getScoreFatigue();
+        rapport.setScoreFatigue(scoreFatigue);
+        rapport.setNiveauFatigue(niveauFatigue(scoreFatigue));
+        rapport.setHeuresTravailConsecutivesMax(synthese.getHeuresTravailConsecutivesMax());
 
-        return Math.round((double) activitesSemaine.size() / joursEcoules * 100.0) / 100.0;
-    }
+        // Général
+        rapport.setNombreActivites(synthese.getNombreActivites());
+        rapport.setMoyenneActivitesParJour(synthese.getMoyenneActivitesParJour());
+        rapport.setHeuresPlannifieesTotal(synthese.getHeuresPlanifieesTotal());
+        rapport.setNombreActivitesUrgentes(synthese.getNombreActivitesUrgentes());
 
-    @Override
-    public double getHeuresPlannifieesTotal(Long idUtilisateur) {
-        LocalDateTime debutSemaine = getDebutSemaineEnCours();
-        LocalDateTime maintenant = LocalDateTime.now();
+        // Productivité
+        rapport.setScoreProductivite(scoreProductivite(synthese, tauxResolution));
+        rapport.setTauxRespectDeadlines(synthese.getTauxRespectDeadlines());
 
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
+        // Conflits
+        rapport.setNombreConflitsTotal(conflits.size());
+        rapport.setNombreConflitsNonResolus(nonResolus);
+        rapport.setTauxResolutionConflits(tauxResolution);
 
-        // Filtrer par semaine en cours
-        List<Activite> activitesSemaine = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null)
-                .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
-                .collect(Collectors.toList());
+        return rapport;
+    }
+
+    // ========== MÉTHODES UTILITAIRES PRIVÉES ==========
 
-        return calculerDureeTotal(activitesSemaine);
+    /**
+     * Synthèse de la semaine en cours (urgence : deadline dans les 7 jours).
+     */
+    private SyntheseActivites synthese(Long idUtilisateur) {
+        return SyntheseActivites.calculer(activiteDAO.getByUtilisateur(idUtilisateur), LocalDateTime.now(), 7);
     }
 
-    @Override
-    public int getNombreActivitesUrgentes(Long idUtilisateur, int joursAvant) {
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
-        LocalDateTime limite = LocalDateTime.now().plusDays(joursAvant);
+    private static String niveauEquilibre(double ratio) {
+        // Cas spécial : pas de repos du tout
+        if (ratio >= 999.0)
+            return "Critique";
 
-        return (int) activites.stream()
-                .filter(a -> a.getDeadline() != null)
-                .filter(a -> a.getDeadline().isBefore(limite))
-                .filter(a -> a.getDeadline().isAfter(LocalDateTime.now()))
-                .count();
+        // Ratio idéal : 2-3 (2-3h de travail pour 1h de repos)
+        if (ratio >= 2.0 && ratio <= 3.0)
+            return "Excellent";
+        if (ratio >= 1.5 && ratio < 2.0)
+            return "Bon";
+        if (ratio >= 3.0 && ratio <= 4.0)
+            return "Bon";
+        if (ratio >= 1.0 && ratio < 1.5)
+            return "Moyen";
+        if (ratio > 4.0 && ratio <= 6.0)
+            return "Moyen";
+        if (ratio < 1.0)
+            return "Faible";
+        return "Critique";
     }
 
-    // ========== PRODUCTIVITÉ ==========
+    private static String niveauFatigue(double score) {
+        if (score < 25.0)
+            return "Faible";
+        if (score < 50.0)
+            return "Modéré";
+        if (score < 75.0)
+            return "Élevé";
+        return "Critique";
+    }
 
-    @Override
-    public double getScoreProductivite(Long idUtilisateur) {
-        double tauxRespectDeadlines = getTauxRespectDeadlines(idUtilisateur);
-        double scoreFatigue = getScoreFatigue(idUtilisateur);
-        String equilibre = getNiveauEquilibre(idUtilisateur);
-        double tauxResolutionConflits = conflitService.getTauxResolutionUtilisateur(idUtilisateur);
+    private static double scoreProductivite(SyntheseActivites synthese, double tauxResolutionConflits) {
+        double tauxRespectDeadlines = synthese.getTauxRespectDeadlines();
+        double scoreFatigue = synthese.getScoreFatigue();
+        String equilibre = niveauEquilibre(synthese.getRatioTravailRepos());
 
         double score = 0.0;
 
@@ -372,30 +337,10 @@ public class StatistiqueServiceImpl implements StatistiqueService {
         return Math.min(100.0, Math.round(score * 100.0) / 100.0);
     }
 
-    @Override
-    public double getTauxRespectDeadlines(Long idUtilisateur) {
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
-
-        List<Activite> avecDeadline = activites.stream()
-                .filter(a -> a.getDeadline() != null)
-                .collect(Collectors.toList());
-
-        if (avecDeadline.isEmpty())
-            return 100.0;
-
-        long respectees = avecDeadline.stream()
-                .filter(a -> a.getHoraireFin() != null)
-                .filter(a -> !a.getHoraireFin().isAfter(a.getDeadline()))
-                .count();
-
-        return Math.round((double) respectees / avecDeadline.size() * 10000.0) / 100.0;
-    }
-
-    // ========== TENDANCES ==========
-
-    @Override
-    public Map<Integer, Integer> getTendanceActivitesParSemaine(Long idUtilisateur, int nombreSemaines) {
-        List<Activite> activites = activiteDAO.getByUtilisateur(idUtilisateur);
+    /**
+     * Nombre d'activités par semaine calculé sur la liste complète (repli sans agrégats).
+     */
+    private Map<Integer, Integer> tendanceActivitesParSemaine(List<Activite> activites, int nombreSemaines) {
         LocalDateTime maintenant = LocalDateTime.now();
         Map<Integer, Integer> tendance = new LinkedHashMap<>();
 
@@ -416,70 +361,6 @@ public class StatistiqueServiceImpl implements StatistiqueService {
         return tendance;
     }
 
-    @Override
-    public Map<Integer, Double> getTendanceFatigueParSemaine(Long idUtilisateur, int nombreSemaines) {
-        // Implémentation simplifiée : score actuel pour toutes les semaines
-        // Pour une vraie implémentation, il faudrait stocker l'historique
-        Map<Integer, Double> tendance = new LinkedHashMap<>();
-        double scoreFatigue = getScoreFatigue(idUtilisateur);
-
-        for (int i = 1; i <= nombreSemaines; i++) {
-            tendance.put(i, scoreFatigue);
-        }
-
-        return tendance;
-    }
-
-    // ========== RAPPORT COMPLET ==========
-
-    @Override
-    public RapportStatistique getRapportComplet(Long idUtilisateur) {
-        RapportStatistique rapport = new RapportStatistique();
-
-        // Temps par type
-        rapport.setTempsParType(getTempsParTypeActivite(idUtilisateur));
-        rapport.setPourcentageParType(getPourcentageParTypeActivite(idUtilisateur));
-
-        // Équilibre
-        rapport.setRatioTravailRepos(getRatioTravailRepos(idUtilisateur));
-        rapport.setNiveauEquilibre(getNiveauEquilibre(idUtilisateur));
-        rapport.setHeuresTravail(getHeuresTravail(idUtilisateur));
-        rapport.setHeuresRepos(getHeuresRepos(idUtilisateur));
-
-        // Fatigue
-        rapport.setScoreFatigue(getScoreFatigue(idUtilisateur));
-        rapport.setNiveauFatigue(getNiveauFatigue(idUtilisateur));
-        rapport.setHeuresTravailConsecutivesMax(getHeuresTravailConsecutivesMax(idUtilisateur));
-
-        // Général
-        rapport.setNombreActivites(getNombreActivites(idUtilisateur));
-        rapport.setMoyenneActivitesParJour(getMoyenneActivitesParJour(idUtilisateur));
-        rapport.setHeuresPlannifieesTotal(getHeuresPlannifieesTotal(idUtilisateur));
-        rapport.setNombreActivitesUrgentes(getNombreActivitesUrgentes(idUtilisateur, 7));
-
-        // Productivité
-        rapport.setScoreProductivite(getScoreProductivite(idUtilisateur));
-        rapport.setTauxRespectDeadlines(getTauxRespectDeadlines(idUtilisateur));
-
-        // Conflits
-        rapport.setNombreConflitsTotal(conflitService.compterConflitsUtilisateur(idUtilisateur));
-        rapport.setNombreConflitsNonResolus(conflitService.compterConflitsNonResolusUtilisateur(idUtilisateur));
-        rapport.setTauxResolutionConflits(conflitService.getTauxResolutionUtilisateur(idUtilisateur));
-
-        return rapport;
-    }
-
-    // ========== MÉTHODES UTILITAIRES PRIVÉES ==========
-
-    /**
-     * Retourne le début de la semaine en cours (lundi à 00:00)
-     */
-    private LocalDateTime getDebutSemaineEnCours() {
-        LocalDateTime maintenant = LocalDateTime.now();
-        return maintenant.with(java.time.DayOfWeek.MONDAY)
-                .truncatedTo(ChronoUnit.DAYS);
-    }
-
     private Map<String, Double> calculerTempsParType(List<Activite> activites) {
         Map<String, Double> tempsParType = new HashMap<>();
 
@@ -517,13 +398,4 @@ public class StatistiqueServiceImpl implements StatistiqueService {
                 .mapToDouble(a -> Duration.between(a.getHoraireDebut(), a.getHoraireFin()).toMinutes() / 60.0)
                 .sum();
     }
-
-    private double calculerDureeTotal(List<Activite> activites) {
-        double total = activites.stream()
-                .filter(a -> a.getHoraireDebut() != null && a.getHoraireFin() != null)
-                .mapToDouble(a -> Duration.between(a.getHoraireDebut(), a.getHoraireFin()).toMinutes() / 60.0)
-                .sum();
-
-        return Math.round(total * 100.0) / 100.0;
-    }
 }
\ No newline at end of file
@@ -4,21 +4,25 @@ import service.UtilisateurService;
 import dao.interfaces.UtilisateurDAOinterface;
 import dao.impl.UtilisateurDAOImpl;
 import entities.Utilisateur;
+import util.Journal;
+import util.Metriques;
 import java.util.List;
 
 public class UtilisateurServiceImpl implements UtilisateurService {
     
+    private static final Journal journal = Journal.pour(UtilisateurServiceImpl.class);
+
     private UtilisateurDAOinterface utilisateurDAO;
     
     public UtilisateurServiceImpl() {
-        this.utilisateurDAO = new UtilisateurDAOImpl();
+        this.utilisateurDAO = Metriques.instrumenter(UtilisateurDAOinterface.class, new UtilisateurDAOImpl());
     }
     
 
     @Override
     public boolean creerUtilisateur(Utilisateur utilisateur) {
         if (utilisateur == null) {
-            System.out.println("Erreur : L'utilisateur ne peut pas être null");
+            journal.alerte("Erreur : L'utilisateur ne peut pas être null");
             return false;
         }
         return utilisateurDAO.inserer(utilisateur);
@@ -27,7 +31,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierUtilisateur(Utilisateur utilisateur) {
         if (utilisateur == null) {
-            System.out.println("Erreur : L'utilisateur ne peut pas être null");
+            journal.alerte("Erreur : L'utilisateur ne peut pas être null");
             return false;
         }
         return utilisateurDAO.modifier(utilisateur);
@@ -51,13 +55,13 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierNom(int userId, String nouveauNom) {
         if (nouveauNom == null || nouveauNom.isEmpty()) {
-            System.out.println("Erreur : Le nom ne peut pas être vide");
+            journal.alerte("Erreur : Le nom ne peut pas être vide");
             return false;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -68,13 +72,13 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierPrenom(int userId, String nouveauPrenom) {
         if (nouveauPrenom == null || nouveauPrenom.isEmpty()) {
-            System.out.println("Erreur : Le prénom ne peut pas être vide");
+            journal.alerte("Erreur : Le prénom ne peut pas être vide");
             return false;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -88,18 +92,18 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierEmail(int userId, String nouvelEmail) {
         if (nouvelEmail == null || nouvelEmail.isEmpty()) {
-            System.out.println("Erreur : L'email ne peut pas être vide");
+            journal.alerte("Erreur : L'email ne peut pas être vide");
             return false;
         }
         
         if (!nouvelEmail.contains("@") || !nouvelEmail.contains(".")) {
-            System.out.println("Erreur : Format d'email invalide");
+            journal.alerte("Erreur : Format d'email invalide");
             return false;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -110,13 +114,13 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierAge(int userId, int nouvelAge) {
         if (nouvelAge < 0 || nouvelAge > 100) {
-            System.out.println("Erreur : Âge invalide (doit être entre 0 et 100)");
+            journal.alerte("Erreur : Âge invalide (doit être entre 0 et 100)");
             return false;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -127,18 +131,18 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierGenre(int userId, String nouveauGenre) {
         if (nouveauGenre == null || nouveauGenre.isEmpty()) {
-            System.out.println("Erreur : Le genre ne peut pas être vide");
+            journal.alerte("Erreur : Le genre ne peut pas être vide");
             return false;
         }
         
         if (!nouveauGenre.equalsIgnoreCase("Homme") && !nouveauGenre.equalsIgnoreCase("Femme")) {
-            System.out.println("Erreur : Le genre doit être 'Homme' ou 'Femme'");
+            journal.alerte("Erreur : Le genre doit être 'Homme' ou 'Femme'");
             return false;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -150,13 +154,13 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public boolean modifierPoste(int userId, String nouveauPoste) {
         if (nouveauPoste == null || nouveauPoste.trim().isEmpty()) {
-            System.out.println("Erreur : Le poste ne peut pas être vide");
+            journal.alerte("Erreur : Le poste ne peut pas être vide");
             return false;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -169,7 +173,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
                                    int nouvelAge, String nouveauGenre, String nouveauPoste) {
         Utilisateur utilisateur = utilisateurDAO.getById(userId);
         if (utilisateur == null) {
-            System.out.println("Erreur : Utilisateur introuvable");
+            journal.alerte("Erreur : Utilisateur introuvable");
             return false;
         }
         
@@ -209,7 +213,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
         if (modificationEffectuee) {
             return utilisateurDAO.modifier(utilisateur);
         } else {
-            System.out.println("Aucune modification n'a été effectuée");
+            journal.info("Aucune modification n'a été effectuée");
             return false;
         }
     }
@@ -217,20 +221,20 @@ public class UtilisateurServiceImpl implements UtilisateurService {
     @Override
     public Utilisateur authentifier(String email, String motDePasse) {
         if (email == null || motDePasse == null) {
-            System.out.println("Erreur : Email et mot de passe requis");
+            journal.alerte("Erreur : Email et mot de passe requis");
             return null;
         }
         
         Utilisateur utilisateur = utilisateurDAO.getByEmail(email);
         if (utilisateur == null) {
-            System.out.println("Erreur : Email incorrect");
+            journal.alerte("Erreur : Email incorrect");
             return null;
         }
         
         // Vérifier le mot de passe avec le hashage
         String salt = utilisateur.getSalt();
         if (salt == null || utilisateur.getMotdepasse() == null) {
-            System.out.println("Erreur : Données d'authentification manquantes");
+            journal.alerte("Erreur : Données d'authentification manquantes");
             return null;
         }
         
@@ -239,10 +243,10 @@ public class UtilisateurServiceImpl implements UtilisateurService {
         
         // Comparer avec le hash stocké
         if (hashedPassword != null && hashedPassword.equals(utilisateur.getMotdepasse())) {
-            System.out.println("Authentification réussie pour : " + email);
+            journal.info("Authentification réussie pour : {}", email);
             return utilisateur;
         } else {
-            System.out.println("Erreur : Mot de passe incorrect");
+            journal.alerte("Erreur : Mot de passe incorrect");
             return null;
         }
     }
@@ -257,7 +261,7 @@ public class UtilisateurServiceImpl implements UtilisateurService {
             byte[] hash = digest.digest(texte.getBytes());
             return java.util.Base64.getEncoder().encodeToString(hash);
         } catch (java.security.NoSuchAlgorithmException e) {
-            System.err.println("Erreur lors du hashage du mot de passe.");
+            journal.erreur("Erreur lors du hashage du mot de passe", e);
             return null;
         }
     }
@@ -0,0 +1,125 @@
+package service.planning;
+
+import entities.Activite;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+/**
+ * Détection des chevauchements entre activités par balayage (sweep line).
+ *
+ * Les activités sont parcourues par horaire de début croissant ; un ensemble
+ * actif ordonné par horaire de fin contient celles encore « ouvertes ». Chaque
+ * paire qui se chevauche est émise une seule fois, en O(n log n + k) pour k
+ * paires, au lieu de comparer toutes les paires.
+ *
+ * Deux activités se chevauchent si a.debut < b.fin et a.fin > b.debut (même
+ * définition que le reste de l'application). Les activités sans horaires sont ignorées.
+ */
+public final class BalayageChevauchements {
+
+    private static final Comparator<Activite> PAR_DEBUT = Comparator
+            .comparing(Activite::getHoraireDebut)
+            .thenComparing(Activite::getHoraireFin);
+
+    private static final Comparator<Activite> PAR_FIN = Comparator.comparing(Activite::getHoraireFin);
+
+    private BalayageChevauchements() {
+    }
+
+    /**
+     * Reçoit chaque paire d'activités qui se chevauchent ; retourne false pour
+     * interrompre le balayage.
+     */
+    @FunctionalInterface
+    public interface VisiteurPaire {
+        boolean visiter(Activite premiere, Activite seconde);
+    }
+
+    /**
+     * Appelle le consommateur pour chaque paire qui se chevauche (la première
+     * activité de la paire commence avant ou en même temps que la seconde).
+     */
+    public static void parcourir(List<Activite> activites, BiConsumer<Activite, Activite> consommateur) {
+        balayer(activites, (a, b) -> {
+            consommateur.accept(a, b);
+            return true;
+        });
+    }
+
+    /**
+     * Liste des paires qui se chevauchent.
+     */
+    public static List<Activite[]> paires(List<Activite> activites) {
+        List<Activite[]> paires = new ArrayList<>();
+        parcourir(activites, (a, b) -> paires.add(new Activite[] { a, b }));
+        return paires;
+    }
+
+    /**
+     * Nombre de paires qui se chevauchent.
+     */
+    public static int compter(List<Activite> activites) {
+        int[] compteur = { 0 };
+        balayer(activites, (a, b) -> {
+            compteur[0]++;
+            return true;
+        });
+        return compteur[0];
+    }
+
+    /**
+     * Vrai dès qu'une paire se chevauche (arrêt au premier chevauchement trouvé).
+     */
+    public static boolean existeChevauchement(List<Activite> activites) {
+        boolean[] trouve = { false };
+        balayer(activites, (a, b) -> {
+            trouve[0] = true;
+            return false;
+        });
+        return trouve[0];
+    }
+
+    /**
+     * Balayage principal.
+     */
+    public static void balayer(List<Activite> activites, VisiteurPaire visiteur) {
+        if (activites == null || activites.size() < 2) {
+            return;
+        }
+
+        List<Activite> triees = new ArrayList<>(activites.size());
+        for (Activite a : activites) {
+            if (a != null && a.getHoraireDebut() != null && a.getHoraireFin() != null) {
+                triees.add(a);
+            }
+        }
+        triees.sort(PAR_DEBUT);
+
+        PriorityQueue<Activite> actives = new PriorityQueue<>(PAR_FIN);
+        for (Activite courante : triees) {
+            // Les activités terminées avant ce début ne chevaucheront plus aucune suivante
+            while (!actives.isEmpty() && !actives.peek().getHoraireFin().isAfter(courante.getHoraireDebut())) {
+                actives.poll();
+            }
+
+            for (Activite ouverte : actives) {
+                // ouverte.debut <= courante.debut et ouverte.fin > courante.debut :
+                // il reste à écarter le cas d'une activité courante de durée nulle
+                if (ouverte.getHoraireDebut().isBefore(courante.getHoraireFin())) {
+                    if (!visiteur.visiter(ouverte, courante)) {
+                        return;
+                    }
+                }
+            }
+
+            // Une activité de durée nulle ou négative ne peut chevaucher aucune activité suivante
+            if (courante.getHoraireFin().isAfter(courante.getHoraireDebut())) {
+                actives.add(courante);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package service.planning;
+
+import entities.Activite;
+import entities.Contrainte;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Calendrier des plages bloquées par les contraintes d'un utilisateur.
+ *
+ * Pour chaque jour de semaine et chaque date spécifique, les plages en minutes
+ * du jour de toutes les contraintes sont fusionnées en intervalles disjoints
+ * triés ; les plages hebdomadaires sont recopiées dans les dates spécifiques
+ * du même jour de semaine. Savoir si un créneau est bloqué coûte une recherche
+ * dichotomique sur la date puis une sur les plages du jour, sans allocation.
+ *
+ * Même règle que {@link EvaluateurContraintes} (jour du début, heures de début
+ * et de fin lues dans la journée), mais sans dire quelles contraintes ni
+ * combien sont violées. La réponse est exacte pour un créneau contenu dans une
+ * journée ; un créneau qui passe minuit est considéré comme bloqué dès que le
+ * jour a une plage. Un calendrier qui répond « libre » garantit donc qu'aucune
+ * contrainte n'est violée.
+ *
+ * Immuable ; les instances par utilisateur sont gérées par {@link CalendriersContraintes}.
+ */
+public final class CalendrierContraintes {
+
+    private static final int[] AUCUNE_PLAGE = new int[0];
+
+    /** Plages par jour de semaine (0 = lundi), en paires [début, fin[ à plat */
+    private final int[][] parJourSemaine = new int[7][];
+    private final long[] dates;
+    private final int[][] parDate;
+    /** Identifiants triés des contraintes prises en compte */
+    private final int[] idsContraintes;
+
+    private CalendrierContraintes(List<Contrainte> contraintes) {
+        List<List<int[]>> hebdomadaires = new ArrayList<>(7);
+        for (int j = 0; j < 7; j++) {
+            hebdomadaires.add(new ArrayList<>());
+        }
+        TreeMap<Long, List<int[]>> specifiques = new TreeMap<>();
+        List<Integer> ids = new ArrayList<>();
+
+        for (Contrainte c : contraintes) {
+            if (c == null || c.getDateHeureDeb() == null || c.getDateHeureFin() == null) {
+                continue;
+            }
+            ids.add(c.getId());
+            int debut = EvaluateurContraintes.minuteDuJour(c.getDateHeureDeb());
+            int fin = EvaluateurContraintes.minuteDuJour(c.getDateHeureFin());
+            // Plage inversée (refusée par le service) : on bloque l'écart, ce qui couvre la règle
+            int[] plage = debut <= fin ? new int[] { debut, fin } : new int[] { fin, debut };
+
+            if (c.isRepetitif()) {
+                if (c.getJoursSemaine() != null) {
+                    for (DayOfWeek jour : c.getJoursSemaine()) {
+                        if (jour != null) {
+                            hebdomadaires.get(jour.getValue() - 1).add(plage);
+                        }
+                    }
+                }
+            } else if (c.getDatesSpecifiques() != null) {
+                for (LocalDate date : c.getDatesSpecifiques()) {
+                    if (date != null) {
+                        specifiques.computeIfAbsent(date.toEpochDay(), d -> new ArrayList<>()).add(plage);
+                    }
+                }
+            }
+        }
+
+        for (int j = 0; j < 7; j++) {
+            parJourSemaine[j] = fusionner(hebdomadaires.get(j));
+        }
+        dates = new long[specifiques.size()];
+        parDate = new int[specifiques.size()][];
+        int k = 0;
+        for (var entree : specifiques.entrySet()) {
+            List<int[]> plages = entree.getValue();
+            plages.addAll(hebdomadaires.get((int) Math.floorMod(entree.getKey() + 3, 7L)));
+            dates[k] = entree.getKey();
+            parDate[k] = fusionner(plages);
+            k++;
+        }
+        idsContraintes = ids.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    /**
+     * Construit le calendrier de toutes les contraintes fournies (le statut
+     * n'est pas filtré : fournir les contraintes actives).
+     */
+    public static CalendrierContraintes construire(List<Contrainte> contraintes) {
+        return new CalendrierContraintes(contraintes != null ? contraintes : List.of());
+    }
+
+    // ========== REQUÊTES ==========
+
+    /**
+     * Vrai si un créneau commençant le jour {@code jourEpoch}, de
+     * {@code minuteDebut} à {@code minuteFin} (minutes du jour), est bloqué.
+     */
+    public boolean estBloque(long jourEpoch, int minuteDebut, int minuteFin) {
+        int[] plages = plages(jourEpoch);
+        if (plages.length == 0) {
+            return false;
+        }
+        if (minuteFin <= minuteDebut) {
+            return true; // créneau qui passe minuit (ou vide) : réponse prudente
+        }
+        // Première plage qui finit après le début du créneau
+        int bas = 0;
+        int haut = plages.length / 2;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (plages[2 * milieu + 1] > minuteDebut) {
+                haut = milieu;
+            } else {
+                bas = milieu + 1;
+            }
+        }
+        return bas < plages.length / 2 && plages[2 * bas] < minuteFin;
+    }
+
+    /**
+     * Créneau en minutes epoch (voir {@link PlanningCompact}).
+     */
+    public boolean estBloque(long debutMinutes, long finMinutes) {
+        return estBloque(PlanningCompact.jourEpoch(debutMinutes), PlanningCompact.minuteDuJour(debutMinutes),
+                PlanningCompact.minuteDuJour(finMinutes));
+    }
+
+    public boolean estBloque(LocalDateTime debut, LocalDateTime fin) {
+        if (debut == null || fin == null) {
+            return false;
+        }
+        return estBloque(PlanningCompact.minutes(debut), PlanningCompact.minutes(fin));
+    }
+
+    public boolean estBloque(Activite activite) {
+        return activite != null && estBloque(activite.getHoraireDebut(), activite.getHoraireFin());
+    }
+
+    /**
+     * Plages bloquées du jour, en paires [début, fin[ de minutes du jour.
+     */
+    public int[] plagesBloquees(LocalDate date) {
+        return plages(date.toEpochDay()).clone();
+    }
+
+    public boolean estVide() {
+        return idsContraintes.length == 0;
+    }
+
+    /**
+     * Vrai si la contrainte fait partie du calendrier.
+     */
+    public boolean contient(int idContrainte) {
+        return Arrays.binarySearch(idsContraintes, idContrainte) >= 0;
+    }
+
+    private int[] plages(long jourEpoch) {
+        int k = Arrays.binarySearch(dates, jourEpoch);
+        return k >= 0 ? parDate[k] : parJourSemaine[(int) Math.floorMod(jourEpoch + 3, 7L)];
+    }
+
+    /**
+     * Fusionne des plages en intervalles disjoints triés (les plages contiguës sont réunies).
+     */
+    private static int[] fusionner(List<int[]> plages) {
+        if (plages.isEmpty()) {
+            return AUCUNE_PLAGE;
+        }
+        plages.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] fusion = new int[2 * plages.size()];
+        int m = 0;
+        for (int[] plage : plages) {
+            if (m > 0 && plage[0] <= fusion[m - 1]) {
+                fusion[m - 1] = Math.max(fusion[m - 1], plage[1]);
+            } else {
+                fusion[m++] = plage[0];
+                fusion[m++] = plage[1];
+            }
+        }
+        return Arrays.copyOf(fusion, m);
+    }
+}
@@ -0,0 +1,136 @@
+package service.planning;
+
+import entities.Contrainte;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Calendriers des contraintes actives, un par utilisateur.
+ *
+ * - Construit à la première demande (une lecture des contraintes actives)
+ * - Invalidé par le ContrainteService à chaque ajout, modification,
+ *   suppression ou changement de statut
+ * - Même durée de vie et même nombre d'utilisateurs que le cache des
+ *   contraintes (planner.cache.contraintes.ttlMs et planner.cache.contraintes.max) :
+ *   les écritures faites hors de l'application finissent par être vues
+ *
+ * Un calendrier construit pendant une invalidation n'est pas conservé (il
+ * peut avoir été lu avant l'écriture) ; il est reconstruit à la demande suivante.
+ * Une lecture en échec ne construit aucun calendrier.
+ */
+public final class CalendriersContraintes {
+
+    private static final CalendriersContraintes INSTANCE = new CalendriersContraintes(
+            Integer.getInteger("planner.cache.contraintes.max", 1_000),
+            Long.getLong("planner.cache.contraintes.ttlMs", 300_000L));
+
+    private final int maxUtilisateurs;
+    private final long ttlMs;
+
+    /** Ordre d'accès : le premier utilisateur est le moins récemment consulté */
+    private final LinkedHashMap<Integer, Entree> calendriers = new LinkedHashMap<>(16, 0.75f, true);
+    /** Incrémenté à chaque invalidation, pour détecter une construction concurrente */
+    private long generation;
+
+    private long hits;
+    private long miss;
+    private long evictions;
+    private long expirations;
+
+    private static final class Entree {
+        final CalendrierContraintes calendrier;
+        final long expiration;
+
+        Entree(CalendrierContraintes calendrier, long expiration) {
+            this.calendrier = calendrier;
+            this.expiration = expiration;
+        }
+    }
+
+    private CalendriersContraintes(int maxUtilisateurs, long ttlMs) {
+        this.maxUtilisateurs = Math.max(1, maxUtilisateurs);
+        this.ttlMs = ttlMs;
+    }
+
+    public static CalendriersContraintes getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Calendrier des contraintes actives de l'utilisateur.
+     *
+     * @param chargeur lecture des contraintes actives de l'utilisateur (null
+     *                 en cas d'erreur : rien n'est mis en cache)
+     * @return null si la lecture a échoué
+     */
+    public CalendrierContraintes calendrier(int utilisateurId, IntFunction<List<Contrainte>> chargeur) {
+        long generationAvant;
+        synchronized (this) {
+            Entree entree = calendriers.get(utilisateurId); // get() met à jour l'ordre d'accès
+            if (entree != null && entree.expiration > System.currentTimeMillis()) {
+                hits++;
+                return entree.calendrier;
+            }
+            if (entree != null) {
+                calendriers.remove(utilisateurId);
+                expirations++;
+            }
+            miss++;
+            generationAvant = generation;
+        }
+
+        // Lecture hors verrou ; jetée si une écriture est survenue entre-temps
+        List<Contrainte> contraintes = chargeur.apply(utilisateurId);
+        if (contraintes == null) {
+            return null;
+        }
+        CalendrierContraintes calendrier = CalendrierContraintes.construire(contraintes);
+        synchronized (this) {
+            if (generation == generationAvant) {
+                calendriers.put(utilisateurId, new Entree(calendrier, System.currentTimeMillis() + ttlMs));
+                evincerSiNecessaire();
+            }
+        }
+        return calendrier;
+    }
+
+    private void evincerSiNecessaire() {
+        Iterator<Map.Entry<Integer, Entree>> it = calendriers.entrySet().iterator();
+        while (calendriers.size() > maxUtilisateurs && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Oublie le calendrier de l'utilisateur.
+     */
+    public synchronized void invalider(int utilisateurId) {
+        generation++;
+        calendriers.remove(utilisateurId);
+    }
+
+    /**
+     * Oublie les calendriers qui contiennent la contrainte (ancien propriétaire
+     * d'une contrainte modifiée ou supprimée).
+     */
+    public synchronized void invaliderContrainte(int idContrainte) {
+        generation++;
+        calendriers.values().removeIf(entree -> entree.calendrier.contient(idContrainte));
+    }
+
+    public synchronized void vider() {
+        generation++;
+        calendriers.clear();
+    }
+
+    public synchronized String getStatistiques() {
+        return "CalendriersContraintes[utilisateurs=" + calendriers.size() + ", hits=" + hits + ", miss=" + miss
+                + ", evictions=" + evictions + ", expirations=" + expirations + "]";
+    }
+}
@@ -0,0 +1,119 @@
+package service.planning;
+
+import java.util.SplittableRandom;
+
+import util.Metriques;
+
+/**
+ * Une chaîne de recuit simulé sur un planning compact.
+ *
+ * Voisinage de muterPlanning : une activité tirée au hasard est décalée de
+ * ±30 min à ±4 h si elle reste entre 6h et 23h (sinon le planning est
+ * inchangé). Un voisin meilleur est toujours accepté, un voisin moins bon
+ * avec la probabilité exp(delta / T) ; un voisin refusé est annulé.
+ *
+ * La température est multipliée par le facteur de refroidissement à chaque
+ * itération (1.0 pour une température fixe). Non thread-safe : une chaîne
+ * n'est exécutée que par un thread à la fois.
+ */
+public class ChaineRecuit {
+
+    private static final int[] DECALAGES = { -240, -120, -60, -30, 30, 60, 120, 240 };
+
+    private final ModeleScoreIncremental modele;
+    private final SplittableRandom random;
+    private double temperature;
+    private final double refroidissement;
+
+    private double scoreCourant;
+    private double meilleurScore;
+    private long iterations;
+    private long acceptations;
+    private int ameliorations;
+
+    public ChaineRecuit(ModeleScoreIncremental modele, SplittableRandom random, double temperature,
+            double refroidissement) {
+        this.modele = modele;
+        this.random = random;
+        this.temperature = temperature;
+        this.refroidissement = refroidissement;
+        this.scoreCourant = modele.getScore();
+        this.meilleurScore = scoreCourant;
+        modele.memoriserMeilleur();
+    }
+
+    /**
+     * Exécute {@code nombre} itérations (comptées dans les métriques de
+     * l'optimiseur à la fin du bloc).
+     */
+    public void executer(int nombre) {
+        long debut = System.nanoTime();
+        long acceptationsAvant = acceptations;
+        for (int k = 0; k < nombre; k++) {
+            int indice = random.nextInt(modele.taille());
+            int decalage = DECALAGES[random.nextInt(DECALAGES.length)];
+            boolean deplace = modele.estDeplacable(indice, decalage);
+            double delta = deplace ? modele.deplacer(indice, decalage) : 0;
+
+            if (delta > 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+                scoreCourant = modele.getScore();
+                acceptations++;
+                if (scoreCourant > meilleurScore) {
+                    meilleurScore = scoreCourant;
+                    modele.memoriserMeilleur();
+                    ameliorations++;
+                }
+            } else if (deplace) {
+                modele.annuler();
+            }
+
+            temperature *= refroidissement;
+            iterations++;
+        }
+        Metriques.enregistrerOptimisation(nombre, acceptations - acceptationsAvant, System.nanoTime() - debut);
+    }
+
+    /**
+     * Repart d'un état copié d'une autre chaîne (même planning d'origine).
+     */
+    public void adopter(long[] debuts) {
+        modele.charger(debuts);
+        scoreCourant = modele.getScore();
+        if (scoreCourant > meilleurScore) {
+            meilleurScore = scoreCourant;
+            modele.memoriserMeilleur();
+        }
+    }
+
+    public ModeleScoreIncremental getModele() {
+        return modele;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(double temperature) {
+        this.temperature = temperature;
+    }
+
+    public double getScoreCourant() {
+        return scoreCourant;
+    }
+
+    public double getMeilleurScore() {
+        return meilleurScore;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public long getAcceptations() {
+        return acceptations;
+    }
+
+    public int getAmeliorations() {
+        return ameliorations;
+    }
+}
@@ -0,0 +1,311 @@
+package service.planning;
+
+import dao.interfaces.ActiviteDAO;
+import dao.interfaces.ConflitDAO;
+import dao.interfaces.ConflitDAO.ConflitOuvert;
+import dao.interfaces.ConflitDAO.NouveauConflit;
+import dao.interfaces.ContrainteDAO;
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeConflit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Maintenance incrémentale des conflits d'une activité modifiée.
+ *
+ * Au lieu de rescanner tout l'historique de l'utilisateur, seules les paires
+ * qui touchent l'activité changée sont examinées :
+ * - les conflits ouverts de l'activité (une requête) sont comparés aux
+ *   chevauchements de son nouvel intervalle (une requête par plage) ;
+ * - les chevauchements disparus sont résolus, les nouveaux sont créés en lot ;
+ * - les violations de contraintes sont réconciliées par nombre (un conflit de
+ *   violation ne mémorise pas la contrainte concernée) ; les contraintes ne
+ *   sont lues que si le créneau est bloqué dans le {@link CalendrierContraintes}.
+ *
+ * Le coût dépend du nombre de conflits et de voisins de l'activité, pas de la
+ * taille de l'historique.
+ *
+ * Après une écriture en lot qui ne suit pas les activités une à une (planning
+ * optimisé), {@link #resynchroniserUtilisateur(Long)} reprend tout l'historique
+ * de l'utilisateur.
+ */
+public class DetecteurConflitsIncremental {
+
+    private final ActiviteDAO activiteDAO;
+    private final ConflitDAO conflitDAO;
+    private final ContrainteDAO contrainteDAO;
+
+    public DetecteurConflitsIncremental(ActiviteDAO activiteDAO, ConflitDAO conflitDAO,
+            ContrainteDAO contrainteDAO) {
+        this.activiteDAO = activiteDAO;
+        this.conflitDAO = conflitDAO;
+        this.contrainteDAO = contrainteDAO;
+    }
+
+    /**
+     * Conflits créés et résolus par une mise à jour.
+     */
+    public static class Delta {
+        private final List<Long> conflitsCrees = new ArrayList<>();
+        private final List<Long> conflitsResolus = new ArrayList<>();
+        private final List<String> descriptions = new ArrayList<>();
+
+        public List<Long> getConflitsCrees() {
+            return conflitsCrees;
+        }
+
+        public List<Long> getConflitsResolus() {
+            return conflitsResolus;
+        }
+
+        /**
+         * Description lisible des conflits créés.
+         */
+        public List<String> getDescriptions() {
+            return descriptions;
+        }
+
+        public boolean estVide() {
+            return conflitsCrees.isEmpty() && conflitsResolus.isEmpty();
+        }
+    }
+
+    /**
+     * Nouvelle activité : seuls ses propres conflits sont à créer.
+     */
+    public Delta activiteCreee(Activite nouvelle) {
+        return synchroniser(nouvelle, true);
+    }
+
+    /**
+     * Activité modifiée : rien à faire si son intervalle n'a pas changé.
+     *
+     * @param ancienne état avant modification (null si inconnu)
+     */
+    public Delta activiteModifiee(Activite ancienne, Activite nouvelle) {
+        if (ancienne != null
+                && Objects.equals(ancienne.getHoraireDebut(), nouvelle.getHoraireDebut())
+                && Objects.equals(ancienne.getHoraireFin(), nouvelle.getHoraireFin())) {
+            return new Delta();
+        }
+        return synchroniser(nouvelle, false);
+    }
+
+    /**
+     * Suppression : les conflits ouverts de l'activité sont résolus une fois la
+     * suppression effectuée (leurs liens disparaissent en cascade).
+     *
+     * @return le delta, ou null si la suppression a échoué
+     */
+    public Delta activiteSupprimee(Long idActivite, BooleanSupplier suppression) {
+        List<ConflitOuvert> ouverts = conflitDAO.getConflitsNonResolusAvecLiens(idActivite);
+        if (!suppression.getAsBoolean()) {
+            return null;
+        }
+        Delta delta = new Delta();
+        for (ConflitOuvert conflit : ouverts) {
+            delta.conflitsResolus.add(conflit.getIdConflit());
+        }
+        if (!delta.conflitsResolus.isEmpty()) {
+            conflitDAO.marquerPlusieursCommeResolus(delta.conflitsResolus);
+        }
+        return delta;
+    }
+
+    /**
+     * Resynchronisation complète d'un utilisateur : chevauchements par
+     * balayage, violations de contraintes activité par activité, puis
+     * réconciliation avec tous ses conflits ouverts (trois lectures, une
+     * résolution et une création en lot).
+     *
+     * Les activités sans horaires complets et leurs conflits ne sont pas
+     * touchés, comme dans la maintenance incrémentale.
+     */
+    public Delta resynchroniserUtilisateur(Long idUtilisateur) {
+        Delta delta = new Delta();
+        if (idUtilisateur == null) {
+            return delta;
+        }
+
+        Map<Long, Activite> parId = new HashMap<>();
+        for (Activite activite : activiteDAO.getByUtilisateur(idUtilisateur)) {
+            if (activite.getIdActivite() != null && activite.getHoraireDebut() != null
+                    && activite.getHoraireFin() != null) {
+                parId.put(activite.getIdActivite(), activite);
+            }
+        }
+        List<Activite> activites = new ArrayList<>(parId.values());
+
+        // 1. Chevauchements attendus, par paire normalisée
+        Map<List<Long>, Activite[]> paires = new LinkedHashMap<>();
+        BalayageChevauchements.parcourir(activites,
+                (a, b) -> paires.put(paire(a.getIdActivite(), b.getIdActivite()), new Activite[] { a, b }));
+
+        // 2. Conflits ouverts : chevauchements toujours présents conservés (une
+        // fois par paire), violations regroupées par activité
+        Map<Long, List<Long>> violationsOuvertes = new HashMap<>();
+        Set<List<Long>> pairesOuvertes = new HashSet<>();
+        for (ConflitOuvert conflit : conflitDAO.getConflitsNonResolusAvecLiensParUtilisateur(idUtilisateur)) {
+            List<Long> ids = conflit.getIdsActivites();
+            if (!parId.keySet().containsAll(ids)) {
+                continue;
+            }
+            if (conflit.getType() == TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES && ids.size() == 2) {
+                List<Long> cle = paire(ids.get(0), ids.get(1));
+                if (paires.containsKey(cle) && pairesOuvertes.add(cle)) {
+                    continue;
+                }
+                delta.conflitsResolus.add(conflit.getIdConflit());
+            } else if (conflit.getType() == TypeConflit.VIOLATION_DE_CONTRAINTE && ids.size() == 1) {
+                violationsOuvertes.computeIfAbsent(ids.get(0), k -> new ArrayList<>()).add(conflit.getIdConflit());
+            }
+        }
+
+        List<NouveauConflit> nouveaux = new ArrayList<>();
+        for (Map.Entry<List<Long>, Activite[]> entree : paires.entrySet()) {
+            if (!pairesOuvertes.contains(entree.getKey())) {
+                Activite[] paire = entree.getValue();
+                nouveaux.add(new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES,
+                        List.of(paire[0].getIdActivite(), paire[1].getIdActivite())));
+                delta.descriptions.add("Chevauchement entre '" + paire[0].getTitre() +
+                        "' et '" + paire[1].getTitre() + "'");
+            }
+        }
+
+        // 3. Violations : même réconciliation par nombre que pour une activité
+        // (contraintes illisibles : violations ouvertes laissées telles quelles)
+        List<Contrainte> contraintes = contrainteDAO.getContraintesActivesByUtilisateur(idUtilisateur.intValue());
+        EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
+        for (Activite activite : contraintes != null ? activites : List.<Activite>of()) {
+            List<Contrainte> violees = evaluateur.contraintesViolees(activite);
+            List<Long> ouvertes = violationsOuvertes.getOrDefault(activite.getIdActivite(), List.of());
+            if (violees.size() > ouvertes.size()) {
+                for (Contrainte contrainte : violees.subList(ouvertes.size(), violees.size())) {
+                    nouveaux.add(new NouveauConflit(TypeConflit.VIOLATION_DE_CONTRAINTE,
+                            List.of(activite.getIdActivite())));
+                    delta.descriptions.add("Violation de contrainte '" + contrainte.getTitre() + "'");
+                }
+            } else {
+                delta.conflitsResolus.addAll(ouvertes.subList(violees.size(), ouvertes.size()));
+            }
+        }
+
+        appliquer(delta, nouveaux);
+        return delta;
+    }
+
+    private Delta synchroniser(Activite activite, boolean creation) {
+        Delta delta = new Delta();
+        if (activite == null || activite.getIdActivite() == null || activite.getIdUtilisateur() == null
+                || activite.getHoraireDebut() == null || activite.getHoraireFin() == null) {
+            return delta;
+        }
+
+        Long idActivite = activite.getIdActivite();
+        Long idUtilisateur = activite.getIdUtilisateur();
+
+        // Conflits existants : inutile de les relire pour une activité qui vient d'être créée
+        List<ConflitOuvert> ouverts = creation ? List.of() : conflitDAO.getConflitsNonResolusAvecLiens(idActivite);
+
+        List<NouveauConflit> nouveaux = new ArrayList<>();
+
+        // 1. Chevauchements : voisins du nouvel intervalle uniquement
+        Set<Long> voisins = new HashSet<>();
+        List<Activite> chevauchantes = activiteDAO.getActivitesChevauchantesUtilisateur(idUtilisateur,
+                activite.getHoraireDebut(), activite.getHoraireFin());
+        for (Activite autre : chevauchantes) {
+            if (!idActivite.equals(autre.getIdActivite())) {
+                voisins.add(autre.getIdActivite());
+            }
+        }
+
+        Set<Long> voisinsDejaEnConflit = new HashSet<>();
+        int violationsOuvertes = 0;
+        List<Long> violationsARevoir = new ArrayList<>();
+        for (ConflitOuvert conflit : ouverts) {
+            if (conflit.getType() == TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) {
+                Long partenaire = partenaire(conflit, idActivite);
+                if (partenaire != null && voisins.contains(partenaire)) {
+                    voisinsDejaEnConflit.add(partenaire);
+                } else {
+                    delta.conflitsResolus.add(conflit.getIdConflit());
+                }
+            } else if (conflit.getType() == TypeConflit.VIOLATION_DE_CONTRAINTE) {
+                violationsOuvertes++;
+                violationsARevoir.add(conflit.getIdConflit());
+            }
+        }
+
+        for (Activite autre : chevauchantes) {
+            Long idAutre = autre.getIdActivite();
+            if (idActivite.equals(idAutre) || voisinsDejaEnConflit.contains(idAutre)) {
+                continue;
+            }
+            // Le conflit peut avoir été ouvert depuis l'autre activité
+            if (!conflitDAO.existeConflitNonResoluEntre(idUtilisateur, idActivite, idAutre)) {
+                nouveaux.add(new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES,
+                        List.of(idActivite, idAutre)));
+                delta.descriptions.add("Chevauchement entre '" + activite.getTitre() +
+                        "' et '" + autre.getTitre() + "'");
+            }
+        }
+
+        // 2. Violations de contraintes : réconciliation par nombre
+        // (un créneau libre dans le calendrier ne viole aucune contrainte : pas de lecture ;
+        // contraintes illisibles : violations ouvertes laissées telles quelles)
+        CalendrierContraintes calendrier = CalendriersContraintes.getInstance()
+                .calendrier(idUtilisateur.intValue(), contrainteDAO::getContraintesActivesByUtilisateur);
+        List<Contrainte> violees = calendrier != null ? List.of() : null;
+        if (calendrier != null && calendrier.estBloque(activite)) {
+            List<Contrainte> contraintes = contrainteDAO.getContraintesActivesByUtilisateur(idUtilisateur.intValue());
+            violees = contraintes != null ? EvaluateurContraintes.compiler(contraintes).contraintesViolees(activite)
+                    : null;
+        }
+        if (violees != null && violees.size() > violationsOuvertes) {
+            for (Contrainte contrainte : violees.subList(violationsOuvertes, violees.size())) {
+                nouveaux.add(new NouveauConflit(TypeConflit.VIOLATION_DE_CONTRAINTE, List.of(idActivite)));
+                delta.descriptions.add("Violation de contrainte '" + contrainte.getTitre() + "'");
+            }
+        } else if (violees != null) {
+            delta.conflitsResolus.addAll(violationsARevoir.subList(violees.size(), violationsOuvertes));
+        }
+
+        // 3. Appliquer le delta
+        appliquer(delta, nouveaux);
+        return delta;
+    }
+
+    private void appliquer(Delta delta, List<NouveauConflit> nouveaux) {
+        if (!delta.conflitsResolus.isEmpty()) {
+            conflitDAO.marquerPlusieursCommeResolus(delta.conflitsResolus);
+        }
+        if (!nouveaux.isEmpty()) {
+            delta.conflitsCrees.addAll(conflitDAO.ajouterConflitsEnLot(nouveaux));
+            if (delta.conflitsCrees.isEmpty()) {
+                delta.descriptions.clear();
+            }
+        }
+    }
+
+    private static List<Long> paire(Long a, Long b) {
+        return a < b ? List.of(a, b) : List.of(b, a);
+    }
+
+    private static Long partenaire(ConflitOuvert conflit, Long idActivite) {
+        for (Long id : conflit.getIdsActivites()) {
+            if (!id.equals(idActivite)) {
+                return id;
+            }
+        }
+        return null;
+    }
+}
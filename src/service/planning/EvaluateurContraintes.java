@@ -0,0 +1,215 @@
+package service.planning;
+
+import entities.Activite;
+import entities.Contrainte;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Contraintes d'un utilisateur compilées une fois pour être évaluées rapidement.
+ *
+ * Chaque contrainte devient :
+ * - une plage [début, fin[ en minutes du jour ;
+ * - si elle est répétitive, un masque de 7 bits des jours de semaine
+ *   (bit 0 = lundi) ;
+ * - sinon, le tableau trié de ses dates spécifiques en jours depuis l'epoch
+ *   (recherche dichotomique).
+ *
+ * Même règle que estEnConflitAvecContrainte : un créneau viole une contrainte
+ * si le jour de son début est concerné et si les heures (début et fin lues
+ * dans la journée) chevauchent la plage de la contrainte. Les horaires sont
+ * comparés à la minute. Les contraintes sans heures ne sont jamais violées.
+ *
+ * Immuable : une fois compilé, l'évaluateur peut être partagé entre threads
+ * (chaînes de l'optimiseur parallèle, tâches de fond).
+ */
+public final class EvaluateurContraintes implements ModeleScoreIncremental.ControleContraintes {
+
+    private static final EvaluateurContraintes VIDE = new EvaluateurContraintes(new ArrayList<>());
+
+    private final Contrainte[] contraintes;
+    private final int[] debut;
+    private final int[] fin;
+    /** Masque des jours de semaine, ou -1 pour une contrainte à dates spécifiques */
+    private final byte[] jours;
+    private final long[][] dates;
+    private final int n;
+
+    private EvaluateurContraintes(List<Contrainte> compilables) {
+        this.n = compilables.size();
+        this.contraintes = compilables.toArray(new Contrainte[0]);
+        this.debut = new int[n];
+        this.fin = new int[n];
+        this.jours = new byte[n];
+        this.dates = new long[n][];
+
+        for (int k = 0; k < n; k++) {
+            Contrainte c = contraintes[k];
+            debut[k] = minuteDuJour(c.getDateHeureDeb());
+            fin[k] = minuteDuJour(c.getDateHeureFin());
+            if (c.isRepetitif()) {
+                jours[k] = masque(c.getJoursSemaine());
+            } else {
+                jours[k] = -1;
+                dates[k] = joursEpoch(c.getDatesSpecifiques());
+            }
+        }
+    }
+
+    /**
+     * Compile les contraintes (null accepté : aucune contrainte).
+     */
+    public static EvaluateurContraintes compiler(List<Contrainte> contraintes) {
+        if (contraintes == null || contraintes.isEmpty()) {
+            return VIDE;
+        }
+        List<Contrainte> compilables = new ArrayList<>(contraintes.size());
+        for (Contrainte c : contraintes) {
+            if (c != null && c.getDateHeureDeb() != null && c.getDateHeureFin() != null) {
+                compilables.add(c);
+            }
+        }
+        return new EvaluateurContraintes(compilables);
+    }
+
+    // ========== ÉVALUATION ==========
+
+    /**
+     * Nombre de contraintes violées par un créneau en minutes epoch
+     * (contrôle de contraintes de l'optimiseur).
+     */
+    @Override
+    public int violations(long debutMinutes, long finMinutes) {
+        return compterViolations(PlanningCompact.jourEpoch(debutMinutes),
+                PlanningCompact.minuteDuJour(debutMinutes), PlanningCompact.minuteDuJour(finMinutes));
+    }
+
+    /**
+     * Nombre de contraintes violées par l'activité (0 si elle n'a pas d'horaires).
+     */
+    public int compterViolations(Activite activite) {
+        if (activite == null || activite.getHoraireDebut() == null || activite.getHoraireFin() == null) {
+            return 0;
+        }
+        return violations(PlanningCompact.minutes(activite.getHoraireDebut()),
+                PlanningCompact.minutes(activite.getHoraireFin()));
+    }
+
+    /**
+     * Vrai si l'activité viole au moins une contrainte.
+     */
+    public boolean estEnConflit(Activite activite) {
+        if (activite == null || activite.getHoraireDebut() == null || activite.getHoraireFin() == null) {
+            return false;
+        }
+        long debutMinutes = PlanningCompact.minutes(activite.getHoraireDebut());
+        long finMinutes = PlanningCompact.minutes(activite.getHoraireFin());
+        long jour = PlanningCompact.jourEpoch(debutMinutes);
+        int jourSemaine = PlanningCompact.jourSemaine(debutMinutes);
+        int minuteDebut = PlanningCompact.minuteDuJour(debutMinutes);
+        int minuteFin = PlanningCompact.minuteDuJour(finMinutes);
+        for (int k = 0; k < n; k++) {
+            if (viole(k, jour, jourSemaine, minuteDebut, minuteFin)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Contraintes violées par l'activité.
+     */
+    public List<Contrainte> contraintesViolees(Activite activite) {
+        List<Contrainte> violees = new ArrayList<>();
+        if (activite == null || activite.getHoraireDebut() == null || activite.getHoraireFin() == null) {
+            return violees;
+        }
+        long debutMinutes = PlanningCompact.minutes(activite.getHoraireDebut());
+        long finMinutes = PlanningCompact.minutes(activite.getHoraireFin());
+        long jour = PlanningCompact.jourEpoch(debutMinutes);
+        int jourSemaine = PlanningCompact.jourSemaine(debutMinutes);
+        int minuteDebut = PlanningCompact.minuteDuJour(debutMinutes);
+        int minuteFin = PlanningCompact.minuteDuJour(finMinutes);
+        for (int k = 0; k < n; k++) {
+            if (viole(k, jour, jourSemaine, minuteDebut, minuteFin)) {
+                violees.add(contraintes[k]);
+            }
+        }
+        return violees;
+    }
+
+    /**
+     * Nombre de contraintes violées par un créneau commençant le jour
+     * {@code jourEpoch}, de {@code minuteDebut} à {@code minuteFin} (minutes du jour).
+     */
+    public int compterViolations(long jourEpoch, int minuteDebut, int minuteFin) {
+        int jourSemaine = (int) Math.floorMod(jourEpoch + 3, 7L);
+        int violations = 0;
+        for (int k = 0; k < n; k++) {
+            if (viole(k, jourEpoch, jourSemaine, minuteDebut, minuteFin)) {
+                violations++;
+            }
+        }
+        return violations;
+    }
+
+    private boolean viole(int k, long jourEpoch, int jourSemaine, int minuteDebut, int minuteFin) {
+        if (!chevauche(minuteDebut, minuteFin, debut[k], fin[k])) {
+            return false;
+        }
+        if (jours[k] >= 0) {
+            return (jours[k] & (1 << jourSemaine)) != 0;
+        }
+        return Arrays.binarySearch(dates[k], jourEpoch) >= 0;
+    }
+
+    public int taille() {
+        return n;
+    }
+
+    // ========== UTILITAIRES ==========
+
+    /**
+     * Vrai si les plages [debut, fin[ et [debutContrainte, finContrainte[ se chevauchent.
+     */
+    public static boolean chevauche(int debut, int fin, int debutContrainte, int finContrainte) {
+        return debut < finContrainte && fin > debutContrainte;
+    }
+
+    public static int minuteDuJour(LocalTime heure) {
+        return heure.getHour() * 60 + heure.getMinute();
+    }
+
+    private static byte masque(List<DayOfWeek> joursSemaine) {
+        int masque = 0;
+        if (joursSemaine != null) {
+            for (DayOfWeek jour : joursSemaine) {
+                if (jour != null) {
+                    masque |= 1 << (jour.getValue() - 1);
+                }
+            }
+        }
+        return (byte) masque;
+    }
+
+    private static long[] joursEpoch(List<LocalDate> datesSpecifiques) {
+        if (datesSpecifiques == null) {
+            return new long[0];
+        }
+        long[] epoch = new long[datesSpecifiques.size()];
+        int m = 0;
+        for (LocalDate date : datesSpecifiques) {
+            if (date != null) {
+                epoch[m++] = date.toEpochDay();
+            }
+        }
+        long[] tries = Arrays.copyOf(epoch, m);
+        Arrays.sort(tries);
+        return tries;
+    }
+}
@@ -0,0 +1,197 @@
+package service.planning;
+
+import entities.Activite;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Exécution asynchrone des optimisations de planning.
+ *
+ * - Pool de threads dédié (les optimisations n'occupent plus les threads du serveur HTTP)
+ * - File d'attente bornée : au-delà, la soumission est refusée
+ * - Nombre de tâches en attente ou en cours limité par utilisateur
+ * - Les tâches terminées restent consultables pendant une durée limitée
+ *
+ * Réglages : planner.optim.threads, planner.optim.file, planner.optim.parUtilisateur
+ * et planner.optim.ttlMs.
+ */
+public final class GestionnaireOptimisations {
+
+    private static final GestionnaireOptimisations INSTANCE = new GestionnaireOptimisations(
+            Integer.getInteger("planner.optim.threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)),
+            Integer.getInteger("planner.optim.file", 16),
+            Integer.getInteger("planner.optim.parUtilisateur", 2),
+            Long.getLong("planner.optim.ttlMs", 600_000L));
+
+    private final ThreadPoolExecutor executeur;
+    private final ScheduledExecutorService nettoyage;
+    private final int maxParUtilisateur;
+    private final long ttlMs;
+
+    private final Map<String, TacheOptimisation> taches = new ConcurrentHashMap<>();
+    /** Tâches en attente ou en cours par utilisateur */
+    private final Map<Long, Integer> actives = new HashMap<>();
+    /** Tâches comptées dans {@link #actives} et leur exécution en file */
+    private final Map<String, Future<?>> enFile = new ConcurrentHashMap<>();
+
+    GestionnaireOptimisations(int threads, int tailleFile, int maxParUtilisateur, long ttlMs) {
+        this.maxParUtilisateur = maxParUtilisateur;
+        this.ttlMs = ttlMs;
+
+        AtomicInteger numero = new AtomicInteger();
+        this.executeur = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, tailleFile)), r -> {
+                    Thread t = new Thread(r, "optimisation-" + numero.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        this.nettoyage = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "optimisations-nettoyage");
+            t.setDaemon(true);
+            return t;
+        });
+        long periode = Math.max(1_000L, Math.min(60_000L, ttlMs / 2));
+        nettoyage.scheduleWithFixedDelay(this::purger, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    public static GestionnaireOptimisations getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Soumet une optimisation.
+     *
+     * @param delaiMs durée maximale d'exécution (0 = pas de limite)
+     * @param aLaFin  appelé avec la tâche quand elle se termine normalement ;
+     *                false si le planning est périmé (voir {@link TacheOptimisation})
+     * @throws IllegalStateException      si l'utilisateur a déjà trop de tâches
+     *                                    en attente ou en cours
+     * @throws RejectedExecutionException si la file d'attente est pleine
+     */
+    public TacheOptimisation soumettre(Long idUtilisateur, List<Activite> activites,
+            ModeleScoreIncremental.ControleContraintes controle, int iterations, long delaiMs,
+            Predicate<TacheOptimisation> aLaFin) {
+        synchronized (actives) {
+            int enCours = actives.getOrDefault(idUtilisateur, 0);
+            if (enCours >= maxParUtilisateur) {
+                throw new IllegalStateException("Trop d'optimisations en cours pour l'utilisateur " + idUtilisateur
+                        + " (maximum " + maxParUtilisateur + ")");
+            }
+            actives.put(idUtilisateur, enCours + 1);
+        }
+
+        TacheOptimisation tache;
+        try {
+            tache = new TacheOptimisation(UUID.randomUUID().toString(), idUtilisateur, activites, controle,
+                    iterations, delaiMs, aLaFin);
+        } catch (RuntimeException e) {
+            decrementer(idUtilisateur);
+            throw e;
+        }
+        // Réservation avant la soumission : la tâche peut se terminer avant le retour de submit()
+        Future<?> reservation = CompletableFuture.completedFuture(null);
+        enFile.put(tache.getId(), reservation);
+        taches.put(tache.getId(), tache);
+        try {
+            Future<?> future = executeur.submit(() -> {
+                try {
+                    tache.executer();
+                } finally {
+                    liberer(tache);
+                }
+            });
+            enFile.replace(tache.getId(), reservation, future);
+        } catch (RejectedExecutionException e) {
+            taches.remove(tache.getId());
+            liberer(tache);
+            throw new RejectedExecutionException("File d'attente des optimisations pleine", e);
+        }
+        return tache;
+    }
+
+    /**
+     * Tâche par identifiant (null si inconnue ou expirée).
+     */
+    public TacheOptimisation getTache(String id) {
+        return id == null ? null : taches.get(id);
+    }
+
+    /**
+     * Annule une tâche.
+     *
+     * @return false si la tâche est inconnue ou déjà terminée
+     */
+    public boolean annuler(String id) {
+        TacheOptimisation tache = getTache(id);
+        if (tache == null || !tache.annuler()) {
+            return false;
+        }
+        // Une tâche annulée avant de démarrer libère tout de suite sa place
+        if (tache.estAnnuleeAvantDemarrage()) {
+            Future<?> future = enFile.get(tache.getId());
+            if (future instanceof Runnable) {
+                executeur.remove((Runnable) future);
+            }
+            liberer(tache);
+        }
+        return true;
+    }
+
+    public int getTachesEnAttente() {
+        return executeur.getQueue().size();
+    }
+
+    public int getTachesEnCours() {
+        return executeur.getActiveCount();
+    }
+
+    /**
+     * Rend la place occupée par la tâche (une seule fois par tâche).
+     */
+    private void liberer(TacheOptimisation tache) {
+        if (enFile.remove(tache.getId()) != null) {
+            decrementer(tache.getIdUtilisateur());
+        }
+    }
+
+    private void decrementer(Long idUtilisateur) {
+        synchronized (actives) {
+            Integer enCours = actives.get(idUtilisateur);
+            if (enCours == null || enCours <= 1) {
+                actives.remove(idUtilisateur);
+            } else {
+                actives.put(idUtilisateur, enCours - 1);
+            }
+        }
+    }
+
+    /**
+     * Oublie les tâches terminées depuis plus de ttlMs.
+     */
+    private void purger() {
+        long limite = System.currentTimeMillis() - ttlMs;
+        Iterator<TacheOptimisation> it = taches.values().iterator();
+        while (it.hasNext()) {
+            TacheOptimisation tache = it.next();
+            if (tache.getStatut().estFinal() && tache.getDateFin() < limite) {
+                it.remove();
+            }
+        }
+    }
+}
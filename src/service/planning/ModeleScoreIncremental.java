@@ -0,0 +1,421 @@
+package service.planning;
+
+import entities.TypeActivite;
+
+/**
+ * Score d'un planning maintenu de façon incrémentale pendant l'optimisation.
+ *
+ * Reproduit calculerScoreAvecConflits (score de base arrondi, -100 par
+ * chevauchement, -80 par violation de contrainte) mais ne recalcule, lors du
+ * déplacement d'une activité, que ce qui la concerne :
+ * - priorités et équilibre travail/repos ne dépendent pas des horaires (constants) ;
+ * - deadlines et horaires appropriés sont des compteurs mis à jour en O(1) ;
+ * - compacité : seuls les voisins de l'activité dans l'ordre chronologique changent ;
+ * - chevauchements : seules les activités qui commencent dans la fenêtre
+ *   [début - durée max, fin[ sont examinées (recherche dichotomique) ;
+ * - contraintes : l'activité est réévaluée contre les m contraintes, en O(m).
+ *
+ * Travaille directement sur un {@link PlanningCompact} qu'il modifie ; aucun
+ * objet n'est alloué par déplacement. Le dernier déplacement peut être annulé.
+ * Les horaires sont comparés à la minute.
+ */
+public final class ModeleScoreIncremental {
+
+    /**
+     * Nombre de contraintes violées par un créneau (minutes epoch).
+     */
+    @FunctionalInterface
+    public interface ControleContraintes {
+        int violations(long debut, long fin);
+    }
+
+    private final PlanningCompact planning;
+    private final ControleContraintes controle;
+    private final int n;
+
+    private final int[] violations;
+
+    /**
+     * Indices des activités avec horaire de début, triés par (début, indice) :
+     * même ordre que le tri stable de calculerScorePlanning.
+     */
+    private final int[] ordre;
+    private final int[] position;
+    private final int nombreOrdonnees;
+    /** Plus longue durée : borne la fenêtre des chevauchements possibles */
+    private final long dureeMax;
+
+    // Composantes constantes
+    private final double scorePriorites;
+    private final double scoreEquilibre;
+
+    // Compteurs
+    private int avecDeadline;
+    private int respectees;
+    private int bienPlacees;
+    private int compactes;
+    private int chevauchements;
+    private int violationsTotal;
+
+    // Annulation du dernier déplacement
+    private int dernierIndice = -1;
+    private long dernierDecalage;
+
+    private final long[] meilleursDebuts;
+
+    public ModeleScoreIncremental(PlanningCompact planning, ControleContraintes controle) {
+        this.planning = planning;
+        this.controle = controle;
+        this.n = planning.taille;
+        this.violations = new int[n];
+        this.ordre = new int[n];
+        this.position = new int[n];
+        this.meilleursDebuts = new long[n];
+
+        double priorites = 0;
+        double minutesTravail = 0, minutesRepos = 0;
+        long max = 0;
+        int ordonnees = 0;
+
+        for (int i = 0; i < n; i++) {
+            priorites += planning.priorite[i] * 5;
+
+            if (planning.aHoraires(i)) {
+                long duree = planning.fin[i] - planning.debut[i];
+                max = Math.max(max, duree);
+                TypeActivite type = PlanningCompact.typeDe(planning.type[i]);
+                if (type != null) {
+                    switch (type) {
+                        case Travail:
+                        case Etude:
+                        case Sport:
+                        case Loisirs:
+                            minutesTravail += duree;
+                            break;
+                        case Repos:
+                            minutesRepos += duree;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            if (planning.debut[i] != PlanningCompact.ABSENT) {
+                ordre[ordonnees++] = i;
+            }
+        }
+
+        this.scorePriorites = Math.min(200, priorites);
+        this.scoreEquilibre = scoreEquilibre(minutesTravail / 60.0, minutesRepos / 60.0);
+        this.dureeMax = max;
+        this.nombreOrdonnees = ordonnees;
+
+        recalculer();
+        memoriserMeilleur();
+    }
+
+    /**
+     * Recalcule l'ordre chronologique et tous les compteurs à partir du planning.
+     */
+    private void recalculer() {
+        // Tri par insertion : le planning est en général déjà presque trié
+        for (int k = 0; k < nombreOrdonnees; k++) {
+            position[ordre[k]] = k;
+            remonter(k);
+        }
+
+        avecDeadline = 0;
+        respectees = 0;
+        bienPlacees = 0;
+        violationsTotal = 0;
+        for (int i = 0; i < n; i++) {
+            ajouterContributions(i);
+        }
+        // Chaque paire qui se chevauche est vue depuis ses deux activités
+        chevauchements = 0;
+        for (int i = 0; i < n; i++) {
+            if (planning.aHoraires(i)) {
+                chevauchements += compterChevauchements(i);
+            }
+        }
+        chevauchements /= 2;
+        compactes = 0;
+        for (int k = 0; k + 1 < nombreOrdonnees; k++) {
+            compactes += estCompacte(ordre[k], ordre[k + 1]);
+        }
+        dernierIndice = -1;
+    }
+
+    // ========== SCORE ==========
+
+    /**
+     * Score courant, identique à calculerScoreAvecConflits.
+     */
+    public double getScore() {
+        double score = 0;
+        score += scorePriorites;
+
+        if (avecDeadline > 0) {
+            double tauxRespect = (double) respectees / avecDeadline;
+            score += tauxRespect * 100;
+        } else {
+            score += 50;
+        }
+
+        score += scoreEquilibre;
+
+        if (n > 0) {
+            double pourcentageBienPlacees = (double) bienPlacees / n;
+            score += pourcentageBienPlacees * 50;
+        }
+
+        if (n >= 2) {
+            double pourcentageCompact = (double) compactes / (n - 1);
+            score += pourcentageCompact * 50;
+        }
+
+        return Math.round(score * 100.0) / 100.0 - 100 * chevauchements - 80 * violationsTotal;
+    }
+
+    public int getChevauchements() {
+        return chevauchements;
+    }
+
+    public int getViolations() {
+        return violationsTotal;
+    }
+
+    /**
+     * Même résultat que planningValide : aucun chevauchement ni violation.
+     */
+    public boolean estValide() {
+        return chevauchements == 0 && violationsTotal == 0;
+    }
+
+    public int taille() {
+        return n;
+    }
+
+    public PlanningCompact getPlanning() {
+        return planning;
+    }
+
+    // ========== DÉPLACEMENTS ==========
+
+    /**
+     * Règle de muterPlanning : l'activité a des horaires et, décalée, commence
+     * à 6h ou plus tard et se termine au plus tard à 23h.
+     */
+    public boolean estDeplacable(int i, int decalageMinutes) {
+        if (!planning.aHoraires(i)) {
+            return false;
+        }
+        return PlanningCompact.heure(planning.debut[i] + decalageMinutes) >= 6
+                && PlanningCompact.heure(planning.fin[i] + decalageMinutes) <= 23;
+    }
+
+    /**
+     * Décale l'activité i (durée conservée) et retourne la variation du score.
+     */
+    public double deplacer(int i, int decalageMinutes) {
+        double avant = getScore();
+        dernierIndice = i;
+        dernierDecalage = decalageMinutes;
+        decaler(i, decalageMinutes);
+        return getScore() - avant;
+    }
+
+    /**
+     * Annule le dernier déplacement (sans effet s'il n'y en a pas).
+     */
+    public void annuler() {
+        if (dernierIndice < 0) {
+            return;
+        }
+        int i = dernierIndice;
+        dernierIndice = -1;
+        decaler(i, -dernierDecalage);
+    }
+
+    private void decaler(int i, long decalage) {
+        retirerContributions(i);
+        int k = position[i];
+        int p = k > 0 ? ordre[k - 1] : -1;
+        int s = k + 1 < nombreOrdonnees ? ordre[k + 1] : -1;
+        compactes += estCompacte(p, s) - estCompacte(p, i) - estCompacte(i, s);
+        chevauchements -= compterChevauchements(i);
+
+        planning.decaler(i, decalage);
+        k = decalage < 0 ? remonter(k) : descendre(k);
+
+        chevauchements += compterChevauchements(i);
+        p = k > 0 ? ordre[k - 1] : -1;
+        s = k + 1 < nombreOrdonnees ? ordre[k + 1] : -1;
+        compactes += estCompacte(p, i) + estCompacte(i, s) - estCompacte(p, s);
+        ajouterContributions(i);
+    }
+
+    private void ajouterContributions(int i) {
+        long fin = planning.fin[i];
+        if (planning.deadline[i] != PlanningCompact.ABSENT && fin != PlanningCompact.ABSENT) {
+            avecDeadline++;
+            if (fin <= planning.deadline[i]) {
+                respectees++;
+            }
+        }
+        if (estBienPlacee(i)) {
+            bienPlacees++;
+        }
+        violations[i] = planning.aHoraires(i) ? controle.violations(planning.debut[i], fin) : 0;
+        violationsTotal += violations[i];
+    }
+
+    private void retirerContributions(int i) {
+        long fin = planning.fin[i];
+        if (planning.deadline[i] != PlanningCompact.ABSENT && fin != PlanningCompact.ABSENT) {
+            avecDeadline--;
+            if (fin <= planning.deadline[i]) {
+                respectees--;
+            }
+        }
+        if (estBienPlacee(i)) {
+            bienPlacees--;
+        }
+        violationsTotal -= violations[i];
+        violations[i] = 0;
+    }
+
+    private boolean estBienPlacee(int i) {
+        if (planning.debut[i] == PlanningCompact.ABSENT) {
+            return false;
+        }
+        int heure = PlanningCompact.heure(planning.debut[i]);
+        return heure >= 7 && heure < 22;
+    }
+
+    /**
+     * Activités (autres que i) qui chevauchent i : a.debut < b.fin et a.fin > b.debut.
+     */
+    private int compterChevauchements(int i) {
+        long debut = planning.debut[i];
+        long fin = planning.fin[i];
+        int total = 0;
+        for (int k = premierePositionApres(debut - dureeMax); k < nombreOrdonnees; k++) {
+            int j = ordre[k];
+            if (planning.debut[j] >= fin) {
+                break;
+            }
+            if (j != i && planning.fin[j] != PlanningCompact.ABSENT && planning.fin[j] > debut) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Première position de l'ordre dont le début est >= borne.
+     */
+    private int premierePositionApres(long borne) {
+        int bas = 0, haut = nombreOrdonnees;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (planning.debut[ordre[milieu]] < borne) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+
+    /**
+     * 1 si l'écart entre deux activités consécutives est compris entre 0 et 2h.
+     */
+    private int estCompacte(int actuelle, int suivante) {
+        if (actuelle < 0 || suivante < 0 || planning.fin[actuelle] == PlanningCompact.ABSENT) {
+            return 0;
+        }
+        long ecartMinutes = planning.debut[suivante] - planning.fin[actuelle];
+        return ecartMinutes >= 0 && ecartMinutes <= 120 ? 1 : 0;
+    }
+
+    // ========== ORDRE CHRONOLOGIQUE ==========
+
+    private int remonter(int k) {
+        int i = ordre[k];
+        while (k > 0 && avant(i, ordre[k - 1])) {
+            ordre[k] = ordre[k - 1];
+            position[ordre[k]] = k;
+            k--;
+        }
+        ordre[k] = i;
+        position[i] = k;
+        return k;
+    }
+
+    private int descendre(int k) {
+        int i = ordre[k];
+        while (k + 1 < nombreOrdonnees && avant(ordre[k + 1], i)) {
+            ordre[k] = ordre[k + 1];
+            position[ordre[k]] = k;
+            k++;
+        }
+        ordre[k] = i;
+        position[i] = k;
+        return k;
+    }
+
+    private boolean avant(int a, int b) {
+        long da = planning.debut[a], db = planning.debut[b];
+        return da < db || (da == db && a < b);
+    }
+
+    // ========== RÉSULTAT ==========
+
+    /**
+     * Retient l'état courant comme meilleur planning.
+     */
+    public void memoriserMeilleur() {
+        planning.copierDebuts(meilleursDebuts);
+    }
+
+    /**
+     * Remplace l'état courant par un état copié par {@link PlanningCompact#copierDebuts(long[])}
+     * (même planning d'origine), en O(n log n + n·m).
+     */
+    public void charger(long[] debuts) {
+        for (int i = 0; i < n; i++) {
+            if (planning.debut[i] != PlanningCompact.ABSENT) {
+                planning.decaler(i, debuts[i] - planning.debut[i]);
+            }
+        }
+        recalculer();
+    }
+
+    /**
+     * Débuts du meilleur état retenu, à passer à {@link PlanningCompact#versActivites(long[])}.
+     */
+    public long[] getMeilleursDebuts() {
+        return meilleursDebuts;
+    }
+
+    // ========== UTILITAIRES ==========
+
+    private static double scoreEquilibre(double heuresTravail, double heuresRepos) {
+        if (heuresRepos > 0) {
+            double ratio = heuresTravail / heuresRepos;
+
+            if (ratio >= 2.0 && ratio <= 3.0) {
+                return 100;
+            } else if (ratio >= 1.5 && ratio <= 4.0) {
+                return 75;
+            } else if (ratio >= 1.0 && ratio <= 6.0) {
+                return 50;
+            }
+            return 20;
+        } else if (heuresTravail > 0) {
+            return 0;
+        }
+        return 50;
+    }
+}
@@ -0,0 +1,306 @@
+package service.planning;
+
+import entities.Activite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Optimisation parallèle d'un planning : plusieurs chaînes de recuit exécutées
+ * sur un ForkJoinPool dimensionné au nombre de cœurs.
+ *
+ * Deux modes :
+ * - MULTI_DEPARTS : N chaînes indépendantes (température initiale 1000,
+ *   refroidissement 0.995) ; à chaque époque la chaîne la moins bonne repart
+ *   de la meilleure solution trouvée ;
+ * - TEMPERING : N répliques à températures fixes étagées de 1000 à 1 ;
+ *   à chaque époque, les répliques voisines échangent leurs températures
+ *   selon le critère de Metropolis (parallel tempering).
+ *
+ * Les chaînes avancent par époques de {@link #ITERATIONS_PAR_EPOQUE}
+ * itérations, séparées par une barrière où ont lieu les échanges. Chaque
+ * chaîne a son propre SplittableRandom dérivé de la graine : pour une graine
+ * et un nombre de chaînes donnés, le résultat est reproductible tant que le
+ * budget de temps n'interrompt pas le calcul (il n'est vérifié qu'entre deux époques).
+ */
+public class OptimiseurParallele {
+
+    public static final int ITERATIONS_PAR_EPOQUE = 200;
+    public static final int CHAINES_MAX = 64;
+
+    private static final double TEMPERATURE_MAX = 1000.0;
+    private static final double TEMPERATURE_MIN = 1.0;
+    private static final double REFROIDISSEMENT = 0.995;
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    public enum Mode {
+        MULTI_DEPARTS, TEMPERING;
+
+        /**
+         * Accepte aussi les libellés « multistart » et « tempering » (insensible à la casse).
+         */
+        public static Mode depuis(String libelle) {
+            if (libelle == null) {
+                return MULTI_DEPARTS;
+            }
+            switch (libelle.trim().toLowerCase()) {
+                case "tempering":
+                case "parallel_tempering":
+                    return TEMPERING;
+                case "multistart":
+                case "multi_departs":
+                    return MULTI_DEPARTS;
+                default:
+                    throw new IllegalArgumentException("Mode d'optimisation inconnu: " + libelle);
+            }
+        }
+    }
+
+    /**
+     * Paramètres d'une optimisation parallèle.
+     */
+    public static class Parametres {
+        private final int chaines;
+        private final long graine;
+        private final long budgetMs;
+        private final int iterations;
+        private final Mode mode;
+
+        /**
+         * @param chaines    nombre de chaînes (borné à {@link #CHAINES_MAX})
+         * @param graine     graine des générateurs
+         * @param budgetMs   durée maximale (0 = pas de limite)
+         * @param iterations itérations par chaîne
+         * @param mode       mode d'optimisation
+         */
+        public Parametres(int chaines, long graine, long budgetMs, int iterations, Mode mode) {
+            this.chaines = Math.max(1, Math.min(CHAINES_MAX, chaines));
+            this.graine = graine;
+            this.budgetMs = Math.max(0, budgetMs);
+            this.iterations = Math.max(0, iterations);
+            this.mode = mode != null ? mode : Mode.MULTI_DEPARTS;
+        }
+
+        public int getChaines() {
+            return chaines;
+        }
+
+        public long getGraine() {
+            return graine;
+        }
+
+        public long getBudgetMs() {
+            return budgetMs;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public Mode getMode() {
+            return mode;
+        }
+    }
+
+    /**
+     * Meilleur planning trouvé et statistiques du calcul.
+     */
+    public static class Resultat {
+        private final List<Activite> activites;
+        private final double score;
+        private final boolean valide;
+        private final long iterations;
+        private final int epoques;
+        private final int echanges;
+        private final boolean budgetAtteint;
+        private final long dureeMs;
+
+        Resultat(List<Activite> activites, double score, boolean valide, long iterations, int epoques,
+                int echanges, boolean budgetAtteint, long dureeMs) {
+            this.activites = activites;
+            this.score = score;
+            this.valide = valide;
+            this.iterations = iterations;
+            this.epoques = epoques;
+            this.echanges = echanges;
+            this.budgetAtteint = budgetAtteint;
+            this.dureeMs = dureeMs;
+        }
+
+        public List<Activite> getActivites() {
+            return activites;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public boolean isValide() {
+            return valide;
+        }
+
+        /** Itérations effectuées, toutes chaînes confondues */
+        public long getIterations() {
+            return iterations;
+        }
+
+        public int getEpoques() {
+            return epoques;
+        }
+
+        /** Redémarrages (multi-départs) ou échanges de températures acceptés (tempering) */
+        public int getEchanges() {
+            return echanges;
+        }
+
+        public boolean isBudgetAtteint() {
+            return budgetAtteint;
+        }
+
+        public long getDureeMs() {
+            return dureeMs;
+        }
+    }
+
+    private final ModeleScoreIncremental.ControleContraintes controle;
+
+    /**
+     * @param controle contrôle des contraintes, appelé en parallèle par les chaînes
+     */
+    public OptimiseurParallele(ModeleScoreIncremental.ControleContraintes controle) {
+        this.controle = controle;
+    }
+
+    public Resultat optimiser(List<Activite> activites, Parametres parametres) {
+        long debut = System.nanoTime();
+        long echeance = parametres.budgetMs > 0 ? debut + parametres.budgetMs * 1_000_000L : Long.MAX_VALUE;
+
+        SplittableRandom maitre = new SplittableRandom(parametres.graine);
+        int n = parametres.chaines;
+        List<ChaineRecuit> chaines = new ArrayList<>(n);
+        for (int c = 0; c < n; c++) {
+            ModeleScoreIncremental modele = new ModeleScoreIncremental(PlanningCompact.depuis(activites), controle);
+            double temperature = parametres.mode == Mode.TEMPERING ? temperatureEchelon(c, n) : TEMPERATURE_MAX;
+            double refroidissement = parametres.mode == Mode.TEMPERING ? 1.0 : REFROIDISSEMENT;
+            chaines.add(new ChaineRecuit(modele, maitre.split(), temperature, refroidissement));
+        }
+
+        int epoques = 0;
+        int echanges = 0;
+        boolean budgetAtteint = false;
+        int restantes = parametres.iterations;
+        while (restantes > 0) {
+            if (System.nanoTime() >= echeance) {
+                budgetAtteint = true;
+                break;
+            }
+            int iterationsEpoque = Math.min(ITERATIONS_PAR_EPOQUE, restantes);
+            executerEpoque(chaines, iterationsEpoque);
+            restantes -= iterationsEpoque;
+            epoques++;
+
+            if (restantes > 0) {
+                echanges += parametres.mode == Mode.TEMPERING
+                        ? echangerTemperatures(chaines, maitre)
+                        : redemarrerMoinsBonne(chaines);
+            }
+        }
+
+        ChaineRecuit meilleure = meilleure(chaines);
+        ModeleScoreIncremental modele = meilleure.getModele();
+        List<Activite> resultat = modele.getPlanning().versActivites(modele.getMeilleursDebuts());
+        modele.charger(modele.getMeilleursDebuts());
+
+        long iterations = 0;
+        for (ChaineRecuit chaine : chaines) {
+            iterations += chaine.getIterations();
+        }
+        return new Resultat(resultat, meilleure.getMeilleurScore(), modele.estValide(), iterations, epoques,
+                echanges, budgetAtteint, (System.nanoTime() - debut) / 1_000_000);
+    }
+
+    private static void executerEpoque(List<ChaineRecuit> chaines, int iterations) {
+        if (chaines.size() == 1) {
+            chaines.get(0).executer(iterations);
+            return;
+        }
+        List<ForkJoinTask<?>> taches = new ArrayList<>(chaines.size());
+        for (ChaineRecuit chaine : chaines) {
+            taches.add(POOL.submit(() -> chaine.executer(iterations)));
+        }
+        for (ForkJoinTask<?> tache : taches) {
+            tache.join();
+        }
+    }
+
+    /**
+     * Multi-départs : la chaîne dont l'état courant est le moins bon repart
+     * du meilleur état trouvé par une autre chaîne.
+     */
+    private static int redemarrerMoinsBonne(List<ChaineRecuit> chaines) {
+        if (chaines.size() < 2) {
+            return 0;
+        }
+        ChaineRecuit meilleure = meilleure(chaines);
+        ChaineRecuit moinsBonne = null;
+        for (ChaineRecuit chaine : chaines) {
+            if (chaine != meilleure && (moinsBonne == null || chaine.getScoreCourant() < moinsBonne.getScoreCourant())) {
+                moinsBonne = chaine;
+            }
+        }
+        if (moinsBonne.getScoreCourant() >= meilleure.getMeilleurScore()) {
+            return 0;
+        }
+        moinsBonne.adopter(meilleure.getModele().getMeilleursDebuts());
+        return 1;
+    }
+
+    /**
+     * Tempering : échange des températures entre répliques d'échelons voisins,
+     * accepté avec la probabilité min(1, exp((Sb - Sa)(1/Ta - 1/Tb))).
+     */
+    private static int echangerTemperatures(List<ChaineRecuit> chaines, SplittableRandom random) {
+        List<ChaineRecuit> parTemperature = new ArrayList<>(chaines);
+        parTemperature.sort((a, b) -> Double.compare(b.getTemperature(), a.getTemperature()));
+        int acceptes = 0;
+        for (int k = 0; k + 1 < parTemperature.size(); k++) {
+            ChaineRecuit chaude = parTemperature.get(k);
+            ChaineRecuit froide = parTemperature.get(k + 1);
+            double exposant = (chaude.getScoreCourant() - froide.getScoreCourant())
+                    * (1.0 / froide.getTemperature() - 1.0 / chaude.getTemperature());
+            if (exposant >= 0 || random.nextDouble() < Math.exp(exposant)) {
+                double t = chaude.getTemperature();
+                chaude.setTemperature(froide.getTemperature());
+                froide.setTemperature(t);
+                parTemperature.set(k, froide);
+                parTemperature.set(k + 1, chaude);
+                acceptes++;
+            }
+        }
+        return acceptes;
+    }
+
+    private static ChaineRecuit meilleure(List<ChaineRecuit> chaines) {
+        ChaineRecuit meilleure = chaines.get(0);
+        for (ChaineRecuit chaine : chaines) {
+            if (chaine.getMeilleurScore() > meilleure.getMeilleurScore()) {
+                meilleure = chaine;
+            }
+        }
+        return meilleure;
+    }
+
+    /**
+     * Températures en progression géométrique de TEMPERATURE_MAX (échelon 0) à TEMPERATURE_MIN.
+     */
+    private static double temperatureEchelon(int echelon, int echelons) {
+        if (echelons == 1) {
+            return TEMPERATURE_MAX;
+        }
+        return TEMPERATURE_MAX * Math.pow(TEMPERATURE_MIN / TEMPERATURE_MAX, (double) echelon / (echelons - 1));
+    }
+}
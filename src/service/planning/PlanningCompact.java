@@ -0,0 +1,172 @@
+package service.planning;
+
+import entities.Activite;
+import entities.TypeActivite;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Représentation compacte d'un planning pour l'optimiseur (un tableau par champ).
+ *
+ * Les horaires sont des minutes depuis l'epoch (dates locales lues comme UTC),
+ * les types des codes d'octet et les priorités des entiers : la boucle
+ * d'optimisation ne manipule ni LocalDateTime, ni Integer, ni Duration.
+ *
+ * Construit une fois à l'entrée depuis les activités ; les activités résultat
+ * sont recréées une fois à la sortie en appliquant à chaque horaire d'origine
+ * le décalage en minutes (secondes et nanosecondes d'origine conservées).
+ */
+public final class PlanningCompact {
+
+    /** Horaire ou deadline absent */
+    public static final long ABSENT = Long.MIN_VALUE;
+    /** Type d'activité absent */
+    public static final byte SANS_TYPE = -1;
+
+    public static final int MINUTES_PAR_JOUR = 1440;
+
+    private static final TypeActivite[] TYPES = TypeActivite.values();
+
+    private final List<Activite> originales;
+    final int taille;
+    final long[] debut;
+    final long[] fin;
+    final long[] deadline;
+    final byte[] type;
+    final int[] priorite;
+    private final long[] debutInitial;
+
+    private PlanningCompact(List<Activite> originales) {
+        this.originales = originales;
+        this.taille = originales.size();
+        this.debut = new long[taille];
+        this.fin = new long[taille];
+        this.deadline = new long[taille];
+        this.type = new byte[taille];
+        this.priorite = new int[taille];
+        this.debutInitial = new long[taille];
+    }
+
+    /**
+     * Encode les activités (la liste n'est pas modifiée et doit rester inchangée
+     * jusqu'à la reconversion).
+     */
+    public static PlanningCompact depuis(List<Activite> activites) {
+        PlanningCompact p = new PlanningCompact(activites);
+        for (int i = 0; i < p.taille; i++) {
+            Activite a = activites.get(i);
+            p.debut[i] = minutes(a.getHoraireDebut());
+            p.fin[i] = minutes(a.getHoraireFin());
+            p.deadline[i] = minutes(a.getDeadline());
+            p.type[i] = a.getTypeActivite() != null ? (byte) a.getTypeActivite().ordinal() : SANS_TYPE;
+            p.priorite[i] = a.getPriorite() != null ? a.getPriorite() : 0;
+            p.debutInitial[i] = p.debut[i];
+        }
+        return p;
+    }
+
+    public int taille() {
+        return taille;
+    }
+
+    public long getDebut(int i) {
+        return debut[i];
+    }
+
+    public long getFin(int i) {
+        return fin[i];
+    }
+
+    public boolean aHoraires(int i) {
+        return debut[i] != ABSENT && fin[i] != ABSENT;
+    }
+
+    static TypeActivite typeDe(byte code) {
+        return code == SANS_TYPE ? null : TYPES[code];
+    }
+
+    /**
+     * Décale l'activité i de {@code minutes} en conservant sa durée.
+     */
+    void decaler(int i, long minutes) {
+        debut[i] += minutes;
+        fin[i] += minutes;
+    }
+
+    /**
+     * Copie les débuts courants dans {@code destination} (taille au moins égale).
+     */
+    public void copierDebuts(long[] destination) {
+        System.arraycopy(debut, 0, destination, 0, taille);
+    }
+
+    // ========== RECONVERSION ==========
+
+    /**
+     * Activités dans l'état courant du planning.
+     */
+    public List<Activite> versActivites() {
+        return versActivites(debut);
+    }
+
+    /**
+     * Activités dont les débuts sont ceux d'un état copié par {@link #copierDebuts(long[])}.
+     */
+    public List<Activite> versActivites(long[] debuts) {
+        List<Activite> resultat = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            Activite a = originales.get(i);
+            long decalage = debuts[i] == ABSENT ? 0 : debuts[i] - debutInitial[i];
+            Activite clone = new Activite();
+            clone.setIdActivite(a.getIdActivite());
+            clone.setTitre(a.getTitre());
+            clone.setTypeActivite(a.getTypeActivite());
+            clone.setPriorite(a.getPriorite());
+            clone.setHoraireDebut(a.getHoraireDebut() != null ? a.getHoraireDebut().plusMinutes(decalage) : null);
+            clone.setHoraireFin(a.getHoraireFin() != null ? a.getHoraireFin().plusMinutes(decalage) : null);
+            clone.setDeadline(a.getDeadline());
+            clone.setDescription(a.getDescription());
+            clone.setIdUtilisateur(a.getIdUtilisateur());
+            resultat.add(clone);
+        }
+        return resultat;
+    }
+
+    // ========== CALENDRIER EN MINUTES ==========
+
+    /**
+     * Minutes epoch (secondes tronquées), ou {@link #ABSENT}.
+     */
+    public static long minutes(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return ABSENT;
+        }
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    public static LocalDateTime dateTime(long minutes) {
+        return LocalDateTime.ofEpochSecond(minutes * 60, 0, ZoneOffset.UTC);
+    }
+
+    public static long jourEpoch(long minutes) {
+        return Math.floorDiv(minutes, MINUTES_PAR_JOUR);
+    }
+
+    public static int minuteDuJour(long minutes) {
+        return Math.floorMod(minutes, MINUTES_PAR_JOUR);
+    }
+
+    public static int heure(long minutes) {
+        return minuteDuJour(minutes) / 60;
+    }
+
+    /**
+     * Jour de la semaine, 0 = lundi ... 6 = dimanche (le 1er janvier 1970 était un jeudi).
+     */
+    public static int jourSemaine(long minutes) {
+        return Math.floorMod(jourEpoch(minutes) + 3, 7);
+    }
+}
@@ -0,0 +1,256 @@
+package service.planning;
+
+import entities.Activite;
+import util.Journal;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+/**
+ * Optimisation exécutée en tâche de fond (voir {@link GestionnaireOptimisations}).
+ *
+ * La chaîne de recuit avance par blocs de {@link #ITERATIONS_PAR_BLOC}
+ * itérations ; entre deux blocs la progression est publiée et l'annulation
+ * ou l'échéance sont vérifiées. À tout moment le meilleur planning trouvé
+ * reste disponible : une tâche arrêtée par son échéance se termine
+ * normalement avec ce planning (optimisation « anytime »).
+ */
+public class TacheOptimisation {
+
+    public static final int ITERATIONS_PAR_BLOC = 100;
+
+    private static final Journal journal = Journal.pour(TacheOptimisation.class);
+
+    public enum Statut {
+        EN_ATTENTE, EN_COURS, TERMINEE, PERIMEE, ANNULEE, ECHOUEE;
+
+        public boolean estFinal() {
+            return this == TERMINEE || this == PERIMEE || this == ANNULEE || this == ECHOUEE;
+        }
+    }
+
+    private final String id;
+    private final Long idUtilisateur;
+    private final int iterations;
+    private final long delaiMs;
+    private final long dateSoumission = System.currentTimeMillis();
+
+    private final PlanningCompact planning;
+    private final ChaineRecuit chaine;
+    private final Predicate<TacheOptimisation> aLaFin;
+    private final double scoreInitial;
+
+    private Statut statut = Statut.EN_ATTENTE;
+    private volatile boolean annulationDemandee;
+    private long dateDebut;
+    private long dateFin;
+    private volatile boolean echeanceAtteinte;
+    private String message;
+    private List<Activite> resultat;
+
+    // Progression publiée entre deux blocs
+    private volatile long iteration;
+    private volatile double meilleurScore;
+    private volatile double scoreCourant;
+    private volatile double temperature;
+    private volatile double tauxAcceptation;
+    private volatile boolean valide;
+
+    /**
+     * @param aLaFin appelé dans le thread de la tâche quand elle se termine
+     *               normalement (pas en cas d'annulation ni d'erreur) ; false
+     *               si le planning n'a pas été enregistré parce que les
+     *               activités ont changé entre-temps (tâche PERIMEE)
+     */
+    TacheOptimisation(String id, Long idUtilisateur, List<Activite> activites,
+            ModeleScoreIncremental.ControleContraintes controle, int iterations, long delaiMs,
+            Predicate<TacheOptimisation> aLaFin) {
+        this.id = id;
+        this.idUtilisateur = idUtilisateur;
+        this.iterations = iterations;
+        this.delaiMs = delaiMs;
+        this.aLaFin = aLaFin;
+        this.planning = PlanningCompact.depuis(activites);
+        this.chaine = new ChaineRecuit(new ModeleScoreIncremental(planning, controle), new SplittableRandom(),
+                1000.0, 0.995);
+        this.scoreInitial = chaine.getMeilleurScore();
+        publierProgression();
+    }
+
+    // ========== EXÉCUTION ==========
+
+    void executer() {
+        synchronized (this) {
+            if (statut != Statut.EN_ATTENTE) {
+                return; // annulée avant de démarrer
+            }
+            statut = Statut.EN_COURS;
+            dateDebut = System.currentTimeMillis();
+        }
+
+        try {
+            long echeance = delaiMs > 0 ? System.nanoTime() + delaiMs * 1_000_000L : Long.MAX_VALUE;
+            int restantes = iterations;
+            while (restantes > 0 && !annulationDemandee) {
+                if (System.nanoTime() >= echeance) {
+                    echeanceAtteinte = true;
+                    break;
+                }
+                int bloc = Math.min(ITERATIONS_PAR_BLOC, restantes);
+                chaine.executer(bloc);
+                restantes -= bloc;
+                publierProgression();
+            }
+
+            // La progression finale décrit le meilleur planning (et non l'état courant de la chaîne)
+            ModeleScoreIncremental modele = chaine.getModele();
+            modele.charger(modele.getMeilleursDebuts());
+            publierProgression();
+            List<Activite> meilleur = planning.versActivites(modele.getMeilleursDebuts());
+            synchronized (this) {
+                resultat = meilleur;
+            }
+            if (annulationDemandee) {
+                terminer(Statut.ANNULEE, "Optimisation annulée");
+                return;
+            }
+            if (aLaFin != null && !aLaFin.test(this)) {
+                terminer(Statut.PERIMEE, "Activités modifiées pendant l'optimisation : planning non enregistré");
+                return;
+            }
+            terminer(Statut.TERMINEE, echeanceAtteinte ? "Échéance atteinte" : null);
+        } catch (RuntimeException e) {
+            journal.erreur("Erreur lors de l'optimisation " + id, e);
+            terminer(Statut.ECHOUEE, e.getMessage());
+        }
+    }
+
+    private void publierProgression() {
+        iteration = chaine.getIterations();
+        meilleurScore = chaine.getMeilleurScore();
+        scoreCourant = chaine.getScoreCourant();
+        temperature = chaine.getTemperature();
+        tauxAcceptation = iteration > 0 ? (double) chaine.getAcceptations() / iteration : 0;
+        valide = chaine.getModele().estValide();
+    }
+
+    private synchronized void terminer(Statut statutFinal, String message) {
+        statut = statutFinal;
+        this.message = message;
+        dateFin = System.currentTimeMillis();
+    }
+
+    /**
+     * Demande l'annulation : immédiate si la tâche n'a pas démarré, sinon au
+     * prochain bloc d'itérations.
+     *
+     * @return false si la tâche était déjà terminée
+     */
+    synchronized boolean annuler() {
+        if (statut.estFinal()) {
+            return false;
+        }
+        annulationDemandee = true;
+        if (statut == Statut.EN_ATTENTE) {
+            terminer(Statut.ANNULEE, "Optimisation annulée avant démarrage");
+        }
+        return true;
+    }
+
+    /**
+     * Vrai si la tâche a été annulée avant d'avoir démarré.
+     */
+    synchronized boolean estAnnuleeAvantDemarrage() {
+        return statut == Statut.ANNULEE && dateDebut == 0;
+    }
+
+    // ========== CONSULTATION ==========
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getIdUtilisateur() {
+        return idUtilisateur;
+    }
+
+    public synchronized Statut getStatut() {
+        return statut;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getDelaiMs() {
+        return delaiMs;
+    }
+
+    public long getDateSoumission() {
+        return dateSoumission;
+    }
+
+    /**
+     * Durée d'exécution en ms (0 si la tâche n'a pas démarré).
+     */
+    public synchronized long getDureeMs() {
+        if (dateDebut == 0) {
+            return 0;
+        }
+        return (dateFin != 0 ? dateFin : System.currentTimeMillis()) - dateDebut;
+    }
+
+    /**
+     * Date de fin (0 si la tâche n'est pas terminée).
+     */
+    public synchronized long getDateFin() {
+        return dateFin;
+    }
+
+    public boolean isEcheanceAtteinte() {
+        return echeanceAtteinte;
+    }
+
+    public synchronized String getMessage() {
+        return message;
+    }
+
+    /**
+     * Meilleur planning trouvé, disponible une fois la tâche terminée ou annulée.
+     */
+    public synchronized List<Activite> getResultat() {
+        return resultat;
+    }
+
+    public double getScoreInitial() {
+        return scoreInitial;
+    }
+
+    public long getIteration() {
+        return iteration;
+    }
+
+    public double getMeilleurScore() {
+        return meilleurScore;
+    }
+
+    public double getScoreCourant() {
+        return scoreCourant;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public double getTauxAcceptation() {
+        return tauxAcceptation;
+    }
+
+    /**
+     * Validité de l'état courant de la chaîne (du meilleur planning une fois terminée).
+     */
+    public boolean isValide() {
+        return valide;
+    }
+}
@@ -0,0 +1,297 @@
+package service.statistiques;
+
+import dao.impl.ActiviteDAOImpl;
+import dao.impl.StatistiqueHebdoDAOImpl;
+import dao.impl.UtilisateurDAOImpl;
+import dao.interfaces.ActiviteDAO;
+import dao.interfaces.StatistiqueHebdoDAO;
+import dao.interfaces.UtilisateurDAOinterface;
+import entities.Activite;
+import entities.StatistiqueHebdo;
+import entities.TypeActivite;
+import entities.Utilisateur;
+import util.Journal;
+import util.Metriques;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrégats hebdomadaires des activités, matérialisés dans la table statistique_hebdo.
+ *
+ * - Chaque écriture d'activité marque sa semaine (avant et après modification)
+ * - Les semaines marquées sont recalculées en arrière-plan (une lecture des
+ *   activités de la semaine), et avant toute lecture des agrégats de l'utilisateur
+ * - Reconstruction complète périodique, filet de sécurité pour les écritures
+ *   faites hors de l'application ; un utilisateur pas encore reconstruit depuis
+ *   le démarrage l'est à sa première lecture
+ *
+ * Une tendance sur N semaines lit ainsi N lignes au plus. Les semaines sont
+ * les semaines ISO (lundi-dimanche), avec les règles de {@link SyntheseActivites}.
+ *
+ * Réglages : planner.stats.hebdo.flushMs et planner.stats.hebdo.reconstructionMs.
+ */
+public final class AgregatsHebdomadaires {
+
+    private static final Journal journal = Journal.pour(AgregatsHebdomadaires.class);
+    private static final TypeActivite[] TYPES = TypeActivite.values();
+
+    private static final AgregatsHebdomadaires INSTANCE = new AgregatsHebdomadaires(
+            Metriques.instrumenter(ActiviteDAO.class, new ActiviteDAOImpl()),
+            Metriques.instrumenter(StatistiqueHebdoDAO.class, new StatistiqueHebdoDAOImpl()),
+            Metriques.instrumenter(UtilisateurDAOinterface.class, new UtilisateurDAOImpl()),
+            Long.getLong("planner.stats.hebdo.flushMs", 5_000L),
+            Long.getLong("planner.stats.hebdo.reconstructionMs", 21_600_000L));
+
+    private final ActiviteDAO activiteDAO;
+    private final StatistiqueHebdoDAO statistiqueHebdoDAO;
+    private final UtilisateurDAOinterface utilisateurDAO;
+
+    /** Semaines (lundis) à recalculer par utilisateur ; les ensembles ne sont modifiés que dans compute() */
+    private final Map<Long, Set<LocalDate>> aRecalculer = new ConcurrentHashMap<>();
+    private final Set<Long> reconstruits = ConcurrentHashMap.newKeySet();
+    /** Un recalcul à la fois par utilisateur : une reconstruction lue plus tôt n'écrase pas une semaine plus récente */
+    private final Map<Long, Object> verrous = new ConcurrentHashMap<>();
+
+    private long semainesRecalculees;
+    private long reconstructions;
+
+    AgregatsHebdomadaires(ActiviteDAO activiteDAO, StatistiqueHebdoDAO statistiqueHebdoDAO,
+            UtilisateurDAOinterface utilisateurDAO, long flushMs, long reconstructionMs) {
+        this.activiteDAO = activiteDAO;
+        this.statistiqueHebdoDAO = statistiqueHebdoDAO;
+        this.utilisateurDAO = utilisateurDAO;
+
+        ScheduledExecutorService planificateur = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "statistiques-hebdo");
+            t.setDaemon(true);
+            return t;
+        });
+        long periodeFlush = Math.max(100L, flushMs);
+        long periodeReconstruction = Math.max(60_000L, reconstructionMs);
+        planificateur.scheduleWithFixedDelay(() -> executer(this::recalculerEnAttente), periodeFlush, periodeFlush,
+                TimeUnit.MILLISECONDS);
+        planificateur.scheduleWithFixedDelay(() -> executer(this::reconstruireTout), periodeReconstruction,
+                periodeReconstruction, TimeUnit.MILLISECONDS);
+    }
+
+    public static AgregatsHebdomadaires getInstance() {
+        return INSTANCE;
+    }
+
+    // ========== ÉCRITURES D'ACTIVITÉS ==========
+
+    /**
+     * À appeler après une écriture réussie en base.
+     *
+     * @param avant état précédent (null pour une création)
+     * @param apres nouvel état (null pour une suppression)
+     */
+    public void activiteEcrite(Activite avant, Activite apres) {
+        marquer(avant);
+        marquer(apres);
+    }
+
+    private void marquer(Activite activite) {
+        if (activite == null || activite.getIdUtilisateur() == null || activite.getHoraireDebut() == null) {
+            return;
+        }
+        marquer(activite.getIdUtilisateur(), lundi(activite.getHoraireDebut().toLocalDate()));
+    }
+
+    private void marquer(Long idUtilisateur, LocalDate lundi) {
+        aRecalculer.compute(idUtilisateur, (id, semaines) -> {
+            Set<LocalDate> resultat = semaines != null ? semaines : new HashSet<>();
+            resultat.add(lundi);
+            return resultat;
+        });
+    }
+
+    // ========== LECTURE ==========
+
+    /**
+     * Agrégats de l'utilisateur entre deux semaines, par lundi. Les semaines
+     * sans activité n'ont pas de ligne.
+     *
+     * @return null si la base n'a pas pu être lue
+     */
+    public Map<LocalDate, StatistiqueHebdo> semaines(Long idUtilisateur, LocalDate debut, LocalDate fin) {
+        if (!reconstruits.contains(idUtilisateur) && !reconstruire(idUtilisateur)) {
+            return null;
+        }
+        recalculer(idUtilisateur);
+
+        List<StatistiqueHebdo> lignes = statistiqueHebdoDAO.getByUtilisateurEtPeriode(idUtilisateur, lundi(debut),
+                lundi(fin));
+        if (lignes == null) {
+            return null;
+        }
+        Map<LocalDate, StatistiqueHebdo> parLundi = new TreeMap<>();
+        for (StatistiqueHebdo ligne : lignes) {
+            parLundi.put(ligne.getDebutSemaine(), ligne);
+        }
+        return parLundi;
+    }
+
+    // ========== RECALCUL ==========
+
+    /**
+     * Recalcule les semaines marquées de tous les utilisateurs.
+     */
+    public void recalculerEnAttente() {
+        for (Long idUtilisateur : new ArrayList<>(aRecalculer.keySet())) {
+            recalculer(idUtilisateur);
+        }
+    }
+
+    private void recalculer(Long idUtilisateur) {
+        Set<LocalDate> semaines = aRecalculer.remove(idUtilisateur);
+        if (semaines == null) {
+            return;
+        }
+        synchronized (verrou(idUtilisateur)) {
+            for (LocalDate lundi : semaines) {
+                LocalDateTime debut = lundi.atStartOfDay();
+                // BETWEEN inclusif (activités sans fin comprises), puis même
+                // regroupement par lundi que la reconstruction
+                List<Activite> activites = semaine(lundi, activiteDAO.getByUtilisateurAndPeriode(idUtilisateur,
+                        debut, debut.plusDays(7).minusSeconds(1)));
+                if (statistiqueHebdoDAO.enregistrer(calculerSemaine(idUtilisateur, lundi, activites))) {
+                    synchronized (this) {
+                        semainesRecalculees++;
+                    }
+                } else {
+                    marquer(idUtilisateur, lundi); // nouvel essai au prochain passage
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalcule toutes les semaines de l'utilisateur (une lecture de ses activités).
+     */
+    public boolean reconstruire(Long idUtilisateur) {
+        synchronized (verrou(idUtilisateur)) {
+            List<StatistiqueHebdo> statistiques = parSemaine(idUtilisateur,
+                    activiteDAO.getByUtilisateur(idUtilisateur));
+            if (!statistiqueHebdoDAO.remplacerParUtilisateur(idUtilisateur, statistiques)) {
+                return false;
+            }
+        }
+        reconstruits.add(idUtilisateur);
+        synchronized (this) {
+            reconstructions++;
+        }
+        return true;
+    }
+
+    public void reconstruireTout() {
+        for (Utilisateur utilisateur : utilisateurDAO.getAll()) {
+            reconstruire((long) utilisateur.getId());
+        }
+    }
+
+    private Object verrou(Long idUtilisateur) {
+        return verrous.computeIfAbsent(idUtilisateur, id -> new Object());
+    }
+
+    /**
+     * Une exception dans une tâche planifiée annulerait ses exécutions suivantes.
+     */
+    private static void executer(Runnable tache) {
+        try {
+            tache.run();
+        } catch (RuntimeException e) {
+            journal.erreur("Erreur lors de la mise à jour des statistiques hebdomadaires", e);
+        }
+    }
+
+    // ========== CALCUL (SANS BASE DE DONNÉES) ==========
+
+    /**
+     * Agrégat de la semaine commençant le lundi donné ; les activités d'autres
+     * semaines sont ignorées.
+     */
+    public static StatistiqueHebdo calculerSemaine(Long idUtilisateur, LocalDate lundi, List<Activite> activites) {
+        LocalDate debut = lundi(lundi);
+        SyntheseActivites synthese = SyntheseActivites.calculer(activites,
+                debut.plusDays(7).atStartOfDay().minusNanos(1), 0);
+
+        StatistiqueHebdo statistique = new StatistiqueHebdo(idUtilisateur, debut);
+        Map<String, Double> tempsParType = synthese.getTempsParType();
+        for (TypeActivite type : TYPES) {
+            Double heures = tempsParType.get(type.toString());
+            if (heures != null) {
+                statistique.setHeures(type, heures);
+            }
+        }
+        statistique.setNombreActivites(synthese.getNombreActivites());
+        statistique.setHeuresTravailConsecutivesMax(synthese.getHeuresTravailConsecutivesMax());
+        statistique.setScoreFatigue(synthese.getScoreFatigue());
+        return statistique;
+    }
+
+    /**
+     * Agrégats de toutes les semaines qui ont au moins une activité, triés par semaine.
+     */
+    public static List<StatistiqueHebdo> parSemaine(Long idUtilisateur, List<Activite> activites) {
+        TreeMap<LocalDate, List<Activite>> parLundi = new TreeMap<>();
+        for (Activite activite : activites) {
+            if (activite.getHoraireDebut() != null) {
+                parLundi.computeIfAbsent(lundi(activite.getHoraireDebut().toLocalDate()), l -> new ArrayList<>())
+                        .add(activite);
+            }
+        }
+        List<StatistiqueHebdo> statistiques = new ArrayList<>(parLundi.size());
+        for (Map.Entry<LocalDate, List<Activite>> entree : parLundi.entrySet()) {
+            statistiques.add(calculerSemaine(idUtilisateur, entree.getKey(), entree.getValue()));
+        }
+        return statistiques;
+    }
+
+    /**
+     * Activités rattachées à la semaine du lundi donné, selon la même règle que
+     * {@link #parSemaine} : le recalcul d'une semaine et la reconstruction
+     * complète comptent donc les mêmes activités.
+     */
+    public static List<Activite> semaine(LocalDate lundi, List<Activite> activites) {
+        LocalDate debut = lundi(lundi);
+        List<Activite> semaine = new ArrayList<>(activites.size());
+        for (Activite activite : activites) {
+            if (activite.getHoraireDebut() != null && lundi(activite.getHoraireDebut().toLocalDate()).equals(debut)) {
+                semaine.add(activite);
+            }
+        }
+        return semaine;
+    }
+
+    /**
+     * Agrégat d'une semaine sans activité (score de fatigue compris).
+     */
+    public static StatistiqueHebdo semaineVide(Long idUtilisateur, LocalDate lundi) {
+        return calculerSemaine(idUtilisateur, lundi, List.of());
+    }
+
+    public static LocalDate lundi(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+
+    // ========== MÉTRIQUES ==========
+
+    public synchronized String getStatistiques() {
+        return "AgregatsHebdomadaires[utilisateursEnAttente=" + aRecalculer.size() + ", reconstruits="
+                + reconstruits.size() + ", semainesRecalculees=" + semainesRecalculees + ", reconstructions="
+                + reconstructions + "]";
+    }
+}
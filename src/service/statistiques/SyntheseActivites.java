@@ -0,0 +1,306 @@
+package service.statistiques;
+
+import entities.Activite;
+import entities.TypeActivite;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mesures des activités d'un utilisateur, calculées en un seul parcours.
+ *
+ * Les mesures « de la semaine » portent sur les activités qui commencent entre
+ * le lundi 00:00 de la semaine en cours et l'instant de référence ; le respect
+ * des deadlines et les activités urgentes portent sur tout l'historique.
+ * Mêmes règles et mêmes arrondis que les méthodes de StatistiqueService, qui
+ * s'appuient sur cette synthèse : un rapport complet ne lit les activités
+ * qu'une fois.
+ */
+public final class SyntheseActivites {
+
+    private static final TypeActivite[] TYPES = TypeActivite.values();
+
+    private final LocalDateTime maintenant;
+    private final LocalDateTime debutSemaine;
+
+    // Semaine en cours
+    private final Map<String, Double> tempsParType;
+    private final double heuresTravail;
+    private final double heuresRepos;
+    private final double heuresTravailConsecutivesMax;
+    private final int nombreActivites;
+    private final double heuresPlanifieesTotal;
+
+    // Tout l'historique
+    private final double tauxRespectDeadlines;
+    private final int nombreActivitesUrgentes;
+
+    private SyntheseActivites(List<Activite> activites, LocalDateTime maintenant, int joursUrgence) {
+        this.maintenant = maintenant;
+        this.debutSemaine = maintenant.with(DayOfWeek.MONDAY).truncatedTo(ChronoUnit.DAYS);
+        LocalDateTime limiteUrgence = maintenant.plusDays(joursUrgence);
+
+        double[] heuresParType = new double[TYPES.length];
+        boolean[] typePresent = new boolean[TYPES.length];
+        double travail = 0;
+        double repos = 0;
+        double total = 0;
+        int nombre = 0;
+        int avecDeadline = 0;
+        int respectees = 0;
+        int urgentes = 0;
+        List<Activite> travailSemaine = new ArrayList<>();
+
+        for (Activite a : activites) {
+            LocalDateTime debut = a.getHoraireDebut();
+            LocalDateTime fin = a.getHoraireFin();
+            LocalDateTime deadline = a.getDeadline();
+
+            if (deadline != null) {
+                avecDeadline++;
+                if (fin != null && !fin.isAfter(deadline)) {
+                    respectees++;
+                }
+                if (deadline.isBefore(limiteUrgence) && deadline.isAfter(maintenant)) {
+                    urgentes++;
+                }
+            }
+
+            if (debut == null || debut.isBefore(debutSemaine) || debut.isAfter(maintenant)) {
+                continue;
+            }
+            nombre++;
+            if (fin == null) {
+                continue;
+            }
+
+            double duree = Duration.between(debut, fin).toMinutes() / 60.0;
+            total += duree;
+            TypeActivite type = a.getTypeActivite();
+            if (type == null) {
+                continue;
+            }
+            heuresParType[type.ordinal()] += duree;
+            typePresent[type.ordinal()] = true;
+            switch (type) {
+                case Travail:
+                case Etude:
+                    travailSemaine.add(a);
+                    travail += duree;
+                    break;
+                case Sport:
+                case Loisirs:
+                    travail += duree;
+                    break;
+                case Repos:
+                    repos += duree;
+                    break;
+            }
+        }
+
+        this.tempsParType = new HashMap<>();
+        for (int t = 0; t < TYPES.length; t++) {
+            if (typePresent[t]) {
+                tempsParType.put(TYPES[t].toString(), arrondir(heuresParType[t]));
+            }
+        }
+        this.heuresTravail = travail;
+        this.heuresRepos = repos;
+        this.heuresTravailConsecutivesMax = calculerConsecutifMax(travailSemaine);
+        this.nombreActivites = nombre;
+        this.heuresPlanifieesTotal = arrondir(total);
+        this.tauxRespectDeadlines = avecDeadline == 0 ? 100.0
+                : Math.round((double) respectees / avecDeadline * 10000.0) / 100.0;
+        this.nombreActivitesUrgentes = urgentes;
+    }
+
+    /**
+     * @param activites    toutes les activités de l'utilisateur
+     * @param maintenant   instant de référence (fin de la semaine analysée)
+     * @param joursUrgence une activité est urgente si sa deadline tombe dans ce nombre de jours
+     */
+    public static SyntheseActivites calculer(List<Activite> activites, LocalDateTime maintenant, int joursUrgence) {
+        return new SyntheseActivites(activites != null ? activites : List.of(), maintenant, joursUrgence);
+    }
+
+    /**
+     * Plus longue suite d'activités de travail (Travail, Etude) séparées de 30 min au plus.
+     */
+    private static double calculerConsecutifMax(List<Activite> activitesTravail) {
+        if (activitesTravail.isEmpty()) {
+            return 0.0;
+        }
+        activitesTravail.sort(Comparator.comparing(Activite::getHoraireDebut));
+
+        double maxConsecutif = 0.0;
+        double consecutifActuel = 0.0;
+        LocalDateTime finPrecedent = null;
+        for (Activite activite : activitesTravail) {
+            double duree = Duration.between(activite.getHoraireDebut(), activite.getHoraireFin()).toMinutes() / 60.0;
+            if (finPrecedent == null || Duration.between(finPrecedent, activite.getHoraireDebut()).toMinutes() <= 30) {
+                consecutifActuel += duree;
+            } else {
+                maxConsecutif = Math.max(maxConsecutif, consecutifActuel);
+                consecutifActuel = duree;
+            }
+            finPrecedent = activite.getHoraireFin();
+        }
+        return arrondir(Math.max(maxConsecutif, consecutifActuel));
+    }
+
+    // ========== CONVERSIONS ==========
+
+    /**
+     * Heures par type (libellé de l'enum, arrondies à 2 décimales) à partir
+     * des minutes par type, telles que les somme la base de données.
+     */
+    public static Map<String, Double> heuresParType(Map<TypeActivite, Long> minutesParType) {
+        Map<String, Double> heures = new HashMap<>();
+        for (Map.Entry<TypeActivite, Long> entry : minutesParType.entrySet()) {
+            if (entry.getKey() != null && entry.getValue() != null) {
+                heures.put(entry.getKey().toString(), arrondir(entry.getValue() / 60.0));
+            }
+        }
+        return heures;
+    }
+
+    /**
+     * Part de chaque type dans le total (0-100), vide si aucun temps.
+     */
+    public static Map<String, Double> pourcentages(Map<String, Double> tempsParType) {
+        double totalTypes = 0;
+        for (double heures : tempsParType.values()) {
+            totalTypes += heures;
+        }
+        Map<String, Double> pourcentages = new HashMap<>();
+        if (totalTypes == 0) {
+            return pourcentages;
+        }
+        for (Map.Entry<String, Double> entry : tempsParType.entrySet()) {
+            pourcentages.put(entry.getKey(), Math.round((entry.getValue() / totalTypes) * 10000.0) / 100.0);
+        }
+        return pourcentages;
+    }
+
+    private static double arrondir(double valeur) {
+        return Math.round(valeur * 100.0) / 100.0;
+    }
+
+    // ========== MESURES DE LA SEMAINE ==========
+
+    /**
+     * Heures par type d'activité (libellé de l'enum), arrondies à 2 décimales.
+     */
+    public Map<String, Double> getTempsParType() {
+        return new HashMap<>(tempsParType);
+    }
+
+    /**
+     * Pourcentage du temps par type (0-100), vide si aucun temps.
+     */
+    public Map<String, Double> getPourcentageParType() {
+        return pourcentages(tempsParType);
+    }
+
+    /** Travail, Etude, Sport et Loisirs */
+    public double getHeuresTravail() {
+        return heuresTravail;
+    }
+
+    public double getHeuresRepos() {
+        return heuresRepos;
+    }
+
+    /**
+     * Heures de travail / heures de repos (999 s'il n'y a que du travail).
+     */
+    public double getRatioTravailRepos() {
+        if (heuresRepos == 0) {
+            return heuresTravail > 0 ? 999.0 : 0.0;
+        }
+        return arrondir(heuresTravail / heuresRepos);
+    }
+
+    public double getHeuresTravailConsecutivesMax() {
+        return heuresTravailConsecutivesMax;
+    }
+
+    public int getNombreActivites() {
+        return nombreActivites;
+    }
+
+    /**
+     * Activités par jour écoulé depuis lundi.
+     */
+    public double getMoyenneActivitesParJour() {
+        if (nombreActivites == 0) {
+            return 0.0;
+        }
+        long joursEcoules = ChronoUnit.DAYS.between(debutSemaine.toLocalDate(), maintenant.toLocalDate()) + 1;
+        return arrondir((double) nombreActivites / joursEcoules);
+    }
+
+    public double getHeuresPlanifieesTotal() {
+        return heuresPlanifieesTotal;
+    }
+
+    /**
+     * Score de fatigue (0-100) : ratio travail/repos (40), heures de travail
+     * consécutives (35) et volume de travail (25).
+     */
+    public double getScoreFatigue() {
+        double ratio = getRatioTravailRepos();
+        double heuresConsecutives = heuresTravailConsecutivesMax;
+
+        double scoreFatigue = 0.0;
+
+        // Facteur 1 : Ratio travail/repos (40% du score)
+        if (ratio > 6.0)
+            scoreFatigue += 40.0;
+        else if (ratio > 4.0)
+            scoreFatigue += 30.0;
+        else if (ratio > 3.0)
+            scoreFatigue += 15.0;
+        else if (ratio < 1.5)
+            scoreFatigue += 20.0;
+
+        // Facteur 2 : Heures de travail consécutives (35% du score)
+        if (heuresConsecutives > 8.0)
+            scoreFatigue += 35.0;
+        else if (heuresConsecutives > 6.0)
+            scoreFatigue += 25.0;
+        else if (heuresConsecutives > 4.0)
+            scoreFatigue += 15.0;
+
+        // Facteur 3 : Volume total de travail (25% du score)
+        if (heuresTravail > 60.0)
+            scoreFatigue += 25.0;
+        else if (heuresTravail > 45.0)
+            scoreFatigue += 18.0;
+        else if (heuresTravail > 35.0)
+            scoreFatigue += 10.0;
+
+        return Math.min(100.0, Math.round(scoreFatigue * 100.0) / 100.0);
+    }
+
+    // ========== MESURES SUR TOUT L'HISTORIQUE ==========
+
+    public double getTauxRespectDeadlines() {
+        return tauxRespectDeadlines;
+    }
+
+    public int getNombreActivitesUrgentes() {
+        return nombreActivitesUrgentes;
+    }
+
+    public LocalDateTime getMaintenant() {
+        return maintenant;
+    }
+}
@@ -0,0 +1,212 @@
+package test;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import dao.interfaces.ActiviteDAO;
+import dao.interfaces.ConflitDAO;
+import dao.interfaces.ConflitDAO.ConflitOuvert;
+import dao.interfaces.ConflitDAO.NouveauConflit;
+import dao.interfaces.ContrainteDAO;
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeConflit;
+
+/**
+ * DAO en mémoire pour les tests sans base de données
+ * Seules les méthodes utilisées par la détection de conflits sont servies
+ * (mêmes règles que les requêtes SQL), les autres lèvent
+ * UnsupportedOperationException.
+ */
+class DaoMemoire {
+
+    /** Conflit stocké : type, état et activités liées */
+    static final class ConflitStocke {
+        final long id;
+        final TypeConflit type;
+        final List<Long> idsActivites;
+        boolean resolu;
+
+        ConflitStocke(long id, TypeConflit type, List<Long> idsActivites) {
+            this.id = id;
+            this.type = type;
+            this.idsActivites = new ArrayList<>(idsActivites);
+        }
+    }
+
+    final Map<Long, Activite> activites = new LinkedHashMap<>();
+    final Map<Long, ConflitStocke> conflits = new LinkedHashMap<>();
+    final List<Contrainte> contraintes = new ArrayList<>();
+    private long prochainConflit = 1;
+
+    /** Nombre d'appels à ajouterConflitsEnLot */
+    int lots;
+
+    final ActiviteDAO activiteDAO = proxy(ActiviteDAO.class, this::activite);
+    final ConflitDAO conflitDAO = proxy(ConflitDAO.class, this::conflit);
+    final ContrainteDAO contrainteDAO = proxy(ContrainteDAO.class, this::contrainte);
+
+    // ========== ÉTAT ==========
+
+    Activite ajouterActivite(long id, long idUtilisateur, String titre, LocalDateTime debut, LocalDateTime fin) {
+        Activite activite = new Activite();
+        activite.setIdActivite(id);
+        activite.setIdUtilisateur(idUtilisateur);
+        activite.setTitre(titre);
+        activite.setHoraireDebut(debut);
+        activite.setHoraireFin(fin);
+        activites.put(id, activite);
+        return copie(activite);
+    }
+
+    /**
+     * Suppression avec cascade des liens conflit_activite
+     */
+    boolean supprimerActivite(long id) {
+        for (ConflitStocke conflit : conflits.values()) {
+            conflit.idsActivites.remove(id);
+        }
+        return activites.remove(id) != null;
+    }
+
+    List<ConflitStocke> ouverts() {
+        List<ConflitStocke> ouverts = new ArrayList<>();
+        for (ConflitStocke conflit : conflits.values()) {
+            if (!conflit.resolu) {
+                ouverts.add(conflit);
+            }
+        }
+        return ouverts;
+    }
+
+    int ouverts(TypeConflit type) {
+        return (int) ouverts().stream().filter(c -> c.type == type).count();
+    }
+
+    static Activite copie(Activite activite) {
+        Activite copie = new Activite();
+        copie.setIdActivite(activite.getIdActivite());
+        copie.setIdUtilisateur(activite.getIdUtilisateur());
+        copie.setTitre(activite.getTitre());
+        copie.setHoraireDebut(activite.getHoraireDebut());
+        copie.setHoraireFin(activite.getHoraireFin());
+        return copie;
+    }
+
+    // ========== MÉTHODES SERVIES ==========
+
+    private Object activite(String methode, Object[] args) {
+        switch (methode) {
+            case "getByUtilisateur": {
+                List<Activite> resultat = new ArrayList<>();
+                for (Activite a : activites.values()) {
+                    if (a.getIdUtilisateur().equals(args[0])) {
+                        resultat.add(copie(a));
+                    }
+                }
+                return resultat;
+            }
+            case "getActivitesChevauchantesUtilisateur": {
+                // horaire_debut < fin AND horaire_fin > debut
+                LocalDateTime debut = (LocalDateTime) args[1];
+                LocalDateTime fin = (LocalDateTime) args[2];
+                List<Activite> resultat = new ArrayList<>();
+                for (Activite a : activites.values()) {
+                    if (a.getIdUtilisateur().equals(args[0]) && a.getHoraireFin() != null
+                            && a.getHoraireDebut().isBefore(fin) && a.getHoraireFin().isAfter(debut)) {
+                        resultat.add(copie(a));
+                    }
+                }
+                return resultat;
+            }
+            case "getById":
+                return Optional.ofNullable(activites.get(args[0])).map(DaoMemoire::copie);
+            case "modifier": {
+                Activite a = (Activite) args[0];
+                return activites.replace(a.getIdActivite(), copie(a)) != null;
+            }
+            default:
+                throw new UnsupportedOperationException("ActiviteDAO." + methode);
+        }
+    }
+
+    private Object conflit(String methode, Object[] args) {
+        switch (methode) {
+            case "getConflitsNonResolusAvecLiens": {
+                List<ConflitOuvert> resultat = new ArrayList<>();
+                for (ConflitStocke c : ouverts()) {
+                    if (c.idsActivites.contains(args[0])) {
+                        resultat.add(new ConflitOuvert(c.id, c.type, new ArrayList<>(c.idsActivites)));
+                    }
+                }
+                return resultat;
+            }
+            case "getConflitsNonResolusAvecLiensParUtilisateur": {
+                List<ConflitOuvert> resultat = new ArrayList<>();
+                for (ConflitStocke c : ouverts()) {
+                    boolean appartient = c.idsActivites.stream()
+                            .anyMatch(id -> activites.get(id).getIdUtilisateur().equals(args[0]));
+                    if (appartient) {
+                        resultat.add(new ConflitOuvert(c.id, c.type, new ArrayList<>(c.idsActivites)));
+                    }
+                }
+                return resultat;
+            }
+            case "existeConflitNonResoluEntre":
+                return ouverts().stream().anyMatch(c -> c.idsActivites.contains(args[1])
+                        && c.idsActivites.contains(args[2]));
+            case "marquerPlusieursCommeResolus": {
+                int nombre = 0;
+                for (Object id : (List<?>) args[0]) {
+                    ConflitStocke c = conflits.get(id);
+                    if (c != null && !c.resolu) {
+                        c.resolu = true;
+                        nombre++;
+                    }
+                }
+                return nombre;
+            }
+            case "ajouterConflitsEnLot": {
+                lots++;
+                List<Long> ids = new ArrayList<>();
+                for (Object o : (List<?>) args[0]) {
+                    NouveauConflit n = (NouveauConflit) o;
+                    long id = prochainConflit++;
+                    conflits.put(id, new ConflitStocke(id, n.getType(), n.getIdsActivites()));
+                    ids.add(id);
+                }
+                return ids;
+            }
+            default:
+                throw new UnsupportedOperationException("ConflitDAO." + methode);
+        }
+    }
+
+    private Object contrainte(String methode, Object[] args) {
+        if (methode.equals("getContraintesActivesByUtilisateur")) {
+            List<Contrainte> resultat = new ArrayList<>();
+            for (Contrainte c : contraintes) {
+                if (c.getUtilisateurId() == (Integer) args[0]) {
+                    resultat.add(c);
+                }
+            }
+            return resultat;
+        }
+        throw new UnsupportedOperationException("ContrainteDAO." + methode);
+    }
+
+    @FunctionalInterface
+    private interface Methodes {
+        Object appeler(String methode, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Methodes methodes) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, methode, args) -> methodes.appeler(methode.getName(), args)));
+    }
+}
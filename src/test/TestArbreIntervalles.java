@@ -0,0 +1,59 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import dao.cache.ArbreIntervalles;
+
+/**
+ * Classe de test de l'arbre d'intervalles utilisé par l'index des activités
+ * Compare chaque requête avec un parcours linéaire (sans base de données)
+ */
+public class TestArbreIntervalles {
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST ArbreIntervalles ===\n");
+
+        Random random = new Random(7);
+        ArbreIntervalles<Long> arbre = new ArbreIntervalles<>();
+        Map<Long, long[]> reference = new HashMap<>();
+        int echecs = 0;
+
+        for (int operation = 0; operation < 20_000; operation++) {
+            long id = random.nextInt(2_000);
+            long[] existant = reference.get(id);
+            if (existant != null && random.nextBoolean()) {
+                arbre.retirer(existant[0], id);
+                reference.remove(id);
+            } else if (existant == null) {
+                long debut = random.nextInt(100_000);
+                long fin = debut + random.nextInt(500);
+                arbre.inserer(debut, fin, id, id);
+                reference.put(id, new long[] { debut, fin });
+            }
+
+            if (operation % 50 == 0) {
+                long a = random.nextInt(100_000);
+                long b = a + random.nextInt(2_000);
+                List<Long> obtenu = new ArrayList<>();
+                arbre.chevauchant(a, b, obtenu);
+                List<Long> debuts = new ArrayList<>();
+                arbre.debutEntre(a, b, debuts);
+
+                long attendusChevauchement = reference.values().stream().filter(v -> v[0] < b && v[1] > a).count();
+                long attendusDebut = reference.values().stream().filter(v -> v[0] >= a && v[0] <= b).count();
+                if (obtenu.size() != attendusChevauchement || debuts.size() != attendusDebut
+                        || arbre.taille() != reference.size()) {
+                    echecs++;
+                }
+            }
+        }
+
+        System.out.println(echecs == 0 ? "✓ Requêtes identiques au parcours linéaire (" + arbre.taille() + " intervalles)"
+                : "✗ " + echecs + " requêtes divergentes");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+}
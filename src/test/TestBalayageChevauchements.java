@@ -0,0 +1,74 @@
+package test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import entities.Activite;
+import service.planning.BalayageChevauchements;
+
+/**
+ * Classe de test du balayage des chevauchements
+ * Compare le résultat avec la comparaison de toutes les paires (sans base de données)
+ */
+public class TestBalayageChevauchements {
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST BalayageChevauchements ===\n");
+
+        Random random = new Random(42);
+        int echecs = 0;
+        for (int essai = 0; essai < 500; essai++) {
+            List<Activite> activites = genererPlanning(random, 1 + random.nextInt(60));
+            int attendu = compterToutesLesPaires(activites);
+            int obtenu = BalayageChevauchements.compter(activites);
+            if (attendu != obtenu || (attendu > 0) != BalayageChevauchements.existeChevauchement(activites)) {
+                echecs++;
+                System.out.println("✗ Essai " + essai + " : attendu " + attendu + ", obtenu " + obtenu);
+            }
+        }
+        System.out.println(echecs == 0 ? "✓ 500 plannings aléatoires identiques à la comparaison par paires"
+                : "✗ " + echecs + " plannings divergents");
+
+        List<Activite> grand = genererPlanning(random, 20_000);
+        long debut = System.nanoTime();
+        int paires = BalayageChevauchements.compter(grand);
+        System.out.println("Balayage de 20000 activités : " + paires + " paires en "
+                + (System.nanoTime() - debut) / 1_000_000 + " ms");
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static List<Activite> genererPlanning(Random random, int taille) {
+        LocalDateTime origine = LocalDateTime.of(2025, 1, 6, 8, 0);
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            if (random.nextInt(20) != 0) {
+                LocalDateTime debut = origine.plusMinutes(30L * random.nextInt(taille * 4));
+                a.setHoraireDebut(debut);
+                a.setHoraireFin(debut.plusMinutes(30L * random.nextInt(6)));
+            }
+            activites.add(a);
+        }
+        return activites;
+    }
+
+    private static int compterToutesLesPaires(List<Activite> activites) {
+        int count = 0;
+        for (int i = 0; i < activites.size(); i++) {
+            for (int j = i + 1; j < activites.size(); j++) {
+                Activite a = activites.get(i);
+                Activite b = activites.get(j);
+                if (a.getHoraireDebut() != null && b.getHoraireDebut() != null
+                        && a.getHoraireDebut().isBefore(b.getHoraireFin())
+                        && a.getHoraireFin().isAfter(b.getHoraireDebut())) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,123 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import dao.cache.CacheContraintes;
+import entities.Contrainte;
+import entities.StatutContrainte;
+import entities.TypeContrainte;
+
+/**
+ * Classe de test du cache des contraintes par utilisateur
+ * Hits/miss, invalidation, éviction LRU et durée de vie (sans base de données)
+ */
+public class TestCacheContraintes {
+
+    private static int echecs = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TEST CacheContraintes ===\n");
+
+        // Réglages lus à la première utilisation du cache
+        System.setProperty("planner.cache.contraintes.max", "3");
+        System.setProperty("planner.cache.contraintes.ttlMs", "300");
+        CacheContraintes cache = CacheContraintes.getInstance();
+
+        AtomicInteger lectures = new AtomicInteger();
+        IntFunction<List<Contrainte>> chargeur = utilisateurId -> {
+            lectures.incrementAndGet();
+            return genererContraintes(utilisateurId);
+        };
+
+        // 1. Une lecture pour toutes et actives
+        List<Contrainte> toutes = cache.toutes(1, chargeur);
+        List<Contrainte> actives = cache.actives(1, chargeur);
+        verifier(lectures.get() == 1, "Une seule lecture pour toutes et actives");
+        verifier(toutes.size() == 4 && actives.size() == 3, "Actives filtrées (" + actives.size() + "/" + toutes.size() + ")");
+
+        // 2. Copies : modifier le résultat ne modifie pas le cache
+        toutes.get(0).setTitre("modifié");
+        toutes.get(0).getJoursSemaine().clear();
+        Contrainte relue = cache.toutes(1, chargeur).get(0);
+        verifier(!"modifié".equals(relue.getTitre()) && !relue.getJoursSemaine().isEmpty(), "Contraintes retournées copiées");
+
+        // 3. Invalidation par contrainte et par utilisateur
+        cache.contrainteModifiee(relue.getId());
+        cache.toutes(1, chargeur);
+        verifier(lectures.get() == 2, "Relecture après modification d'une contrainte");
+        cache.invalider(2);
+        cache.toutes(1, chargeur);
+        verifier(lectures.get() == 2, "Invalidation d'un autre utilisateur sans effet");
+        cache.invalider(1);
+        cache.toutes(1, chargeur);
+        verifier(lectures.get() == 3, "Relecture après invalidation de l'utilisateur");
+
+        // 4. Écriture pendant la lecture : le résultat n'est pas conservé
+        cache.invalider(5);
+        cache.toutes(5, utilisateurId -> {
+            lectures.incrementAndGet();
+            cache.invalider(utilisateurId);
+            return genererContraintes(utilisateurId);
+        });
+        int avant = lectures.get();
+        cache.toutes(5, chargeur);
+        verifier(lectures.get() == avant + 1, "Lecture concurrente d'une écriture non conservée");
+
+        // 5. Éviction LRU au-delà de 3 utilisateurs
+        cache.invaliderTout();
+        for (int u = 1; u <= 3; u++) {
+            cache.toutes(u, chargeur);
+        }
+        cache.toutes(1, chargeur); // 1 devient le plus récent
+        cache.toutes(4, chargeur); // évince 2
+        avant = lectures.get();
+        cache.toutes(1, chargeur);
+        cache.toutes(3, chargeur);
+        verifier(lectures.get() == avant, "Utilisateurs récents conservés");
+        cache.toutes(2, chargeur);
+        verifier(lectures.get() == avant + 1 && cache.getEvictions() >= 1, "Utilisateur le moins récent évincé");
+
+        // 6. Durée de vie
+        Thread.sleep(350);
+        avant = lectures.get();
+        cache.toutes(3, chargeur);
+        verifier(lectures.get() == avant + 1 && cache.getExpirations() >= 1, "Entrée expirée relue");
+
+        // 7. Erreur de lecture : rien en cache
+        cache.invalider(9);
+        List<Contrainte> vide = cache.toutes(9, utilisateurId -> null);
+        avant = lectures.get();
+        cache.toutes(9, chargeur);
+        verifier(vide == null && lectures.get() == avant + 1, "Erreur de lecture signalée (null), non mise en cache");
+
+        System.out.println("\nℹ️ hits=" + cache.getHits() + ", miss=" + cache.getMiss() + ", évictions="
+                + cache.getEvictions() + ", expirations=" + cache.getExpirations());
+        System.out.println(echecs == 0 ? "✅ Cache des contraintes conforme" : "❌ " + echecs + " erreur(s)");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static void verifier(boolean condition, String description) {
+        System.out.println((condition ? "✓ " : "✗ ") + description);
+        if (!condition) {
+            echecs++;
+        }
+    }
+
+    private static List<Contrainte> genererContraintes(int utilisateurId) {
+        List<Contrainte> contraintes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            List<DayOfWeek> jours = new ArrayList<>(List.of(DayOfWeek.of(1 + i)));
+            Contrainte c = new Contrainte("Contrainte " + i, TypeContrainte.values()[0], LocalTime.of(8 + i, 0),
+                    LocalTime.of(9 + i, 0), true, null, jours, utilisateurId);
+            c.setId(utilisateurId * 100 + i);
+            c.setStatut(i == 3 ? StatutContrainte.DESACTIVE : StatutContrainte.ACTIVE);
+            contraintes.add(c);
+        }
+        return contraintes;
+    }
+}
@@ -0,0 +1,166 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeContrainte;
+import service.planning.CalendrierContraintes;
+import service.planning.CalendriersContraintes;
+import service.planning.EvaluateurContraintes;
+
+/**
+ * Classe de test du calendrier des contraintes
+ * Compare avec l'évaluateur contrainte par contrainte, puis invalidation,
+ * lecture en échec, durée de vie et éviction (sans base de données)
+ */
+public class TestCalendrierContraintes {
+
+    public static void main(String[] args) throws InterruptedException {
+        System.out.println("=== TEST CalendrierContraintes ===\n");
+
+        // Réglages lus à la première utilisation des calendriers
+        System.setProperty("planner.cache.contraintes.max", "2");
+        System.setProperty("planner.cache.contraintes.ttlMs", "300");
+
+        Random random = new Random(21);
+        int echecs = 0;
+        int bloques = 0;
+        for (int essai = 0; essai < 300; essai++) {
+            List<Contrainte> contraintes = genererContraintes(random, random.nextInt(30));
+            EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
+            CalendrierContraintes calendrier = CalendrierContraintes.construire(contraintes);
+            for (Activite activite : genererActivites(random, 40)) {
+                boolean attendu = evaluateur.estEnConflit(activite);
+                boolean obtenu = calendrier.estBloque(activite);
+                boolean memeJour = activite.getHoraireFin().toLocalTime()
+                        .isAfter(activite.getHoraireDebut().toLocalTime());
+                // Exact dans la journée, prudent au passage de minuit
+                if (memeJour ? attendu != obtenu : attendu && !obtenu) {
+                    echecs++;
+                    System.out.println("✗ Essai " + essai + " : " + activite.getHoraireDebut() + " → "
+                            + activite.getHoraireFin() + ", attendu " + attendu + ", obtenu " + obtenu);
+                }
+                if (obtenu) {
+                    bloques++;
+                }
+            }
+        }
+        System.out.println(echecs == 0 ? "✓ 12000 créneaux conformes à l'évaluateur (" + bloques + " bloqués)"
+                : "✗ " + echecs + " créneaux divergents");
+
+        // Invalidation du calendrier d'un utilisateur
+        CalendriersContraintes calendriers = CalendriersContraintes.getInstance();
+        List<Contrainte> contraintes = new ArrayList<>(genererContraintes(random, 5));
+        AtomicInteger lectures = new AtomicInteger();
+        calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        CalendrierContraintes enCache = calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        calendriers.invaliderContrainte(contraintes.get(0).getId());
+        calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        calendriers.invalider(8);
+        calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        if (lectures.get() != 2 || enCache.estVide()) {
+            echecs++;
+            System.out.println("✗ Lectures attendues 2, obtenues " + lectures.get());
+        } else {
+            System.out.println("✓ Calendrier relu uniquement après invalidation : " + calendriers.getStatistiques());
+        }
+
+        // Lecture en échec : aucun calendrier, rien en cache
+        calendriers.invalider(7);
+        CalendrierContraintes echec = calendriers.calendrier(7, id -> null);
+        calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        if (echec != null || lectures.get() != 3) {
+            echecs++;
+            System.out.println("✗ Lecture en échec mise en cache");
+        } else {
+            System.out.println("✓ Lecture en échec : null, relue à la demande suivante");
+        }
+
+        // Durée de vie puis éviction du moins récemment consulté (2 utilisateurs au plus)
+        Thread.sleep(350);
+        calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        calendriers.calendrier(8, id -> contraintes);
+        calendriers.calendrier(7, id -> contraintes); // 7 devient le plus récent
+        calendriers.calendrier(9, id -> contraintes); // évince 8
+        int avant = lectures.get();
+        calendriers.calendrier(7, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        calendriers.calendrier(8, id -> {
+            lectures.incrementAndGet();
+            return contraintes;
+        });
+        if (avant != 4 || lectures.get() != 5) {
+            echecs++;
+            System.out.println("✗ Durée de vie ou éviction : " + lectures.get() + " lectures");
+        } else {
+            System.out.println("✓ Calendrier expiré relu, moins récent évincé : " + calendriers.getStatistiques());
+        }
+
+        System.out.println(echecs == 0 ? "\n✓ Tous les tests réussis" : "\n✗ " + echecs + " échec(s)");
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static List<Contrainte> genererContraintes(Random random, int nombre) {
+        List<Contrainte> contraintes = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            LocalTime debut = LocalTime.of(random.nextInt(23), 15 * random.nextInt(4));
+            LocalTime fin = debut.plusMinutes(15 * random.nextInt(12));
+            if (fin.isBefore(debut)) {
+                fin = LocalTime.of(23, 59);
+            }
+            boolean repetitif = random.nextBoolean();
+            List<DayOfWeek> jours = new ArrayList<>();
+            List<LocalDate> dates = new ArrayList<>();
+            for (int k = 1 + random.nextInt(4); k > 0; k--) {
+                jours.add(DayOfWeek.of(1 + random.nextInt(7)));
+                dates.add(LocalDate.of(2025, 3, 1).plusDays(random.nextInt(21)));
+            }
+            contraintes.add(new Contrainte("Contrainte " + i, TypeContrainte.values()[0], debut, fin, repetitif,
+                    repetitif ? null : dates, repetitif ? jours : null, 7));
+        }
+        return contraintes;
+    }
+
+    private static List<Activite> genererActivites(Random random, int nombre) {
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            LocalDateTime debut = LocalDateTime.of(2025, 3, 1, 0, 0)
+                    .plusDays(random.nextInt(21)).plusMinutes(15L * random.nextInt(96));
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setHoraireDebut(debut);
+            a.setHoraireFin(debut.plusMinutes(15 + 15L * random.nextInt(16)));
+            activites.add(a);
+        }
+        return activites;
+    }
+}
@@ -0,0 +1,222 @@
+package test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import config.ExecuteurHttp;
+import config.LimiteTravauxDb;
+
+/**
+ * Classe de test de l'exécuteur du serveur HTTP (sans base de données)
+ * Vérifie le refus en mode pool et la limite de travaux DB, puis compare
+ * débit et latences de queue entre l'ancien pool fixe de 10 threads, le pool
+ * borné et les threads virtuels.
+ *
+ * Charge simulée : 10 clients enchaînent des rapports lents (300 ms de travail
+ * DB), pendant que 60 autres clients font des requêtes courtes (5 ms de
+ * travail DB) ou sans base (fichiers statiques, réponses en cache).
+ */
+public class TestChargeExecuteur {
+
+    private static final int DUREE_MS = 3_000;
+    private static final int CLIENTS_RAPPORT = 10;
+    private static final int CLIENTS_COURTS = 60;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TEST Exécuteur HTTP ===\n");
+
+        // 1. Modes
+        boolean ok = ExecuteurHttp.Mode.lire(" Virtuel ") == ExecuteurHttp.Mode.VIRTUEL
+                && ExecuteurHttp.Mode.lire("pool") == ExecuteurHttp.Mode.POOL;
+        try {
+            ExecuteurHttp.Mode.lire("fixe");
+            ok = false;
+        } catch (IllegalArgumentException e) {
+            // attendu
+        }
+        System.out.println((ok ? "✓" : "✗") + " Modes : virtuel, pool, refus des modes inconnus");
+
+        // 2. Pool borné : file pleine -> tâche exécutée par l'appelant en mode refus
+        ExecutorService pool = ExecuteurHttp.creer(ExecuteurHttp.Mode.POOL, 1, 1);
+        CountDownLatch bloque = new CountDownLatch(1);
+        pool.execute(() -> attendre(bloque));
+        pool.execute(() -> attendre(bloque));
+        boolean[] refusee = new boolean[1];
+        pool.execute(() -> refusee[0] = ExecuteurHttp.estRefusee());
+        bloque.countDown();
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.SECONDS);
+        ok = refusee[0] && !ExecuteurHttp.estRefusee() && ExecuteurHttp.getRefus() == 1;
+        System.out.println((ok ? "✓" : "✗") + " Pool borné : 3e requête refusée sur le thread appelant, puis état rétabli");
+
+        // 3. Limite de travaux DB
+        LimiteTravauxDb limite = new LimiteTravauxDb(2, 20);
+        ok = limite.entrer() && limite.entrer() && !limite.entrer() && limite.getEnCours() == 2;
+        limite.sortir();
+        ok &= limite.entrer() && limite.getAdmissions() == 3 && limite.getRefus() == 1;
+        System.out.println((ok ? "✓" : "✗") + " Limite DB : 2 places, 3e refusée après l'attente, place rendue réutilisée");
+
+        // Place par page : aucune de plus sous la place de la requête, reprise une fois celle-ci rendue
+        LimiteTravauxDb pages = new LimiteTravauxDb(1, 20);
+        ok = pages.entrer();
+        try (LimiteTravauxDb.Place place = pages.place()) {
+            ok &= place != null && pages.getEnCours() == 1;
+        }
+        ok &= pages.getEnCours() == 1;
+        pages.sortir();
+        try (LimiteTravauxDb.Place place = pages.place()) {
+            LimiteTravauxDb.Place[] autre = new LimiteTravauxDb.Place[1];
+            Thread thread = new Thread(() -> autre[0] = pages.place());
+            thread.start();
+            thread.join();
+            ok &= place != null && pages.getEnCours() == 1 && autre[0] == null;
+        }
+        ok &= pages.getEnCours() == 0;
+        System.out.println((ok ? "✓" : "✗") + " Place par page : réutilise celle de la requête, sinon prise puis rendue");
+
+        // 4. Charge : ancien pool fixe / pool borné / threads virtuels
+        System.out.println();
+        mesurer("fixe(10), sans limite DB", Executors.newFixedThreadPool(10), null);
+        mesurer("pool(32, file 256)", ExecuteurHttp.creer(ExecuteurHttp.Mode.POOL, 32, 256),
+                new LimiteTravauxDb(10, 2_000));
+        mesurer("virtuel", ExecuteurHttp.creer(ExecuteurHttp.Mode.VIRTUEL, 0, 0), new LimiteTravauxDb(10, 2_000));
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static void attendre(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Même enchaînement que EmbeddedServer.handleApi : refus du pool, limite
+     * DB, puis travail simulé (sleep = attente JDBC).
+     */
+    private static void traiter(HttpExchange exchange, LimiteTravauxDb limite) throws IOException {
+        String chemin = exchange.getRequestURI().getPath();
+        if (ExecuteurHttp.estRefusee()) {
+            repondre(exchange, 503);
+            return;
+        }
+        long travailDb = chemin.startsWith("/rapport") ? 300 : chemin.startsWith("/court") ? 5 : 0;
+        if (travailDb == 0) {
+            repondre(exchange, 200);
+            return;
+        }
+        if (limite != null && !limite.entrer()) {
+            repondre(exchange, 503);
+            return;
+        }
+        try {
+            Thread.sleep(travailDb);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (limite != null) {
+                limite.sortir();
+            }
+        }
+        repondre(exchange, 200);
+    }
+
+    private static void repondre(HttpExchange exchange, int code) throws IOException {
+        byte[] corps = "{\"succes\":true}".getBytes();
+        exchange.sendResponseHeaders(code, corps.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(corps);
+        }
+    }
+
+    private static void mesurer(String nom, ExecutorService executeur, LimiteTravauxDb limite) throws Exception {
+        HttpServer serveur = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        serveur.createContext("/", exchange -> traiter(exchange, limite));
+        serveur.setExecutor(executeur);
+        serveur.start();
+        String base = "http://127.0.0.1:" + serveur.getAddress().getPort();
+
+        List<long[]> latencesCourtes = new ArrayList<>();
+        List<long[]> latencesStatiques = new ArrayList<>();
+        AtomicLong terminees = new AtomicLong();
+        AtomicLong indisponibles = new AtomicLong();
+        long fin = System.currentTimeMillis() + DUREE_MS;
+
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < CLIENTS_RAPPORT; i++) {
+            clients.add(Thread.ofVirtual().start(() -> boucler(base + "/rapport", fin, null, terminees, indisponibles)));
+        }
+        for (int i = 0; i < CLIENTS_COURTS; i++) {
+            boolean statique = i % 2 == 0;
+            long[] latences = new long[20_000];
+            (statique ? latencesStatiques : latencesCourtes).add(latences);
+            String url = base + (statique ? "/statique" : "/court");
+            clients.add(Thread.ofVirtual().start(() -> boucler(url, fin, latences, terminees, indisponibles)));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+        serveur.stop(0);
+        executeur.shutdownNow();
+
+        System.out.printf("✓ %-26s %6.0f req/s, 503: %4d | DB courte p50 %4d ms p99 %4d ms | sans DB p50 %4d ms p99 %4d ms%n",
+                nom, terminees.get() * 1000.0 / DUREE_MS, indisponibles.get(),
+                centile(latencesCourtes, 0.50), centile(latencesCourtes, 0.99),
+                centile(latencesStatiques, 0.50), centile(latencesStatiques, 0.99));
+    }
+
+    /**
+     * Envoie des requêtes jusqu'à l'échéance ; latences en ms dans latences[1..],
+     * latences[0] = nombre de mesures.
+     */
+    private static void boucler(String url, long fin, long[] latences, AtomicLong terminees,
+            AtomicLong indisponibles) {
+        while (System.currentTimeMillis() < fin) {
+            long debut = System.nanoTime();
+            try {
+                HttpURLConnection connexion = (HttpURLConnection) URI.create(url).toURL().openConnection();
+                int code = connexion.getResponseCode();
+                try (InputStream is = code < 400 ? connexion.getInputStream() : connexion.getErrorStream()) {
+                    if (is != null) {
+                        is.readAllBytes();
+                    }
+                }
+                if (code == 503) {
+                    indisponibles.incrementAndGet();
+                }
+            } catch (IOException e) {
+                indisponibles.incrementAndGet();
+                continue;
+            }
+            terminees.incrementAndGet();
+            if (latences != null && latences[0] < latences.length - 1) {
+                latences[(int) ++latences[0]] = (System.nanoTime() - debut) / 1_000_000;
+            }
+        }
+    }
+
+    private static long centile(List<long[]> parClient, double centile) {
+        long[] toutes = parClient.stream()
+                .flatMapToLong(l -> Arrays.stream(l, 1, (int) l[0] + 1))
+                .sorted()
+                .toArray();
+        return toutes.length == 0 ? -1 : toutes[(int) Math.min(toutes.length - 1, toutes.length * centile)];
+    }
+}
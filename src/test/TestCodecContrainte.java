@@ -0,0 +1,175 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import util.CodecContrainte;
+
+/**
+ * Classe de test du codec des colonnes dates_specifiques / jours
+ * Compare avec l'ancien décodage par expression régulière et mesure le débit
+ * en lignes par seconde (sans base de données)
+ */
+public class TestCodecContrainte {
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST CodecContrainte ===\n");
+
+        Random random = new Random(3);
+        int echecs = 0;
+
+        // 1. Aller-retour et équivalence avec l'ancien format
+        for (int essai = 0; essai < 2_000; essai++) {
+            List<LocalDate> dates = genererDates(random, random.nextInt(40));
+            List<DayOfWeek> jours = genererJours(random);
+            String jsonDates = CodecContrainte.datesVersJson(dates);
+            String jsonJours = CodecContrainte.joursVersJson(jours);
+            if (!Objects.equals(jsonDates, ancienDatesToJson(dates))
+                    || !Objects.equals(jsonJours, ancienJoursToJson(jours))
+                    || !CodecContrainte.lireDates(jsonDates).equals(dates)
+                    || !CodecContrainte.lireJours(jsonJours).equals(jours)) {
+                echecs++;
+                System.out.println("✗ Aller-retour : " + jsonDates + " / " + jsonJours);
+            }
+        }
+
+        // 2. Textes malformés : mêmes valeurs retenues que l'expression régulière
+        String[] malformes = { "", "   ", "[]", "[\"2025-02-30\",\"2025-03-01\"]", "[\"2025-3-01\"]",
+                "\"2025-01-01\"", "[\"+10000-01-01\",\"-0001-12-31\"]", "[\"2025-01-01\",\"2025-01-0", "garbage",
+                "[\"MONDAY\",\"monday\",\"FUNDAY\",\"SUNDAY\"]", "[\"TUESDAY\" , \"\" ,\"\"]", "[\"2025-0a-01\"]",
+                "[\"１２３４-01-01\"]", "{\"a\":\"2024-02-29\"}" };
+        for (String texte : malformes) {
+            if (!CodecContrainte.lireDates(texte).equals(ancienParseDates(texte))
+                    || !CodecContrainte.lireJours(texte).equals(ancienParseJours(texte))) {
+                echecs++;
+                System.out.println("✗ Texte malformé : " + texte);
+            }
+        }
+        System.out.println(echecs == 0 ? "✓ Mêmes résultats que l'ancien décodage (2000 listes, "
+                + malformes.length + " textes malformés)" : "✗ " + echecs + " divergence(s)");
+
+        // 3. Débit : lignes de 300 dates spécifiques et 3 jours
+        int lignes = 2_000;
+        String[] colonnesDates = new String[lignes];
+        String[] colonnesJours = new String[lignes];
+        for (int i = 0; i < lignes; i++) {
+            colonnesDates[i] = ancienDatesToJson(genererDates(random, 300));
+            colonnesJours[i] = ancienJoursToJson(genererJours(random));
+        }
+        for (int tour = 0; tour < 3; tour++) { // préchauffage
+            mesurer(colonnesDates, colonnesJours, true);
+            mesurer(colonnesDates, colonnesJours, false);
+        }
+        double avant = mesurer(colonnesDates, colonnesJours, true);
+        double apres = mesurer(colonnesDates, colonnesJours, false);
+        System.out.printf("Décodage, 300 dates par ligne : regex %.0f lignes/s, codec %.0f lignes/s (x%.1f)%n",
+                avant, apres, apres / avant);
+
+        List<List<LocalDate>> listes = new ArrayList<>();
+        for (int i = 0; i < lignes; i++) {
+            listes.add(genererDates(random, 300));
+        }
+        double ecritureAvant = mesurerEcriture(listes, true);
+        double ecritureApres = mesurerEcriture(listes, false);
+        ecritureAvant = mesurerEcriture(listes, true);
+        ecritureApres = mesurerEcriture(listes, false);
+        System.out.printf("Encodage, 300 dates par ligne : stream/joining %.0f lignes/s, codec %.0f lignes/s (x%.1f)%n",
+                ecritureAvant, ecritureApres, ecritureApres / ecritureAvant);
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static double mesurer(String[] dates, String[] jours, boolean ancien) {
+        long total = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < dates.length; i++) {
+            if (ancien) {
+                total += ancienParseDates(dates[i]).size() + ancienParseJours(jours[i]).size();
+            } else {
+                total += CodecContrainte.lireDates(dates[i]).size() + CodecContrainte.lireJours(jours[i]).size();
+            }
+        }
+        long duree = System.nanoTime() - debut;
+        if (total == 0) {
+            System.out.println("✗ Aucune valeur décodée");
+        }
+        return dates.length * 1e9 / duree;
+    }
+
+    private static double mesurerEcriture(List<List<LocalDate>> listes, boolean ancien) {
+        long total = 0;
+        long debut = System.nanoTime();
+        for (List<LocalDate> dates : listes) {
+            total += (ancien ? ancienDatesToJson(dates) : CodecContrainte.datesVersJson(dates)).length();
+        }
+        long duree = System.nanoTime() - debut;
+        return total > 0 ? listes.size() * 1e9 / duree : 0;
+    }
+
+    private static List<LocalDate> genererDates(Random random, int nombre) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            dates.add(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(1_500)));
+        }
+        return dates;
+    }
+
+    private static List<DayOfWeek> genererJours(Random random) {
+        List<DayOfWeek> jours = new ArrayList<>();
+        for (int k = random.nextInt(8); k > 0; k--) {
+            jours.add(DayOfWeek.of(1 + random.nextInt(7)));
+        }
+        return jours;
+    }
+
+    // ========== ANCIENNE IMPLÉMENTATION (ContrainteDAOImpl) ==========
+
+    private static String ancienDatesToJson(List<LocalDate> dates) {
+        if (dates == null || dates.isEmpty())
+            return null;
+        return "[" + dates.stream().map(d -> "\"" + d.toString() + "\"").collect(Collectors.joining(",")) + "]";
+    }
+
+    private static List<LocalDate> ancienParseDates(String json) {
+        List<LocalDate> res = new ArrayList<>();
+        if (json == null || json.trim().isEmpty())
+            return res;
+        Pattern p = Pattern.compile("\"([^\"]*)\"");
+        Matcher m = p.matcher(json);
+        while (m.find()) {
+            try {
+                res.add(LocalDate.parse(m.group(1)));
+            } catch (Exception e) {
+                /* ignore invalid */ }
+        }
+        return res;
+    }
+
+    private static String ancienJoursToJson(List<DayOfWeek> jours) {
+        if (jours == null || jours.isEmpty())
+            return null;
+        return "[" + jours.stream().map(j -> "\"" + j.name() + "\"").collect(Collectors.joining(",")) + "]";
+    }
+
+    private static List<DayOfWeek> ancienParseJours(String json) {
+        List<DayOfWeek> res = new ArrayList<>();
+        if (json == null || json.trim().isEmpty())
+            return res;
+        Pattern p = Pattern.compile("\"([^\"]*)\"");
+        Matcher m = p.matcher(json);
+        while (m.find()) {
+            try {
+                res.add(DayOfWeek.valueOf(m.group(1)));
+            } catch (Exception e) {
+                /* ignore invalid */ }
+        }
+        return res;
+    }
+}
@@ -0,0 +1,321 @@
+package test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import config.Connect;
+import dao.cache.IndexConflits;
+import dao.impl.ConflitDAOImpl;
+import dao.interfaces.ConflitDAO.NouveauConflit;
+import entities.TypeConflit;
+
+/**
+ * Classe de test de ConflitDAO.ajouterConflitsEnLot (sans serveur MySQL)
+ * Connect est dirigé vers une base en mémoire (planner.db.url) qui sert les deux
+ * INSERT du lot avec les règles de MySQL : clés auto-incrémentées, INSERT IGNORE
+ * sur la clé primaire de conflit_activite, transaction annulée par rollback.
+ */
+public class TestConflitsEnLot {
+
+    private static final String URL = "jdbc:memoire:conflits";
+    private static int echecs = 0;
+
+    public static void main(String[] args) throws SQLException {
+        System.setProperty("planner.db.url", URL);
+        BaseMemoire base = new BaseMemoire();
+        DriverManager.registerDriver(base);
+        base.activites.addAll(List.of(1L, 2L, 3L, 4L));
+
+        System.out.println("=== TEST ConflitDAO.ajouterConflitsEnLot ===\n");
+        ConflitDAOImpl dao = new ConflitDAOImpl();
+        IndexConflits index = IndexConflits.getInstance();
+
+        // 1. Lot : un envoi par table, une seule transaction, IDs dans l'ordre du lot
+        List<Long> ids = dao.ajouterConflitsEnLot(List.of(
+                new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, List.of(1L, 2L)),
+                new NouveauConflit(TypeConflit.VIOLATION_DE_CONTRAINTE, List.of(3L)),
+                new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, List.of(2L, 3L))));
+        verifier(ids.size() == 3 && base.conflits.keySet().equals(new LinkedHashSet<>(ids))
+                && "Violation de contrainte".equals(base.conflits.get(ids.get(1))),
+                "3 conflits écrits, IDs dans l'ordre du lot " + ids);
+        verifier(base.liens.equals(Set.of(lien(ids.get(0), 1), lien(ids.get(0), 2), lien(ids.get(1), 3),
+                lien(ids.get(2), 2), lien(ids.get(2), 3))), "5 liens conflit_activite écrits");
+        verifier(base.envois == 2 && base.commits == 1 && base.rollbacks == 0,
+                "2 envois groupés (conflits, liens) et 1 commit");
+        verifier(index.getActivitesDuConflit(ids.get(2)).equals(Set.of(2L, 3L)), "Conflits et liens indexés");
+
+        // 2. INSERT IGNORE : lien en double ignoré, le lot aboutit
+        ids = dao.ajouterConflitsEnLot(List.of(
+                new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, List.of(1L, 4L, 4L))));
+        verifier(ids.size() == 1 && base.liens.contains(lien(ids.get(0), 4)) && base.liens.size() == 7
+                && base.ignores == 1 && base.rollbacks == 0, "Lien en double ignoré sans erreur");
+
+        // 3. Échec sur les liens : rollback, ni conflit ni lien, rien dans l'index
+        Map<Long, String> conflitsAvant = new LinkedHashMap<>(base.conflits);
+        Set<List<Long>> liensAvant = new HashSet<>(base.liens);
+        base.echecLiens = true;
+        ids = dao.ajouterConflitsEnLot(List.of(
+                new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, List.of(1L, 3L)),
+                new NouveauConflit(TypeConflit.VIOLATION_DE_CONTRAINTE, List.of(4L))));
+        base.echecLiens = false;
+        long premierAnnule = base.prochainId - 2;
+        verifier(ids.isEmpty() && base.conflits.equals(conflitsAvant) && base.liens.equals(liensAvant)
+                && base.rollbacks == 1, "Échec des liens : liste vide, conflits du lot annulés");
+        verifier(index.getActivitesDuConflit(premierAnnule).isEmpty()
+                && index.getActivitesDuConflit(premierAnnule + 1).isEmpty(), "Échec des liens : index inchangé");
+
+        // 4. Connexion rendue au pool en autocommit : le lot suivant aboutit
+        ids = dao.ajouterConflitsEnLot(List.of(
+                new NouveauConflit(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, List.of(1L, 3L))));
+        verifier(ids.size() == 1 && ids.get(0) == premierAnnule + 2 && base.liens.contains(lien(ids.get(0), 3)),
+                "Lot suivant écrit (clés annulées non réutilisées, comme AUTO_INCREMENT)");
+
+        // 5. Lot vide : aucune connexion empruntée
+        int connexions = base.connexions;
+        long emprunts = Connect.getStatistiquesPool().getEmprunts();
+        verifier(dao.ajouterConflitsEnLot(List.of()).isEmpty() && base.connexions == connexions
+                && Connect.getStatistiquesPool().getEmprunts() == emprunts, "Lot vide : aucune requête");
+
+        Connect.fermerPool();
+        System.out.println(echecs == 0 ? "\n✓ Tous les tests réussis" : "\n✗ " + echecs + " échec(s)");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static List<Long> lien(long idConflit, long idActivite) {
+        return List.of(idConflit, idActivite);
+    }
+
+    private static void verifier(boolean condition, String message) {
+        if (!condition) {
+            echecs++;
+        }
+        System.out.println((condition ? "✓ " : "✗ ") + message);
+    }
+
+    /**
+     * Driver JDBC en mémoire : tables conflit et conflit_activite, transaction
+     * par connexion. Seules les requêtes du lot sont servies.
+     */
+    private static final class BaseMemoire implements Driver {
+
+        final Map<Long, String> conflits = new LinkedHashMap<>();
+        final Set<List<Long>> liens = new HashSet<>();
+        final Set<Long> activites = new HashSet<>();
+        long prochainId = 1;
+        boolean echecLiens;
+        int envois;
+        int commits;
+        int rollbacks;
+        int ignores;
+        int connexions;
+
+        /** Écritures d'une connexion, visibles des autres après commit */
+        private final class Transaction {
+            final Map<Long, String> conflits = new LinkedHashMap<>();
+            final Set<List<Long>> liens = new HashSet<>();
+            boolean autoCommit = true;
+            boolean fermee;
+
+            void valider() {
+                BaseMemoire.this.conflits.putAll(conflits);
+                BaseMemoire.this.liens.addAll(liens);
+                annuler();
+            }
+
+            void annuler() {
+                conflits.clear();
+                liens.clear();
+            }
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            connexions++;
+            Transaction tx = new Transaction();
+            return proxy(Connection.class, (methode, args) -> {
+                switch (methode) {
+                    case "prepareStatement":
+                        return requete((String) args[0], tx);
+                    case "getAutoCommit":
+                        return tx.autoCommit;
+                    case "setAutoCommit":
+                        if ((Boolean) args[0] && !tx.autoCommit) {
+                            tx.valider();
+                        }
+                        tx.autoCommit = (Boolean) args[0];
+                        return null;
+                    case "commit":
+                        commits++;
+                        tx.valider();
+                        return null;
+                    case "rollback":
+                        if (!tx.conflits.isEmpty() || !tx.liens.isEmpty()) {
+                            rollbacks++;
+                        }
+                        tx.annuler();
+                        return null;
+                    case "isValid":
+                        return true;
+                    case "isClosed":
+                        return tx.fermee;
+                    case "isReadOnly":
+                        return false;
+                    case "clearWarnings":
+                        return null;
+                    case "close":
+                        tx.fermee = true;
+                        return null;
+                    default:
+                        throw new SQLFeatureNotSupportedException("Connection." + methode);
+                }
+            });
+        }
+
+        private PreparedStatement requete(String sql, Transaction tx) {
+            boolean conflit = sql.startsWith("INSERT INTO conflit ");
+            boolean lien = sql.startsWith("INSERT IGNORE INTO conflit_activite ");
+            Map<Integer, Object> parametres = new LinkedHashMap<>();
+            List<Map<Integer, Object>> lot = new ArrayList<>();
+            List<Long> cles = new ArrayList<>();
+            return proxy(PreparedStatement.class, (methode, args) -> {
+                switch (methode) {
+                    case "setTimestamp":
+                    case "setString":
+                    case "setLong":
+                        parametres.put((Integer) args[0], args[1]);
+                        return null;
+                    case "addBatch":
+                        lot.add(new LinkedHashMap<>(parametres));
+                        return null;
+                    case "executeBatch": {
+                        envois++;
+                        cles.clear();
+                        int[] lignes = new int[lot.size()];
+                        for (int i = 0; i < lot.size(); i++) {
+                            Map<Integer, Object> ligne = lot.get(i);
+                            if (conflit) {
+                                // Clé consommée même si la transaction est annulée
+                                long id = prochainId++;
+                                tx.conflits.put(id, (String) ligne.get(2));
+                                cles.add(id);
+                                lignes[i] = 1;
+                            } else if (lien) {
+                                if (echecLiens) {
+                                    throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+                                }
+                                List<Long> cle = List.of((Long) ligne.get(1), (Long) ligne.get(2));
+                                boolean connu = conflits.containsKey(cle.get(0)) || tx.conflits.containsKey(cle.get(0));
+                                if (!connu || !activites.contains(cle.get(1)) || liens.contains(cle)
+                                        || !tx.liens.add(cle)) {
+                                    ignores++; // IGNORE : clé en double ou étrangère absente
+                                    lignes[i] = 0;
+                                } else {
+                                    lignes[i] = 1;
+                                }
+                            } else {
+                                throw new SQLFeatureNotSupportedException(sql);
+                            }
+                        }
+                        lot.clear();
+                        if (tx.autoCommit) {
+                            tx.valider();
+                        }
+                        return lignes;
+                    }
+                    case "getGeneratedKeys":
+                        return cles(new ArrayList<>(cles));
+                    case "clearParameters":
+                        parametres.clear();
+                        return null;
+                    case "clearBatch":
+                        lot.clear();
+                        return null;
+                    case "close":
+                        return null;
+                    default:
+                        throw new SQLFeatureNotSupportedException("PreparedStatement." + methode);
+                }
+            });
+        }
+
+        private static ResultSet cles(List<Long> cles) {
+            int[] position = { -1 };
+            return proxy(ResultSet.class, (methode, args) -> {
+                switch (methode) {
+                    case "next":
+                        return ++position[0] < cles.size();
+                    case "getLong":
+                        return cles.get(position[0]);
+                    case "close":
+                        return null;
+                    default:
+                        throw new SQLFeatureNotSupportedException("ResultSet." + methode);
+                }
+            });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url != null && url.startsWith("jdbc:memoire:");
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+
+        @FunctionalInterface
+        private interface Methodes {
+            Object appeler(String methode, Object[] args) throws SQLException;
+        }
+
+        private static <T> T proxy(Class<T> type, Methodes methodes) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                    (proxy, methode, args) -> switch (methode.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "toString" -> "memoire:" + type.getSimpleName();
+                        default -> methodes.appeler(methode.getName(), args);
+                    }));
+        }
+    }
+}
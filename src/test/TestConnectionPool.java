@@ -0,0 +1,98 @@
+package test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import config.Connect;
+import config.ConnectionPool;
+
+/**
+ * Classe de test du pool de connexions utilisé par Connect
+ * Vérifie la réutilisation, le cache de requêtes, le délai d'emprunt et les métriques
+ */
+public class TestConnectionPool {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TEST ConnectionPool ===\n");
+
+        testReutilisation();
+        testEmpruntsConcurrents();
+        testDelaiEmprunt();
+
+        System.out.println("\n" + Connect.getStatistiquesPool());
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    /**
+     * Une connexion rendue doit être réutilisée au lieu d'en ouvrir une nouvelle
+     */
+    private static void testReutilisation() throws SQLException {
+        System.out.println("1. Réutilisation des connexions");
+        for (int i = 0; i < 5; i++) {
+            try (Connection conn = Connect.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT 1");
+                 ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+            }
+        }
+        ConnectionPool.Statistiques stats = Connect.getStatistiquesPool();
+        System.out.println("   emprunts=" + stats.getEmprunts() + ", créations=" + stats.getCreations()
+                + (stats.getCreations() == 1 ? " ✓" : " ✗"));
+        System.out.println("   cache statements: hits=" + stats.getStatementsHits() + ", miss="
+                + stats.getStatementsMiss() + (stats.getStatementsHits() >= 4 ? " ✓" : " ✗"));
+    }
+
+    /**
+     * Plusieurs threads empruntent en parallèle sans dépasser la taille maximale
+     */
+    private static void testEmpruntsConcurrents() throws InterruptedException {
+        System.out.println("2. Emprunts concurrents");
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Thread t = new Thread(() -> {
+                try (Connection conn = Connect.getConnection();
+                     PreparedStatement stmt = conn.prepareStatement("SELECT SLEEP(0.05)")) {
+                    stmt.executeQuery().close();
+                } catch (SQLException e) {
+                    System.err.println("   Erreur: " + e.getMessage());
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        ConnectionPool.Statistiques stats = Connect.getStatistiquesPool();
+        System.out.println("   créations=" + stats.getCreations() + " (max " + stats.getTailleMax() + "), attente max="
+                + String.format("%.1f", stats.getAttenteMaxMs()) + " ms"
+                + (stats.getCreations() <= stats.getTailleMax() ? " ✓" : " ✗"));
+    }
+
+    /**
+     * Un pool épuisé doit lever une SQLTimeoutException après le délai d'emprunt
+     */
+    private static void testDelaiEmprunt() throws SQLException {
+        System.out.println("3. Délai d'emprunt sur pool épuisé");
+        ConnectionPool petitPool = new ConnectionPool("jdbc:mysql://localhost:3306/personal_planner", "root", "",
+                1, 0, 200, 60_000, 0);
+        try {
+            Connection occupee = petitPool.getConnection();
+            try {
+                petitPool.getConnection().close();
+                System.out.println("   ✗ Connexion obtenue alors que le pool est plein");
+            } catch (SQLTimeoutException e) {
+                System.out.println("   ✓ " + e.getMessage());
+            } finally {
+                occupee.close();
+            }
+        } finally {
+            petitPool.fermer();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import dao.interfaces.ConflitDAO.NouveauConflit;
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeConflit;
+import entities.TypeContrainte;
+import service.planning.DetecteurConflitsIncremental;
+import service.planning.DetecteurConflitsIncremental.Delta;
+import service.planning.EvaluateurContraintes;
+
+/**
+ * Classe de test de la maintenance incrémentale des conflits (DAO en mémoire)
+ * Création, déplacement, retour, suppression et resynchronisation complète,
+ * puis comparaison avec un recalcul par paires sur des plannings aléatoires.
+ */
+public class TestDetecteurConflits {
+
+    private static final LocalDateTime LUNDI = LocalDateTime.of(2025, 3, 3, 0, 0);
+    private static int echecs = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST DetecteurConflitsIncremental ===\n");
+
+        testDeltas();
+        testResynchronisation();
+        testAleatoire();
+
+        System.out.println(echecs == 0 ? "\n✓ Tous les tests réussis" : "\n✗ " + echecs + " échec(s)");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    /**
+     * Deltas d'une activité : création, déplacement, retour, intervalle inchangé, suppression
+     */
+    private static void testDeltas() {
+        DaoMemoire dao = new DaoMemoire();
+        dao.contraintes.add(dejeuner(1));
+        DetecteurConflitsIncremental detecteur = detecteur(dao);
+
+        Delta delta = detecteur.activiteCreee(dao.ajouterActivite(1, 1, "A", heure(9, 0), heure(10, 0)));
+        verifier(delta.estVide(), "Création sans voisin : aucun conflit");
+
+        Activite b = dao.ajouterActivite(2, 1, "B", heure(9, 30), heure(10, 30));
+        delta = detecteur.activiteCreee(b);
+        verifier(delta.getConflitsCrees().size() == 1 && dao.ouverts(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) == 1,
+                "Création chevauchante : 1 chevauchement créé");
+
+        delta = detecteur.activiteCreee(dao.ajouterActivite(3, 1, "C", heure(12, 15), heure(12, 45)));
+        verifier(delta.getConflitsCrees().size() == 1 && dao.ouverts(TypeConflit.VIOLATION_DE_CONTRAINTE) == 1,
+                "Création sur une contrainte : 1 violation créée");
+
+        delta = deplacer(dao, detecteur, 2, heure(11, 0), heure(11, 30));
+        verifier(delta.getConflitsResolus().size() == 1 && delta.getConflitsCrees().isEmpty()
+                && dao.ouverts(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) == 0, "Déplacement : chevauchement résolu");
+
+        delta = deplacer(dao, detecteur, 2, heure(9, 30), heure(10, 30));
+        verifier(delta.getConflitsCrees().size() == 1 && dao.ouverts(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) == 1,
+                "Retour : chevauchement recréé");
+
+        delta = deplacer(dao, detecteur, 2, heure(9, 30), heure(10, 30));
+        verifier(delta.estVide(), "Intervalle inchangé : aucun travail");
+
+        delta = deplacer(dao, detecteur, 3, heure(14, 0), heure(15, 0));
+        verifier(delta.getConflitsResolus().size() == 1 && dao.ouverts(TypeConflit.VIOLATION_DE_CONTRAINTE) == 0,
+                "Déplacement hors contrainte : violation résolue");
+
+        int lots = dao.lots;
+        delta = detecteur.activiteSupprimee(1L, () -> dao.supprimerActivite(1));
+        verifier(delta != null && delta.getConflitsResolus().size() == 1 && dao.ouverts().isEmpty()
+                && dao.lots == lots, "Suppression : conflits de l'activité résolus");
+
+        verifier(detecteur.activiteSupprimee(99L, () -> false) == null, "Suppression échouée : delta null");
+    }
+
+    /**
+     * Planning enregistré sans détection (optimisation) puis resynchronisé
+     */
+    private static void testResynchronisation() {
+        DaoMemoire dao = new DaoMemoire();
+        dao.contraintes.add(dejeuner(2));
+        DetecteurConflitsIncremental detecteur = detecteur(dao);
+
+        dao.ajouterActivite(10, 2, "A", heure(9, 0), heure(10, 0));
+        dao.ajouterActivite(11, 2, "B", heure(9, 30), heure(10, 30));
+        dao.ajouterActivite(12, 2, "C", heure(12, 0), heure(13, 0));
+        dao.ajouterActivite(13, 2, "D", heure(12, 30), heure(14, 0));
+        Activite sansFin = dao.ajouterActivite(14, 2, "E", heure(12, 0), null);
+        verifier(sansFin.getHoraireFin() == null, "Activité sans horaire de fin ajoutée");
+
+        // Ancien enchaînement : activité relue déjà à jour -> aucun conflit détecté
+        Activite a = DaoMemoire.copie(dao.activites.get(10L));
+        verifier(detecteur.activiteModifiee(a, a).estVide(), "Mise à jour après coup : delta vide (ancien bug)");
+
+        Delta delta = detecteur.resynchroniserUtilisateur(2L);
+        verifier(delta.getConflitsCrees().size() == 4 && dao.ouverts(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) == 2
+                && dao.ouverts(TypeConflit.VIOLATION_DE_CONTRAINTE) == 2,
+                "Resynchronisation : 2 chevauchements et 2 violations (" + delta.getConflitsCrees().size() + " créés)");
+
+        delta = detecteur.resynchroniserUtilisateur(2L);
+        verifier(delta.estVide(), "Resynchronisation répétée : aucun changement");
+
+        // Conflits périmés et doublons : résolus, les autres conservés
+        dao.activites.get(11L).setHoraireDebut(heure(16, 0));
+        dao.activites.get(11L).setHoraireFin(heure(17, 0));
+        detecteur.activiteCreee(dao.ajouterActivite(15, 2, "F", heure(16, 30), heure(17, 30)));
+        dao.conflitDAO.ajouterConflitsEnLot(List.of(new NouveauConflit(
+                TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES, List.of(12L, 13L))));
+        delta = detecteur.resynchroniserUtilisateur(2L);
+        verifier(delta.getConflitsResolus().size() == 2 && delta.getConflitsCrees().isEmpty()
+                && dao.ouverts(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) == 2,
+                "Resynchronisation : chevauchement disparu et doublon résolus");
+    }
+
+    /**
+     * Plannings aléatoires : après chaque déplacement ou suppression, les conflits
+     * ouverts sont exactement ceux d'un recalcul complet par paires
+     */
+    private static void testAleatoire() {
+        Random random = new Random(6);
+        int divergences = 0;
+        for (int essai = 0; essai < 100; essai++) {
+            long utilisateur = 100 + essai;
+            DaoMemoire dao = new DaoMemoire();
+            dao.contraintes.add(dejeuner((int) utilisateur));
+            DetecteurConflitsIncremental detecteur = detecteur(dao);
+
+            for (long id = 1; id <= 25; id++) {
+                LocalDateTime debut = creneau(random);
+                detecteur.activiteCreee(dao.ajouterActivite(id, utilisateur, "A" + id, debut,
+                        debut.plusMinutes(15 + 15L * random.nextInt(8))));
+            }
+            for (int etape = 0; etape < 40; etape++) {
+                long id = 1 + random.nextInt(25);
+                if (!dao.activites.containsKey(id)) {
+                    continue;
+                }
+                if (random.nextInt(10) == 0) {
+                    detecteur.activiteSupprimee(id, () -> dao.supprimerActivite(id));
+                } else {
+                    LocalDateTime debut = creneau(random);
+                    deplacer(dao, detecteur, id, debut, debut.plusMinutes(15 + 15L * random.nextInt(8)));
+                }
+                if (!conformes(dao)) {
+                    divergences++;
+                    break;
+                }
+            }
+
+            // Planning entièrement réécrit sans détection, puis resynchronisé
+            for (Activite a : dao.activites.values()) {
+                LocalDateTime debut = creneau(random);
+                a.setHoraireDebut(debut);
+                a.setHoraireFin(debut.plusMinutes(15 + 15L * random.nextInt(8)));
+            }
+            detecteur.resynchroniserUtilisateur(utilisateur);
+            if (!conformes(dao)) {
+                divergences++;
+            }
+        }
+        verifier(divergences == 0, "100 plannings aléatoires : conflits identiques au recalcul complet");
+    }
+
+    private static boolean conformes(DaoMemoire dao) {
+        List<Activite> activites = new ArrayList<>(dao.activites.values());
+        int chevauchements = 0;
+        for (int i = 0; i < activites.size(); i++) {
+            for (int j = i + 1; j < activites.size(); j++) {
+                Activite a = activites.get(i);
+                Activite b = activites.get(j);
+                if (a.getHoraireDebut().isBefore(b.getHoraireFin()) && a.getHoraireFin().isAfter(b.getHoraireDebut())) {
+                    chevauchements++;
+                    long ouverts = dao.ouverts().stream()
+                            .filter(c -> c.type == TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES
+                                    && c.idsActivites.containsAll(List.of(a.getIdActivite(), b.getIdActivite())))
+                            .count();
+                    if (ouverts != 1) {
+                        return false;
+                    }
+                }
+            }
+        }
+        EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(dao.contraintes);
+        int violations = activites.stream().mapToInt(evaluateur::compterViolations).sum();
+        return dao.ouverts(TypeConflit.CHEVAUCHEMENT_DES_ACTIVITES) == chevauchements
+                && dao.ouverts(TypeConflit.VIOLATION_DE_CONTRAINTE) == violations;
+    }
+
+    /**
+     * Même enchaînement que ActiviteServiceImpl.mettreAJourActivite : état relu
+     * avant l'écriture, puis delta
+     */
+    private static Delta deplacer(DaoMemoire dao, DetecteurConflitsIncremental detecteur, long id,
+            LocalDateTime debut, LocalDateTime fin) {
+        Activite ancienne = dao.activiteDAO.getById(id).orElse(null);
+        Activite nouvelle = DaoMemoire.copie(ancienne);
+        nouvelle.setHoraireDebut(debut);
+        nouvelle.setHoraireFin(fin);
+        dao.activiteDAO.modifier(nouvelle);
+        return detecteur.activiteModifiee(ancienne, nouvelle);
+    }
+
+    private static DetecteurConflitsIncremental detecteur(DaoMemoire dao) {
+        return new DetecteurConflitsIncremental(dao.activiteDAO, dao.conflitDAO, dao.contrainteDAO);
+    }
+
+    /** Tous les jours de 12h à 13h */
+    private static Contrainte dejeuner(int utilisateur) {
+        return new Contrainte("Déjeuner", TypeContrainte.values()[0], LocalTime.NOON, LocalTime.of(13, 0), true,
+                null, new ArrayList<>(Arrays.asList(DayOfWeek.values())), utilisateur);
+    }
+
+    private static LocalDateTime heure(int heure, int minute) {
+        return LUNDI.withHour(heure).withMinute(minute);
+    }
+
+    /** Un quart d'heure entre 8h et 18h sur deux jours */
+    private static LocalDateTime creneau(Random random) {
+        return LUNDI.plusDays(random.nextInt(2)).plusHours(8).plusMinutes(15L * random.nextInt(40));
+    }
+
+    private static void verifier(boolean condition, String message) {
+        if (!condition) {
+            echecs++;
+        }
+        System.out.println((condition ? "✓ " : "✗ ") + message);
+    }
+}
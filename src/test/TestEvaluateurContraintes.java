@@ -0,0 +1,133 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeContrainte;
+import service.planning.EvaluateurContraintes;
+
+/**
+ * Classe de test de l'évaluateur de contraintes compilé
+ * Compare avec la règle d'origine (List.contains et LocalTime), sans base de données
+ */
+public class TestEvaluateurContraintes {
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST EvaluateurContraintes ===\n");
+
+        Random random = new Random(12);
+        int echecs = 0;
+        for (int essai = 0; essai < 300; essai++) {
+            List<Contrainte> contraintes = genererContraintes(random, random.nextInt(25));
+            EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
+            for (Activite activite : genererActivites(random, 40)) {
+                int attendu = 0;
+                List<Contrainte> attendues = new ArrayList<>();
+                for (Contrainte c : contraintes) {
+                    if (estEnConflitReference(c, activite)) {
+                        attendu++;
+                        attendues.add(c);
+                    }
+                }
+                if (evaluateur.compterViolations(activite) != attendu
+                        || evaluateur.estEnConflit(activite) != (attendu > 0)
+                        || !evaluateur.contraintesViolees(activite).equals(attendues)) {
+                    echecs++;
+                    System.out.println("✗ Essai " + essai + " : " + activite.getHoraireDebut() + " → "
+                            + activite.getHoraireFin() + ", attendu " + attendu + ", obtenu "
+                            + evaluateur.compterViolations(activite));
+                }
+            }
+        }
+        System.out.println(echecs == 0 ? "✓ 12000 évaluations identiques à la règle d'origine"
+                : "✗ " + echecs + " évaluations divergentes");
+
+        // Mesure : 200 activités × 50 contraintes
+        List<Contrainte> contraintes = genererContraintes(random, 50);
+        List<Activite> activites = genererActivites(random, 200);
+        EvaluateurContraintes evaluateur = EvaluateurContraintes.compiler(contraintes);
+        int total = 0;
+        long debut = System.nanoTime();
+        for (int tour = 0; tour < 200; tour++) {
+            for (Activite a : activites) {
+                for (Contrainte c : contraintes) {
+                    if (estEnConflitReference(c, a)) {
+                        total++;
+                    }
+                }
+            }
+        }
+        long reference = System.nanoTime() - debut;
+        debut = System.nanoTime();
+        for (int tour = 0; tour < 200; tour++) {
+            for (Activite a : activites) {
+                total -= evaluateur.compterViolations(a);
+            }
+        }
+        long compile = System.nanoTime() - debut;
+        System.out.println("200 × (200 activités × 50 contraintes) : règle d'origine " + reference / 1_000_000
+                + " ms, évaluateur " + compile / 1_000_000 + " ms" + (total == 0 ? "" : " ✗ totaux différents"));
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    /** Règle d'origine de ActiviteServiceImpl.estEnConflitAvecContrainte */
+    private static boolean estEnConflitReference(Contrainte contrainte, Activite activite) {
+        LocalTime heureDebut = activite.getHoraireDebut().toLocalTime();
+        LocalTime heureFin = activite.getHoraireFin().toLocalTime();
+        LocalDateTime dateActivite = activite.getHoraireDebut();
+        LocalTime debContrainte = contrainte.getDateHeureDeb();
+        LocalTime finContrainte = contrainte.getDateHeureFin();
+        if (debContrainte == null || finContrainte == null) {
+            return false;
+        }
+        if (contrainte.isRepetitif()) {
+            if (contrainte.getJoursSemaine() == null || !contrainte.getJoursSemaine().contains(dateActivite.getDayOfWeek())) {
+                return false;
+            }
+        } else if (contrainte.getDatesSpecifiques() == null
+                || !contrainte.getDatesSpecifiques().contains(dateActivite.toLocalDate())) {
+            return false;
+        }
+        return heureDebut.isBefore(finContrainte) && heureFin.isAfter(debContrainte);
+    }
+
+    private static List<Contrainte> genererContraintes(Random random, int nombre) {
+        List<Contrainte> contraintes = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            LocalTime debut = LocalTime.of(random.nextInt(23), 15 * random.nextInt(4));
+            LocalTime fin = random.nextInt(10) == 0 ? null : debut.plusMinutes(15 + 15 * random.nextInt(12));
+            boolean repetitif = random.nextBoolean();
+            List<DayOfWeek> jours = new ArrayList<>();
+            List<LocalDate> dates = new ArrayList<>();
+            for (int k = random.nextInt(5); k > 0; k--) {
+                jours.add(DayOfWeek.of(1 + random.nextInt(7)));
+                dates.add(LocalDate.of(2025, 3, 1).plusDays(random.nextInt(21)));
+            }
+            contraintes.add(new Contrainte("Contrainte " + i, TypeContrainte.values()[0], debut, fin, repetitif,
+                    dates, jours, 1));
+        }
+        return contraintes;
+    }
+
+    private static List<Activite> genererActivites(Random random, int nombre) {
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            LocalDateTime debut = LocalDateTime.of(2025, 3, 1, 0, 0)
+                    .plusDays(random.nextInt(21)).plusMinutes(15L * random.nextInt(96));
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setHoraireDebut(debut);
+            a.setHoraireFin(debut.plusMinutes(15 + 15L * random.nextInt(16)));
+            activites.add(a);
+        }
+        return activites;
+    }
+}
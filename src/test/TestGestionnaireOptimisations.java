@@ -0,0 +1,126 @@
+package test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import entities.Activite;
+import entities.TypeActivite;
+import service.planning.GestionnaireOptimisations;
+import service.planning.TacheOptimisation;
+
+/**
+ * Classe de test des optimisations en tâche de fond
+ * Échéance, annulation, planning périmé et limite par utilisateur (sans base de données)
+ */
+public class TestGestionnaireOptimisations {
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TEST GestionnaireOptimisations ===\n");
+
+        // Réglages lus à la première utilisation du gestionnaire
+        System.setProperty("planner.optim.threads", "2");
+        System.setProperty("planner.optim.parUtilisateur", "2");
+        GestionnaireOptimisations gestionnaire = GestionnaireOptimisations.getInstance();
+
+        List<Activite> activites = genererPlanning(300);
+        AtomicInteger terminees = new AtomicInteger();
+        int echecs = 0;
+
+        // 1. Échéance : la tâche s'arrête avec son meilleur planning
+        TacheOptimisation bornee = gestionnaire.soumettre(1L, activites, (d, f) -> 0, Integer.MAX_VALUE, 200,
+                t -> terminees.incrementAndGet() > 0);
+        attendreFin(bornee);
+        System.out.println("ℹ️ Tâche bornée : " + bornee.getStatut() + " après " + bornee.getIteration()
+                + " itérations, score " + bornee.getScoreInitial() + " → " + bornee.getMeilleurScore());
+        if (bornee.getStatut() != TacheOptimisation.Statut.TERMINEE || !bornee.isEcheanceAtteinte()
+                || bornee.getResultat() == null || terminees.get() != 1) {
+            System.out.println("❌ La tâche bornée ne s'est pas terminée à son échéance");
+            echecs++;
+        }
+
+        // 2. Limite par utilisateur puis annulation
+        TacheOptimisation premiere = gestionnaire.soumettre(2L, activites, (d, f) -> 0, Integer.MAX_VALUE, 0, null);
+        TacheOptimisation seconde = gestionnaire.soumettre(2L, activites, (d, f) -> 0, Integer.MAX_VALUE, 0, null);
+        try {
+            gestionnaire.soumettre(2L, activites, (d, f) -> 0, 100, 0, null);
+            System.out.println("❌ La limite par utilisateur n'a pas été appliquée");
+            echecs++;
+        } catch (IllegalStateException e) {
+            System.out.println("✅ Limite par utilisateur : " + e.getMessage());
+        }
+
+        Thread.sleep(100);
+        if (premiere.getIteration() == 0) {
+            System.out.println("❌ Aucune progression publiée");
+            echecs++;
+        }
+        gestionnaire.annuler(premiere.getId());
+        gestionnaire.annuler(seconde.getId());
+        attendreFin(premiere);
+        attendreFin(seconde);
+        if (premiere.getStatut() != TacheOptimisation.Statut.ANNULEE
+                || seconde.getStatut() != TacheOptimisation.Statut.ANNULEE) {
+            System.out.println("❌ Annulation non prise en compte");
+            echecs++;
+        }
+        if (gestionnaire.annuler(premiere.getId())) {
+            System.out.println("❌ Une tâche terminée a pu être annulée");
+            echecs++;
+        }
+
+        // Les places sont rendues : l'utilisateur peut soumettre à nouveau
+        TacheOptimisation apres = gestionnaire.soumettre(2L, activites, (d, f) -> 0, 1_000, 0, null);
+        attendreFin(apres);
+        if (apres.getStatut() != TacheOptimisation.Statut.TERMINEE || apres.getIteration() != 1_000) {
+            System.out.println("❌ Nouvelle soumission après annulation : " + apres.getStatut());
+            echecs++;
+        }
+
+        // 3. Activités modifiées pendant l'optimisation : planning non enregistré, tâche périmée
+        TacheOptimisation perimee = gestionnaire.soumettre(3L, activites, (d, f) -> 0, 500, 0, t -> false);
+        attendreFin(perimee);
+        if (perimee.getStatut() != TacheOptimisation.Statut.PERIMEE || perimee.getMessage() == null) {
+            System.out.println("❌ Planning périmé : " + perimee.getStatut());
+            echecs++;
+        }
+
+        System.out.println();
+        if (echecs == 0) {
+            System.out.println("✅ Échéance, annulation et limites respectées");
+        } else {
+            System.out.println("❌ " + echecs + " erreur(s)");
+        }
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static void attendreFin(TacheOptimisation tache) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!tache.getStatut().estFinal() && System.currentTimeMillis() < limite) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Activite> genererPlanning(int taille) {
+        Random random = new Random(5);
+        TypeActivite[] types = TypeActivite.values();
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            LocalDateTime debut = LocalDateTime.of(2025, 3, 3, 0, 0)
+                    .plusDays(random.nextInt(7)).plusHours(7 + random.nextInt(12));
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setTitre("Activité " + i);
+            a.setTypeActivite(types[random.nextInt(types.length)]);
+            a.setPriorite(1 + random.nextInt(10));
+            a.setHoraireDebut(debut);
+            a.setHoraireFin(debut.plusMinutes(60));
+            a.setDeadline(debut.plusHours(2));
+            a.setIdUtilisateur(1L);
+            activites.add(a);
+        }
+        return activites;
+    }
+}
@@ -0,0 +1,180 @@
+package test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import dao.cache.IndexActivites;
+import entities.Activite;
+
+/**
+ * Classe de test de l'index des horaires d'activités (sans base de données)
+ * Activités sans horaire de fin, ajout d'une ligne déjà lue par le chargement,
+ * comparaison avec les requêtes SQL équivalentes sur des écritures aléatoires,
+ * puis budget d'activités indexées tenu par les ajouts.
+ */
+public class TestIndexActivites {
+
+    private static final LocalDateTime LUNDI = LocalDateTime.of(2025, 3, 3, 0, 0);
+    private static int echecs = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST IndexActivites ===\n");
+
+        // Budget lu à la première utilisation de l'index
+        System.setProperty("planner.cache.activites.max", "10");
+        IndexActivites index = IndexActivites.getInstance();
+        Map<Long, Activite> lignes = new LinkedHashMap<>();
+        Function<Long, List<Activite>> chargeur = u -> lignes.values().stream()
+                .filter(a -> a.getIdUtilisateur().equals(u)).collect(Collectors.toList());
+
+        // 1. Activités sans horaire de fin : retournées par debutEntre seulement
+        ajouter(lignes, 1, 1, heure(9), heure(10));
+        ajouter(lignes, 2, 1, heure(11), null);
+        ajouter(lignes, 3, 1, null, null);
+        ajouter(lignes, 4, 1, heure(11), heure(12));
+        List<Long> ids = ids(index.debutEntre(1L, heure(8), heure(12), chargeur));
+        verifier(ids.equals(List.of(4L, 2L, 1L)), "debutEntre : sans fin incluse, début décroissant " + ids);
+        ids = ids(index.chevauchantes(1L, heure(8), heure(13), chargeur));
+        verifier(ids.equals(List.of(4L, 1L)), "chevauchantes : sans fin exclue " + ids);
+
+        // 2. Fin ajoutée puis retirée, suppression
+        Activite deux = copie(lignes.get(2L));
+        deux.setHoraireFin(heure(11).plusMinutes(30));
+        index.activiteModifiee(deux);
+        ids = ids(index.chevauchantes(1L, heure(11), heure(13), chargeur));
+        verifier(ids.contains(2L), "Fin ajoutée : activité passée dans l'arbre");
+        deux.setHoraireFin(null);
+        index.activiteModifiee(deux);
+        index.activiteSupprimee(4L);
+        ids = ids(index.debutEntre(1L, heure(8), heure(12), chargeur));
+        verifier(ids.equals(List.of(2L, 1L)), "Fin retirée et suppression : " + ids);
+
+        // 3. Ligne déjà lue par le chargement puis annoncée par activiteAjoutee
+        ajouter(lignes, 10, 2, heure(9), heure(10));
+        ajouter(lignes, 11, 2, heure(14), null);
+        index.chevauchantes(2L, heure(0), heure(23), chargeur);
+        int avant = index.getActivitesIndexees();
+        index.activiteAjoutee(copie(lignes.get(10L)));
+        index.activiteAjoutee(copie(lignes.get(11L)));
+        List<Long> chevauchantes = ids(index.chevauchantes(2L, heure(0), heure(23), chargeur));
+        List<Long> parDebut = ids(index.debutEntre(2L, heure(0), heure(23), chargeur));
+        verifier(chevauchantes.equals(List.of(10L)) && parDebut.equals(List.of(11L, 10L))
+                && index.getActivitesIndexees() == avant, "Ajout d'une ligne déjà indexée : pas de doublon");
+
+        // 4. Écritures aléatoires : mêmes résultats que les requêtes SQL
+        Random random = new Random(7);
+        int divergences = 0;
+        long prochainId = 100;
+        for (int etape = 0; etape < 3_000; etape++) {
+            int operation = random.nextInt(10);
+            List<Long> existants = lignes.values().stream().filter(a -> a.getIdUtilisateur() == 3L)
+                    .map(Activite::getIdActivite).collect(Collectors.toList());
+            if (operation < 4 || existants.isEmpty()) {
+                Activite a = ajouter(lignes, prochainId++, 3, aleatoire(random), null);
+                a.setHoraireFin(random.nextInt(5) == 0 ? null : a.getHoraireDebut().plusMinutes(15 + 15 * random.nextInt(8)));
+                index.activiteAjoutee(copie(a));
+            } else if (operation < 8) {
+                Activite a = lignes.get(existants.get(random.nextInt(existants.size())));
+                a.setHoraireDebut(random.nextInt(20) == 0 ? null : aleatoire(random));
+                a.setHoraireFin(a.getHoraireDebut() == null || random.nextInt(5) == 0 ? null
+                        : a.getHoraireDebut().plusMinutes(15 + 15 * random.nextInt(8)));
+                index.activiteModifiee(copie(a));
+            } else {
+                Long id = existants.get(random.nextInt(existants.size()));
+                lignes.remove(id);
+                index.activiteSupprimee(id);
+            }
+
+            LocalDateTime debut = aleatoire(random);
+            LocalDateTime fin = debut.plusHours(1 + random.nextInt(12));
+            List<Activite> attendues = chargeur.apply(3L);
+            List<Long> entreSql = ids(attendues.stream()
+                    .filter(a -> a.getHoraireDebut() != null && !a.getHoraireDebut().isBefore(debut)
+                            && !a.getHoraireDebut().isAfter(fin))
+                    .sorted(Comparator.comparing(Activite::getHoraireDebut).thenComparing(Activite::getIdActivite)
+                            .reversed())
+                    .collect(Collectors.toList()));
+            List<Long> chevauchantesSql = attendues.stream()
+                    .filter(a -> a.getHoraireDebut() != null && a.getHoraireFin() != null
+                            && a.getHoraireDebut().isBefore(fin) && a.getHoraireFin().isAfter(debut))
+                    .map(Activite::getIdActivite).sorted().collect(Collectors.toList());
+            List<Long> chevauchantesIndex = ids(index.chevauchantes(3L, debut, fin, chargeur));
+            chevauchantesIndex.sort(null);
+            if (!entreSql.equals(ids(index.debutEntre(3L, debut, fin, chargeur)))
+                    || !chevauchantesSql.equals(chevauchantesIndex)) {
+                divergences++;
+            }
+        }
+        verifier(divergences == 0, "3000 écritures aléatoires : mêmes résultats que BETWEEN et le chevauchement SQL");
+
+        // 5. Ajouts dans un arbre chargé : le budget évince l'utilisateur le moins récent
+        for (long id = 500; id < 503; id++) {
+            ajouter(lignes, id, 4, heure(9), heure(10));
+            ajouter(lignes, id + 10, 5, heure(9), heure(10));
+        }
+        index.chevauchantes(4L, heure(0), heure(23), chargeur);
+        index.chevauchantes(5L, heure(0), heure(23), chargeur);
+        for (long id = 600; id < 606; id++) {
+            index.activiteAjoutee(copie(ajouter(lignes, id, 5, heure(11), heure(12))));
+        }
+        verifier(index.getUtilisateursIndexes() == 1 && index.getActivitesIndexees() == 9,
+                "Ajouts au-delà du budget : utilisateur le moins récent évincé (" + index.getActivitesIndexees()
+                        + " activités indexées)");
+
+        System.out.println(echecs == 0 ? "\n✓ Tous les tests réussis" : "\n✗ " + echecs + " échec(s)");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static Activite ajouter(Map<Long, Activite> lignes, long id, long idUtilisateur, LocalDateTime debut,
+            LocalDateTime fin) {
+        Activite a = new Activite();
+        a.setIdActivite(id);
+        a.setIdUtilisateur(idUtilisateur);
+        a.setTitre("A" + id);
+        a.setHoraireDebut(debut);
+        a.setHoraireFin(fin);
+        lignes.put(id, a);
+        return a;
+    }
+
+    private static Activite copie(Activite a) {
+        Activite copie = new Activite();
+        copie.setIdActivite(a.getIdActivite());
+        copie.setIdUtilisateur(a.getIdUtilisateur());
+        copie.setTitre(a.getTitre());
+        copie.setHoraireDebut(a.getHoraireDebut());
+        copie.setHoraireFin(a.getHoraireFin());
+        return copie;
+    }
+
+    private static List<Long> ids(List<Activite> activites) {
+        List<Long> ids = new ArrayList<>();
+        for (Activite a : activites) {
+            ids.add(a.getIdActivite());
+        }
+        return ids;
+    }
+
+    private static LocalDateTime heure(int heure) {
+        return LUNDI.withHour(heure);
+    }
+
+    /** Un quart d'heure sur trois jours */
+    private static LocalDateTime aleatoire(Random random) {
+        return LUNDI.plusMinutes(15L * random.nextInt(3 * 96));
+    }
+
+    private static void verifier(boolean condition, String message) {
+        if (!condition) {
+            echecs++;
+        }
+        System.out.println((condition ? "✓ " : "✗ ") + message);
+    }
+}
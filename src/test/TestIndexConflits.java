@@ -0,0 +1,224 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import dao.cache.IndexConflits;
+
+/**
+ * Classe de test de l'index des conflits non résolus (sans base de données)
+ * La table conflit_activite est remplacée par une map en mémoire servie par un
+ * chargeur factice : règles de mise à jour, chargement concurrent d'un retrait
+ * (jamais sous le verrou, repli sur la requête), puis comparaison avec la
+ * table sur des écritures aléatoires.
+ */
+public class TestIndexConflits {
+
+    private static int echecs = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST IndexConflits ===\n");
+
+        testMiseAJour();
+        testChargement();
+        testAleatoire();
+
+        System.out.println(echecs == 0 ? "\n✓ Tous les tests réussis" : "\n✗ " + echecs + " échec(s)");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    /**
+     * Ajout, liaison, résolution, liens retirés et activité supprimée
+     */
+    private static void testMiseAJour() {
+        IndexConflits index = IndexConflits.getInstance();
+        Map<Long, Set<Long>> base = new LinkedHashMap<>();
+        base.put(1L, new HashSet<>(List.of(1L, 2L)));
+        base.put(2L, new HashSet<>(List.of(2L, 3L)));
+        Function<Long, Map<Long, List<Long>>> chargeur = u -> liens(base);
+
+        verifier(existe(index, 1, 1, 2, chargeur) && existe(index, 1, 2, 3, chargeur)
+                && !existe(index, 1, 1, 3, chargeur) && index.estCharge(1L), "Chargement : paires des conflits ouverts");
+
+        index.conflitAjoute(3L);
+        index.activiteLiee(3L, 1L);
+        index.activiteLiee(3L, 3L);
+        index.activiteLiee(99L, 4L); // conflit inconnu : ignoré
+        verifier(existe(index, 1, 3, 1, chargeur) && !existe(index, 1, 1, 4, chargeur)
+                && index.getActivitesDuConflit(99L).isEmpty(), "Liaison : seulement pour un conflit connu");
+
+        // Deux conflits sur la même paire : la paire reste tant que l'un est ouvert
+        index.conflitAjoute(4L);
+        index.activiteLiee(4L, 1L);
+        index.activiteLiee(4L, 2L);
+        index.conflitRetire(1L);
+        boolean reattribuee = existe(index, 1, 1, 2, chargeur);
+        index.conflitRetire(4L);
+        verifier(reattribuee && !existe(index, 1, 1, 2, chargeur), "Résolution : paire réattribuée puis retirée");
+
+        index.liensRetires(3L);
+        verifier(!existe(index, 1, 1, 3, chargeur) && index.getActivitesDuConflit(3L).isEmpty(),
+                "Liens retirés : conflit vide");
+        index.activiteLiee(3L, 5L);
+        index.activiteLiee(3L, 6L);
+        verifier(existe(index, 1, 5, 6, chargeur), "Liens retirés : conflit toujours ouvert, relié à nouveau");
+
+        index.activiteSupprimee(3L);
+        verifier(!existe(index, 1, 2, 3, chargeur) && index.getActivitesDuConflit(2L).equals(Set.of(2L)),
+                "Activité supprimée : paires et lien retirés");
+    }
+
+    /**
+     * Retrait concurrent à chaque tentative puis erreur de lecture : utilisateur
+     * laissé non chargé, réponse demandée à la base, requête jamais sous le verrou
+     */
+    private static void testChargement() {
+        IndexConflits index = IndexConflits.getInstance();
+        Map<Long, Set<Long>> base = new LinkedHashMap<>();
+        base.put(20L, new HashSet<>(List.of(20L, 21L)));
+        AtomicInteger requetes = new AtomicInteger();
+        AtomicInteger sousVerrou = new AtomicInteger();
+        AtomicInteger replis = new AtomicInteger();
+
+        Function<Long, Map<Long, List<Long>>> concurrent = u -> {
+            requetes.incrementAndGet();
+            if (Thread.holdsLock(index)) {
+                sousVerrou.incrementAndGet();
+            }
+            index.conflitRetire(-1L); // retrait d'un autre utilisateur pendant la requête
+            return liens(base);
+        };
+        boolean existe = index.existePaire(2L, 20L, 21L, concurrent, () -> {
+            replis.incrementAndGet();
+            return true;
+        });
+        verifier(existe && replis.get() == 1 && requetes.get() == 3 && sousVerrou.get() == 0 && !index.estCharge(2L),
+                "Retrait à chaque tentative : 3 requêtes hors verrou, non chargé, réponse de la base");
+
+        existe = index.existePaire(2L, 20L, 21L, u -> null, () -> {
+            replis.incrementAndGet();
+            return false;
+        });
+        verifier(!existe && replis.get() == 2 && !index.estCharge(2L), "Erreur de lecture : réponse de la base");
+
+        Function<Long, Map<Long, List<Long>>> calme = u -> {
+            requetes.incrementAndGet();
+            return liens(base);
+        };
+        existe = index.existePaire(2L, 20L, 21L, calme, () -> {
+            replis.incrementAndGet();
+            return false;
+        });
+        verifier(existe && replis.get() == 2 && index.estCharge(2L), "Appel suivant : utilisateur chargé");
+        int avant = requetes.get();
+        index.getConflitsDeActivite(2L, 20L, calme, HashSet::new);
+        verifier(requetes.get() == avant, "Utilisateur chargé : plus de requête");
+    }
+
+    /**
+     * Écritures aléatoires (création, liaison, résolution, liens retirés,
+     * suppression d'activité) : mêmes paires que la table
+     */
+    private static void testAleatoire() {
+        IndexConflits index = IndexConflits.getInstance();
+        Random random = new Random(4);
+        Map<Long, Set<Long>> base = new LinkedHashMap<>();
+        List<Long> activites = new ArrayList<>();
+        for (long id = 1000; id < 1020; id++) {
+            activites.add(id);
+        }
+        long prochainConflit = 10_000;
+        for (int i = 0; i < 10; i++) {
+            base.put(prochainConflit++, tirer(random, activites));
+        }
+        AtomicInteger replis = new AtomicInteger();
+        Function<Long, Map<Long, List<Long>>> chargeur = u -> liens(base);
+
+        int divergences = 0;
+        for (int etape = 0; etape < 2_000; etape++) {
+            int operation = random.nextInt(10);
+            List<Long> ouverts = new ArrayList<>(base.keySet());
+            if (operation < 4 || ouverts.isEmpty()) {
+                long id = prochainConflit++;
+                Set<Long> liees = tirer(random, activites);
+                base.put(id, liees);
+                index.conflitAjoute(id);
+                for (Long idActivite : liees) {
+                    index.activiteLiee(id, idActivite);
+                }
+            } else if (operation < 7) {
+                Long id = ouverts.get(random.nextInt(ouverts.size()));
+                base.remove(id);
+                index.conflitRetire(id);
+            } else if (operation < 8) {
+                Long id = ouverts.get(random.nextInt(ouverts.size()));
+                base.get(id).clear();
+                index.liensRetires(id);
+            } else if (operation < 9 && activites.size() > 5) {
+                Long idActivite = activites.remove(random.nextInt(activites.size()));
+                for (Set<Long> liees : base.values()) {
+                    liees.remove(idActivite);
+                }
+                index.activiteSupprimee(idActivite);
+            } else {
+                Long id = ouverts.get(random.nextInt(ouverts.size()));
+                Long idActivite = activites.get(random.nextInt(activites.size()));
+                base.get(id).add(idActivite);
+                index.activiteLiee(id, idActivite);
+            }
+
+            for (Long a : activites) {
+                for (Long b : activites) {
+                    if (a < b && index.existePaire(3L, a, b, chargeur, () -> replis.incrementAndGet() < 0)
+                            != paireEnBase(base, a, b)) {
+                        divergences++;
+                    }
+                }
+            }
+        }
+        verifier(divergences == 0 && replis.get() == 0,
+                "2000 écritures aléatoires : mêmes paires que conflit_activite (" + divergences + " écarts)");
+    }
+
+    private static boolean existe(IndexConflits index, long idUtilisateur, long a, long b,
+            Function<Long, Map<Long, List<Long>>> chargeur) {
+        return index.existePaire(idUtilisateur, a, b, chargeur, () -> {
+            throw new IllegalStateException("Utilisateur non chargé");
+        });
+    }
+
+    private static boolean paireEnBase(Map<Long, Set<Long>> base, Long a, Long b) {
+        return base.values().stream().anyMatch(liees -> liees.contains(a) && liees.contains(b));
+    }
+
+    /** Liens au format du chargeur (copie : la table continue de changer) */
+    private static Map<Long, List<Long>> liens(Map<Long, Set<Long>> base) {
+        Map<Long, List<Long>> liens = new HashMap<>();
+        base.forEach((id, liees) -> liens.put(id, new ArrayList<>(liees)));
+        return liens;
+    }
+
+    private static Set<Long> tirer(Random random, List<Long> activites) {
+        Set<Long> liees = new HashSet<>();
+        int nombre = 2 + random.nextInt(2);
+        while (liees.size() < nombre) {
+            liees.add(activites.get(random.nextInt(activites.size())));
+        }
+        return liees;
+    }
+
+    private static void verifier(boolean condition, String message) {
+        if (!condition) {
+            echecs++;
+        }
+        System.out.println((condition ? "✓ " : "✗ ") + message);
+    }
+}
@@ -0,0 +1,145 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import util.Journal;
+
+/**
+ * Classe de test du journal asynchrone (sans base de données)
+ * Vérifie les niveaux, la construction paresseuse et l'écriture de tous les
+ * messages dans l'ordre de chaque thread, puis compare le coût côté appelant
+ * avec l'ancien System.out.println synchronisé.
+ */
+public class TestJournal {
+
+    private static final int THREADS = 8;
+    private static final int MESSAGES = 20_000;
+
+    public static void main(String[] args) throws Exception {
+        // Anneau assez grand pour ne rien perdre pendant la vérification
+        System.setProperty("planner.log.tampon", String.valueOf(1 << 18));
+        PrintStream console = System.out;
+        System.out.println("=== TEST Journal ===\n");
+
+        ByteArrayOutputStream capture = new ByteArrayOutputStream();
+        Journal.setSortie(new PrintStream(capture, false, StandardCharsets.UTF_8));
+        Journal journal = Journal.pour(TestJournal.class);
+
+        // 1. Niveaux et construction paresseuse
+        AtomicInteger evaluations = new AtomicInteger();
+        journal.debug(() -> "jamais " + evaluations.incrementAndGet());
+        journal.info(() -> "toujours " + evaluations.incrementAndGet());
+        journal.info("{} + {} = {}", 1, 2, 3);
+        journal.erreur("Échec simulé", new IllegalStateException("cause simulée"));
+        Journal.setNiveau(Journal.Niveau.ERREUR);
+        journal.alerte("filtrée");
+        Journal.setNiveau(Journal.Niveau.INFO);
+        Journal.vider(2_000);
+        String sortie = capture.toString(StandardCharsets.UTF_8);
+        boolean ok = evaluations.get() == 1 && !journal.estDebug() && sortie.contains("INFO   [main] TestJournal - toujours 1")
+                && sortie.contains("1 + 2 = 3") && sortie.contains("ERREUR [main] TestJournal - Échec simulé")
+                && sortie.contains("java.lang.IllegalStateException: cause simulée") && !sortie.contains("filtrée");
+        System.out.println((ok ? "✓" : "✗") + " Niveaux : DEBUG désactivé non évalué, INFO formaté, ERREUR avec pile, seuil modifiable");
+
+        // 2. Plusieurs threads : tous les messages écrits, dans l'ordre de chaque thread
+        capture.reset();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int numero = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < MESSAGES; i++) {
+                    journal.info("t{} m{}", numero, i);
+                }
+            }, "producteur-" + t));
+        }
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+        ok = Journal.vider(5_000);
+        int[] attendu = new int[THREADS];
+        int lignes = 0;
+        for (String ligne : capture.toString(StandardCharsets.UTF_8).split("\n")) {
+            int debut = ligne.indexOf(" - t");
+            if (debut < 0) {
+                continue;
+            }
+            String[] parties = ligne.substring(debut + 4).trim().split(" m");
+            int t = Integer.parseInt(parties[0]);
+            ok &= Integer.parseInt(parties[1]) == attendu[t]++;
+            lignes++;
+        }
+        ok &= lignes == THREADS * MESSAGES && Journal.getPerdus() == 0;
+        System.out.println((ok ? "✓" : "✗") + " " + THREADS + " threads x " + MESSAGES + " messages : " + lignes
+                + " lignes, ordre de chaque thread conservé, " + Journal.getPerdus() + " perdu(s)");
+
+        // 3. Coût côté appelant, sortie lente (console, tube) : ~20 µs par écriture
+        PrintStream lente = new PrintStream(new SortieLente(), true, StandardCharsets.UTF_8);
+        Journal.setSortie(lente);
+        for (int tour = 0; tour < 3; tour++) {
+            mesurer(() -> lente.println("📥 GET /api/activites/utilisateur/" + 5), 2_000);
+            mesurer(() -> journal.info("📥 {} {}", "GET", "/api/activites/utilisateur/5"), 2_000);
+            Journal.vider(5_000);
+        }
+        double ancien = mesurer(() -> lente.println("📥 GET /api/activites/utilisateur/" + 5), 5_000);
+        double asynchrone = mesurer(() -> journal.info("📥 {} {}", "GET", "/api/activites/utilisateur/5"), 5_000);
+        long debutVidage = System.nanoTime();
+        Journal.vider(10_000);
+        long vidage = (System.nanoTime() - debutVidage) / 1_000_000;
+        System.out.printf("✓ %d threads : println %.0f ns/message, journal %.0f ns/message (vidage en %d ms)%n",
+                THREADS, ancien, asynchrone, vidage);
+
+        // 4. DEBUG désactivé sur le chemin d'une requête
+        int n = 20_000_000;
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            journal.debug("📥 {} {}", "GET", "/api/activites/utilisateur/5");
+        }
+        System.out.printf("✓ DEBUG désactivé : %.2f ns/appel%n", (double) (System.nanoTime() - debut) / n);
+
+        Journal.setSortie(console);
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    /**
+     * Durée moyenne par message vue par les threads appelants (8 threads en parallèle)
+     */
+    private static double mesurer(Runnable appel, int n) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    appel.run();
+                }
+            }));
+        }
+        long debut = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+        return (double) (System.nanoTime() - debut) / ((long) n * THREADS);
+    }
+
+    /**
+     * Sortie dont chaque écriture bloque ~20 µs, comme une console ou un tube plein
+     */
+    private static final class SortieLente extends OutputStream {
+        @Override
+        public void write(int b) {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            LockSupport.parkNanos(20_000L);
+        }
+    }
+}
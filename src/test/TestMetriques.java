@@ -0,0 +1,196 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import util.Histogramme;
+import util.Metriques;
+
+/**
+ * Classe de test des métriques (sans base de données)
+ * Vérifie la précision des quantiles de l'histogramme, les comptes sous
+ * plusieurs threads, le format d'exposition et le chronométrage des DAO, puis
+ * compare le coût d'un enregistrement avec l'ancienne approche (compteurs et
+ * liste de durées sous verrou).
+ */
+public class TestMetriques {
+
+    private static final int THREADS = 8;
+    private static final int MESURES = 200_000;
+
+    /** DAO factice : le proxy doit chronométrer ses méthodes */
+    public interface DaoFactice {
+        int lire(int id) throws InterruptedException;
+
+        void echouer();
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== TEST Métriques ===\n");
+
+        // 1. Quantiles : latences log-normales, comparées aux valeurs exactes triées
+        Histogramme histogramme = new Histogramme();
+        SplittableRandom aleatoire = new SplittableRandom(42);
+        long[] valeurs = new long[MESURES];
+        for (int i = 0; i < MESURES; i++) {
+            valeurs[i] = (long) Math.exp(13 + 1.5 * gaussienne(aleatoire)); // ~0,4 ms de médiane
+            histogramme.enregistrer(valeurs[i]);
+        }
+        Arrays.sort(valeurs);
+        Histogramme.Instantane instantane = histogramme.instantane();
+        boolean ok = instantane.getTotal() == MESURES && instantane.getMaxNanos() == valeurs[MESURES - 1];
+        double ecartMax = 0;
+        for (double q : new double[] { 0.5, 0.9, 0.99, 0.999, 1.0 }) {
+            long exact = valeurs[(int) Math.ceil(q * MESURES) - 1];
+            double ecart = Math.abs(instantane.quantile(q) - exact) / (double) exact;
+            ecartMax = Math.max(ecartMax, ecart);
+        }
+        ok &= ecartMax <= 0.032 && new Histogramme().instantane().quantile(0.99) == 0;
+        System.out.printf("%s Quantiles p50..p100 : écart max %.2f %% avec les valeurs exactes (≤ 3,2 %%)%n",
+                ok ? "✓" : "✗", ecartMax * 100);
+
+        // 2. Plusieurs threads : aucun enregistrement perdu
+        Histogramme partage = new Histogramme();
+        LongAdder compteur = Metriques.compteur("test_requetes_total", "Requêtes de test");
+        executer(() -> {
+            partage.enregistrer(1_000);
+            compteur.increment();
+        }, MESURES);
+        long attendu = (long) THREADS * MESURES;
+        ok = partage.instantane().getTotal() == attendu && partage.instantane().getSommeNanos() == attendu * 1_000
+                && compteur.sum() == attendu;
+        System.out.println((ok ? "✓" : "✗") + " " + THREADS + " threads x " + MESURES + " : " + compteur.sum()
+                + " comptes, somme exacte");
+
+        // 3. DAO instrumenté : durées par méthode, exceptions propagées telles quelles
+        DaoFactice dao = Metriques.instrumenter(DaoFactice.class, new DaoFactice() {
+            @Override
+            public int lire(int id) throws InterruptedException {
+                Thread.sleep(2);
+                return id * 2;
+            }
+
+            @Override
+            public void echouer() {
+                throw new IllegalStateException("échec simulé");
+            }
+        });
+        ok = dao.lire(21) == 42;
+        try {
+            dao.echouer();
+            ok = false;
+        } catch (IllegalStateException e) {
+            ok &= "échec simulé".equals(e.getMessage());
+        }
+        Histogramme.Instantane lire = Metriques.histogramme("planner_dao_duree_secondes", "",
+                "dao", "DaoFactice", "methode", "lire").instantane();
+        ok &= lire.getTotal() == 1 && lire.getMaxNanos() >= 2_000_000;
+        System.out.printf("%s DAO instrumenté : lire() chronométré (%.1f ms), exception d'origine propagée%n",
+                ok ? "✓" : "✗", lire.getMaxNanos() / 1e6);
+
+        // 4. Exposition au format texte de Prometheus
+        Metriques.jauge("test_pool_actives", "Jauge de test", () -> Double.NaN);
+        Metriques.compteurLu("test_refus_total", "Compteur tenu ailleurs", () -> 7);
+        Metriques.enregistrerOptimisation(1_000, 250, 1_000_000);
+        String texte = Metriques.exposer();
+        ok = texte.contains("# TYPE test_requetes_total counter\ntest_requetes_total " + attendu + "\n")
+                && texte.contains("# TYPE planner_dao_duree_secondes summary\n")
+                && texte.contains("planner_dao_duree_secondes{dao=\"DaoFactice\",methode=\"lire\",quantile=\"0.99\"} ")
+                && texte.contains("planner_dao_duree_secondes_count{dao=\"DaoFactice\",methode=\"lire\"} 1\n")
+                && texte.contains("test_pool_actives NaN\n")
+                && texte.contains("# TYPE test_refus_total counter\ntest_refus_total 7\n")
+                && texte.contains("planner_optimiseur_taux_acceptation 0.25\n");
+        try {
+            Metriques.histogramme("test_requetes_total", "Type différent");
+            ok = false;
+        } catch (IllegalArgumentException e) {
+            // attendu
+        }
+        try {
+            Metriques.compteur("test_refus_total", "Compteur lu");
+            ok = false;
+        } catch (IllegalArgumentException e) {
+            // attendu
+        }
+        System.out.println((ok ? "✓" : "✗")
+                + " Exposition : counter (incrémenté et lu), summary (quantiles, _sum, _count), jauge NaN, types vérifiés");
+
+        // 5. Coût d'un enregistrement : ancienne approche synchronisée / histogramme sans verrou
+        AncienneMesure ancienne = new AncienneMesure();
+        Histogramme nouveau = new Histogramme();
+        for (int tour = 0; tour < 3; tour++) {
+            executer(() -> ancienne.enregistrer(System.nanoTime() & 0xFFFFF), MESURES);
+            executer(() -> nouveau.enregistrer(System.nanoTime() & 0xFFFFF), MESURES);
+            ancienne.reinitialiser();
+        }
+        double ancien = executer(() -> ancienne.enregistrer(System.nanoTime() & 0xFFFFF), MESURES);
+        long debutTri = System.nanoTime();
+        ancienne.quantile(0.99);
+        long tri = (System.nanoTime() - debutTri) / 1_000_000;
+        double sansVerrou = executer(() -> nouveau.enregistrer(System.nanoTime() & 0xFFFFF), MESURES);
+        long debutLecture = System.nanoTime();
+        nouveau.instantane().quantile(0.99);
+        double lecture = (System.nanoTime() - debutLecture) / 1e6;
+        System.out.printf("✓ %d threads : synchronisé %.0f ns/mesure (p99 par tri : %d ms, mémoire croissante), "
+                + "histogramme %.0f ns/mesure (p99 : %.2f ms, mémoire fixe)%n", THREADS, ancien, tri, sansVerrou, lecture);
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static double gaussienne(SplittableRandom aleatoire) {
+        return Math.sqrt(-2 * Math.log(1 - aleatoire.nextDouble())) * Math.cos(2 * Math.PI * aleatoire.nextDouble());
+    }
+
+    /**
+     * Durée moyenne par appel vue par les threads appelants (8 threads en parallèle)
+     */
+    private static double executer(Runnable appel, int n) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    appel.run();
+                }
+            }));
+        }
+        long debut = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread t : threads) {
+            t.join();
+        }
+        return (double) (System.nanoTime() - debut) / ((long) n * THREADS);
+    }
+
+    /**
+     * Ancienne approche : compteurs et durées brutes sous un même verrou,
+     * quantiles calculés en triant toutes les durées
+     */
+    private static final class AncienneMesure {
+        private long nombre;
+        private long somme;
+        private long[] durees = new long[1024];
+
+        synchronized void enregistrer(long nanos) {
+            if (nombre == durees.length) {
+                durees = Arrays.copyOf(durees, durees.length * 2);
+            }
+            durees[(int) nombre++] = nanos;
+            somme += nanos;
+        }
+
+        synchronized long quantile(double q) {
+            long[] triees = Arrays.copyOf(durees, (int) nombre);
+            Arrays.sort(triees);
+            return triees.length == 0 ? 0 : triees[(int) Math.ceil(q * triees.length) - 1];
+        }
+
+        synchronized void reinitialiser() {
+            nombre = 0;
+            somme = 0;
+            durees = new long[1024];
+        }
+    }
+}
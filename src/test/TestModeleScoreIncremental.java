@@ -0,0 +1,206 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeActivite;
+import service.impl.ActiviteServiceImpl;
+import service.planning.ModeleScoreIncremental;
+import service.planning.PlanningCompact;
+
+/**
+ * Classe de test du score incrémental de l'optimiseur
+ * Compare le score maintenu par déplacements successifs avec
+ * calculerScoreAvecConflits recalculé entièrement, et vérifie que la boucle
+ * d'optimisation n'alloue pas de mémoire (sans base de données)
+ */
+public class TestModeleScoreIncremental {
+
+    private static final int[] DECALAGES = { -240, -120, -60, -30, 30, 60, 120, 240 };
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST ModeleScoreIncremental ===\n");
+
+        ActiviteServiceImpl service = new ActiviteServiceImpl();
+        Random random = new Random(11);
+        int echecs = 0;
+
+        for (int scenario = 0; scenario < 20; scenario++) {
+            int taille = 2 + random.nextInt(80);
+            List<Activite> activites = genererPlanning(random, taille);
+            List<Contrainte> contraintes = genererContraintes(random);
+
+            ModeleScoreIncremental modele = new ModeleScoreIncremental(PlanningCompact.depuis(activites),
+                    controle(service, contraintes));
+            echecs += comparer(service, modele, contraintes, "scénario " + scenario + " initial");
+
+            for (int i = 0; i < 400; i++) {
+                int indice = random.nextInt(taille);
+                int decalage = DECALAGES[random.nextInt(DECALAGES.length)];
+                if (!modele.estDeplacable(indice, decalage)) {
+                    continue;
+                }
+                double avant = modele.getScore();
+                double delta = modele.deplacer(indice, decalage);
+                if (Math.abs(modele.getScore() - avant - delta) > 1e-9) {
+                    echecs++;
+                }
+                if (random.nextInt(3) == 0) {
+                    modele.annuler();
+                    if (Math.abs(modele.getScore() - avant) > 1e-9) {
+                        System.out.println("❌ Annulation incorrecte (scénario " + scenario + ")");
+                        echecs++;
+                    }
+                }
+                if (i % 40 == 0) {
+                    echecs += comparer(service, modele, contraintes, "scénario " + scenario + " itération " + i);
+                }
+            }
+            echecs += comparer(service, modele, contraintes, "scénario " + scenario + " final");
+        }
+
+        // Mesure indicative : 500 activités, 20 000 déplacements évalués
+        List<Activite> grand = genererPlanning(random, 500);
+        List<Contrainte> contraintes = genererContraintes(random);
+        ModeleScoreIncremental modele = new ModeleScoreIncremental(PlanningCompact.depuis(grand),
+                controle(service, contraintes));
+        long debut = System.nanoTime();
+        int evalues = boucle(modele, new SplittableRandom(3), 20_000);
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        System.out.println("ℹ️ " + evalues + " déplacements évalués sur 500 activités en " + dureeMs + " ms");
+        echecs += comparer(service, modele, contraintes, "grand planning");
+
+        // Boucle d'optimisation sans allocation (contrôle de contraintes primitif)
+        ModeleScoreIncremental primitif = new ModeleScoreIncremental(PlanningCompact.depuis(grand),
+                (d, f) -> PlanningCompact.minuteDuJour(d) >= 21 * 60 ? 1 : 0);
+        SplittableRandom aleatoire = new SplittableRandom(5);
+        boucle(primitif, aleatoire, 50_000); // chauffe
+        com.sun.management.ThreadMXBean mx = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allouesAvant = mx.getCurrentThreadAllocatedBytes();
+        boucle(primitif, aleatoire, 50_000);
+        long alloues = mx.getCurrentThreadAllocatedBytes() - allouesAvant;
+        System.out.println("ℹ️ Octets alloués pendant 50 000 itérations : " + alloues);
+        if (alloues > 1_024) {
+            System.out.println("❌ La boucle d'optimisation alloue de la mémoire");
+            echecs++;
+        }
+
+        System.out.println();
+        if (echecs == 0) {
+            System.out.println("✅ Score incrémental identique au calcul complet");
+        } else {
+            System.out.println("❌ " + echecs + " écart(s) détecté(s)");
+        }
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static int boucle(ModeleScoreIncremental modele, SplittableRandom random, int iterations) {
+        int evalues = 0;
+        for (int i = 0; i < iterations; i++) {
+            int indice = random.nextInt(modele.taille());
+            int decalage = DECALAGES[random.nextInt(DECALAGES.length)];
+            if (modele.estDeplacable(indice, decalage)) {
+                if (modele.deplacer(indice, decalage) < 0) {
+                    modele.annuler();
+                }
+                evalues++;
+            }
+        }
+        return evalues;
+    }
+
+    /**
+     * Contrôle de référence : planningValide sur l'activité seule, contrainte par contrainte.
+     */
+    private static ModeleScoreIncremental.ControleContraintes controle(ActiviteServiceImpl service,
+            List<Contrainte> contraintes) {
+        return (debut, fin) -> {
+            Activite a = new Activite();
+            a.setHoraireDebut(PlanningCompact.dateTime(debut));
+            a.setHoraireFin(PlanningCompact.dateTime(fin));
+            int violations = 0;
+            for (Contrainte c : contraintes) {
+                if (!service.planningValide(List.of(a), List.of(c))) {
+                    violations++;
+                }
+            }
+            return violations;
+        };
+    }
+
+    private static int comparer(ActiviteServiceImpl service, ModeleScoreIncremental modele,
+            List<Contrainte> contraintes, String contexte) {
+        List<Activite> courant = modele.getPlanning().versActivites();
+        double attendu = service.calculerScoreAvecConflits(courant, contraintes);
+        if (Math.abs(attendu - modele.getScore()) > 1e-6) {
+            System.out.println("❌ " + contexte + " : attendu " + attendu + ", obtenu " + modele.getScore());
+            return 1;
+        }
+        if (service.planningValide(courant, contraintes) != modele.estValide()) {
+            System.out.println("❌ " + contexte + " : validité différente");
+            return 1;
+        }
+        return 0;
+    }
+
+    private static List<Activite> genererPlanning(Random random, int taille) {
+        TypeActivite[] types = TypeActivite.values();
+        LocalDateTime origine = LocalDateTime.of(2025, 3, 3, 0, 0);
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            LocalDateTime debut = origine.plusDays(random.nextInt(7))
+                    .plusHours(6 + random.nextInt(14))
+                    .plusMinutes(30 * random.nextInt(2));
+            LocalDateTime fin = debut.plusMinutes(30 + 30 * random.nextInt(6));
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setTitre("Activité " + i);
+            a.setTypeActivite(types[random.nextInt(types.length)]);
+            a.setPriorite(random.nextInt(4) == 0 ? null : 1 + random.nextInt(10));
+            a.setHoraireDebut(debut);
+            a.setHoraireFin(fin);
+            a.setDeadline(random.nextBoolean() ? fin.plusHours(random.nextInt(5) - 2) : null);
+            a.setIdUtilisateur(1L);
+            activites.add(a);
+        }
+        return activites;
+    }
+
+    private static List<Contrainte> genererContraintes(Random random) {
+        List<Contrainte> contraintes = new ArrayList<>();
+
+        Contrainte sommeil = new Contrainte();
+        sommeil.setTitre("Sommeil");
+        sommeil.setDateHeureDeb(LocalTime.of(21, 0));
+        sommeil.setDateHeureFin(LocalTime.of(23, 59));
+        sommeil.setRepetitif(true);
+        sommeil.setJoursSemaine(List.of(DayOfWeek.values()));
+        contraintes.add(sommeil);
+
+        Contrainte reunion = new Contrainte();
+        reunion.setTitre("Réunion");
+        reunion.setDateHeureDeb(LocalTime.of(10 + random.nextInt(4), 0));
+        reunion.setDateHeureFin(LocalTime.of(15, 0));
+        reunion.setRepetitif(false);
+        reunion.setDatesSpecifiques(List.of(LocalDate.of(2025, 3, 4), LocalDate.of(2025, 3, 6)));
+        contraintes.add(reunion);
+
+        Contrainte sport = new Contrainte();
+        sport.setTitre("Sport");
+        sport.setDateHeureDeb(LocalTime.of(7, 0));
+        sport.setDateHeureFin(LocalTime.of(8, 30));
+        sport.setRepetitif(true);
+        sport.setJoursSemaine(List.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY));
+        contraintes.add(sport);
+        return contraintes;
+    }
+}
@@ -0,0 +1,117 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import entities.Activite;
+import entities.Contrainte;
+import entities.TypeActivite;
+import service.impl.ActiviteServiceImpl;
+import service.planning.OptimiseurParallele;
+
+/**
+ * Classe de test de l'optimisation parallèle (multi-départs et tempering)
+ * Vérifie la reproductibilité pour une graine donnée et la cohérence du score
+ * retourné avec calculerScoreAvecConflits (sans base de données)
+ */
+public class TestOptimiseurParallele {
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST OptimiseurParallele ===\n");
+
+        ActiviteServiceImpl service = new ActiviteServiceImpl();
+        List<Activite> activites = genererPlanning(new Random(3), 200);
+        List<Contrainte> contraintes = genererContraintes();
+        double scoreInitial = service.calculerScoreAvecConflits(activites, contraintes);
+        int echecs = 0;
+
+        for (OptimiseurParallele.Mode mode : OptimiseurParallele.Mode.values()) {
+            OptimiseurParallele.Parametres parametres = new OptimiseurParallele.Parametres(4, 42L, 0, 3_000, mode);
+            OptimiseurParallele.Resultat premier = service.optimiserPlanningParallele(activites, contraintes, parametres);
+            OptimiseurParallele.Resultat second = service.optimiserPlanningParallele(activites, contraintes, parametres);
+
+            if (premier.getScore() != second.getScore() || !memesHoraires(premier.getActivites(), second.getActivites())) {
+                System.out.println("❌ " + mode + " : résultats différents pour la même graine");
+                echecs++;
+            }
+            double recalcule = service.calculerScoreAvecConflits(premier.getActivites(), contraintes);
+            if (Math.abs(recalcule - premier.getScore()) > 1e-6) {
+                System.out.println("❌ " + mode + " : score annoncé " + premier.getScore() + ", recalculé " + recalcule);
+                echecs++;
+            }
+            if (premier.getScore() < scoreInitial) {
+                System.out.println("❌ " + mode + " : score inférieur au score initial");
+                echecs++;
+            }
+            if (premier.getIterations() != 4L * 3_000) {
+                System.out.println("❌ " + mode + " : " + premier.getIterations() + " itérations au lieu de 12000");
+                echecs++;
+            }
+            System.out.println("ℹ️ " + mode + " : " + scoreInitial + " → " + premier.getScore() + " en "
+                    + premier.getDureeMs() + " ms, " + premier.getEchanges() + " échanges");
+        }
+
+        // Budget de temps : arrêt entre deux époques
+        OptimiseurParallele.Parametres court = new OptimiseurParallele.Parametres(2, 1L, 1, 10_000_000,
+                OptimiseurParallele.Mode.MULTI_DEPARTS);
+        OptimiseurParallele.Resultat interrompu = service.optimiserPlanningParallele(activites, contraintes, court);
+        if (!interrompu.isBudgetAtteint()) {
+            System.out.println("❌ Le budget de temps n'a pas interrompu l'optimisation");
+            echecs++;
+        }
+
+        System.out.println();
+        if (echecs == 0) {
+            System.out.println("✅ Optimisation parallèle reproductible et cohérente");
+        } else {
+            System.out.println("❌ " + echecs + " erreur(s)");
+        }
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static boolean memesHoraires(List<Activite> a, List<Activite> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getHoraireDebut().equals(b.get(i).getHoraireDebut())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Activite> genererPlanning(Random random, int taille) {
+        TypeActivite[] types = TypeActivite.values();
+        LocalDateTime origine = LocalDateTime.of(2025, 3, 3, 0, 0);
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < taille; i++) {
+            LocalDateTime debut = origine.plusDays(random.nextInt(7)).plusHours(7 + random.nextInt(12));
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setTitre("Activité " + i);
+            a.setTypeActivite(types[random.nextInt(types.length)]);
+            a.setPriorite(1 + random.nextInt(10));
+            a.setHoraireDebut(debut);
+            a.setHoraireFin(debut.plusMinutes(30 + 30 * random.nextInt(4)));
+            a.setDeadline(debut.plusHours(random.nextInt(6)));
+            a.setIdUtilisateur(1L);
+            activites.add(a);
+        }
+        return activites;
+    }
+
+    private static List<Contrainte> genererContraintes() {
+        Contrainte soiree = new Contrainte();
+        soiree.setTitre("Soirée");
+        soiree.setDateHeureDeb(LocalTime.of(20, 0));
+        soiree.setDateHeureFin(LocalTime.of(23, 59));
+        soiree.setRepetitif(true);
+        soiree.setJoursSemaine(List.of(DayOfWeek.values()));
+        return List.of(soiree);
+    }
+}
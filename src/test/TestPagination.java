@@ -0,0 +1,128 @@
+package test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import entities.Activite;
+import util.Curseur;
+import util.Page;
+
+/**
+ * Classe de test de la pagination par clé (sans base de données)
+ * Parcourt des historiques page par page avec le même filtre et le même ordre
+ * que ActiviteDAOImpl et compare avec la liste complète
+ */
+public class TestPagination {
+
+    /** ORDER BY horaire_debut DESC, id_activite DESC (MySQL : NULL en dernier) */
+    private static final Comparator<Activite> ORDRE = Comparator
+            .comparing(Activite::getHoraireDebut, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Activite::getIdActivite)
+            .reversed();
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST Pagination ===\n");
+
+        // 1. Jeton : aller-retour et refus des jetons invalides
+        Curseur avecHoraire = new Curseur(LocalDateTime.of(2025, 3, 3, 9, 30), 42L);
+        Curseur sansHoraire = new Curseur(null, 7L);
+        boolean ok = avecHoraire.equals(Curseur.decoder(avecHoraire.encoder()))
+                && sansHoraire.equals(Curseur.decoder(sansHoraire.encoder()))
+                && Curseur.decoder(null) == null && Curseur.decoder("") == null;
+        System.out.println((ok ? "✓" : "✗") + " Jeton : aller-retour " + avecHoraire.encoder());
+
+        int refuses = 0;
+        String[] invalides = { "%%%", "abc", avecHoraire.encoder().substring(2), "MX5vdA" };
+        for (String jeton : invalides) {
+            try {
+                Curseur.decoder(jeton);
+            } catch (IllegalArgumentException e) {
+                refuses++;
+            }
+        }
+        System.out.println((refuses == invalides.length ? "✓" : "✗") + " Jetons invalides refusés : " + refuses + "/"
+                + invalides.length);
+
+        // 2. Taille bornée
+        ok = Page.taille(null) == Page.TAILLE_DEFAUT && Page.taille(0) == 1 && Page.taille(-5) == 1
+                && Page.taille(Integer.MAX_VALUE) == Page.TAILLE_MAX;
+        System.out.println((ok ? "✓" : "✗") + " Taille : défaut " + Page.TAILLE_DEFAUT + ", max " + Page.TAILLE_MAX);
+
+        // 3. Parcours complet page par page, horaires en double et sans horaire compris
+        Random random = new Random(21);
+        int echecs = 0;
+        for (int essai = 0; essai < 200; essai++) {
+            List<Activite> activites = genererActivites(random, random.nextInt(120));
+            List<Activite> attendu = activites.stream().sorted(ORDRE).collect(Collectors.toList());
+            int taille = 1 + random.nextInt(25);
+
+            List<Activite> lues = new ArrayList<>();
+            Set<Long> ids = new HashSet<>();
+            String jeton = null;
+            int pages = 0;
+            do {
+                Page<Activite> page = lirePage(activites, Curseur.decoder(jeton), taille);
+                for (Activite a : page.getElements()) {
+                    ids.add(a.getIdActivite());
+                }
+                lues.addAll(page.getElements());
+                jeton = page.getCurseurSuivant();
+                pages++;
+            } while (jeton != null && pages <= activites.size() + 1);
+
+            if (!lues.equals(attendu) || ids.size() != activites.size()) {
+                echecs++;
+                System.out.println("✗ Essai " + essai + " : " + lues.size() + " lues pour " + activites.size());
+            }
+        }
+        System.out.println(echecs == 0 ? "✓ 200 historiques : chaque activité lue une fois, dans l'ordre de la liste complète"
+                : "✗ " + echecs + " historiques divergents");
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    /**
+     * Même filtre que la requête de ActiviteDAOImpl, appliqué en mémoire
+     */
+    private static Page<Activite> lirePage(List<Activite> activites, Curseur curseur, int taille) {
+        List<Activite> lues = activites.stream()
+                .filter(a -> apres(a, curseur))
+                .sorted(ORDRE)
+                .limit(taille + 1L)
+                .collect(Collectors.toList());
+        return Page.depuisLecture(lues, taille, a -> new Curseur(a.getHoraireDebut(), a.getIdActivite()));
+    }
+
+    private static boolean apres(Activite a, Curseur curseur) {
+        if (curseur == null) {
+            return true;
+        }
+        LocalDateTime h = a.getHoraireDebut();
+        if (curseur.getHoraire() == null) {
+            return h == null && a.getIdActivite() < curseur.getId();
+        }
+        return h == null || h.isBefore(curseur.getHoraire())
+                || (h.equals(curseur.getHoraire()) && a.getIdActivite() < curseur.getId());
+    }
+
+    private static List<Activite> genererActivites(Random random, int nombre) {
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setIdUtilisateur(1L);
+            if (random.nextInt(8) != 0) {
+                // Peu d'horaires distincts : beaucoup d'égalités départagées par l'identifiant
+                a.setHoraireDebut(LocalDateTime.of(2025, 3, 3, 8, 0).plusHours(random.nextInt(20)));
+            }
+            activites.add(a);
+        }
+        return activites;
+    }
+}
@@ -0,0 +1,178 @@
+package test;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import controller.Aiguillage;
+import controller.Routes;
+
+/**
+ * Classe de test de la table de routes et de l'aiguillage des controllers
+ * (sans serveur ni base de données)
+ * Vérifie les correspondances puis compare le coût d'aiguillage avec
+ * l'ancienne version (réflexion à chaque requête et expressions régulières)
+ */
+public class TestRoutes {
+
+    private static final Routes.Gestionnaire TOUTES = (req, resp, out, p) -> { };
+    private static final Routes.Gestionnaire PAR_UTILISATEUR = (req, resp, out, p) -> { };
+    private static final Routes.Gestionnaire PAR_TYPE = (req, resp, out, p) -> { };
+    private static final Routes.Gestionnaire SCORE = (req, resp, out, p) -> { };
+    private static final Routes.Gestionnaire DETAIL = (req, resp, out, p) -> { };
+    private static final Routes.Gestionnaire JOBS = (req, resp, out, p) -> { };
+
+    /** Controller factice : compte les appels, ne redéfinit ni doPost ni doPut */
+    public static class ControllerFactice extends HttpServlet {
+        private static final long serialVersionUID = 1L;
+
+        long appels;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+            appels++;
+        }
+
+        protected void doPatch(HttpServletRequest req, HttpServletResponse resp) {
+            appels++;
+        }
+    }
+
+    public static void main(String[] args) throws Throwable {
+        System.out.println("=== TEST Routes ===\n");
+
+        // Mêmes modèles que ActiviteController
+        Routes routes = new Routes()
+                .get("/", TOUTES)
+                .get("/utilisateur/{userId}", PAR_UTILISATEUR)
+                .get("/utilisateur/{userId}/type/{type}", PAR_TYPE)
+                .get("/utilisateur/{userId}/score", SCORE)
+                .get("/{id}", DETAIL)
+                .post("/utilisateur/{userId}/optimiser/jobs", JOBS);
+
+        int echecs = 0;
+        echecs += verifier(routes, "GET", null, TOUTES, Map.of());
+        echecs += verifier(routes, "GET", "/", TOUTES, Map.of());
+        echecs += verifier(routes, "GET", "/utilisateur/5", PAR_UTILISATEUR, Map.of("userId", "5"));
+        echecs += verifier(routes, "GET", "/utilisateur/5/", PAR_UTILISATEUR, Map.of("userId", "5"));
+        echecs += verifier(routes, "GET", "/utilisateur/5/score", SCORE, Map.of("userId", "5"));
+        echecs += verifier(routes, "GET", "/utilisateur/7/type/Sport", PAR_TYPE,
+                Map.of("userId", "7", "type", "Sport"));
+        echecs += verifier(routes, "GET", "/42", DETAIL, Map.of("id", "42"));
+        // Le segment fixe ne mène à rien seul : la variable est essayée
+        echecs += verifier(routes, "GET", "/utilisateur", DETAIL, Map.of("id", "utilisateur"));
+        echecs += verifier(routes, "GET", "/utilisateur/5/inconnu", null, Map.of());
+        echecs += verifier(routes, "POST", "/utilisateur/5/optimiser/jobs", JOBS, Map.of("userId", "5"));
+        echecs += verifier(routes, "DELETE", "/utilisateur/5", null, Map.of());
+
+        boolean refuse = false;
+        try {
+            new Routes().get("/{id}", TOUTES).get("/{autre}/x", TOUTES);
+        } catch (IllegalArgumentException e) {
+            refuse = true;
+        }
+        System.out.println((refuse ? "✓" : "✗") + " Deux variables de noms différents au même niveau refusées");
+        System.out.println(echecs == 0 ? "✓ 11 chemins : routes et variables attendues" : "✗ " + echecs + " chemins divergents");
+
+        // Aiguillage : préfixe et méthodes redéfinies
+        ControllerFactice controller = new ControllerFactice();
+        Aiguillage aiguillage = new Aiguillage().enregistrer("activites", controller);
+        Aiguillage.Controleur cible = aiguillage.trouver("/activites/utilisateur/5");
+        boolean ok = cible != null && aiguillage.trouver("/activites") == cible && aiguillage.trouver("/autre") == null
+                && cible.accepte("GET") && cible.accepte("PATCH") && !cible.accepte("POST");
+        cible.invoquer("GET", null, null);
+        cible.invoquer("PATCH", null, null);
+        ok &= controller.appels == 2;
+        System.out.println((ok ? "✓" : "✗") + " Aiguillage : préfixe, méthodes redéfinies (GET, PATCH) et appel");
+
+        // Coût d'aiguillage : ancienne version / nouvelle version
+        String[] chemins = { "/activites/utilisateur/12", "/activites/utilisateur/12/score", "/activites/345",
+                "/activites/utilisateur/12/type/Sport" };
+        Map<String, HttpServlet> controllers = new HashMap<>();
+        controllers.put("activites", controller);
+        for (int tour = 0; tour < 5; tour++) {
+            mesurerAncien(controllers, chemins, 200_000);
+            mesurerNouveau(aiguillage, routes, chemins, 200_000);
+        }
+        int n = 1_000_000;
+        double ancien = mesurerAncien(controllers, chemins, n);
+        double nouveau = mesurerNouveau(aiguillage, routes, chemins, n);
+        System.out.printf("✓ Aiguillage : ancien %.0f ns/requête, nouveau %.0f ns/requête (x%.1f)%n", ancien, nouveau,
+                ancien / nouveau);
+
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static int verifier(Routes routes, String methode, String chemin, Routes.Gestionnaire attendu,
+            Map<String, String> variables) {
+        Routes.Correspondance route = routes.trouver(methode, chemin);
+        boolean ok;
+        if (attendu == null) {
+            ok = route == null;
+        } else {
+            ok = route != null && route.getGestionnaire() == attendu
+                    && route.getParametres().taille() == variables.size();
+            for (Map.Entry<String, String> variable : variables.entrySet()) {
+                ok &= route != null && variable.getValue().equals(route.getParametres().get(variable.getKey()));
+            }
+        }
+        if (!ok) {
+            System.out.println("✗ " + methode + " " + chemin);
+        }
+        return ok ? 0 : 1;
+    }
+
+    /**
+     * Ancienne version : split du chemin, getDeclaredMethod + setAccessible +
+     * invoke, puis la chaîne de matches() de ActiviteController.doGet
+     */
+    private static double mesurerAncien(Map<String, HttpServlet> controllers, String[] chemins, int n)
+            throws Exception {
+        long total = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            String apiPath = chemins[i % chemins.length];
+            HttpServlet servlet = controllers.get(apiPath.substring(1).split("/")[0]);
+            Method method = HttpServlet.class.getDeclaredMethod("doGet", HttpServletRequest.class,
+                    HttpServletResponse.class);
+            method.setAccessible(true);
+            method.invoke(servlet, null, null);
+
+            String pathInfo = "/" + apiPath.substring(1).split("/", 2)[1];
+            if (pathInfo.matches("/utilisateur/\\d+/score")) {
+                total += Long.parseLong(pathInfo.split("/")[2]);
+            } else if (pathInfo.matches("/utilisateur/\\d+/valider")) {
+                total += Long.parseLong(pathInfo.split("/")[2]);
+            } else if (pathInfo.startsWith("/utilisateur/")) {
+                total += Long.parseLong(pathInfo.split("/")[2]);
+            } else {
+                total += Long.parseLong(pathInfo.substring(1));
+            }
+        }
+        long duree = System.nanoTime() - debut;
+        return total > 0 ? (double) duree / n : 0;
+    }
+
+    /**
+     * Nouvelle version : Aiguillage (MethodHandle résolu au démarrage) puis la table de routes
+     */
+    private static double mesurerNouveau(Aiguillage aiguillage, Routes routes, String[] chemins, int n)
+            throws Exception {
+        long total = 0;
+        long debut = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            String apiPath = chemins[i % chemins.length];
+            aiguillage.trouver(apiPath).invoquer("GET", null, null);
+
+            String pathInfo = apiPath.substring(apiPath.indexOf('/', 1));
+            Routes.Parametres p = routes.trouver("GET", pathInfo).getParametres();
+            total += Long.parseLong(p.get(p.get("userId") != null ? "userId" : "id"));
+        }
+        long duree = System.nanoTime() - debut;
+        return total > 0 ? (double) duree / n : 0;
+    }
+}
@@ -0,0 +1,165 @@
+package test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import entities.Activite;
+import entities.TypeActivite;
+import service.statistiques.SyntheseActivites;
+
+/**
+ * Classe de test de la synthèse des statistiques en un parcours
+ * Compare avec les calculs d'origine de StatistiqueServiceImpl (sans base de données)
+ */
+public class TestSyntheseActivites {
+
+    public static void main(String[] args) {
+        System.out.println("=== TEST SyntheseActivites ===\n");
+
+        Random random = new Random(8);
+        int echecs = 0;
+        for (int essai = 0; essai < 500; essai++) {
+            LocalDateTime maintenant = LocalDateTime.of(2025, 3, 3, 0, 0)
+                    .plusDays(random.nextInt(7)).plusMinutes(random.nextInt(1440));
+            List<Activite> activites = genererActivites(random, random.nextInt(80), maintenant);
+            SyntheseActivites s = SyntheseActivites.calculer(activites, maintenant, 7);
+
+            LocalDateTime debutSemaine = maintenant.with(java.time.DayOfWeek.MONDAY).truncatedTo(ChronoUnit.DAYS);
+            List<Activite> semaine = activites.stream()
+                    .filter(a -> a.getHoraireDebut() != null)
+                    .filter(a -> !a.getHoraireDebut().isBefore(debutSemaine) && !a.getHoraireDebut().isAfter(maintenant))
+                    .collect(Collectors.toList());
+
+            boolean ok = s.getTempsParType().equals(tempsParType(semaine))
+                    && proches(s.getHeuresTravail(), heures(semaine, TypeActivite.Travail, TypeActivite.Etude,
+                            TypeActivite.Sport, TypeActivite.Loisirs))
+                    && proches(s.getHeuresRepos(), heures(semaine, TypeActivite.Repos))
+                    && s.getHeuresTravailConsecutivesMax() == consecutifMax(semaine)
+                    && s.getNombreActivites() == semaine.size()
+                    && s.getHeuresPlanifieesTotal() == Math.round(heures(semaine, TypeActivite.values()) * 100.0) / 100.0
+                    && s.getTauxRespectDeadlines() == tauxDeadlines(activites)
+                    && s.getNombreActivitesUrgentes() == urgentes(activites, maintenant, 7)
+                    && SyntheseActivites.heuresParType(minutesParType(semaine)).equals(s.getTempsParType())
+                    && SyntheseActivites.pourcentages(s.getTempsParType()).equals(s.getPourcentageParType());
+            if (!ok) {
+                echecs++;
+                System.out.println("✗ Essai " + essai + " divergent (" + activites.size() + " activités)");
+            }
+        }
+        System.out.println(echecs == 0 ? "✓ 500 historiques : mêmes mesures que les calculs d'origine"
+                : "✗ " + echecs + " historiques divergents");
+        System.out.println("\n=== FIN DES TESTS ===");
+    }
+
+    private static boolean proches(double a, double b) {
+        return Math.abs(a - b) < 1e-9;
+    }
+
+    // ========== CALCULS D'ORIGINE ==========
+
+    private static Map<String, Double> tempsParType(List<Activite> activites) {
+        Map<String, Double> temps = new HashMap<>();
+        for (Activite a : activites) {
+            if (a.getHoraireDebut() != null && a.getHoraireFin() != null) {
+                double duree = Duration.between(a.getHoraireDebut(), a.getHoraireFin()).toMinutes() / 60.0;
+                temps.merge(a.getTypeActivite().toString(), duree, Double::sum);
+            }
+        }
+        temps.replaceAll((k, v) -> Math.round(v * 100.0) / 100.0);
+        return temps;
+    }
+
+    /**
+     * Ce que renvoie ActiviteDAO.sommeMinutesParType (SUM(TIMESTAMPDIFF(MINUTE, ...)) GROUP BY type).
+     */
+    private static Map<TypeActivite, Long> minutesParType(List<Activite> activites) {
+        Map<TypeActivite, Long> minutes = new EnumMap<>(TypeActivite.class);
+        for (Activite a : activites) {
+            if (a.getHoraireDebut() != null && a.getHoraireFin() != null) {
+                minutes.merge(a.getTypeActivite(), Duration.between(a.getHoraireDebut(), a.getHoraireFin()).toMinutes(),
+                        Long::sum);
+            }
+        }
+        return minutes;
+    }
+
+    private static double heures(List<Activite> activites, TypeActivite... types) {
+        List<TypeActivite> retenus = List.of(types);
+        return activites.stream()
+                .filter(a -> a.getHoraireDebut() != null && a.getHoraireFin() != null)
+                .filter(a -> retenus.contains(a.getTypeActivite()))
+                .mapToDouble(a -> Duration.between(a.getHoraireDebut(), a.getHoraireFin()).toMinutes() / 60.0)
+                .sum();
+    }
+
+    private static double consecutifMax(List<Activite> semaine) {
+        List<Activite> travail = semaine.stream()
+                .filter(a -> a.getHoraireFin() != null)
+                .filter(a -> a.getTypeActivite() == TypeActivite.Travail || a.getTypeActivite() == TypeActivite.Etude)
+                .sorted(Comparator.comparing(Activite::getHoraireDebut))
+                .collect(Collectors.toList());
+        double max = 0.0;
+        double actuel = 0.0;
+        LocalDateTime finPrecedent = null;
+        for (Activite a : travail) {
+            double duree = Duration.between(a.getHoraireDebut(), a.getHoraireFin()).toMinutes() / 60.0;
+            if (finPrecedent == null || Duration.between(finPrecedent, a.getHoraireDebut()).toMinutes() <= 30) {
+                actuel += duree;
+            } else {
+                max = Math.max(max, actuel);
+                actuel = duree;
+            }
+            finPrecedent = a.getHoraireFin();
+        }
+        return Math.round(Math.max(max, actuel) * 100.0) / 100.0;
+    }
+
+    private static double tauxDeadlines(List<Activite> activites) {
+        List<Activite> avecDeadline = activites.stream().filter(a -> a.getDeadline() != null).collect(Collectors.toList());
+        if (avecDeadline.isEmpty()) {
+            return 100.0;
+        }
+        long respectees = avecDeadline.stream()
+                .filter(a -> a.getHoraireFin() != null && !a.getHoraireFin().isAfter(a.getDeadline())).count();
+        return Math.round((double) respectees / avecDeadline.size() * 10000.0) / 100.0;
+    }
+
+    private static int urgentes(List<Activite> activites, LocalDateTime maintenant, int jours) {
+        LocalDateTime limite = maintenant.plusDays(jours);
+        return (int) activites.stream()
+                .filter(a -> a.getDeadline() != null)
+                .filter(a -> a.getDeadline().isBefore(limite) && a.getDeadline().isAfter(maintenant))
+                .count();
+    }
+
+    private static List<Activite> genererActivites(Random random, int nombre, LocalDateTime maintenant) {
+        TypeActivite[] types = TypeActivite.values();
+        List<Activite> activites = new ArrayList<>();
+        for (int i = 0; i < nombre; i++) {
+            Activite a = new Activite();
+            a.setIdActivite((long) i + 1);
+            a.setTypeActivite(types[random.nextInt(types.length)]);
+            if (random.nextInt(15) != 0) {
+                LocalDateTime debut = maintenant.minusDays(10).plusMinutes(15L * random.nextInt(1_600));
+                a.setHoraireDebut(debut);
+                if (random.nextInt(15) != 0) {
+                    a.setHoraireFin(debut.plusMinutes(15 + 15L * random.nextInt(20)));
+                }
+            }
+            if (random.nextInt(4) != 0) {
+                a.setDeadline(maintenant.minusDays(5).plusHours(random.nextInt(400)));
+            }
+            activites.add(a);
+        }
+        return activites;
+    }
+}
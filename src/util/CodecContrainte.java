@@ -0,0 +1,181 @@
+package util;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lecture et écriture des colonnes JSON dates_specifiques et jours de la table
+ * contrainte, sans expression régulière.
+ *
+ * Format inchangé : tableau de chaînes ("2025-12-01" ou "MONDAY"), null pour
+ * une liste vide. La lecture parcourt le texte une fois et retient chaque
+ * chaîne entre guillemets, comme le faisait l'ancienne expression
+ * "([^"]*)" ; les valeurs invalides sont ignorées. Les dates au format
+ * yyyy-MM-dd sont décodées chiffre par chiffre, les jours comparés en place
+ * (aucune sous-chaîne créée).
+ */
+public final class CodecContrainte {
+
+    private static final DayOfWeek[] JOURS = DayOfWeek.values();
+    private static final String[] NOMS_JOURS = new String[JOURS.length];
+
+    static {
+        for (int i = 0; i < JOURS.length; i++) {
+            NOMS_JOURS[i] = JOURS[i].name();
+        }
+    }
+
+    private CodecContrainte() {
+    }
+
+    // ========== DATES SPÉCIFIQUES ==========
+
+    public static String datesVersJson(List<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(2 + dates.size() * 13);
+        sb.append('[');
+        boolean premier = true;
+        for (LocalDate date : dates) {
+            if (!premier) {
+                sb.append(',');
+            }
+            premier = false;
+            sb.append('"');
+            if (date == null) {
+                sb.append("null");
+            } else if (date.getYear() >= 0 && date.getYear() <= 9999) {
+                ajouterChiffres(sb, date.getYear(), 4);
+                sb.append('-');
+                ajouterChiffres(sb, date.getMonthValue(), 2);
+                sb.append('-');
+                ajouterChiffres(sb, date.getDayOfMonth(), 2);
+            } else {
+                sb.append(date);
+            }
+            sb.append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    public static List<LocalDate> lireDates(String json) {
+        List<LocalDate> dates = new ArrayList<>();
+        if (json == null) {
+            return dates;
+        }
+        int i = json.indexOf('"');
+        while (i >= 0) {
+            int fin = json.indexOf('"', i + 1);
+            if (fin < 0) {
+                break;
+            }
+            LocalDate date = date(json, i + 1, fin);
+            if (date != null) {
+                dates.add(date);
+            }
+            i = json.indexOf('"', fin + 1);
+        }
+        return dates;
+    }
+
+    // ========== JOURS DE SEMAINE ==========
+
+    public static String joursVersJson(List<DayOfWeek> jours) {
+        if (jours == null || jours.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(2 + jours.size() * 12);
+        sb.append('[');
+        boolean premier = true;
+        for (DayOfWeek jour : jours) {
+            if (!premier) {
+                sb.append(',');
+            }
+            premier = false;
+            sb.append('"').append(jour != null ? jour.name() : "null").append('"');
+        }
+        return sb.append(']').toString();
+    }
+
+    public static List<DayOfWeek> lireJours(String json) {
+        List<DayOfWeek> jours = new ArrayList<>();
+        if (json == null) {
+            return jours;
+        }
+        int i = json.indexOf('"');
+        while (i >= 0) {
+            int fin = json.indexOf('"', i + 1);
+            if (fin < 0) {
+                break;
+            }
+            DayOfWeek jour = jour(json, i + 1, fin);
+            if (jour != null) {
+                jours.add(jour);
+            }
+            i = json.indexOf('"', fin + 1);
+        }
+        return jours;
+    }
+
+    // ========== DÉCODAGE D'UNE VALEUR ==========
+
+    /**
+     * Date de json[debut, fin[, ou null si invalide.
+     */
+    private static LocalDate date(String json, int debut, int fin) {
+        if (fin - debut == 10 && json.charAt(debut + 4) == '-' && json.charAt(debut + 7) == '-') {
+            int annee = chiffres(json, debut, 4);
+            int mois = chiffres(json, debut + 5, 2);
+            int jour = chiffres(json, debut + 8, 2);
+            if (annee < 0 || mois < 0 || jour < 0) {
+                return null;
+            }
+            try {
+                return LocalDate.of(annee, mois, jour);
+            } catch (DateTimeException e) {
+                return null; // ex: 2025-02-30
+            }
+        }
+        // Années hors de 0000-9999 (+10000-01-01) : format ISO complet
+        try {
+            return LocalDate.parse(json.substring(debut, fin));
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static DayOfWeek jour(String json, int debut, int fin) {
+        int longueur = fin - debut;
+        for (int k = 0; k < JOURS.length; k++) {
+            if (NOMS_JOURS[k].length() == longueur && json.regionMatches(debut, NOMS_JOURS[k], 0, longueur)) {
+                return JOURS[k];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Entier de {@code nombre} chiffres décimaux à partir de {@code debut}, -1 si un caractère n'est pas un chiffre.
+     */
+    private static int chiffres(String texte, int debut, int nombre) {
+        int valeur = 0;
+        for (int i = debut; i < debut + nombre; i++) {
+            char c = texte.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            valeur = valeur * 10 + (c - '0');
+        }
+        return valeur;
+    }
+
+    private static void ajouterChiffres(StringBuilder sb, int valeur, int nombre) {
+        for (int diviseur = nombre == 4 ? 1000 : 10; diviseur > 0; diviseur /= 10) {
+            sb.append((char) ('0' + (valeur / diviseur) % 10));
+        }
+    }
+}
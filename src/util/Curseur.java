@@ -0,0 +1,89 @@
+package util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Jeton de continuation d'une pagination par clé (keyset) : la clé de tri de
+ * la dernière ligne d'une page (horaire, peut être null, et identifiant).
+ *
+ * La page suivante reprend strictement après cette clé au lieu de sauter N
+ * lignes (OFFSET) : son coût ne dépend pas du nombre de pages déjà lues.
+ * Le jeton est opaque pour le client (Base64 URL) ; un jeton illisible lève
+ * IllegalArgumentException.
+ */
+public final class Curseur {
+
+    private static final String VERSION = "1";
+    private static final char SEPARATEUR = '~';
+
+    private final LocalDateTime horaire;
+    private final long id;
+
+    public Curseur(LocalDateTime horaire, long id) {
+        this.horaire = horaire;
+        this.id = id;
+    }
+
+    /** Horaire de la dernière ligne lue (null : ligne sans horaire) */
+    public LocalDateTime getHoraire() {
+        return horaire;
+    }
+
+    /** Identifiant de la dernière ligne lue */
+    public long getId() {
+        return id;
+    }
+
+    // ========== JETON ==========
+
+    public String encoder() {
+        String texte = VERSION + SEPARATEUR + (horaire != null ? horaire.toString() : "") + SEPARATEUR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texte.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null si le jeton est absent ou vide (première page)
+     * @throws IllegalArgumentException si le jeton n'a pas été produit par {@link #encoder()}
+     */
+    public static Curseur decoder(String jeton) {
+        if (jeton == null || jeton.isEmpty()) {
+            return null;
+        }
+        try {
+            String texte = new String(Base64.getUrlDecoder().decode(jeton), StandardCharsets.UTF_8);
+            int premier = texte.indexOf(SEPARATEUR);
+            int second = texte.lastIndexOf(SEPARATEUR);
+            if (premier < 0 || second == premier || !VERSION.equals(texte.substring(0, premier))) {
+                throw new IllegalArgumentException("Curseur invalide");
+            }
+            String horaire = texte.substring(premier + 1, second);
+            return new Curseur(horaire.isEmpty() ? null : LocalDateTime.parse(horaire),
+                    Long.parseLong(texte.substring(second + 1)));
+        } catch (DateTimeException | IllegalArgumentException e) {
+            // NumberFormatException et erreurs Base64 comprises
+            throw new IllegalArgumentException("Curseur invalide", e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Curseur)) {
+            return false;
+        }
+        Curseur autre = (Curseur) o;
+        return id == autre.id && (horaire == null ? autre.horaire == null : horaire.equals(autre.horaire));
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(id) + (horaire != null ? horaire.hashCode() : 0);
+    }
+
+    @Override
+    public String toString() {
+        return "Curseur[" + horaire + ", " + id + "]";
+    }
+}
@@ -19,11 +19,14 @@ public class GsonConfig {
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_TIME;
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE; // ✅ AJOUTÉ
 
+    /** JSON indenté pour le debug (-Dplanner.json.pretty=true), compact sinon */
+    private static final boolean PRETTY = Boolean.getBoolean("planner.json.pretty");
+
     /**
      * Crée une instance Gson configurée avec les adaptateurs nécessaires
      */
     public static Gson createGson() {
-        return new GsonBuilder()
+        GsonBuilder builder = new GsonBuilder()
                 // Adaptateur pour LocalDateTime
                 .registerTypeAdapter(LocalDateTime.class,
                         (JsonSerializer<LocalDateTime>) (src, typeOfSrc, context) -> context
@@ -48,8 +51,11 @@ public class GsonConfig {
                         (JsonDeserializer<LocalDate>) (json, typeOfT, context) -> LocalDate.parse(json.getAsString(),
                                 DATE_FORMATTER))
 
-                .serializeNulls() // Inclure les champs null dans le JSON
-                .setPrettyPrinting() // Formater le JSON pour le debug
-                .create();
+                .serializeNulls(); // Inclure les champs null dans le JSON
+
+        if (PRETTY) {
+            builder.setPrettyPrinting(); // Formater le JSON pour le debug
+        }
+        return builder.create();
     }
 }
\ No newline at end of file
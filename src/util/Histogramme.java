@@ -0,0 +1,149 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées en nanosecondes, à la manière de HdrHistogram.
+ *
+ * - Classes log-linéaires : valeurs exactes jusqu'à 63 ns, puis 32 classes
+ *   par puissance de deux (erreur relative ≤ 3,2 %), jusqu'à 2^40 ns
+ *   (≈ 18 min, les valeurs au-delà sont comptées dans la dernière classe)
+ * - Sans verrou : chaque thread incrémente les compteurs d'une bande
+ *   (choisie par son identifiant), les bandes ne sont additionnées qu'à la
+ *   lecture
+ */
+public final class Histogramme {
+
+    private static final int BITS_SOUS_CLASSES = 5;
+    private static final int SOUS_CLASSES = 1 << BITS_SOUS_CLASSES;
+    private static final int EXPOSANT_MAX = 40;
+    static final int CLASSES = (EXPOSANT_MAX - BITS_SOUS_CLASSES + 2) * SOUS_CLASSES;
+
+    /** Puissance de deux ≥ nombre de processeurs, au plus 16 */
+    private static final int BANDES = Math.min(16,
+            Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final AtomicLongArray[] bandes = new AtomicLongArray[BANDES];
+    private final LongAdder somme = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public Histogramme() {
+        for (int i = 0; i < BANDES; i++) {
+            bandes[i] = new AtomicLongArray(CLASSES);
+        }
+    }
+
+    // ========== ENREGISTREMENT ==========
+
+    public void enregistrer(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        bandes[(int) Thread.currentThread().threadId() & (BANDES - 1)].getAndIncrement(classe(nanos));
+        somme.add(nanos);
+        long m;
+        while (nanos > (m = max.get())) {
+            if (max.compareAndSet(m, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Enregistre la durée écoulée depuis {@code debutNanos} (System.nanoTime()).
+     */
+    public void depuis(long debutNanos) {
+        enregistrer(System.nanoTime() - debutNanos);
+    }
+
+    static int classe(long valeur) {
+        if (valeur < 2 * SOUS_CLASSES) {
+            return (int) valeur;
+        }
+        int exposant = 63 - Long.numberOfLeadingZeros(valeur);
+        if (exposant > EXPOSANT_MAX) {
+            return CLASSES - 1;
+        }
+        int decalage = exposant - BITS_SOUS_CLASSES;
+        return (decalage + 1) * SOUS_CLASSES + (int) ((valeur >>> decalage) - SOUS_CLASSES);
+    }
+
+    /**
+     * Plus grande valeur comptée dans la classe.
+     */
+    static long borneHaute(int classe) {
+        if (classe < 2 * SOUS_CLASSES) {
+            return classe;
+        }
+        int decalage = classe / SOUS_CLASSES - 1;
+        long sousClasse = classe % SOUS_CLASSES;
+        return ((SOUS_CLASSES + sousClasse + 1) << decalage) - 1;
+    }
+
+    // ========== LECTURE ==========
+
+    /**
+     * Copie cohérente des classes à un instant donné (les enregistrements
+     * concurrents peuvent y figurer ou non).
+     */
+    public Instantane instantane() {
+        long[] comptes = new long[CLASSES];
+        long total = 0;
+        for (AtomicLongArray bande : bandes) {
+            for (int i = 0; i < CLASSES; i++) {
+                long n = bande.get(i);
+                comptes[i] += n;
+                total += n;
+            }
+        }
+        return new Instantane(comptes, total, somme.sum(), max.get());
+    }
+
+    public static final class Instantane {
+        private final long[] comptes;
+        private final long total;
+        private final long somme;
+        private final long max;
+
+        private Instantane(long[] comptes, long total, long somme, long max) {
+            this.comptes = comptes;
+            this.total = total;
+            this.somme = somme;
+            this.max = max;
+        }
+
+        /**
+         * @param q entre 0 et 1, ex. 0.999
+         * @return la valeur en nanosecondes sous laquelle se trouvent au moins
+         *         q * total mesures (0 si l'histogramme est vide)
+         */
+        public long quantile(double q) {
+            if (total == 0) {
+                return 0;
+            }
+            long rang = Math.max(1, (long) Math.ceil(q * total));
+            long cumul = 0;
+            for (int i = 0; i < comptes.length; i++) {
+                cumul += comptes[i];
+                if (cumul >= rang) {
+                    return Math.min(borneHaute(i), max);
+                }
+            }
+            return max;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getSommeNanos() {
+            return somme;
+        }
+
+        public long getMaxNanos() {
+            return max;
+        }
+    }
+}
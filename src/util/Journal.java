@@ -0,0 +1,402 @@
+package util;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Journal de l'application, à la place de System.out / System.err et de
+ * printStackTrace.
+ *
+ * - Niveaux DEBUG < INFO < ALERTE < ERREUR ; seuil global planner.log.niveau
+ *   (INFO par défaut), surchargeable par classe avec
+ *   planner.log.niveau.NomSimple (ex. -Dplanner.log.niveau.ActiviteDAOImpl=DEBUG)
+ * - Construction paresseuse : un message désactivé ne coûte qu'une
+ *   comparaison d'entiers. Les variantes {@code (modele, a, b)} remplacent
+ *   chaque "{}" par un argument ; les variantes {@code Supplier} ne sont
+ *   évaluées que si le niveau est actif
+ * - Écriture asynchrone : les messages passent par un anneau borné
+ *   (planner.log.tampon cases) vidé par lots par un seul thread, le thread
+ *   appelant ne prend aucun verrou ni n'attend la console. Anneau plein : les messages sont perdus et comptés,
+ *   sauf les erreurs, écrites directement. planner.log.async=false écrit
+ *   directement depuis le thread appelant
+ *
+ * Format : "2025-03-03 09:30:00.123 INFO   [http-12] EmbeddedServer - message"
+ */
+public final class Journal {
+
+    public enum Niveau {
+        DEBUG, INFO, ALERTE, ERREUR
+    }
+
+    private static volatile int seuilGlobal = lireNiveau(System.getProperty("planner.log.niveau"), Niveau.INFO)
+            .ordinal();
+    private static volatile PrintStream sortie = System.out;
+    private static final Anneau anneau = Boolean.parseBoolean(System.getProperty("planner.log.async", "true"))
+            ? new Anneau(Integer.getInteger("planner.log.tampon", 8192))
+            : null;
+
+    private static final DateTimeFormatter HORODATAGE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS")
+            .withZone(ZoneId.systemDefault());
+
+    private final String nom;
+    /** Seuil propre à cette classe, -1 si elle suit le seuil global */
+    private final int seuil;
+
+    private Journal(String nom, int seuil) {
+        this.nom = nom;
+        this.seuil = seuil;
+    }
+
+    public static Journal pour(Class<?> classe) {
+        String nom = classe.getSimpleName();
+        Niveau surcharge = lireNiveau(System.getProperty("planner.log.niveau." + nom), null);
+        return new Journal(nom, surcharge != null ? surcharge.ordinal() : -1);
+    }
+
+    private static Niveau lireNiveau(String valeur, Niveau defaut) {
+        if (valeur == null || valeur.isBlank()) {
+            return defaut;
+        }
+        try {
+            return Niveau.valueOf(valeur.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Niveau de journal inconnu: " + valeur + " (DEBUG, INFO, ALERTE ou ERREUR)");
+            return defaut;
+        }
+    }
+
+    // ========== NIVEAUX ==========
+
+    public boolean estActif(Niveau niveau) {
+        return niveau.ordinal() >= (seuil >= 0 ? seuil : seuilGlobal);
+    }
+
+    public boolean estDebug() {
+        return estActif(Niveau.DEBUG);
+    }
+
+    /**
+     * Change le seuil global (les surcharges par classe restent prioritaires).
+     */
+    public static void setNiveau(Niveau niveau) {
+        seuilGlobal = niveau.ordinal();
+    }
+
+    // ========== DEBUG ==========
+
+    public void debug(String message) {
+        if (estActif(Niveau.DEBUG)) {
+            ecrire(Niveau.DEBUG, message, null);
+        }
+    }
+
+    public void debug(Supplier<String> message) {
+        if (estActif(Niveau.DEBUG)) {
+            ecrire(Niveau.DEBUG, message.get(), null);
+        }
+    }
+
+    public void debug(String modele, Object a) {
+        if (estActif(Niveau.DEBUG)) {
+            ecrire(Niveau.DEBUG, formater(modele, a, null, null), null);
+        }
+    }
+
+    public void debug(String modele, Object a, Object b) {
+        if (estActif(Niveau.DEBUG)) {
+            ecrire(Niveau.DEBUG, formater(modele, a, b, null), null);
+        }
+    }
+
+    public void debug(String modele, Object a, Object b, Object c) {
+        if (estActif(Niveau.DEBUG)) {
+            ecrire(Niveau.DEBUG, formater(modele, a, b, c), null);
+        }
+    }
+
+    // ========== INFO ==========
+
+    public void info(String message) {
+        if (estActif(Niveau.INFO)) {
+            ecrire(Niveau.INFO, message, null);
+        }
+    }
+
+    public void info(Supplier<String> message) {
+        if (estActif(Niveau.INFO)) {
+            ecrire(Niveau.INFO, message.get(), null);
+        }
+    }
+
+    public void info(String modele, Object a) {
+        if (estActif(Niveau.INFO)) {
+            ecrire(Niveau.INFO, formater(modele, a, null, null), null);
+        }
+    }
+
+    public void info(String modele, Object a, Object b) {
+        if (estActif(Niveau.INFO)) {
+            ecrire(Niveau.INFO, formater(modele, a, b, null), null);
+        }
+    }
+
+    public void info(String modele, Object a, Object b, Object c) {
+        if (estActif(Niveau.INFO)) {
+            ecrire(Niveau.INFO, formater(modele, a, b, c), null);
+        }
+    }
+
+    // ========== ALERTE / ERREUR ==========
+
+    public void alerte(String message) {
+        if (estActif(Niveau.ALERTE)) {
+            ecrire(Niveau.ALERTE, message, null);
+        }
+    }
+
+    public void alerte(String modele, Object a) {
+        if (estActif(Niveau.ALERTE)) {
+            ecrire(Niveau.ALERTE, formater(modele, a, null, null), null);
+        }
+    }
+
+    public void alerte(String message, Throwable erreur) {
+        if (estActif(Niveau.ALERTE)) {
+            ecrire(Niveau.ALERTE, message, erreur);
+        }
+    }
+
+    public void erreur(String message) {
+        if (estActif(Niveau.ERREUR)) {
+            ecrire(Niveau.ERREUR, message, null);
+        }
+    }
+
+    /**
+     * Message suivi de l'exception et de sa pile d'appel.
+     */
+    public void erreur(String message, Throwable erreur) {
+        if (estActif(Niveau.ERREUR)) {
+            ecrire(Niveau.ERREUR, message, erreur);
+        }
+    }
+
+    // ========== ÉCRITURE ==========
+
+    private static String formater(String modele, Object a, Object b, Object c) {
+        StringBuilder sb = new StringBuilder(modele.length() + 32);
+        int n = 0;
+        int debut = 0;
+        int position;
+        while ((position = modele.indexOf("{}", debut)) >= 0 && n < 3) {
+            sb.append(modele, debut, position);
+            sb.append(n == 0 ? a : n == 1 ? b : c);
+            n++;
+            debut = position + 2;
+        }
+        return sb.append(modele, debut, modele.length()).toString();
+    }
+
+    private void ecrire(Niveau niveau, String message, Throwable erreur) {
+        long horaire = System.currentTimeMillis();
+        String thread = Thread.currentThread().getName();
+        if (anneau == null || !anneau.publier(horaire, niveau, nom, thread, message, erreur)) {
+            if (anneau != null && niveau != Niveau.ERREUR) {
+                anneau.perdus.increment(); // anneau plein
+                return;
+            }
+            StringBuilder ligne = new StringBuilder(128);
+            formaterLigne(ligne, horaire, niveau, nom, thread, message, erreur);
+            PrintStream s = sortie;
+            synchronized (s) {
+                s.print(ligne);
+                s.flush();
+            }
+        }
+    }
+
+    private static void formaterLigne(StringBuilder sb, long horaire, Niveau niveau, String nom, String thread,
+            String message, Throwable erreur) {
+        HORODATAGE.formatTo(Instant.ofEpochMilli(horaire), sb);
+        sb.append(' ').append(niveau.name());
+        for (int i = niveau.name().length(); i < 7; i++) {
+            sb.append(' ');
+        }
+        sb.append('[').append(thread.isEmpty() ? "virtuel" : thread).append("] ").append(nom).append(" - ")
+                .append(message).append(System.lineSeparator());
+        if (erreur != null) {
+            StringWriter pile = new StringWriter();
+            erreur.printStackTrace(new PrintWriter(pile));
+            sb.append(pile);
+        }
+    }
+
+    // ========== SORTIE ==========
+
+    /**
+     * Redirige le journal (tests). Les messages encore dans l'anneau partent
+     * vers la nouvelle sortie.
+     */
+    public static void setSortie(PrintStream nouvelle) {
+        sortie = nouvelle;
+    }
+
+    /**
+     * Attend que les messages publiés avant l'appel soient écrits (au plus
+     * {@code delaiMs}).
+     *
+     * @return false si le délai a expiré
+     */
+    public static boolean vider(long delaiMs) {
+        return anneau == null || anneau.vider(delaiMs);
+    }
+
+    /**
+     * Messages perdus parce que l'anneau était plein.
+     */
+    public static long getPerdus() {
+        return anneau == null ? 0 : anneau.perdus.sum();
+    }
+
+    /**
+     * Anneau borné multi-producteurs / un consommateur. Chaque case porte un
+     * numéro de séquence : un producteur réserve une position par CAS, remplit
+     * la case puis la publie en avançant son numéro ; le consommateur lit les
+     * cases publiées dans l'ordre des positions.
+     */
+    private static final class Anneau {
+
+        private static final class Case {
+            volatile long sequence;
+            long horaire;
+            Niveau niveau;
+            String nom;
+            String thread;
+            String message;
+            Throwable erreur;
+        }
+
+        private static final int LOT = 8192;
+
+        private final Case[] cases;
+        private final int masque;
+        private final AtomicLong ecriture = new AtomicLong();
+        /** Position de la prochaine case à lire (modifiée par le consommateur seul) */
+        private volatile long lecture;
+        private volatile boolean endormi;
+        private final Thread consommateur;
+        final LongAdder perdus = new LongAdder();
+
+        Anneau(int capacite) {
+            int taille = Integer.highestOneBit(Math.max(64, capacite - 1)) << 1;
+            this.cases = new Case[taille];
+            this.masque = taille - 1;
+            for (int i = 0; i < taille; i++) {
+                cases[i] = new Case();
+                cases[i].sequence = i;
+            }
+            this.consommateur = new Thread(this::consommer, "journal");
+            consommateur.setDaemon(true);
+            consommateur.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> vider(2_000L), "journal-arret"));
+        }
+
+        /**
+         * @return false si l'anneau est plein
+         */
+        boolean publier(long horaire, Niveau niveau, String nom, String thread, String message, Throwable erreur) {
+            Case c;
+            long position;
+            while (true) {
+                position = ecriture.get();
+                c = cases[(int) position & masque];
+                long sequence = c.sequence;
+                if (sequence == position) {
+                    if (ecriture.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                } else if (sequence < position) {
+                    return false;
+                }
+                // sinon : un autre producteur a pris la position, on relit
+            }
+            c.horaire = horaire;
+            c.niveau = niveau;
+            c.nom = nom;
+            c.thread = thread;
+            c.message = message;
+            c.erreur = erreur;
+            c.sequence = position + 1;
+            if (endormi) {
+                LockSupport.unpark(consommateur);
+            }
+            return true;
+        }
+
+        /**
+         * Les lignes disponibles sont regroupées et écrites en un seul appel,
+         * au plus {@link #LOT} caractères à la fois.
+         */
+        private void consommer() {
+            StringBuilder lot = new StringBuilder(LOT + 512);
+            long position = lecture;
+            while (true) {
+                Case c = cases[(int) position & masque];
+                if (c.sequence == position + 1) {
+                    formaterLigne(lot, c.horaire, c.niveau, c.nom, c.thread, c.message, c.erreur);
+                    c.message = null;
+                    c.erreur = null;
+                    c.sequence = position + cases.length;
+                    position++;
+                    if (lot.length() >= LOT || cases[(int) position & masque].sequence != position + 1) {
+                        ecrire(lot);
+                        lecture = position;
+                    }
+                    continue;
+                }
+                endormi = true;
+                if (cases[(int) position & masque].sequence != position + 1) {
+                    LockSupport.parkNanos(this, 100_000_000L);
+                }
+                endormi = false;
+            }
+        }
+
+        private static void ecrire(StringBuilder lot) {
+            try {
+                PrintStream s = sortie;
+                s.append(lot);
+                s.flush();
+            } catch (RuntimeException e) {
+                // la sortie ne doit pas arrêter le thread du journal
+            }
+            if (lot.capacity() > 16 * LOT) {
+                lot.setLength(LOT);
+                lot.trimToSize();
+            }
+            lot.setLength(0);
+        }
+
+        boolean vider(long delaiMs) {
+            long cible = ecriture.get();
+            long limite = System.nanoTime() + delaiMs * 1_000_000L;
+            while (lecture < cible) {
+                if (System.nanoTime() > limite) {
+                    return false;
+                }
+                LockSupport.unpark(consommateur);
+                LockSupport.parkNanos(200_000L);
+            }
+            return true;
+        }
+    }
+}
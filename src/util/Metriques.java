@@ -0,0 +1,246 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Métriques de l'application, exposées par /api/metrics au format texte de
+ * Prometheus (version 0.0.4).
+ *
+ * - Compteurs : {@link LongAdder}, ou total tenu ailleurs et lu au moment de
+ *   l'exposition
+ * - Durées : {@link Histogramme} (p50, p99, p999, somme et nombre)
+ * - Jauges : valeur lue au moment de l'exposition
+ *
+ * Les séries sont créées une fois (au démarrage ou au premier usage) et
+ * gardées par l'appelant : l'enregistrement ne consulte pas le registre et
+ * ne prend aucun verrou.
+ */
+public final class Metriques {
+
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    private enum Type {
+        COUNTER, SUMMARY, GAUGE
+    }
+
+    private static final class Famille {
+        final String nom;
+        final String aide;
+        final Type type;
+        final Map<String, Object> series = new ConcurrentHashMap<>();
+
+        Famille(String nom, String aide, Type type) {
+            this.nom = nom;
+            this.aide = aide;
+            this.type = type;
+        }
+    }
+
+    private static final Map<String, Famille> familles = new ConcurrentHashMap<>();
+
+    // ========== OPTIMISEUR ==========
+    private static final LongAdder iterationsOptimiseur = compteur("planner_optimiseur_iterations_total",
+            "Itérations de recuit exécutées");
+    private static final LongAdder acceptationsOptimiseur = compteur("planner_optimiseur_acceptations_total",
+            "Voisins acceptés par le recuit");
+    private static final LongAdder dureeOptimiseurNanos = new LongAdder();
+
+    static {
+        jauge("planner_optimiseur_iterations_par_seconde", "Itérations par seconde et par chaîne (depuis le démarrage)",
+                () -> {
+                    long nanos = dureeOptimiseurNanos.sum();
+                    return nanos == 0 ? 0 : iterationsOptimiseur.sum() * 1e9 / nanos;
+                });
+        jauge("planner_optimiseur_taux_acceptation", "Part des voisins acceptés (depuis le démarrage)", () -> {
+            long iterations = iterationsOptimiseur.sum();
+            return iterations == 0 ? 0 : (double) acceptationsOptimiseur.sum() / iterations;
+        });
+    }
+
+    private Metriques() {
+    }
+
+    // ========== ENREGISTREMENT DES SÉRIES ==========
+
+    /**
+     * @param etiquettes paires nom, valeur (ex. "methode", "GET")
+     * @throws IllegalArgumentException si le nom est déjà utilisé par une
+     *         métrique d'un autre type
+     */
+    public static LongAdder compteur(String nom, String aide, String... etiquettes) {
+        Object serie = serie(nom, aide, Type.COUNTER, etiquettes, LongAdder::new);
+        if (!(serie instanceof LongAdder)) {
+            throw new IllegalArgumentException("Compteur " + nom + " déjà déclaré comme compteur lu");
+        }
+        return (LongAdder) serie;
+    }
+
+    /**
+     * Compteur dont le total est tenu par une autre classe (pool, exécuteur...)
+     * et lu à chaque exposition ; la valeur ne doit jamais diminuer.
+     */
+    public static void compteurLu(String nom, String aide, DoubleSupplier valeur, String... etiquettes) {
+        famille(nom, aide, Type.COUNTER).series.put(etiquettes(etiquettes), valeur);
+    }
+
+    public static Histogramme histogramme(String nom, String aide, String... etiquettes) {
+        return (Histogramme) serie(nom, aide, Type.SUMMARY, etiquettes, Histogramme::new);
+    }
+
+    /**
+     * Jauge lue à chaque exposition ; remplace une jauge de mêmes étiquettes.
+     */
+    public static void jauge(String nom, String aide, DoubleSupplier valeur, String... etiquettes) {
+        famille(nom, aide, Type.GAUGE).series.put(etiquettes(etiquettes), valeur);
+    }
+
+    private static Object serie(String nom, String aide, Type type, String[] etiquettes,
+            Supplier<Object> creer) {
+        return famille(nom, aide, type).series.computeIfAbsent(etiquettes(etiquettes), e -> creer.get());
+    }
+
+    private static Famille famille(String nom, String aide, Type type) {
+        Famille famille = familles.computeIfAbsent(nom, n -> new Famille(n, aide, type));
+        if (famille.type != type) {
+            throw new IllegalArgumentException("Métrique " + nom + " déjà déclarée comme " + famille.type);
+        }
+        return famille;
+    }
+
+    private static String etiquettes(String[] paires) {
+        if (paires.length % 2 != 0) {
+            throw new IllegalArgumentException("Étiquettes attendues par paires nom, valeur");
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < paires.length; i += 2) {
+            sb.append(sb.length() == 0 ? "" : ",").append(paires[i]).append("=\"");
+            String valeur = paires[i + 1] != null ? paires[i + 1] : "";
+            for (int k = 0; k < valeur.length(); k++) {
+                char c = valeur.charAt(k);
+                if (c == '\\' || c == '"') {
+                    sb.append('\\').append(c);
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else {
+                    sb.append(c);
+                }
+            }
+            sb.append('"');
+        }
+        return sb.toString();
+    }
+
+    // ========== OPTIMISEUR ==========
+
+    /**
+     * Un bloc d'itérations d'une chaîne de recuit.
+     */
+    public static void enregistrerOptimisation(long iterations, long acceptations, long dureeNanos) {
+        iterationsOptimiseur.add(iterations);
+        acceptationsOptimiseur.add(acceptations);
+        dureeOptimiseurNanos.add(dureeNanos);
+    }
+
+    // ========== DAO ==========
+
+    /**
+     * Enveloppe un DAO : chaque méthode de l'interface est chronométrée dans
+     * planner_dao_duree_secondes{dao, methode}. Les séries sont créées ici,
+     * une par méthode.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T instrumenter(Class<T> type, T cible) {
+        Map<Method, Histogramme> parMethode = new HashMap<>();
+        for (Method methode : type.getMethods()) {
+            parMethode.put(methode, histogramme("planner_dao_duree_secondes", "Durée des méthodes des DAO",
+                    "dao", type.getSimpleName(), "methode", methode.getName()));
+        }
+        InvocationHandler chronometre = (proxy, methode, args) -> {
+            Histogramme histogramme = parMethode.get(methode);
+            long debut = System.nanoTime();
+            try {
+                return methode.invoke(cible, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (histogramme != null) {
+                    histogramme.depuis(debut);
+                }
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, chronometre);
+    }
+
+    // ========== EXPOSITION ==========
+
+    /**
+     * Toutes les métriques au format texte de Prometheus, triées par nom puis
+     * par étiquettes. Durées en secondes.
+     */
+    public static String exposer() {
+        StringBuilder sb = new StringBuilder(16 * 1024);
+        for (Famille famille : new TreeMap<>(familles).values()) {
+            Map<String, Object> series = new TreeMap<>(famille.series);
+            if (series.isEmpty()) {
+                continue;
+            }
+            sb.append("# HELP ").append(famille.nom).append(' ').append(famille.aide).append('\n');
+            sb.append("# TYPE ").append(famille.nom).append(' ')
+                    .append(famille.type.name().toLowerCase(Locale.ROOT)).append('\n');
+            for (Map.Entry<String, Object> serie : series.entrySet()) {
+                String etiquettes = serie.getKey();
+                switch (famille.type) {
+                    case COUNTER:
+                        Object total = serie.getValue();
+                        ligne(sb, famille.nom, etiquettes, null, total instanceof LongAdder
+                                ? ((LongAdder) total).sum()
+                                : ((DoubleSupplier) total).getAsDouble());
+                        break;
+                    case GAUGE:
+                        ligne(sb, famille.nom, etiquettes, null, ((DoubleSupplier) serie.getValue()).getAsDouble());
+                        break;
+                    default:
+                        Histogramme.Instantane h = ((Histogramme) serie.getValue()).instantane();
+                        for (double q : QUANTILES) {
+                            ligne(sb, famille.nom, etiquettes, "quantile=\"" + q + "\"", h.quantile(q) / 1e9);
+                        }
+                        ligne(sb, famille.nom + "_sum", etiquettes, null, h.getSommeNanos() / 1e9);
+                        ligne(sb, famille.nom + "_count", etiquettes, null, h.getTotal());
+                        break;
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void ligne(StringBuilder sb, String nom, String etiquettes, String supplementaire, double valeur) {
+        sb.append(nom);
+        if (!etiquettes.isEmpty() || supplementaire != null) {
+            sb.append('{').append(etiquettes);
+            if (supplementaire != null) {
+                sb.append(etiquettes.isEmpty() ? "" : ",").append(supplementaire);
+            }
+            sb.append('}');
+        }
+        sb.append(' ');
+        if (Double.isNaN(valeur)) {
+            sb.append("NaN");
+        } else if (valeur == Math.rint(valeur) && Math.abs(valeur) < 1e15) {
+            sb.append((long) valeur);
+        } else {
+            sb.append(valeur);
+        }
+        sb.append('\n');
+    }
+}
@@ -0,0 +1,66 @@
+package util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une liste paginée par clé : les éléments et le jeton de la page
+ * suivante (null sur la dernière page).
+ *
+ * Taille par défaut planner.pagination.defaut, plafonnée à
+ * planner.pagination.max quelle que soit la taille demandée.
+ */
+public final class Page<T> {
+
+    public static final int TAILLE_DEFAUT = Math.max(1, Integer.getInteger("planner.pagination.defaut", 50));
+    public static final int TAILLE_MAX = Math.max(TAILLE_DEFAUT, Integer.getInteger("planner.pagination.max", 200));
+
+    private final List<T> elements;
+    private final String curseurSuivant;
+
+    public Page(List<T> elements, String curseurSuivant) {
+        this.elements = elements;
+        this.curseurSuivant = curseurSuivant;
+    }
+
+    public static <T> Page<T> vide() {
+        return new Page<>(Collections.emptyList(), null);
+    }
+
+    /**
+     * Page construite depuis une lecture de taille + 1 lignes au plus : la
+     * ligne en trop indique seulement qu'une page suivante existe.
+     *
+     * @param cle clé de tri d'un élément, pour le jeton de la page suivante
+     */
+    public static <T> Page<T> depuisLecture(List<T> lues, int taille, Function<T, Curseur> cle) {
+        if (lues.size() <= taille) {
+            return new Page<>(lues, null);
+        }
+        List<T> elements = lues.subList(0, taille);
+        return new Page<>(elements, cle.apply(elements.get(taille - 1)).encoder());
+    }
+
+    /**
+     * Taille de page effective : défaut si absente, bornée entre 1 et TAILLE_MAX.
+     */
+    public static int taille(Integer demandee) {
+        if (demandee == null) {
+            return TAILLE_DEFAUT;
+        }
+        return Math.max(1, Math.min(TAILLE_MAX, demandee));
+    }
+
+    public List<T> getElements() {
+        return elements;
+    }
+
+    public String getCurseurSuivant() {
+        return curseurSuivant;
+    }
+
+    public boolean aSuite() {
+        return curseurSuivant != null;
+    }
+}
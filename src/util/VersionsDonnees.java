@@ -0,0 +1,58 @@
+package util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numéro de version des données de chaque utilisateur (activités, contraintes,
+ * conflits), incrémenté par les services après chaque écriture réussie.
+ *
+ * Sert à savoir sans lire la base si une réponse calculée plus tôt est encore
+ * à jour. Une écriture dont l'utilisateur n'est pas connu (conflit désigné
+ * par son seul identifiant) incrémente la version de tous les utilisateurs.
+ * La version comprend l'instant de démarrage : les numéros repartent de zéro
+ * à chaque lancement sans jamais reprendre une version déjà donnée.
+ */
+public final class VersionsDonnees {
+
+    private static final VersionsDonnees INSTANCE = new VersionsDonnees();
+
+    private final String demarrage = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final AtomicLong globale = new AtomicLong();
+
+    private VersionsDonnees() {
+    }
+
+    public static VersionsDonnees getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Les données de l'utilisateur ont changé (null : utilisateur inconnu).
+     */
+    public void modifie(Long idUtilisateur) {
+        if (idUtilisateur == null) {
+            toutModifie();
+            return;
+        }
+        versions.computeIfAbsent(idUtilisateur, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    public void modifie(int idUtilisateur) {
+        modifie((long) idUtilisateur);
+    }
+
+    public void toutModifie() {
+        globale.incrementAndGet();
+    }
+
+    /**
+     * Version courante des données de l'utilisateur ; change à chaque écriture.
+     */
+    public String version(Long idUtilisateur) {
+        AtomicLong version = versions.get(idUtilisateur);
+        return demarrage + "." + globale.get() + "." + (version != null ? version.get() : 0L);
+    }
+}